@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.benchmarks;
+
+import org.apache.tomcat.jdbc.pool.PoolProperties;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
+import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderServiceImpl;
+import org.wso2.carbon.policy.mgt.core.dao.PolicyManagementDAOFactory;
+import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bootstraps the device and policy management cores on top of an embedded H2 database, the same way the
+ * functional tests do, so that the hot paths can be measured without a running server.
+ */
+public class BenchmarkEnvironment {
+
+    public static final int TENANT_ID = MultitenantConstants.SUPER_TENANT_ID;
+
+    private static final String SCHEMA_SCRIPT = "dbscripts/h2.sql";
+    private static final String DB_URL = "jdbc:h2:mem:cdm-benchmark-db-%d;DB_CLOSE_DELAY=-1";
+    private static final String DB_DRIVER = "org.h2.Driver";
+    private static final String DB_USER = "wso2carbon";
+    private static final String DB_PASSWORD = "wso2carbon";
+    private static final String CARBON_HOME = "carbon.home";
+    private static final String[] CARBON_HOME_LOCATIONS = {
+            "../../policy-mgt/org.wso2.carbon.policy.mgt.core/src/test/resources/carbon-home",
+            "components/policy-mgt/org.wso2.carbon.policy.mgt.core/src/test/resources/carbon-home"};
+
+    private static final AtomicInteger databaseCount = new AtomicInteger();
+
+    private BenchmarkEnvironment() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Creates a fresh, empty database and points all the DAO factories at it. Every call gets its own database so
+     * that state seeded by one benchmark never leaks into another, even when benchmarks are run without forking.
+     */
+    public static DataSource init() throws SQLException, IOException {
+        initCarbonHome();
+        DataSource dataSource = createDataSource(String.format(DB_URL, databaseCount.incrementAndGet()));
+        createSchema(dataSource);
+        DeviceManagementDAOFactory.init(dataSource);
+        OperationManagementDAOFactory.init(dataSource);
+        PolicyManagementDAOFactory.init(dataSource);
+        PolicyManagementDataHolder.getInstance().setDeviceManagementService(new DeviceManagementProviderServiceImpl());
+        initTenant();
+        return dataSource;
+    }
+
+    /**
+     * Carbon context is thread local, hence this has to be invoked on each of the threads that run a benchmark.
+     */
+    public static void initTenant() {
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(TENANT_ID);
+    }
+
+    private static void initCarbonHome() {
+        if (System.getProperty(CARBON_HOME) != null) {
+            return;
+        }
+        for (String location : CARBON_HOME_LOCATIONS) {
+            File file = new File(location);
+            if (file.exists()) {
+                System.setProperty(CARBON_HOME, file.getAbsolutePath());
+                return;
+            }
+        }
+    }
+
+    private static DataSource createDataSource(String url) {
+        PoolProperties properties = new PoolProperties();
+        properties.setUrl(url);
+        properties.setDriverClassName(DB_DRIVER);
+        properties.setUsername(DB_USER);
+        properties.setPassword(DB_PASSWORD);
+        return new org.apache.tomcat.jdbc.pool.DataSource(properties);
+    }
+
+    private static void createSchema(DataSource dataSource) throws SQLException, IOException {
+        Connection conn = null;
+        Statement stmt = null;
+        try {
+            conn = dataSource.getConnection();
+            stmt = conn.createStatement();
+            stmt.execute(readSchemaScript());
+        } finally {
+            if (stmt != null) {
+                stmt.close();
+            }
+            if (conn != null) {
+                conn.close();
+            }
+        }
+    }
+
+    private static String readSchemaScript() throws IOException {
+        InputStream in = BenchmarkEnvironment.class.getClassLoader().getResourceAsStream(SCHEMA_SCRIPT);
+        if (in == null) {
+            throw new IOException("Database script '" + SCHEMA_SCRIPT + "' is not found in the classpath");
+        }
+        Reader reader = new InputStreamReader(in, "UTF-8");
+        try {
+            StringBuilder script = new StringBuilder();
+            char[] buffer = new char[4096];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                script.append(buffer, 0, read);
+            }
+            return script.toString();
+        } finally {
+            reader.close();
+        }
+    }
+
+}
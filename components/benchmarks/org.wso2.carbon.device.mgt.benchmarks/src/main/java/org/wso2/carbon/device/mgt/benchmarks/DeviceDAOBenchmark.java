@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.core.dao.DeviceDAO;
+import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
+import org.wso2.carbon.device.mgt.core.dto.DeviceType;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the device lookups of {@link DeviceDAO} that sit underneath most of the device management service calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DeviceDAOBenchmark {
+
+    @Param({"1000", "10000"})
+    private int deviceCount;
+
+    @Param({"100"})
+    private int pageSize;
+
+    private DeviceDAO deviceDAO;
+    private List<DeviceIdentifier> deviceIdentifiers;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkEnvironment.init();
+        DeviceType deviceType = FleetGenerator.addDeviceType();
+        deviceIdentifiers = FleetGenerator.addDevices(deviceType, deviceCount);
+        deviceDAO = DeviceManagementDAOFactory.getDeviceDAO();
+    }
+
+    @Benchmark
+    public Device getDevice() throws Exception {
+        DeviceIdentifier deviceIdentifier = deviceIdentifiers.get(ThreadLocalRandom.current().nextInt(deviceCount));
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            return deviceDAO.getDevice(deviceIdentifier, BenchmarkEnvironment.TENANT_ID);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
+    @Benchmark
+    public List<Device> getDevicesOfType() throws Exception {
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            return deviceDAO.getDevices(FleetGenerator.DEVICE_TYPE, BenchmarkEnvironment.TENANT_ID);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
+    @Benchmark
+    public List<Device> getDevicesPage() throws Exception {
+        int lastDeviceId = ThreadLocalRandom.current().nextInt(Math.max(1, deviceCount - pageSize));
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            return deviceDAO.getDevices(FleetGenerator.DEVICE_TYPE, BenchmarkEnvironment.TENANT_ID, lastDeviceId,
+                    pageSize);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.device.mgt.core.dto.DeviceType;
+import org.wso2.carbon.policy.evaluator.CombiningAlgorithm;
+import org.wso2.carbon.policy.evaluator.FeatureCombiningEngine;
+import org.wso2.carbon.policy.evaluator.FeatureFilterImpl;
+import org.wso2.carbon.policy.evaluator.FeatureRules;
+import org.wso2.carbon.policy.evaluator.PDPException;
+import org.wso2.carbon.policy.evaluator.utils.Constants;
+import org.wso2.carbon.policy.mgt.common.Policy;
+import org.wso2.carbon.policy.mgt.common.Profile;
+import org.wso2.carbon.policy.mgt.common.ProfileFeature;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the complex policy decision point merging the features of a device's policies, with the rules resolved
+ * on every evaluation, with rules compiled in advance, and with one scan of the features per rule.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class FeatureCombiningBenchmark {
+
+    @Param({"5", "50"})
+    private int policyCount;
+
+    @Param({"10", "100"})
+    private int featuresPerPolicy;
+
+    private FeatureFilterImpl featureFilter;
+    private List<Policy> policies;
+    private List<ProfileFeature> features;
+    private List<FeatureRules> featureRules;
+    private FeatureCombiningEngine combiningEngine;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        DeviceType deviceType = new DeviceType(FleetGenerator.DEVICE_TYPE);
+        deviceType.setId(1);
+        CombiningAlgorithm[] algorithms = CombiningAlgorithm.values();
+
+        featureRules = new ArrayList<>(featuresPerPolicy);
+        for (int i = 0; i < featuresPerPolicy; i++) {
+            FeatureRules rule = new FeatureRules();
+            rule.setName(this.getFeatureCode(i));
+            rule.setEvaluationCriteria(algorithms[i % algorithms.length].getCriteria());
+            featureRules.add(rule);
+        }
+        policies = new ArrayList<>(policyCount);
+        for (int i = 0; i < policyCount; i++) {
+            Policy policy = FleetGenerator.getPolicy(deviceType, i);
+            policy.setProfile(this.getProfile(deviceType, i, algorithms));
+            policies.add(policy);
+        }
+        featureFilter = new FeatureFilterImpl();
+        features = featureFilter.extractFeatures(policies);
+        combiningEngine = new FeatureCombiningEngine(featureRules);
+    }
+
+    @Benchmark
+    public List<ProfileFeature> evaluate() throws PDPException {
+        return featureFilter.evaluate(policies, featureRules);
+    }
+
+    @Benchmark
+    public List<ProfileFeature> evaluateCompiledRules() throws PDPException {
+        return featureFilter.evaluate(policies, combiningEngine);
+    }
+
+    @Benchmark
+    public List<ProfileFeature> combinePerRule() throws PDPException {
+        List<ProfileFeature> effectiveFeatures = new ArrayList<>();
+        for (FeatureRules rule : featureRules) {
+            CombiningAlgorithm.getCombiningAlgorithm(rule.getEvaluationCriteria()).combine(rule.getName(), features,
+                    effectiveFeatures);
+        }
+        return effectiveFeatures;
+    }
+
+    private Profile getProfile(DeviceType deviceType, int policyIndex, CombiningAlgorithm[] algorithms) {
+        Profile profile = new Profile();
+        profile.setProfileName("Benchmark profile " + policyIndex);
+        profile.setTenantId(BenchmarkEnvironment.TENANT_ID);
+        profile.setDeviceType(deviceType);
+        List<ProfileFeature> profileFeatures = new ArrayList<>(featuresPerPolicy);
+        for (int i = 0; i < featuresPerPolicy; i++) {
+            ProfileFeature profileFeature = new ProfileFeature();
+            profileFeature.setFeatureCode(this.getFeatureCode(i));
+            profileFeature.setDeviceTypeId(deviceType.getId());
+            profileFeature.setContent(this.getContent(algorithms[i % algorithms.length], policyIndex, i));
+            profileFeatures.add(profileFeature);
+        }
+        profile.setProfileFeaturesList(profileFeatures);
+        return profile;
+    }
+
+    private String getFeatureCode(int featureIndex) {
+        return "FEATURE_" + featureIndex;
+    }
+
+    private String getContent(CombiningAlgorithm algorithm, int policyIndex, int featureIndex) {
+        String ruleValue;
+        switch (algorithm) {
+            case DENY_OVERRIDES:
+            case PERMIT_OVERRIDES:
+                // Deny shows up only in the last policy, making deny overrides look at the features of every policy
+                ruleValue = "\"" + (policyIndex == policyCount - 1 ? Constants.DENY : Constants.PERMIT) + "\"";
+                break;
+            case HIGHEST_APPLICABLE:
+            case LOWEST_APPLICABLE:
+                ruleValue = String.valueOf((policyIndex * 31 + featureIndex) % 97);
+                break;
+            default:
+                return "{\"enabled\": true, \"ssid\": \"corporate-" + featureIndex + "\", \"password\": \"secret\"}";
+        }
+        return "{\"" + Constants.RULE_VALUE + "\": " + ruleValue + ", \"enabled\": true, \"maxFailedAttempts\": 5, " +
+                "\"minLength\": 8, \"maxPINAgeInDays\": 90, \"pinHistory\": 3, \"allowSimple\": false}";
+    }
+
+}
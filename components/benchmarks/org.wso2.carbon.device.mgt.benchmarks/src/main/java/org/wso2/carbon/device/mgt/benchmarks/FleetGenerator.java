@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.benchmarks;
+
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
+import org.wso2.carbon.device.mgt.common.TransactionManagementException;
+import org.wso2.carbon.device.mgt.core.dao.DeviceDAO;
+import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOException;
+import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
+import org.wso2.carbon.device.mgt.core.dao.DeviceTypeDAO;
+import org.wso2.carbon.device.mgt.core.dao.EnrolmentDAO;
+import org.wso2.carbon.device.mgt.core.dto.DeviceType;
+import org.wso2.carbon.policy.mgt.common.Policy;
+import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
+import org.wso2.carbon.policy.mgt.common.Profile;
+import org.wso2.carbon.policy.mgt.common.ProfileFeature;
+import org.wso2.carbon.policy.mgt.core.mgt.PolicyManager;
+import org.wso2.carbon.policy.mgt.core.mgt.impl.PolicyManagerImpl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Seeds the benchmark database with a synthetic fleet. Generated data is deterministic for a given size so that
+ * results of different runs are comparable.
+ */
+public class FleetGenerator {
+
+    public static final String DEVICE_TYPE = "android";
+
+    private static final int DEVICES_PER_TRANSACTION = 1000;
+    private static final int DEVICES_PER_OWNER = 5;
+    private static final int ROLE_COUNT = 20;
+    private static final int FEATURES_PER_PROFILE = 10;
+    private static final String[] COMPLIANCE_TYPES = {"ENFORCE", "WARN", "MONITOR"};
+
+    private FleetGenerator() {
+        throw new AssertionError();
+    }
+
+    public static DeviceType addDeviceType() throws DeviceManagementDAOException, TransactionManagementException {
+        DeviceTypeDAO deviceTypeDAO = DeviceManagementDAOFactory.getDeviceTypeDAO();
+        DeviceType deviceType = new DeviceType(DEVICE_TYPE);
+        try {
+            DeviceManagementDAOFactory.beginTransaction();
+            deviceTypeDAO.addDeviceType(deviceType);
+            deviceType = deviceTypeDAO.getDeviceType(DEVICE_TYPE);
+            DeviceManagementDAOFactory.commitTransaction();
+            return deviceType;
+        } catch (DeviceManagementDAOException | TransactionManagementException e) {
+            DeviceManagementDAOFactory.rollbackTransaction();
+            throw e;
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
+    /**
+     * Enrols the given number of devices of the benchmark device type and returns their identifiers, in the order
+     * they were enrolled.
+     */
+    public static List<DeviceIdentifier> addDevices(DeviceType deviceType, int deviceCount)
+            throws DeviceManagementDAOException, TransactionManagementException {
+        DeviceDAO deviceDAO = DeviceManagementDAOFactory.getDeviceDAO();
+        EnrolmentDAO enrolmentDAO = DeviceManagementDAOFactory.getEnrollmentDAO();
+        List<DeviceIdentifier> identifiers = new ArrayList<>(deviceCount);
+        for (int from = 0; from < deviceCount; from += DEVICES_PER_TRANSACTION) {
+            int to = Math.min(from + DEVICES_PER_TRANSACTION, deviceCount);
+            try {
+                DeviceManagementDAOFactory.beginTransaction();
+                for (int i = from; i < to; i++) {
+                    Device device = getDevice(i);
+                    int deviceId = deviceDAO.addDevice(deviceType.getId(), device, BenchmarkEnvironment.TENANT_ID);
+                    enrolmentDAO.addEnrollment(deviceId, device.getEnrolmentInfo(), BenchmarkEnvironment.TENANT_ID);
+                    identifiers.add(new DeviceIdentifier(device.getDeviceIdentifier(), DEVICE_TYPE));
+                }
+                DeviceManagementDAOFactory.commitTransaction();
+            } catch (DeviceManagementDAOException | TransactionManagementException e) {
+                DeviceManagementDAOFactory.rollbackTransaction();
+                throw e;
+            } finally {
+                DeviceManagementDAOFactory.closeConnection();
+            }
+        }
+        return identifiers;
+    }
+
+    /**
+     * Adds the given number of policies, each with its own profile, assigned to a rotating set of roles and users
+     * of the generated fleet.
+     */
+    public static List<Policy> addPolicies(DeviceType deviceType, int policyCount) throws PolicyManagementException {
+        PolicyManager policyManager = new PolicyManagerImpl();
+        List<Policy> policies = new ArrayList<>(policyCount);
+        for (int i = 0; i < policyCount; i++) {
+            policies.add(policyManager.addPolicy(getPolicy(deviceType, i)));
+        }
+        return policies;
+    }
+
+    public static Device getDevice(int index) {
+        Device device = new Device();
+        device.setType(DEVICE_TYPE);
+        device.setName("Benchmark device " + index);
+        device.setDescription("Synthetic device generated for benchmarking");
+        device.setDeviceIdentifier(getDeviceIdentifier(index));
+        EnrolmentInfo enrolmentInfo = new EnrolmentInfo();
+        enrolmentInfo.setOwner(getOwner(index));
+        enrolmentInfo.setOwnership(index % 2 == 0 ? EnrolmentInfo.OwnerShip.BYOD : EnrolmentInfo.OwnerShip.COPE);
+        enrolmentInfo.setStatus(EnrolmentInfo.Status.ACTIVE);
+        enrolmentInfo.setDateOfEnrolment(System.currentTimeMillis());
+        enrolmentInfo.setDateOfLastUpdate(System.currentTimeMillis());
+        device.setEnrolmentInfo(enrolmentInfo);
+        return device;
+    }
+
+    public static Policy getPolicy(DeviceType deviceType, int index) {
+        Policy policy = new Policy();
+        policy.setPolicyName("Benchmark policy " + index);
+        policy.setGeneric(true);
+        policy.setPriorityId(index + 1);
+        policy.setCompliance(COMPLIANCE_TYPES[index % COMPLIANCE_TYPES.length]);
+        policy.setOwnershipType(index % 2 == 0 ? EnrolmentInfo.OwnerShip.BYOD.toString() :
+                EnrolmentInfo.OwnerShip.COPE.toString());
+        policy.setTenantId(BenchmarkEnvironment.TENANT_ID);
+        policy.setProfile(getProfile(deviceType, index));
+        policy.setRoles(Arrays.asList(getRole(index), getRole(index + 1)));
+        policy.setUsers(Arrays.asList(getOwner(index * DEVICES_PER_OWNER)));
+        return policy;
+    }
+
+    public static Profile getProfile(DeviceType deviceType, int index) {
+        Profile profile = new Profile();
+        profile.setProfileName("Benchmark profile " + index);
+        profile.setTenantId(BenchmarkEnvironment.TENANT_ID);
+        profile.setDeviceType(deviceType);
+        List<ProfileFeature> profileFeatures = new ArrayList<>(FEATURES_PER_PROFILE);
+        for (int i = 0; i < FEATURES_PER_PROFILE; i++) {
+            ProfileFeature profileFeature = new ProfileFeature();
+            profileFeature.setFeatureCode("FEATURE_" + i);
+            profileFeature.setDeviceTypeId(deviceType.getId());
+            profileFeature.setContent(getFeatureContent(index, i));
+            profileFeatures.add(profileFeature);
+        }
+        profile.setProfileFeaturesList(profileFeatures);
+        return profile;
+    }
+
+    public static String getDeviceIdentifier(int index) {
+        return "benchmark-device-" + index;
+    }
+
+    public static String getOwner(int deviceIndex) {
+        return "user" + (deviceIndex / DEVICES_PER_OWNER);
+    }
+
+    public static String getRole(int index) {
+        return "role" + (index % ROLE_COUNT);
+    }
+
+    public static String[] getRolesOfOwner(int deviceIndex) {
+        int userIndex = deviceIndex / DEVICES_PER_OWNER;
+        return new String[]{getRole(userIndex), getRole(userIndex + 7)};
+    }
+
+    private static String getFeatureContent(int policyIndex, int featureIndex) {
+        return "{\"policy\": " + policyIndex + ", \"feature\": " + featureIndex + ", \"enabled\": true, " +
+                "\"settings\": {\"maxFailedAttempts\": 5, \"minLength\": 8, \"expiryInDays\": 90, " +
+                "\"history\": 3, \"allowSimple\": false, \"requireAlphanumeric\": true}}";
+    }
+
+}
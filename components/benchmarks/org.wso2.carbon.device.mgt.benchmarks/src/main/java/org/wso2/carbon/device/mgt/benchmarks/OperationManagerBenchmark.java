@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
+import org.wso2.carbon.device.mgt.core.dto.DeviceType;
+import org.wso2.carbon.device.mgt.core.operation.mgt.CommandOperation;
+import org.wso2.carbon.device.mgt.core.operation.mgt.OperationManagerImpl;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures adding an operation to a set of devices and retrieving the pending operations of a device, which is what
+ * every device does on each of its polls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class OperationManagerBenchmark {
+
+    private static final String OPERATION_CODE = "DEVICE_RING";
+
+    @Param({"1000", "10000"})
+    private int deviceCount;
+
+    /* Number of devices each added operation is targeted at */
+    @Param({"1", "100", "1000"})
+    private int fanOut;
+
+    /* Number of operations left pending for each device before the measurement starts */
+    @Param({"10"})
+    private int pendingOperationCount;
+
+    private OperationManagerImpl operationManager;
+    private List<DeviceIdentifier> deviceIdentifiers;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkEnvironment.init();
+        DeviceType deviceType = FleetGenerator.addDeviceType();
+        deviceIdentifiers = FleetGenerator.addDevices(deviceType, deviceCount);
+        operationManager = new OperationManagerImpl();
+        for (int i = 0; i < pendingOperationCount; i++) {
+            operationManager.addOperation(getOperation(), deviceIdentifiers);
+        }
+    }
+
+    @Benchmark
+    public int addOperation(TenantState tenantState) throws OperationManagementException {
+        int targetCount = Math.min(fanOut, deviceCount);
+        int from = ThreadLocalRandom.current().nextInt(deviceCount - targetCount + 1);
+        return operationManager.addOperation(getOperation(), deviceIdentifiers.subList(from, from + targetCount));
+    }
+
+    @Benchmark
+    public List<? extends Operation> getPendingOperations(TenantState tenantState)
+            throws OperationManagementException {
+        DeviceIdentifier deviceIdentifier = deviceIdentifiers.get(ThreadLocalRandom.current().nextInt(deviceCount));
+        return operationManager.getPendingOperations(deviceIdentifier);
+    }
+
+    private static Operation getOperation() {
+        CommandOperation operation = new CommandOperation();
+        operation.setCode(OPERATION_CODE);
+        operation.setType(Operation.Type.COMMAND);
+        operation.setStatus(Operation.Status.PENDING);
+        operation.setEnabled(true);
+        return operation;
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
+import org.wso2.carbon.device.mgt.core.dto.DeviceType;
+import org.wso2.carbon.policy.mgt.common.PIPDevice;
+import org.wso2.carbon.policy.mgt.common.Policy;
+import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
+import org.wso2.carbon.policy.mgt.core.cache.impl.PolicyCacheManagerImpl;
+import org.wso2.carbon.policy.mgt.core.impl.PolicyInformationPointImpl;
+import org.wso2.carbon.policy.mgt.core.mgt.impl.PolicyManagerImpl;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures policy retrieval and the selection of the policies related to a device, both of which run for every
+ * device that requests its effective policy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PolicyManagerBenchmark {
+
+    @Param({"1000"})
+    private int deviceCount;
+
+    @Param({"10", "100"})
+    private int policyCount;
+
+    private PolicyManagerImpl policyManager;
+    private PolicyInformationPointImpl policyInformationPoint;
+    private PIPDevice[] pipDevices;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkEnvironment.init();
+        DeviceType deviceType = FleetGenerator.addDeviceType();
+        FleetGenerator.addDevices(deviceType, deviceCount);
+        FleetGenerator.addPolicies(deviceType, policyCount);
+        policyManager = new PolicyManagerImpl();
+        policyInformationPoint = new PolicyInformationPointImpl();
+        pipDevices = new PIPDevice[deviceCount];
+        for (int i = 0; i < deviceCount; i++) {
+            pipDevices[i] = getPIPDevice(deviceType, i);
+        }
+    }
+
+    @Benchmark
+    public List<Policy> getPolicies(TenantState tenantState) throws PolicyManagementException {
+        return policyManager.getPolicies();
+    }
+
+    /**
+     * Same as {@link #getPolicies(TenantState)}, but with the policy cache cleared before each invocation so that
+     * policies are always loaded from the database.
+     */
+    @Benchmark
+    public List<Policy> getPoliciesWithoutCache(TenantState tenantState) throws PolicyManagementException {
+        PolicyCacheManagerImpl.getInstance().removeAllPolicies();
+        return policyManager.getPolicies();
+    }
+
+    @Benchmark
+    public List<Policy> getRelatedPolicies(TenantState tenantState) throws PolicyManagementException {
+        return policyInformationPoint.getRelatedPolicies(
+                pipDevices[ThreadLocalRandom.current().nextInt(deviceCount)]);
+    }
+
+    /* Built by hand, as resolving the roles of the owner through PolicyInformationPoint needs a user store */
+    private static PIPDevice getPIPDevice(DeviceType deviceType, int index) {
+        PIPDevice pipDevice = new PIPDevice();
+        EnrolmentInfo enrolmentInfo = FleetGenerator.getDevice(index).getEnrolmentInfo();
+        pipDevice.setDeviceType(deviceType);
+        pipDevice.setUserId(enrolmentInfo.getOwner());
+        pipDevice.setOwnershipType(enrolmentInfo.getOwnership().toString());
+        pipDevice.setRoles(FleetGenerator.getRolesOfOwner(index));
+        return pipDevice;
+    }
+
+}
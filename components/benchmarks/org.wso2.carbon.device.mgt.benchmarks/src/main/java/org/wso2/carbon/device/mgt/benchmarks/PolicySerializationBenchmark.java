@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.device.mgt.core.codec.PayloadCodec;
+import org.wso2.carbon.device.mgt.core.codec.PayloadCodecException;
+import org.wso2.carbon.device.mgt.core.codec.impl.DeflatePayloadCodec;
+import org.wso2.carbon.device.mgt.core.codec.impl.JavaSerializationPayloadCodec;
+import org.wso2.carbon.device.mgt.core.dto.DeviceType;
+import org.wso2.carbon.policy.mgt.common.Policy;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the round trips of the policy BLOBs persisted with applied policies and profile features, both through
+ * {@link PolicyManagerUtil} with the configured codec and through each of the available codecs directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PolicySerializationBenchmark {
+
+    @Param({JavaSerializationPayloadCodec.NAME, DeflatePayloadCodec.NAME})
+    private String codecName;
+
+    private Policy policy;
+    private byte[] encodedPolicy;
+    private byte[] codecEncodedPolicy;
+    private PayloadCodec codec;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        DeviceType deviceType = new DeviceType(FleetGenerator.DEVICE_TYPE);
+        deviceType.setId(1);
+        policy = FleetGenerator.getPolicy(deviceType, 1);
+        codec = DeflatePayloadCodec.NAME.equals(codecName) ? new DeflatePayloadCodec() :
+                new JavaSerializationPayloadCodec();
+        encodedPolicy = PolicyManagerUtil.getBytes(policy);
+        codecEncodedPolicy = codec.encode(policy);
+    }
+
+    @Benchmark
+    public byte[] getBytes() throws IOException {
+        return PolicyManagerUtil.getBytes(policy);
+    }
+
+    @Benchmark
+    public Object getObject() throws IOException {
+        return PolicyManagerUtil.getObject(encodedPolicy);
+    }
+
+    @Benchmark
+    public byte[] encode() throws PayloadCodecException {
+        return codec.encode(policy);
+    }
+
+    @Benchmark
+    public Object decode() throws PayloadCodecException {
+        return codec.decode(codecEncodedPolicy, Policy.class.getClassLoader());
+    }
+
+}
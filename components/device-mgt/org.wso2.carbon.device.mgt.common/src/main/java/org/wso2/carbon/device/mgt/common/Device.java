@@ -19,9 +19,10 @@ package org.wso2.carbon.device.mgt.common;
 
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
 import java.util.List;
 
-public class Device {
+public class Device implements Serializable {
 
 	private int id;
     private String name;
@@ -109,7 +110,7 @@ public class Device {
 		this.properties = properties;
 	}
 
-	public static class Property {
+	public static class Property implements Serializable {
 
 		private String name;
 		private String value;
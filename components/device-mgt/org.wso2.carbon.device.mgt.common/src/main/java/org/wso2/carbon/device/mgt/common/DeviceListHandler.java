@@ -0,0 +1,38 @@
+/*
+ *   Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.wso2.carbon.device.mgt.common;
+
+import java.util.List;
+
+/**
+ * Callback used to consume a device listing page by page, without having to hold the complete list of devices in
+ * memory at once.
+ */
+public interface DeviceListHandler {
+
+    /**
+     * Method invoked once for each page of devices retrieved.
+     *
+     * @param devices Devices that belong to the current page
+     * @throws DeviceManagementException If the handler fails to process the page, in which case the rest of the
+     *                                   pages are not retrieved
+     */
+    void handle(List<Device> devices) throws DeviceManagementException;
+
+}
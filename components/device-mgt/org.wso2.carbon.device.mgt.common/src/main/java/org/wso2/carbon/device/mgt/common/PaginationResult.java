@@ -0,0 +1,66 @@
+/*
+ *   Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.wso2.carbon.device.mgt.common;
+
+import java.util.List;
+
+/**
+ * This class represents a single page of devices retrieved using keyset pagination. Devices in a page are ordered by
+ * their device id and the cursor of the page is the largest device id it contains, which has to be passed back in
+ * order to retrieve the subsequent page.
+ */
+public class PaginationResult {
+
+    private List<Device> data;
+    private int cursor;
+    private boolean hasMore;
+
+    public PaginationResult() {}
+
+    public PaginationResult(List<Device> data, int cursor, boolean hasMore) {
+        this.data = data;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<Device> getData() {
+        return data;
+    }
+
+    public void setData(List<Device> data) {
+        this.data = data;
+    }
+
+    public int getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(int cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ *   Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.wso2.carbon.device.mgt.common.spi;
+
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.DeviceManagementException;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Optional extension of the device manager SPI that plugins can implement, in addition to
+ * {@link org.wso2.carbon.device.mgt.common.DeviceManager}, in order to resolve plugin specific information of a set
+ * of devices in a single call. Device listings that span many devices use this instead of invoking
+ * DeviceManager#getDevice once per device, whenever the device manager of a plugin implements it.
+ */
+public interface BulkDeviceManager {
+
+    /**
+     * Method to retrieve plugin specific metadata, i.e. features and properties, of a set of devices that belong to
+     * the device type of the plugin.
+     *
+     * @param deviceIds Fully qualified identifiers of the devices
+     * @return Plugin specific metadata of the devices known to the plugin. Devices the plugin is not aware of are
+     * simply omitted from the returned list
+     * @throws DeviceManagementException If some unusual behaviour is observed while obtaining the device objects
+     */
+    List<Device> getDevices(Collection<DeviceIdentifier> deviceIds) throws DeviceManagementException;
+
+}
@@ -37,6 +37,7 @@ public final class DeviceManagementConstants {
 		public static final String OAUTH2_GRANT_TYPE_CLIENT_CREDENTIALS = "client_credentials";
 		public final static String OAUTH_VERSION_2 = "oauth-2.0";
 		public final static String OAUTH_ADMIN_SERVICE = "/services/OAuthAdminService";
+		public static final int APPLICATION_LOOKUP_CHUNK_SIZE = 500;
 	}
 
     public static final class EmailNotifications {
@@ -47,4 +48,70 @@ public final class DeviceManagementConstants {
         public static final String ENROL_NOTIFICATION_TYPE = "enrol";
         public static final String USER_REGISTRATION_NOTIFICATION_TYPE = "userRegistration";
     }
+
+    public static final class Pagination {
+        private Pagination() {
+            throw new AssertionError();
+        }
+
+        public static final int DEFAULT_DEVICE_LIST_PAGE_SIZE = 1000;
+    }
+
+    public static final class OperationFanOut {
+        private OperationFanOut() {
+            throw new AssertionError();
+        }
+
+        public static final int DEFAULT_BATCH_SIZE = 500;
+    }
+
+    public static final class OperationLongPoll {
+        private OperationLongPoll() {
+            throw new AssertionError();
+        }
+
+        public static final long DEFAULT_MAX_WAIT_TIME = 30000;
+        public static final int THREAD_POOL_SIZE = 4;
+    }
+
+    public static final class PendingOperations {
+        private PendingOperations() {
+            throw new AssertionError();
+        }
+
+        public static final int DEFAULT_LIMIT = 100;
+    }
+
+    public static final class PayloadCodec {
+        private PayloadCodec() {
+            throw new AssertionError();
+        }
+
+        public static final String DEFAULT_CODEC = "deflate";
+    }
+
+    public static final class OperationArchival {
+        private OperationArchival() {
+            throw new AssertionError();
+        }
+
+        public static final String TASK_TYPE = "OPERATION_ARCHIVAL_TASK";
+        public static final String TASK_NAME = "OPERATION_ARCHIVAL";
+        public static final String TASK_CLAZZ =
+                "org.wso2.carbon.device.mgt.core.operation.mgt.archival.OperationArchivalTask";
+        public static final String MODE_ARCHIVE = "archive";
+        public static final String MODE_PURGE = "purge";
+        public static final int DEFAULT_RETENTION_PERIOD = 30;
+        public static final int DEFAULT_BATCH_SIZE = 500;
+        public static final long DEFAULT_TASK_FREQUENCY = 86400000;
+    }
+
+    public static final class RoleDeviceResolver {
+        private RoleDeviceResolver() {
+            throw new AssertionError();
+        }
+
+        public static final int DEFAULT_OWNER_CHUNK_SIZE = 500;
+        public static final long DEFAULT_MEMBERSHIP_CACHE_TTL = 0;
+    }
 }
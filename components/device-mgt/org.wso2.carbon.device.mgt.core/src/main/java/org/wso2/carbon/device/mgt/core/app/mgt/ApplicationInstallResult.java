@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.app.mgt;
+
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of an application installation rolled out to a set of devices, reporting which of the devices the
+ * install operation got accepted for and why the rest were left out.
+ */
+public class ApplicationInstallResult {
+
+    private List<DeviceIdentifier> acceptedDevices = new ArrayList<>();
+    private List<DeviceIdentifier> unsupportedDevices = new ArrayList<>();
+    private List<DeviceIdentifier> inactiveDevices = new ArrayList<>();
+
+    /**
+     * @return Devices the install operation is delivered to
+     */
+    public List<DeviceIdentifier> getAcceptedDevices() {
+        return acceptedDevices;
+    }
+
+    /**
+     * @return Devices of types that no device management plugin is registered for
+     */
+    public List<DeviceIdentifier> getUnsupportedDevices() {
+        return unsupportedDevices;
+    }
+
+    /**
+     * @return Devices that are not enrolled or whose enrolment is not active
+     */
+    public List<DeviceIdentifier> getInactiveDevices() {
+        return inactiveDevices;
+    }
+
+    public boolean isFullyAccepted() {
+        return unsupportedDevices.isEmpty() && inactiveDevices.isEmpty();
+    }
+
+}
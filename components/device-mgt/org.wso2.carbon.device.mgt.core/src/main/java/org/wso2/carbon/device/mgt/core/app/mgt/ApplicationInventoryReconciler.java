@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.app.mgt;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.common.app.mgt.Application;
+import org.wso2.carbon.device.mgt.core.DeviceManagementConstants;
+import org.wso2.carbon.device.mgt.core.dao.ApplicationDAO;
+import org.wso2.carbon.device.mgt.core.dao.ApplicationMappingDAO;
+import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reconciles the application list reported by a device against the applications currently mapped to it.
+ * Applications are matched on their identifier and version through hash lookups, the applications that are new to
+ * the device are resolved against DM_APPLICATION in chunked IN queries, and the missing applications as well as the
+ * mapping changes are written in batches.
+ * <p/>
+ * The reconciler does not manage connections or transactions; callers are expected to run it within a transaction
+ * of the device management DAO factory.
+ */
+public class ApplicationInventoryReconciler {
+
+    private static final Log log = LogFactory.getLog(ApplicationInventoryReconciler.class);
+
+    private ApplicationDAO applicationDAO;
+    private ApplicationMappingDAO applicationMappingDAO;
+
+    public ApplicationInventoryReconciler(ApplicationDAO applicationDAO, ApplicationMappingDAO applicationMappingDAO) {
+        this.applicationDAO = applicationDAO;
+        this.applicationMappingDAO = applicationMappingDAO;
+    }
+
+    /**
+     * Updates the application mappings of the given device to match the reported application list.
+     *
+     * @param deviceId     Id of the device
+     * @param applications Applications reported by the device
+     * @param tenantId     Id of the tenant the device belongs to
+     * @throws DeviceManagementDAOException If an error occurs while reading or updating the inventory
+     */
+    public void reconcile(int deviceId, List<Application> applications,
+                          int tenantId) throws DeviceManagementDAOException {
+        Map<ApplicationKey, Application> installedApps = this.toKeyedMap(
+                applicationDAO.getInstalledApplications(deviceId));
+        Map<ApplicationKey, Application> reportedApps = this.toKeyedMap(applications);
+
+        List<Integer> appIdsToRemove = new ArrayList<>();
+        for (Map.Entry<ApplicationKey, Application> installedApp : installedApps.entrySet()) {
+            if (!reportedApps.containsKey(installedApp.getKey())) {
+                appIdsToRemove.add(installedApp.getValue().getId());
+            }
+        }
+
+        Map<ApplicationKey, Application> newApps = new LinkedHashMap<>();
+        for (Map.Entry<ApplicationKey, Application> reportedApp : reportedApps.entrySet()) {
+            if (!installedApps.containsKey(reportedApp.getKey())) {
+                newApps.put(reportedApp.getKey(), reportedApp.getValue());
+            }
+        }
+
+        List<Integer> appIdsToAdd = new ArrayList<>();
+        if (!newApps.isEmpty()) {
+            Map<ApplicationKey, Application> existingApps = this.getApplications(newApps.keySet(), tenantId);
+            List<Application> appsToAdd = new ArrayList<>();
+            for (Map.Entry<ApplicationKey, Application> newApp : newApps.entrySet()) {
+                Application existingApp = existingApps.get(newApp.getKey());
+                if (existingApp == null) {
+                    appsToAdd.add(newApp.getValue());
+                } else {
+                    appIdsToAdd.add(existingApp.getId());
+                }
+            }
+            if (!appsToAdd.isEmpty()) {
+                applicationDAO.addApplications(appsToAdd, tenantId);
+                Map<ApplicationKey, Application> addedApps =
+                        this.getApplications(this.toKeyedMap(appsToAdd).keySet(), tenantId);
+                for (Application addedApp : addedApps.values()) {
+                    appIdsToAdd.add(addedApp.getId());
+                }
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Added " + appsToAdd.size() + " application(s) new to the tenant while reconciling " +
+                        "the inventory of device '" + deviceId + "'");
+            }
+        }
+
+        applicationMappingDAO.addApplicationMappings(deviceId, appIdsToAdd, tenantId);
+        applicationMappingDAO.removeApplicationMapping(deviceId, appIdsToRemove, tenantId);
+        if (log.isDebugEnabled()) {
+            log.debug("Reconciled the inventory of device '" + deviceId + "' : " + reportedApps.size() +
+                    " reported, " + appIdsToAdd.size() + " mapped, " + appIdsToRemove.size() + " unmapped");
+        }
+    }
+
+    /**
+     * Resolves the applications matching the given keys, looking the identifiers up in chunks. When several rows
+     * carry the same identifier and version, the most recently added one is picked.
+     */
+    private Map<ApplicationKey, Application> getApplications(Collection<ApplicationKey> keys,
+                                                             int tenantId) throws DeviceManagementDAOException {
+        Set<String> identifierSet = new LinkedHashSet<>();
+        for (ApplicationKey key : keys) {
+            identifierSet.add(key.identifier);
+        }
+        List<String> identifiers = new ArrayList<>(identifierSet);
+        int chunkSize = DeviceManagementConstants.AppManagement.APPLICATION_LOOKUP_CHUNK_SIZE;
+        Map<ApplicationKey, Application> applications = new HashMap<>();
+        for (int i = 0; i < identifiers.size(); i += chunkSize) {
+            List<Application> chunk = applicationDAO.getApplications(
+                    identifiers.subList(i, Math.min(i + chunkSize, identifiers.size())), tenantId);
+            for (Application application : chunk) {
+                ApplicationKey key = new ApplicationKey(application);
+                if (keys.contains(key)) {
+                    applications.put(key, application);
+                }
+            }
+        }
+        return applications;
+    }
+
+    private Map<ApplicationKey, Application> toKeyedMap(List<Application> applications) {
+        Map<ApplicationKey, Application> keyedApps = new LinkedHashMap<>();
+        for (Application application : applications) {
+            keyedApps.put(new ApplicationKey(application), application);
+        }
+        return keyedApps;
+    }
+
+    private static final class ApplicationKey {
+
+        private final String identifier;
+        private final String version;
+
+        ApplicationKey(Application application) {
+            this.identifier = application.getApplicationIdentifier();
+            this.version = application.getVersion();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ApplicationKey)) {
+                return false;
+            }
+            ApplicationKey that = (ApplicationKey) o;
+            return (identifier != null ? identifier.equals(that.identifier) : that.identifier == null) &&
+                    (version != null ? version.equals(that.version) : that.version == null);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = identifier != null ? identifier.hashCode() : 0;
+            result = 31 * result + (version != null ? version.hashCode() : 0);
+            return result;
+        }
+    }
+
+}
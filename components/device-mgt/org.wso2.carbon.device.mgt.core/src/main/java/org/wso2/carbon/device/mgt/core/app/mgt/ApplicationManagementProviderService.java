@@ -19,6 +19,7 @@ import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.app.mgt.Application;
 import org.wso2.carbon.device.mgt.common.app.mgt.ApplicationManagementException;
 import org.wso2.carbon.device.mgt.common.app.mgt.ApplicationManager;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 
 import java.util.List;
 
@@ -30,4 +31,18 @@ public interface ApplicationManagementProviderService extends ApplicationManager
     public List<Application> getApplicationListForDevice(DeviceIdentifier deviceIdentifier)
             throws ApplicationManagementException;
 
+    /**
+     * Rolls an application install operation out to the given devices. Duplicate targets are collapsed, the
+     * enrolments of the devices are resolved in bulk and the device management plugin of each device type is invoked
+     * once with only its own actively enrolled devices.
+     *
+     * @param operation Application install operation
+     * @param deviceIds Devices to install the application on
+     * @return Devices the operation got accepted for, along with the ones left out
+     * @throws ApplicationManagementException If the devices could not be resolved or a plugin fails to install the
+     *                                        application
+     */
+    public ApplicationInstallResult installApplicationToDevices(Operation operation, List<DeviceIdentifier> deviceIds)
+            throws ApplicationManagementException;
+
 }
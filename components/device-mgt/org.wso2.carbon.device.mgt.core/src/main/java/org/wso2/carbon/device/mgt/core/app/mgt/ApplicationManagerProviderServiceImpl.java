@@ -18,35 +18,29 @@
 
 package org.wso2.carbon.device.mgt.core.app.mgt;
 
-import org.apache.axis2.AxisFault;
-import org.apache.axis2.context.ConfigurationContext;
-import org.apache.axis2.context.ConfigurationContextFactory;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.CarbonContext;
 import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.TransactionManagementException;
 import org.wso2.carbon.device.mgt.common.app.mgt.Application;
 import org.wso2.carbon.device.mgt.common.app.mgt.ApplicationManagementException;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.common.spi.DeviceManagementService;
-import org.wso2.carbon.device.mgt.core.DeviceManagementConstants;
 import org.wso2.carbon.device.mgt.core.DeviceManagementPluginRepository;
 import org.wso2.carbon.device.mgt.core.app.mgt.config.AppManagementConfig;
-import org.wso2.carbon.device.mgt.core.app.mgt.oauth.ServiceAuthenticator;
-import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
-import org.wso2.carbon.device.mgt.core.config.identity.IdentityConfigurations;
 import org.wso2.carbon.device.mgt.core.dao.*;
 import org.wso2.carbon.device.mgt.core.internal.PluginInitializationListener;
-import org.wso2.carbon.identity.oauth.stub.OAuthAdminServiceException;
-import org.wso2.carbon.identity.oauth.stub.OAuthAdminServiceStub;
-import org.wso2.carbon.identity.oauth.stub.dto.OAuthConsumerAppDTO;
+import org.wso2.carbon.device.mgt.core.util.DeviceManagerUtil;
 
-import java.rmi.RemoteException;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implements Application Manager interface
@@ -54,36 +48,22 @@ import java.util.List;
 public class ApplicationManagerProviderServiceImpl implements ApplicationManagementProviderService,
         PluginInitializationListener {
 
-    private ConfigurationContext configCtx;
-    private ServiceAuthenticator authenticator;
-    private String oAuthAdminServiceUrl;
     private DeviceManagementPluginRepository pluginRepository;
     private DeviceDAO deviceDAO;
     private ApplicationDAO applicationDAO;
     private ApplicationMappingDAO applicationMappingDAO;
+    private ApplicationInventoryReconciler inventoryReconciler;
 
     private static final String GET_APP_LIST_URL = "store/apis/assets/mobileapp?domain=carbon.super&page=1";
     private static final Log log = LogFactory.getLog(ApplicationManagerProviderServiceImpl.class);
 
     public ApplicationManagerProviderServiceImpl(AppManagementConfig appManagementConfig,
                                                  DeviceManagementPluginRepository pluginRepository) {
-
-        IdentityConfigurations identityConfig = DeviceConfigurationManager.getInstance().getDeviceManagementConfig().
-                getDeviceManagementConfigRepository().getIdentityConfigurations();
-        this.authenticator =
-                new ServiceAuthenticator(identityConfig.getAdminUsername(), identityConfig.getAdminPassword());
-        this.oAuthAdminServiceUrl =
-                identityConfig.getServerUrl() + DeviceManagementConstants.AppManagement.OAUTH_ADMIN_SERVICE;
-        try {
-            this.configCtx = ConfigurationContextFactory.createConfigurationContextFromFileSystem(null, null);
-        } catch (AxisFault e) {
-            throw new IllegalArgumentException("Error occurred while initializing Axis2 Configuration Context. " +
-                    "Please check if an appropriate axis2.xml is provided", e);
-        }
         this.pluginRepository = pluginRepository;
         this.deviceDAO = DeviceManagementDAOFactory.getDeviceDAO();
         this.applicationDAO = DeviceManagementDAOFactory.getApplicationDAO();
         this.applicationMappingDAO = DeviceManagementDAOFactory.getApplicationMappingDAO();
+        this.inventoryReconciler = new ApplicationInventoryReconciler(applicationDAO, applicationMappingDAO);
     }
 
     ApplicationManagerProviderServiceImpl(DeviceManagementPluginRepository pluginRepository) {
@@ -91,6 +71,7 @@ public class ApplicationManagerProviderServiceImpl implements ApplicationManagem
         this.deviceDAO = DeviceManagementDAOFactory.getDeviceDAO();
         this.applicationDAO = DeviceManagementDAOFactory.getApplicationDAO();
         this.applicationMappingDAO = DeviceManagementDAOFactory.getApplicationMappingDAO();
+        this.inventoryReconciler = new ApplicationInventoryReconciler(applicationDAO, applicationMappingDAO);
     }
 
     @Override
@@ -114,56 +95,79 @@ public class ApplicationManagerProviderServiceImpl implements ApplicationManagem
     @Override
     public void installApplication(Operation operation, List<DeviceIdentifier> deviceIds)
             throws ApplicationManagementException {
-
-        for (DeviceIdentifier deviceId : deviceIds) {
-            DeviceManagementService dms =
-                    this.getPluginRepository().getDeviceManagementService(deviceId.getType());
-            dms.installApplication(operation, deviceIds);
+        ApplicationInstallResult result = this.installApplicationToDevices(operation, deviceIds);
+        if (!result.isFullyAccepted()) {
+            log.warn("Application install operation is not delivered to " + result.getUnsupportedDevices().size() +
+                    " device(s) of unsupported types and " + result.getInactiveDevices().size() +
+                    " device(s) that are not actively enrolled");
         }
     }
 
-    public void updateInstalledApplicationListOfDevice(
-            DeviceIdentifier deviceIdentifier, List<Application> applications) throws ApplicationManagementException {
-    }
+    @Override
+    public ApplicationInstallResult installApplicationToDevices(Operation operation, List<DeviceIdentifier> deviceIds)
+            throws ApplicationManagementException {
+        ApplicationInstallResult result = new ApplicationInstallResult();
+        Map<String, Map<String, DeviceIdentifier>> deviceIdsOfType = new LinkedHashMap<>();
+        for (DeviceIdentifier deviceId : deviceIds) {
+            Map<String, DeviceIdentifier> identifiers = deviceIdsOfType.get(deviceId.getType());
+            if (identifiers == null) {
+                identifiers = new LinkedHashMap<>();
+                deviceIdsOfType.put(deviceId.getType(), identifiers);
+            }
+            if (!identifiers.containsKey(deviceId.getId())) {
+                identifiers.put(deviceId.getId(), deviceId);
+            }
+        }
 
-    private OAuthConsumerAppDTO getAppInfo() throws ApplicationManagementException {
-        OAuthConsumerAppDTO appInfo = null;
+        Map<DeviceManagementService, List<DeviceIdentifier>> acceptedDevicesOfPlugin = new LinkedHashMap<>();
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        int batchSize = DeviceManagerUtil.getOperationFanOutBatchSize();
         try {
-            OAuthAdminServiceStub oAuthAdminServiceStub =
-                    new OAuthAdminServiceStub(configCtx, oAuthAdminServiceUrl);
-            authenticator.authenticate(oAuthAdminServiceStub._getServiceClient());
-
-            try {
-                appInfo = oAuthAdminServiceStub.getOAuthApplicationDataByAppName(
-                        DeviceManagementConstants.AppManagement.OAUTH_APPLICATION_NAME);
-            }
-            //application doesn't exist. Due to the way getOAuthApplicationDataByAppName has been
-            //implemented, it throws an AxisFault if the App doesn't exist. Hence the catch.
-            catch (AxisFault fault) {
-                oAuthAdminServiceStub.registerOAuthApplicationData(this.getRequestDTO());
-                appInfo = oAuthAdminServiceStub.getOAuthApplicationDataByAppName(
-                        DeviceManagementConstants.AppManagement.OAUTH_APPLICATION_NAME);
+            DeviceManagementDAOFactory.openConnection();
+            for (Map.Entry<String, Map<String, DeviceIdentifier>> entry : deviceIdsOfType.entrySet()) {
+                DeviceManagementService dms = this.getPluginRepository().getDeviceManagementService(entry.getKey());
+                if (dms == null) {
+                    result.getUnsupportedDevices().addAll(entry.getValue().values());
+                    continue;
+                }
+                List<DeviceIdentifier> acceptedDevices = new ArrayList<>();
+                List<String> identifiers = new ArrayList<>(entry.getValue().keySet());
+                for (int from = 0; from < identifiers.size(); from += batchSize) {
+                    List<String> batch = identifiers.subList(from, Math.min(from + batchSize, identifiers.size()));
+                    Map<String, Integer> enrolmentIds = deviceDAO.getEnrolmentIdsByStatus(entry.getKey(), batch,
+                            EnrolmentInfo.Status.ACTIVE, tenantId);
+                    for (String identifier : batch) {
+                        if (enrolmentIds.containsKey(identifier)) {
+                            acceptedDevices.add(entry.getValue().get(identifier));
+                        } else {
+                            result.getInactiveDevices().add(entry.getValue().get(identifier));
+                        }
+                    }
+                }
+                if (!acceptedDevices.isEmpty()) {
+                    acceptedDevicesOfPlugin.put(dms, acceptedDevices);
+                }
             }
-        } catch (RemoteException e) {
-            handleException("Error occurred while retrieving app info", e);
-        } catch (OAuthAdminServiceException e) {
-            handleException("Error occurred while invoking OAuth admin service stub", e);
+        } catch (DeviceManagementDAOException | SQLException e) {
+            throw new ApplicationManagementException("Error occurred while resolving the enrolments of the devices " +
+                    "targeted by the application install operation", e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
         }
-        return appInfo;
-    }
 
-    private OAuthConsumerAppDTO getRequestDTO() {
-        OAuthConsumerAppDTO appDTO = new OAuthConsumerAppDTO();
-        appDTO.setApplicationName(DeviceManagementConstants.AppManagement.OAUTH_APPLICATION_NAME);
-        appDTO.setGrantTypes(
-                DeviceManagementConstants.AppManagement.OAUTH2_GRANT_TYPE_CLIENT_CREDENTIALS);
-        appDTO.setOAuthVersion(DeviceManagementConstants.AppManagement.OAUTH_VERSION_2);
-        return appDTO;
+        for (Map.Entry<DeviceManagementService, List<DeviceIdentifier>> entry : acceptedDevicesOfPlugin.entrySet()) {
+            entry.getKey().installApplication(operation, entry.getValue());
+            result.getAcceptedDevices().addAll(entry.getValue());
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Application install operation accepted for " + result.getAcceptedDevices().size() +
+                    " of " + deviceIds.size() + " targeted device(s)");
+        }
+        return result;
     }
 
-    private void handleException(String msg, Exception e) throws ApplicationManagementException {
-        log.error(msg, e);
-        throw new ApplicationManagementException(msg, e);
+    public void updateInstalledApplicationListOfDevice(
+            DeviceIdentifier deviceIdentifier, List<Application> applications) throws ApplicationManagementException {
     }
 
     public DeviceManagementPluginRepository getPluginRepository() {
@@ -182,54 +186,13 @@ public class ApplicationManagerProviderServiceImpl implements ApplicationManagem
                 log.debug("Device:" + device.getId() + ":identifier:" + deviceIdentifier.getId());
             }
 
-            List<Application> installedAppList = getApplicationListForDevice(deviceIdentifier);
-
-            if (log.isDebugEnabled()) {
-                log.debug("num of apps installed:" + installedAppList.size());
-            }
-            List<Application> appsToAdd = new ArrayList<>();
-            List<Integer> appIdsToRemove = new ArrayList<>();
-
-            for (Application installedApp : installedAppList) {
-                if (!applications.contains(installedApp)) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Remove app Id:" + installedApp.getId());
-                    }
-                    appIdsToRemove.add(installedApp.getId());
-                }
-            }
-
-            Application installedApp;
-            List<Integer> applicationIds = new ArrayList<>();
-
-            for (Application application : applications) {
-                if (!installedAppList.contains(application)) {
-                    installedApp = applicationDAO.getApplication(application.getApplicationIdentifier(), tenantId);
-                    if (installedApp == null) {
-                        appsToAdd.add(application);
-                    } else {
-                        applicationIds.add(installedApp.getId());
-                    }
-                }
-            }
-            if (log.isDebugEnabled()) {
-                log.debug("num of apps add:" + appsToAdd.size());
-            }
-            applicationIds.addAll(applicationDAO.addApplications(appsToAdd, tenantId));
-
-            if (log.isDebugEnabled()) {
-                log.debug("num of app Ids:" + applicationIds.size());
-            }
-            applicationMappingDAO.addApplicationMappings(device.getId(), applicationIds, tenantId);
-
-            if (log.isDebugEnabled()) {
-                log.debug("num of remove app Ids:" + appIdsToRemove.size());
-            }
-            applicationMappingDAO.removeApplicationMapping(device.getId(), appIdsToRemove, tenantId);
+            inventoryReconciler.reconcile(device.getId(), applications, tenantId);
             DeviceManagementDAOFactory.commitTransaction();
         } catch (DeviceManagementDAOException | TransactionManagementException e) {
             DeviceManagementDAOFactory.rollbackTransaction();
             throw new ApplicationManagementException("Error occurred saving application list to the device", e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
         }
     }
 
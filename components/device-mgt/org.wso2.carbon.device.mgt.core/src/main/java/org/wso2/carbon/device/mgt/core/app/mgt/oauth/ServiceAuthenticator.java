@@ -1,51 +0,0 @@
-/*
- * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
- *
- * WSO2 Inc. licenses this file to you under the Apache License,
- * Version 2.0 (the "License"); you may not use this file except
- * in compliance with the License.
- * You may obtain a copy of the License at
- *
- * http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing,
- * software distributed under the License is distributed on an
- * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
- * KIND, either express or implied.  See the License for the
- * specific language governing permissions and limitations
- * under the License.
- */
-package org.wso2.carbon.device.mgt.core.app.mgt.oauth;
-
-
-import org.apache.axis2.client.Options;
-import org.apache.axis2.client.ServiceClient;
-import org.apache.axis2.transport.http.HttpTransportProperties;
-import org.wso2.carbon.device.mgt.common.app.mgt.ApplicationManagementException;
-
-/**
- * Authenticate a given service client.
- */
-public class ServiceAuthenticator {
-
-    private String username;
-    private String password;
-
-    public ServiceAuthenticator(String username, String password) {
-        this.username = username;
-        this.password = password;
-    }
-
-    public void authenticate(ServiceClient client) throws ApplicationManagementException {
-        Options option = client.getOptions();
-        HttpTransportProperties.Authenticator auth = new HttpTransportProperties.Authenticator();
-        auth.setUsername(username);
-        auth.setPassword(password);
-        auth.setPreemptiveAuthentication(true);
-        option.setProperty(org.apache.axis2.transport.http.HTTPConstants.AUTHENTICATE, auth);
-        option.setManageSession(true);
-    }
-
-}
-
-
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.core.codec;
+
+/**
+ * Converts the payloads persisted as BLOBs, such as operation details, operation responses and policies, to and from
+ * their binary representation. Implementations only deal with the payload body, the header that identifies the codec
+ * a payload has been written with is handled by {@link PayloadCodecUtil}.
+ */
+public interface PayloadCodec {
+
+    /**
+     * @return Unique id of the codec which is written to the header of each payload encoded by the codec.
+     */
+    byte getId();
+
+    /**
+     * @return Name the codec is referred by in cdm-config.xml.
+     */
+    String getName();
+
+    byte[] encode(Object payload) throws PayloadCodecException;
+
+    /**
+     * Decodes a payload body.
+     *
+     * @param payload     Payload body written by {@link #encode(Object)}
+     * @param classLoader Class loader used to resolve the classes of the decoded object graph
+     * @return Decoded payload
+     * @throws PayloadCodecException If the payload cannot be decoded
+     */
+    Object decode(byte[] payload, ClassLoader classLoader) throws PayloadCodecException;
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.core.codec;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.core.DeviceManagementConstants;
+import org.wso2.carbon.device.mgt.core.codec.impl.DeflatePayloadCodec;
+import org.wso2.carbon.device.mgt.core.codec.impl.JavaSerializationPayloadCodec;
+import org.wso2.carbon.device.mgt.core.codec.impl.JsonPayloadCodec;
+import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.DeviceManagementConfig;
+import org.wso2.carbon.device.mgt.core.config.codec.PayloadCodecConfiguration;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Entry point for encoding and decoding persisted payloads. Each payload is prefixed with a header made of a magic
+ * number, the header version and the id of the codec the payload body was written with, so that rows written with
+ * different codecs can co-exist. Rows written before the header was introduced are plain Java serialization streams
+ * and are recognized by the serialization stream magic number.
+ */
+public final class PayloadCodecUtil {
+
+    private static final Log log = LogFactory.getLog(PayloadCodecUtil.class);
+
+    private static final byte[] HEADER_MAGIC = {'C', 'D', 'M'};
+    private static final byte HEADER_VERSION = 1;
+    private static final int HEADER_LENGTH = HEADER_MAGIC.length + 2;
+    private static final byte[] JAVA_SERIALIZATION_MAGIC = {(byte) 0xAC, (byte) 0xED};
+
+    private static final PayloadCodec LEGACY_CODEC = new JavaSerializationPayloadCodec();
+    private static final Map<Byte, PayloadCodec> codecsById = new HashMap<>();
+    private static final Map<String, PayloadCodec> codecsByName = new HashMap<>();
+    private static volatile PayloadCodec defaultCodec;
+
+    static {
+        registerCodec(LEGACY_CODEC);
+        registerCodec(new DeflatePayloadCodec());
+        registerCodec(new JsonPayloadCodec());
+    }
+
+    private PayloadCodecUtil() {
+        throw new AssertionError();
+    }
+
+    private static void registerCodec(PayloadCodec codec) {
+        codecsById.put(codec.getId(), codec);
+        codecsByName.put(codec.getName(), codec);
+    }
+
+    /**
+     * Encodes the payload with the codec configured for the deployment.
+     *
+     * @param payload Payload to be encoded
+     * @return Encoded payload prefixed with the codec header
+     * @throws PayloadCodecException If the payload cannot be encoded
+     */
+    public static byte[] encode(Object payload) throws PayloadCodecException {
+        PayloadCodec codec = getDefaultCodec();
+        byte[] body = codec.encode(payload);
+        byte[] encoded = new byte[HEADER_LENGTH + body.length];
+        System.arraycopy(HEADER_MAGIC, 0, encoded, 0, HEADER_MAGIC.length);
+        encoded[HEADER_MAGIC.length] = HEADER_VERSION;
+        encoded[HEADER_MAGIC.length + 1] = codec.getId();
+        System.arraycopy(body, 0, encoded, HEADER_LENGTH, body.length);
+        return encoded;
+    }
+
+    public static Object decode(byte[] payload) throws PayloadCodecException {
+        return decode(payload, PayloadCodecUtil.class.getClassLoader());
+    }
+
+    /**
+     * Decodes a payload written by {@link #encode(Object)} or a legacy Java serialized payload.
+     *
+     * @param payload     Persisted payload
+     * @param classLoader Class loader used to resolve the classes of the decoded object graph
+     * @return Decoded payload, or null if the payload is null
+     * @throws PayloadCodecException If the payload is in an unknown format or cannot be decoded
+     */
+    public static Object decode(byte[] payload, ClassLoader classLoader) throws PayloadCodecException {
+        if (payload == null) {
+            return null;
+        }
+        if (startsWith(payload, JAVA_SERIALIZATION_MAGIC)) {
+            return LEGACY_CODEC.decode(payload, classLoader);
+        }
+        if (payload.length < HEADER_LENGTH || !startsWith(payload, HEADER_MAGIC)) {
+            throw new PayloadCodecException("Payload is neither carrying a codec header nor Java serialized");
+        }
+        byte version = payload[HEADER_MAGIC.length];
+        if (version != HEADER_VERSION) {
+            throw new PayloadCodecException("Unsupported payload header version '" + version + "'");
+        }
+        byte codecId = payload[HEADER_MAGIC.length + 1];
+        PayloadCodec codec = codecsById.get(codecId);
+        if (codec == null) {
+            throw new PayloadCodecException("No payload codec is available for the codec id '" + codecId + "'");
+        }
+        return codec.decode(Arrays.copyOfRange(payload, HEADER_LENGTH, payload.length), classLoader);
+    }
+
+    private static boolean startsWith(byte[] payload, byte[] prefix) {
+        if (payload.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (payload[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static PayloadCodec getDefaultCodec() {
+        if (defaultCodec == null) {
+            String codecName = DeviceManagementConstants.PayloadCodec.DEFAULT_CODEC;
+            DeviceManagementConfig config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig();
+            if (config != null && config.getDeviceManagementConfigRepository() != null) {
+                PayloadCodecConfiguration codecConfig =
+                        config.getDeviceManagementConfigRepository().getPayloadCodecConfiguration();
+                if (codecConfig != null && codecConfig.getCodec() != null) {
+                    codecName = codecConfig.getCodec().trim();
+                }
+            }
+            PayloadCodec codec = codecsByName.get(codecName);
+            if (codec == null) {
+                log.warn("Payload codec '" + codecName + "' is not available, hence falling back to '" +
+                        DeviceManagementConstants.PayloadCodec.DEFAULT_CODEC + "'");
+                codec = codecsByName.get(DeviceManagementConstants.PayloadCodec.DEFAULT_CODEC);
+            }
+            defaultCodec = codec;
+        }
+        return defaultCodec;
+    }
+
+}
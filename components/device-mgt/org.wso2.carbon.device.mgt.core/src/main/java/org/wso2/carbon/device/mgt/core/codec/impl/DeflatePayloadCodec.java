@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.core.codec.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Codec that deflates the serialized form of the payload. Payloads are written as JSON by default, this codec is
+ * kept so that the rows written with it can still be read, or for deployments that explicitly configure it.
+ */
+public class DeflatePayloadCodec extends JavaSerializationPayloadCodec {
+
+    public static final byte ID = 2;
+    public static final String NAME = "deflate";
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    protected OutputStream wrap(OutputStream out) throws IOException {
+        return new DeflaterOutputStream(out);
+    }
+
+    @Override
+    protected InputStream wrap(InputStream in) throws IOException {
+        return new InflaterInputStream(in);
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.core.codec.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.core.codec.PayloadCodec;
+import org.wso2.carbon.device.mgt.core.codec.PayloadCodecException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+
+/**
+ * Codec that writes payloads using plain Java serialization. This is the format all the payloads were persisted in
+ * before payload codecs were introduced, hence it is also used to read the rows that do not carry a codec header.
+ */
+public class JavaSerializationPayloadCodec implements PayloadCodec {
+
+    public static final byte ID = 1;
+    public static final String NAME = "java";
+
+    private static final Log log = LogFactory.getLog(JavaSerializationPayloadCodec.class);
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object payload) throws PayloadCodecException {
+        ByteArrayOutputStream bao = new ByteArrayOutputStream();
+        ObjectOutputStream oos = null;
+        try {
+            oos = new ObjectOutputStream(this.wrap(bao));
+            oos.writeObject(payload);
+        } catch (IOException e) {
+            throw new PayloadCodecException("Error occurred while serializing the payload", e);
+        } finally {
+            if (oos != null) {
+                try {
+                    oos.close();
+                } catch (IOException e) {
+                    log.warn("Error occurred while closing ObjectOutputStream", e);
+                }
+            }
+        }
+        return bao.toByteArray();
+    }
+
+    @Override
+    public Object decode(byte[] payload, ClassLoader classLoader) throws PayloadCodecException {
+        ObjectInputStream ois = null;
+        try {
+            ois = new ClassLoaderAwareObjectInputStream(this.wrap(new ByteArrayInputStream(payload)), classLoader);
+            return ois.readObject();
+        } catch (IOException e) {
+            throw new PayloadCodecException("IO error occurred while de-serializing the payload", e);
+        } catch (ClassNotFoundException e) {
+            throw new PayloadCodecException("Class not found error occurred while de-serializing the payload", e);
+        } finally {
+            if (ois != null) {
+                try {
+                    ois.close();
+                } catch (IOException e) {
+                    log.warn("Error occurred while closing ObjectInputStream", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Allows sub classes to transform the serialized form, e.g. to compress it, before it is written out.
+     */
+    protected OutputStream wrap(OutputStream out) throws IOException {
+        return out;
+    }
+
+    protected InputStream wrap(InputStream in) throws IOException {
+        return in;
+    }
+
+    /**
+     * Payloads may carry classes of other bundles (i.e. policy management), hence classes are resolved using the
+     * class loader of the caller rather than the one of this bundle.
+     */
+    private static class ClassLoaderAwareObjectInputStream extends ObjectInputStream {
+
+        private ClassLoader classLoader;
+
+        public ClassLoaderAwareObjectInputStream(InputStream in, ClassLoader classLoader) throws IOException {
+            super(in);
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (classLoader != null) {
+                try {
+                    return Class.forName(desc.getName(), false, classLoader);
+                } catch (ClassNotFoundException e) {
+                    // Falls back to the default resolution which also takes care of primitive types.
+                }
+            }
+            return super.resolveClass(desc);
+        }
+    }
+
+}
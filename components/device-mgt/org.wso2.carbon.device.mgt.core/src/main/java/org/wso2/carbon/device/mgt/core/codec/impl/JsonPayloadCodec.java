@@ -0,0 +1,515 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.core.codec.impl;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.wso2.carbon.device.mgt.core.codec.PayloadCodec;
+import org.wso2.carbon.device.mgt.core.codec.PayloadCodecException;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Codec that writes payloads as UTF-8 encoded JSON. Objects are written as JSON objects of their non static,
+ * non transient fields, so that a payload only carries the field names and values rather than the class descriptors
+ * of Java serialization. The class of a value is only written, as a {@value #TYPE_KEY} / {@value #VALUE_KEY} pair,
+ * when it cannot be derived from the declared type of the field or collection it is held in, e.g. for the
+ * {@code Object} payload of an operation. Such classes are only resolved if they are on an allow list, hence a
+ * tampered payload cannot make the codec instantiate arbitrary classes.
+ * <p>
+ * Shared references and cycles are not supported; a payload containing a cycle is rejected when it is encoded.
+ * A payload is also rejected when it is encoded if any of its objects, collections or maps is of a class that
+ * could not be instantiated when it is decoded, i.e. a class which is not on the allow list or does not have a
+ * no-arg constructor, so that nothing is written that cannot be read back.
+ */
+public class JsonPayloadCodec implements PayloadCodec {
+
+    public static final byte ID = 3;
+    public static final String NAME = "json";
+
+    static final String TYPE_KEY = "@type";
+    static final String VALUE_KEY = "@value";
+
+    private static final String ALLOWED_PACKAGE_PREFIX = "org.wso2.carbon.";
+    private static final Set<String> ALLOWED_CLASSES = new HashSet<>(Arrays.asList(
+            String.class.getName(), Boolean.class.getName(), Character.class.getName(), Byte.class.getName(),
+            Short.class.getName(), Integer.class.getName(), Long.class.getName(), Float.class.getName(),
+            Double.class.getName(), ArrayList.class.getName(), java.util.LinkedList.class.getName(),
+            java.util.Vector.class.getName(), HashSet.class.getName(), LinkedHashSet.class.getName(),
+            TreeSet.class.getName(), HashMap.class.getName(), LinkedHashMap.class.getName(),
+            TreeMap.class.getName(), java.util.Hashtable.class.getName(), java.util.Properties.class.getName(),
+            Date.class.getName(), java.sql.Timestamp.class.getName(), java.sql.Date.class.getName(),
+            java.sql.Time.class.getName()));
+    private static final Map<String, Class<?>> PRIMITIVE_CLASSES = new HashMap<>();
+
+    private static final Map<Class<?>, List<Field>> fieldsByClass = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Map<String, Field>> fieldsByName = new ConcurrentHashMap<>();
+    private static final Set<Class<?>> decodableClasses =
+            Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+
+    static {
+        for (Class<?> primitive : Arrays.<Class<?>>asList(boolean.class, char.class, byte.class, short.class,
+                int.class, long.class, float.class, double.class, void.class)) {
+            PRIMITIVE_CLASSES.put(primitive.getName(), primitive);
+        }
+    }
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object payload) throws PayloadCodecException {
+        try {
+            Object json = this.toJson(payload, Object.class,
+                    Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>()));
+            return JSONValue.toJSONString(json).getBytes(StandardCharsets.UTF_8);
+        } catch (IllegalAccessException e) {
+            throw new PayloadCodecException("Error occurred while reading the fields of the payload", e);
+        }
+    }
+
+    @Override
+    public Object decode(byte[] payload, ClassLoader classLoader) throws PayloadCodecException {
+        Object json;
+        try {
+            json = new JSONParser().parse(new String(payload, StandardCharsets.UTF_8));
+        } catch (ParseException e) {
+            throw new PayloadCodecException("Error occurred while parsing the JSON payload", e);
+        }
+        try {
+            return this.fromJson(json, Object.class, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new PayloadCodecException("Class not found error occurred while decoding the JSON payload", e);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new PayloadCodecException("Error occurred while decoding the JSON payload", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object toJson(Object value, Type declaredType, Set<Object> path)
+            throws PayloadCodecException, IllegalAccessException {
+        if (value == null) {
+            return null;
+        }
+        Class<?> valueClass = this.getEncodedClass(value);
+        Object json;
+        if (value instanceof String || value instanceof Boolean) {
+            json = value;
+        } else if (value instanceof Number) {
+            json = (value instanceof Float) ? Double.valueOf(value.toString()) : value;
+        } else if (value instanceof Character) {
+            json = value.toString();
+        } else if (value instanceof Enum) {
+            json = ((Enum<?>) value).name();
+        } else if (value instanceof Class) {
+            json = ((Class<?>) value).getName();
+        } else if (value instanceof Date) {
+            json = ((Date) value).getTime();
+        } else {
+            if (!path.add(value)) {
+                throw new PayloadCodecException("Payload of type '" + value.getClass().getName() +
+                        "' refers to itself and cannot be encoded as JSON");
+            }
+            if (!valueClass.isArray()) {
+                checkDecodable(valueClass);
+            }
+            if (value instanceof Collection) {
+                JSONArray array = new JSONArray();
+                Type elementType = getTypeArgument(declaredType, 0);
+                for (Object element : (Collection<?>) value) {
+                    array.add(this.toJson(element, elementType, path));
+                }
+                json = array;
+            } else if (valueClass.isArray()) {
+                JSONArray array = new JSONArray();
+                for (int i = 0; i < Array.getLength(value); i++) {
+                    array.add(this.toJson(Array.get(value, i), valueClass.getComponentType(), path));
+                }
+                json = array;
+            } else if (value instanceof Map) {
+                JSONObject object = new JSONObject();
+                Type valueType = getTypeArgument(declaredType, 1);
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    if (!(entry.getKey() instanceof String)) {
+                        throw new PayloadCodecException("Map of type '" + value.getClass().getName() +
+                                "' has a key which is not a string, hence it cannot be encoded as JSON");
+                    }
+                    object.put(entry.getKey(), this.toJson(entry.getValue(), valueType, path));
+                }
+                json = object;
+            } else {
+                JSONObject object = new JSONObject();
+                for (Field field : getFields(valueClass)) {
+                    object.put(getFieldKey(valueClass, field), this.toJson(field.get(value),
+                            field.getGenericType(), path));
+                }
+                json = object;
+            }
+            path.remove(value);
+        }
+        Class<?> declaredClass = getRawType(declaredType);
+        boolean ambiguous = (json instanceof Map) && ((Map<?, ?>) json).containsKey(TYPE_KEY);
+        if (!ambiguous && getImplicitClass(declaredClass, json) == valueClass) {
+            return json;
+        }
+        if (!isAllowed(valueClass.getName())) {
+            throw new PayloadCodecException("Payload value of type '" + valueClass.getName() + "' is not allowed " +
+                    "to be decoded, hence it cannot be encoded as JSON");
+        }
+        JSONObject typed = new JSONObject();
+        typed.put(TYPE_KEY, valueClass.getName());
+        typed.put(VALUE_KEY, json);
+        return typed;
+    }
+
+    private Object fromJson(Object json, Type declaredType, ClassLoader classLoader)
+            throws ReflectiveOperationException, PayloadCodecException {
+        if (json == null) {
+            return null;
+        }
+        Class<?> declaredClass = box(getRawType(declaredType));
+        Class<?> valueClass;
+        if ((json instanceof Map) && ((Map<?, ?>) json).containsKey(TYPE_KEY)) {
+            Map<?, ?> typed = (Map<?, ?>) json;
+            valueClass = this.resolveClass((String) typed.get(TYPE_KEY), classLoader, true);
+            if (!declaredClass.isAssignableFrom(box(valueClass))) {
+                throw new PayloadCodecException("Payload value of type '" + valueClass.getName() +
+                        "' cannot be assigned to '" + declaredClass.getName() + "'");
+            }
+            json = typed.get(VALUE_KEY);
+            if (json == null) {
+                return null;
+            }
+        } else {
+            valueClass = getImplicitClass(declaredClass, json);
+        }
+        return this.createValue(json, box(valueClass), declaredType, classLoader);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object createValue(Object json, Class<?> valueClass, Type declaredType, ClassLoader classLoader)
+            throws ReflectiveOperationException, PayloadCodecException {
+        if (valueClass == String.class || valueClass == Boolean.class) {
+            return valueClass.cast(json);
+        } else if (valueClass == Character.class) {
+            return ((String) json).charAt(0);
+        } else if (Number.class.isAssignableFrom(valueClass)) {
+            return toNumber((Number) json, valueClass);
+        } else if (valueClass.isEnum()) {
+            return Enum.valueOf(valueClass.asSubclass(Enum.class), (String) json);
+        } else if (valueClass == Class.class) {
+            return this.resolveClass((String) json, classLoader, false);
+        } else if (Date.class.isAssignableFrom(valueClass)) {
+            return valueClass.getConstructor(long.class).newInstance(((Number) json).longValue());
+        } else if (valueClass.isArray()) {
+            List<?> elements = (List<?>) json;
+            Object array = Array.newInstance(valueClass.getComponentType(), elements.size());
+            for (int i = 0; i < elements.size(); i++) {
+                Array.set(array, i, this.fromJson(elements.get(i), valueClass.getComponentType(), classLoader));
+            }
+            return array;
+        } else if (Collection.class.isAssignableFrom(valueClass)) {
+            Collection<Object> collection = (Collection<Object>) newInstance(valueClass);
+            Type elementType = getTypeArgument(declaredType, 0);
+            for (Object element : (List<?>) json) {
+                collection.add(this.fromJson(element, elementType, classLoader));
+            }
+            return collection;
+        } else if (Map.class.isAssignableFrom(valueClass)) {
+            Map<Object, Object> map = (Map<Object, Object>) newInstance(valueClass);
+            Type valueType = getTypeArgument(declaredType, 1);
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) json).entrySet()) {
+                map.put(entry.getKey(), this.fromJson(entry.getValue(), valueType, classLoader));
+            }
+            return map;
+        }
+        Object object = newInstance(valueClass);
+        Map<String, Field> fields = getFieldsByName(valueClass);
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) json).entrySet()) {
+            Field field = fields.get(entry.getKey());
+            if (field == null) {
+                throw new PayloadCodecException("Class '" + valueClass.getName() + "' does not have a field named '" +
+                        entry.getKey() + "'");
+            }
+            Object fieldValue = this.fromJson(entry.getValue(), field.getGenericType(), classLoader);
+            if (fieldValue != null || !field.getType().isPrimitive()) {
+                field.set(object, fieldValue);
+            }
+        }
+        return object;
+    }
+
+    private Class<?> resolveClass(String className, ClassLoader classLoader, boolean checkAllowed)
+            throws ClassNotFoundException, PayloadCodecException {
+        Class<?> primitive = PRIMITIVE_CLASSES.get(className);
+        if (primitive != null) {
+            return primitive;
+        }
+        if (checkAllowed && !isAllowed(className)) {
+            throw new PayloadCodecException("Payload refers to class '" + className + "' which is not allowed to " +
+                    "be decoded");
+        }
+        if (classLoader != null) {
+            try {
+                return Class.forName(className, false, classLoader);
+            } catch (ClassNotFoundException e) {
+                // Falls back to the class loader of this bundle.
+            }
+        }
+        return Class.forName(className, false, JsonPayloadCodec.class.getClassLoader());
+    }
+
+    private static boolean isAllowed(String className) {
+        int dimensions = 0;
+        while (className.charAt(dimensions) == '[') {
+            dimensions++;
+        }
+        if (dimensions == 0) {
+            return className.startsWith(ALLOWED_PACKAGE_PREFIX) || ALLOWED_CLASSES.contains(className);
+        }
+        if (className.charAt(dimensions) != 'L') {
+            // Array of primitives, e.g. [I
+            return true;
+        }
+        return isAllowed(className.substring(dimensions + 1, className.length() - 1));
+    }
+
+    /**
+     * Returns the class a value written without a type is decoded to, given the type it is declared as and the
+     * kind of JSON value it has been written as. The encoder writes the type of a value whenever it differs from
+     * the class returned here.
+     */
+    private static Class<?> getImplicitClass(Class<?> declaredClass, Object json) {
+        Class<?> boxed = box(declaredClass);
+        if (boxed.isEnum() || boxed.isArray() || (boxed != Object.class && !boxed.isInterface() &&
+                !Modifier.isAbstract(boxed.getModifiers()))) {
+            return boxed;
+        }
+        if (json instanceof String || json instanceof Boolean || json instanceof Long || json instanceof Double) {
+            return json.getClass();
+        }
+        if (json instanceof List) {
+            if (SortedSet.class.isAssignableFrom(boxed)) {
+                return TreeSet.class;
+            }
+            return Set.class.isAssignableFrom(boxed) ? HashSet.class : ArrayList.class;
+        }
+        if (json instanceof Map) {
+            return SortedMap.class.isAssignableFrom(boxed) ? TreeMap.class : HashMap.class;
+        }
+        return boxed;
+    }
+
+    /**
+     * Collections and maps of JDK internal classes, e.g. unmodifiable views, are written as their closest allowed
+     * counterpart since they cannot be instantiated when the payload is decoded.
+     */
+    private Class<?> getEncodedClass(Object value) {
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).getDeclaringClass();
+        }
+        Class<?> valueClass = value.getClass();
+        if (isAllowed(valueClass.getName())) {
+            return valueClass;
+        }
+        if (value instanceof Collection) {
+            if (value instanceof SortedSet) {
+                return TreeSet.class;
+            }
+            return (value instanceof Set) ? LinkedHashSet.class : ArrayList.class;
+        }
+        if (value instanceof Map) {
+            return (value instanceof SortedMap) ? TreeMap.class : LinkedHashMap.class;
+        }
+        return valueClass;
+    }
+
+    private static List<Field> getFields(Class<?> type) {
+        List<Field> fields = fieldsByClass.get(type);
+        if (fields == null) {
+            fields = new ArrayList<>();
+            for (Class<?> current = type; current != null && current != Object.class;
+                 current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+            fieldsByClass.put(type, fields);
+        }
+        return fields;
+    }
+
+    private static Map<String, Field> getFieldsByName(Class<?> type) {
+        Map<String, Field> fields = fieldsByName.get(type);
+        if (fields == null) {
+            fields = new HashMap<>();
+            for (Field field : getFields(type)) {
+                fields.put(getFieldKey(type, field), field);
+            }
+            fieldsByName.put(type, fields);
+        }
+        return fields;
+    }
+
+    /**
+     * Fields are written by their name. A field hidden by a field of the same name in a sub class, e.g. the
+     * properties of an operation, is qualified with the simple name of the class declaring it.
+     */
+    private static String getFieldKey(Class<?> type, Field field) {
+        for (Class<?> current = type; current != field.getDeclaringClass(); current = current.getSuperclass()) {
+            for (Field declared : current.getDeclaredFields()) {
+                if (declared.getName().equals(field.getName()) && !Modifier.isStatic(declared.getModifiers())) {
+                    return field.getDeclaringClass().getSimpleName() + "." + field.getName();
+                }
+            }
+        }
+        return field.getName();
+    }
+
+    /**
+     * Checks that a payload object, collection or map of the given class can be instantiated when it is decoded.
+     * The check is applied when a payload is encoded as well, so that a payload which cannot be decoded is never
+     * written.
+     */
+    private static void checkDecodable(Class<?> type) throws PayloadCodecException {
+        if (decodableClasses.contains(type)) {
+            return;
+        }
+        if (!isAllowed(type.getName())) {
+            throw new PayloadCodecException("Class '" + type.getName() + "' is not allowed in JSON payloads");
+        }
+        try {
+            type.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new PayloadCodecException("Class '" + type.getName() + "' does not have a no-arg constructor, " +
+                    "hence it cannot be used in JSON payloads", e);
+        }
+        decodableClasses.add(type);
+    }
+
+    private static Object newInstance(Class<?> type) throws ReflectiveOperationException, PayloadCodecException {
+        checkDecodable(type);
+        Constructor<?> constructor;
+        try {
+            constructor = type.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new PayloadCodecException("Class '" + type.getName() + "' does not have a no-arg constructor, " +
+                    "hence it cannot be decoded from JSON", e);
+        }
+        constructor.setAccessible(true);
+        try {
+            return constructor.newInstance();
+        } catch (InvocationTargetException e) {
+            throw new PayloadCodecException("Error occurred while instantiating '" + type.getName() + "'",
+                    e.getCause());
+        }
+    }
+
+    private static Object toNumber(Number number, Class<?> type) {
+        if (type == Integer.class) {
+            return number.intValue();
+        } else if (type == Long.class) {
+            return number.longValue();
+        } else if (type == Double.class) {
+            return number.doubleValue();
+        } else if (type == Float.class) {
+            return number.floatValue();
+        } else if (type == Short.class) {
+            return number.shortValue();
+        } else if (type == Byte.class) {
+            return number.byteValue();
+        }
+        return number;
+    }
+
+    private static Class<?> box(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        return Array.get(Array.newInstance(type, 1), 0).getClass();
+    }
+
+    private static Class<?> getRawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return getRawType(((ParameterizedType) type).getRawType());
+        } else if (type instanceof GenericArrayType) {
+            return Array.newInstance(getRawType(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        } else if (type instanceof TypeVariable) {
+            return getRawType(((TypeVariable<?>) type).getBounds()[0]);
+        } else if (type instanceof WildcardType) {
+            return getRawType(((WildcardType) type).getUpperBounds()[0]);
+        }
+        return Object.class;
+    }
+
+    private static Type getTypeArgument(Type type, int index) {
+        if (type instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+            if (index < arguments.length) {
+                return arguments[index];
+            }
+        }
+        return Object.class;
+    }
+
+}
@@ -17,10 +17,15 @@
  */
 package org.wso2.carbon.device.mgt.core.config;
 
+import org.wso2.carbon.device.mgt.core.config.archival.OperationArchivalConfiguration;
+import org.wso2.carbon.device.mgt.core.config.codec.PayloadCodecConfiguration;
 import org.wso2.carbon.device.mgt.core.config.datasource.DataSourceConfig;
 import org.wso2.carbon.device.mgt.core.config.email.EmailConfigurations;
 import org.wso2.carbon.device.mgt.core.config.identity.IdentityConfigurations;
+import org.wso2.carbon.device.mgt.core.config.operation.OperationConfiguration;
+import org.wso2.carbon.device.mgt.core.config.pagination.PaginationConfiguration;
 import org.wso2.carbon.device.mgt.core.config.policy.PolicyConfiguration;
+import org.wso2.carbon.device.mgt.core.config.role.RoleDeviceResolverConfiguration;
 
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
@@ -35,6 +40,11 @@ public class DeviceManagementConfigRepository {
 	private EmailConfigurations emailConfigurations;
 	private IdentityConfigurations identityConfigurations;
 	private PolicyConfiguration policyConfiguration;
+	private PaginationConfiguration paginationConfiguration;
+	private OperationConfiguration operationConfiguration;
+	private PayloadCodecConfiguration payloadCodecConfiguration;
+	private OperationArchivalConfiguration operationArchivalConfiguration;
+	private RoleDeviceResolverConfiguration roleDeviceResolverConfiguration;
 
 	@XmlElement(name = "DataSourceConfiguration", required = true)
 	public DataSourceConfig getDataSourceConfig() {
@@ -71,4 +81,49 @@ public class DeviceManagementConfigRepository {
 	public void setPolicyConfiguration(PolicyConfiguration policyConfiguration) {
 		this.policyConfiguration = policyConfiguration;
 	}
+
+	@XmlElement(name = "PaginationConfiguration", required = false)
+	public PaginationConfiguration getPaginationConfiguration() {
+		return paginationConfiguration;
+	}
+
+	public void setPaginationConfiguration(PaginationConfiguration paginationConfiguration) {
+		this.paginationConfiguration = paginationConfiguration;
+	}
+
+	@XmlElement(name = "OperationConfiguration", required = false)
+	public OperationConfiguration getOperationConfiguration() {
+		return operationConfiguration;
+	}
+
+	public void setOperationConfiguration(OperationConfiguration operationConfiguration) {
+		this.operationConfiguration = operationConfiguration;
+	}
+
+	@XmlElement(name = "PayloadCodecConfiguration", required = false)
+	public PayloadCodecConfiguration getPayloadCodecConfiguration() {
+		return payloadCodecConfiguration;
+	}
+
+	public void setPayloadCodecConfiguration(PayloadCodecConfiguration payloadCodecConfiguration) {
+		this.payloadCodecConfiguration = payloadCodecConfiguration;
+	}
+
+	@XmlElement(name = "OperationArchivalConfiguration", required = false)
+	public OperationArchivalConfiguration getOperationArchivalConfiguration() {
+		return operationArchivalConfiguration;
+	}
+
+	public void setOperationArchivalConfiguration(OperationArchivalConfiguration operationArchivalConfiguration) {
+		this.operationArchivalConfiguration = operationArchivalConfiguration;
+	}
+
+	@XmlElement(name = "RoleDeviceResolverConfiguration", required = false)
+	public RoleDeviceResolverConfiguration getRoleDeviceResolverConfiguration() {
+		return roleDeviceResolverConfiguration;
+	}
+
+	public void setRoleDeviceResolverConfiguration(RoleDeviceResolverConfiguration roleDeviceResolverConfiguration) {
+		this.roleDeviceResolverConfiguration = roleDeviceResolverConfiguration;
+	}
 }
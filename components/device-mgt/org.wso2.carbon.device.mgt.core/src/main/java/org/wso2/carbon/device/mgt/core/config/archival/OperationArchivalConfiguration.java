@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.core.config.archival;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Class for holding the configurations of the task that archives or purges the history of completed operations.
+ */
+@XmlRootElement(name = "OperationArchivalConfiguration")
+public class OperationArchivalConfiguration {
+
+	private boolean enabled;
+	private String mode;
+	private int retentionPeriod;
+	private int batchSize;
+	private long taskFrequency;
+
+	@XmlElement(name = "Enabled", required = true)
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	@XmlElement(name = "Mode", required = false)
+	public String getMode() {
+		return mode;
+	}
+
+	public void setMode(String mode) {
+		this.mode = mode;
+	}
+
+	@XmlElement(name = "RetentionPeriod", required = false)
+	public int getRetentionPeriod() {
+		return retentionPeriod;
+	}
+
+	public void setRetentionPeriod(int retentionPeriod) {
+		this.retentionPeriod = retentionPeriod;
+	}
+
+	@XmlElement(name = "BatchSize", required = false)
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	@XmlElement(name = "TaskFrequency", required = false)
+	public long getTaskFrequency() {
+		return taskFrequency;
+	}
+
+	public void setTaskFrequency(long taskFrequency) {
+		this.taskFrequency = taskFrequency;
+	}
+}
@@ -28,6 +28,8 @@ import javax.xml.bind.annotation.XmlRootElement;
 public class DataSourceConfig {
 
 	private JNDILookupDefinition jndiLookupDefinition;
+	private boolean shareConnections;
+	private long connectionLeakDetectionThreshold;
 
 	@XmlElement(name = "JndiLookupDefinition", required = true)
 	public JNDILookupDefinition getJndiLookupDefinition() {
@@ -38,4 +40,22 @@ public class DataSourceConfig {
 		this.jndiLookupDefinition = jndiLookupDefinition;
 	}
 
+	@XmlElement(name = "ShareConnections", required = false)
+	public boolean isShareConnections() {
+		return shareConnections;
+	}
+
+	public void setShareConnections(boolean shareConnections) {
+		this.shareConnections = shareConnections;
+	}
+
+	@XmlElement(name = "ConnectionLeakDetectionThreshold", required = false)
+	public long getConnectionLeakDetectionThreshold() {
+		return connectionLeakDetectionThreshold;
+	}
+
+	public void setConnectionLeakDetectionThreshold(long connectionLeakDetectionThreshold) {
+		this.connectionLeakDetectionThreshold = connectionLeakDetectionThreshold;
+	}
+
 }
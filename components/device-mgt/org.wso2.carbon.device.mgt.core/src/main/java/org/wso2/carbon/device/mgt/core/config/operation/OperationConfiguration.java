@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.core.config.operation;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Class for holding the configurations used when an operation is fanned out to a set of devices and when
+ * pending operations are delivered to the devices.
+ */
+@XmlRootElement(name = "OperationConfiguration")
+public class OperationConfiguration {
+
+	private int fanOutBatchSize;
+	private boolean commitPerBatch;
+	private long longPollMaxWaitTime;
+	private int pendingOperationsLimit;
+
+	@XmlElement(name = "FanOutBatchSize", required = true)
+	public int getFanOutBatchSize() {
+		return fanOutBatchSize;
+	}
+
+	public void setFanOutBatchSize(int fanOutBatchSize) {
+		this.fanOutBatchSize = fanOutBatchSize;
+	}
+
+	@XmlElement(name = "CommitPerBatch", required = false)
+	public boolean isCommitPerBatch() {
+		return commitPerBatch;
+	}
+
+	public void setCommitPerBatch(boolean commitPerBatch) {
+		this.commitPerBatch = commitPerBatch;
+	}
+
+	@XmlElement(name = "LongPollMaxWaitTime", required = false)
+	public long getLongPollMaxWaitTime() {
+		return longPollMaxWaitTime;
+	}
+
+	public void setLongPollMaxWaitTime(long longPollMaxWaitTime) {
+		this.longPollMaxWaitTime = longPollMaxWaitTime;
+	}
+
+	@XmlElement(name = "PendingOperationsLimit", required = false)
+	public int getPendingOperationsLimit() {
+		return pendingOperationsLimit;
+	}
+
+	public void setPendingOperationsLimit(int pendingOperationsLimit) {
+		this.pendingOperationsLimit = pendingOperationsLimit;
+	}
+}
@@ -27,6 +27,12 @@ public class PolicyConfiguration {
 	private String monitoringClass;
 	private int maxRetries;
 	private int minRetriesToMarkUnreachable;
+	private int monitoringThreadPoolSize;
+	private int monitoringBatchSize;
+	private int monitoringShardCount;
+	private int monitoringShardIndex;
+	private int propagationThreadPoolSize;
+	private int propagationBatchSize;
 
 	@XmlElement(name = "monitoringClass", required = true)
 	public String getMonitoringClass() {
@@ -54,4 +60,58 @@ public class PolicyConfiguration {
 	public void setMinRetriesToMarkUnreachable(int minRetriesToMarkUnreachable) {
 		this.minRetriesToMarkUnreachable = minRetriesToMarkUnreachable;
 	}
+
+	@XmlElement(name = "monitoringThreadPoolSize", required = false)
+	public int getMonitoringThreadPoolSize() {
+		return monitoringThreadPoolSize;
+	}
+
+	public void setMonitoringThreadPoolSize(int monitoringThreadPoolSize) {
+		this.monitoringThreadPoolSize = monitoringThreadPoolSize;
+	}
+
+	@XmlElement(name = "monitoringBatchSize", required = false)
+	public int getMonitoringBatchSize() {
+		return monitoringBatchSize;
+	}
+
+	public void setMonitoringBatchSize(int monitoringBatchSize) {
+		this.monitoringBatchSize = monitoringBatchSize;
+	}
+
+	@XmlElement(name = "monitoringShardCount", required = false)
+	public int getMonitoringShardCount() {
+		return monitoringShardCount;
+	}
+
+	public void setMonitoringShardCount(int monitoringShardCount) {
+		this.monitoringShardCount = monitoringShardCount;
+	}
+
+	@XmlElement(name = "monitoringShardIndex", required = false)
+	public int getMonitoringShardIndex() {
+		return monitoringShardIndex;
+	}
+
+	public void setMonitoringShardIndex(int monitoringShardIndex) {
+		this.monitoringShardIndex = monitoringShardIndex;
+	}
+
+	@XmlElement(name = "propagationThreadPoolSize", required = false)
+	public int getPropagationThreadPoolSize() {
+		return propagationThreadPoolSize;
+	}
+
+	public void setPropagationThreadPoolSize(int propagationThreadPoolSize) {
+		this.propagationThreadPoolSize = propagationThreadPoolSize;
+	}
+
+	@XmlElement(name = "propagationBatchSize", required = false)
+	public int getPropagationBatchSize() {
+		return propagationBatchSize;
+	}
+
+	public void setPropagationBatchSize(int propagationBatchSize) {
+		this.propagationBatchSize = propagationBatchSize;
+	}
 }
@@ -26,11 +26,31 @@ public interface ApplicationDAO {
 
     int addApplication(Application application, int tenantId) throws DeviceManagementDAOException;
 
+    /**
+     * Adds the given applications in a single batch. Retrieval of the keys generated for a batch is driver
+     * dependent, hence callers requiring the ids of all the added applications have to resolve them through
+     * {@link #getApplications(List, int)}.
+     *
+     * @param applications Applications to be added
+     * @param tenantId     Id of the tenant
+     * @return Ids generated for the added applications, as returned by the driver
+     * @throws DeviceManagementDAOException If an error occurs while adding the applications
+     */
     List<Integer> addApplications(List<Application> applications, int tenantId) throws DeviceManagementDAOException;
 
     List<Integer> removeApplications(List<Application> apps, int tenantId) throws DeviceManagementDAOException;
 
     Application getApplication(String identifier, int tenantId) throws DeviceManagementDAOException;
 
+    /**
+     * Retrieves all the versions of the applications carrying the given identifiers in a single query.
+     *
+     * @param identifiers Identifiers of the applications
+     * @param tenantId    Id of the tenant
+     * @return Applications matching the identifiers, ordered by id
+     * @throws DeviceManagementDAOException If an error occurs while retrieving the applications
+     */
+    List<Application> getApplications(List<String> identifiers, int tenantId) throws DeviceManagementDAOException;
+
     List<Application> getInstalledApplications(int deviceId) throws DeviceManagementDAOException;
 }
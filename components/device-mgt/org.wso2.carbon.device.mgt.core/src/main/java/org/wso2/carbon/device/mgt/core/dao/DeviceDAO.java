@@ -25,6 +25,7 @@ import org.wso2.carbon.device.mgt.common.EnrolmentInfo.Status;
 import org.wso2.carbon.device.mgt.common.app.mgt.Application;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class represents the key operations associated with persisting device related information.
@@ -45,6 +46,35 @@ public interface DeviceDAO {
 
     List<Device> getDevicesOfUser(String username, int tenantId) throws DeviceManagementDAOException;
 
+    /**
+     * Retrieves the devices owned by any of the given users in a single query. Callers are expected to keep the
+     * number of users within the limits of the IN clause supported by the underlying database.
+     *
+     * @param usernames Owners of the devices
+     * @param tenantId  Id of the tenant
+     * @return Devices owned by the users, ordered by device id
+     * @throws DeviceManagementDAOException If an error occurs while retrieving the devices
+     */
+    List<Device> getDevicesOfUsers(List<String> usernames, int tenantId) throws DeviceManagementDAOException;
+
+    /**
+     * Retrieves a page of devices that belong to a tenant, using keyset pagination over the device id. All the
+     * enrolments of the devices within the page are returned, ordered by device id.
+     *
+     * @param tenantId     Id of the tenant
+     * @param lastDeviceId Largest device id of the previous page, or 0 to retrieve the first page
+     * @param limit        Maximum number of distinct devices to be included in the page
+     * @return Devices that belong to the page
+     * @throws DeviceManagementDAOException If some unusual behaviour is observed while retrieving the page
+     */
+    List<Device> getDevices(int tenantId, int lastDeviceId, int limit) throws DeviceManagementDAOException;
+
+    List<Device> getDevices(String type, int tenantId, int lastDeviceId,
+                            int limit) throws DeviceManagementDAOException;
+
+    List<Device> getDevicesOfUser(String username, int tenantId, int lastDeviceId,
+                                  int limit) throws DeviceManagementDAOException;
+
     int getDeviceCount(int tenantId) throws DeviceManagementDAOException;
 
     List<Device> getDevicesByName(String deviceName, int tenantId) throws DeviceManagementDAOException;
@@ -63,7 +93,37 @@ public interface DeviceDAO {
 
     List<Device> getDevicesByStatus(EnrolmentInfo.Status status, int tenantId) throws DeviceManagementDAOException;
 
+    List<Device> getDevicesByStatus(EnrolmentInfo.Status status, int tenantId, int lastDeviceId,
+                                    int limit) throws DeviceManagementDAOException;
+
     int getEnrolmentByStatus(DeviceIdentifier deviceId, Status status,
                                     int tenantId) throws DeviceManagementDAOException;
+
+    /**
+     * Resolves the enrolment ids of a set of devices of the same type in a single query. Devices that do not have an
+     * enrolment in the given status are not included in the result.
+     *
+     * @param deviceType        Type of the devices
+     * @param deviceIdentifiers Identifications of the devices
+     * @param status            Enrolment status
+     * @param tenantId          Tenant id of the devices
+     * @return Map of device identification to enrolment id
+     * @throws DeviceManagementDAOException If an error occurs while retrieving the enrolment ids
+     */
+    Map<String, Integer> getEnrolmentIdsByStatus(String deviceType, List<String> deviceIdentifiers, Status status,
+                                                 int tenantId) throws DeviceManagementDAOException;
+
+    /**
+     * Resolves the ids of a set of devices of the same type in a single query. Devices that are not found are not
+     * included in the result.
+     *
+     * @param deviceType        Type of the devices
+     * @param deviceIdentifiers Identifications of the devices
+     * @param tenantId          Tenant id of the devices
+     * @return Map of device identification to device id
+     * @throws DeviceManagementDAOException If an error occurs while retrieving the device ids
+     */
+    Map<String, Integer> getDeviceIds(String deviceType, List<String> deviceIdentifiers,
+                                      int tenantId) throws DeviceManagementDAOException;
 }
 
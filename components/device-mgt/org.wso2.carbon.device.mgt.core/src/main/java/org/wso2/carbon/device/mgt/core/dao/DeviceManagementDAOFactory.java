@@ -25,6 +25,7 @@ import org.wso2.carbon.device.mgt.core.config.datasource.DataSourceConfig;
 import org.wso2.carbon.device.mgt.core.config.datasource.JNDILookupDefinition;
 import org.wso2.carbon.device.mgt.core.dao.impl.*;
 import org.wso2.carbon.device.mgt.core.dao.util.DeviceManagementDAOUtil;
+import org.wso2.carbon.device.mgt.core.dao.util.TransactionManager;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
@@ -77,12 +78,14 @@ import java.util.List;
  * }
  * }
  * </pre>
+ * <p/>
+ * Both sequences nest, hence a method following either of them can be invoked from within another one. Connection
+ * handling is delegated to a {@link TransactionManager}, which documents the nesting semantics.
  */
 public class DeviceManagementDAOFactory {
 
-    private static DataSource dataSource;
     private static final Log log = LogFactory.getLog(DeviceManagementDAOFactory.class);
-    private static ThreadLocal<Connection> currentConnection = new ThreadLocal<Connection>();
+    private static TransactionManager transactionManager;
 
     public static DeviceDAO getDeviceDAO() {
         return new DeviceDAOImpl();
@@ -105,79 +108,49 @@ public class DeviceManagementDAOFactory {
     }
 
     public static void init(DataSourceConfig config) {
-        dataSource = resolveDataSource(config);
+        transactionManager = new TransactionManager(resolveDataSource(config), "device management");
     }
 
     public static void init(DataSource dtSource) {
-        dataSource = dtSource;
+        transactionManager = new TransactionManager(dtSource, "device management");
     }
 
     public static void beginTransaction() throws TransactionManagementException {
         try {
-            Connection conn = dataSource.getConnection();
-            conn.setAutoCommit(false);
-            currentConnection.set(conn);
+            transactionManager.beginTransaction();
         } catch (SQLException e) {
             throw new TransactionManagementException("Error occurred while retrieving config.datasource connection", e);
         }
     }
 
     public static void openConnection() throws SQLException {
-        currentConnection.set(dataSource.getConnection());
+        transactionManager.openConnection();
     }
 
     public static Connection getConnection() throws SQLException {
-        if (currentConnection.get() == null) {
-            currentConnection.set(dataSource.getConnection());
-        }
-        return currentConnection.get();
+        return transactionManager.getConnection(false);
     }
 
-    public static void commitTransaction() {
+    public static void commitTransaction() throws TransactionManagementException {
         try {
-            Connection conn = currentConnection.get();
-            if (conn != null) {
-                conn.commit();
-            } else {
-                if (log.isDebugEnabled()) {
-                    log.debug("Datasource connection associated with the current thread is null, hence commit " +
-                            "has not been attempted");
-                }
-            }
+            transactionManager.commitTransaction();
         } catch (SQLException e) {
-            log.error("Error occurred while committing the transaction", e);
+            throw new TransactionManagementException("Error occurred while committing the transaction", e);
         }
     }
 
     public static void rollbackTransaction() {
         try {
-            Connection conn = currentConnection.get();
-            if (conn != null) {
-                conn.rollback();
-            } else {
-                if (log.isDebugEnabled()) {
-                    log.debug("Datasource connection associated with the current thread is null, hence rollback " +
-                            "has not been attempted");
-                }
-            }
+            transactionManager.rollbackTransaction();
         } catch (SQLException e) {
             log.warn("Error occurred while rollbacking the transaction", e);
         }
     }
 
     public static void closeConnection() {
-        Connection con = currentConnection.get();
-        if (con != null) {
-            try {
-                con.close();
-            } catch (SQLException e) {
-                log.warn("Error occurred while close the connection");
-            }
-            currentConnection.remove();
-        }
+        transactionManager.closeConnection();
     }
 
-
     /**
      * Resolve data source from the data source definition
      *
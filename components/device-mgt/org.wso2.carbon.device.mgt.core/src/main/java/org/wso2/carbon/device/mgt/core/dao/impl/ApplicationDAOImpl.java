@@ -80,15 +80,17 @@ public class ApplicationDAOImpl implements ApplicationDAO {
                                          int tenantId) throws DeviceManagementDAOException {
         Connection conn;
         PreparedStatement stmt = null;
-        ResultSet rs;
+        ResultSet rs = null;
         List<Integer> applicationIds = new ArrayList<>();
+        if (applications.isEmpty()) {
+            return applicationIds;
+        }
         try {
             conn = this.getConnection();
             stmt = conn.prepareStatement("INSERT INTO DM_APPLICATION (NAME, PLATFORM, CATEGORY, " +
                     "VERSION, TYPE, LOCATION_URL, IMAGE_URL, TENANT_ID,APP_PROPERTIES,APP_IDENTIFIER) " +
                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?,?)", PreparedStatement.RETURN_GENERATED_KEYS);
 
-
             for (Application application : applications) {
 
                 stmt.setString(1, application.getName());
@@ -101,18 +103,19 @@ public class ApplicationDAOImpl implements ApplicationDAO {
                 stmt.setInt(8, tenantId);
                 stmt.setObject(9, application.getAppProperties());
                 stmt.setString(10, application.getApplicationIdentifier());
-                stmt.executeUpdate();
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
 
-                rs = stmt.getGeneratedKeys();
-                if (rs.next()) {
-                    applicationIds.add(rs.getInt(1));
-                }
+            rs = stmt.getGeneratedKeys();
+            while (rs.next()) {
+                applicationIds.add(rs.getInt(1));
             }
             return applicationIds;
         } catch (SQLException e) {
             throw new DeviceManagementDAOException("Error occurred while adding bulk application list", e);
         } finally {
-            DeviceManagementDAOUtil.cleanupResources(stmt, null);
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
         }
     }
 
@@ -180,6 +183,44 @@ public class ApplicationDAOImpl implements ApplicationDAO {
         }
     }
 
+    @Override
+    public List<Application> getApplications(List<String> identifiers,
+                                             int tenantId) throws DeviceManagementDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<Application> applications = new ArrayList<>();
+        if (identifiers.isEmpty()) {
+            return applications;
+        }
+        try {
+            conn = this.getConnection();
+            StringBuilder sql = new StringBuilder("SELECT ID, NAME, APP_IDENTIFIER, PLATFORM, CATEGORY, VERSION, " +
+                    "TYPE, LOCATION_URL, IMAGE_URL, APP_PROPERTIES, TENANT_ID FROM DM_APPLICATION WHERE " +
+                    "TENANT_ID = ? AND APP_IDENTIFIER IN (");
+            for (int i = 0; i < identifiers.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(") ORDER BY ID");
+            stmt = conn.prepareStatement(sql.toString());
+            int index = 1;
+            stmt.setInt(index++, tenantId);
+            for (String identifier : identifiers) {
+                stmt.setString(index++, identifier);
+            }
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                applications.add(this.loadApplication(rs));
+            }
+            return applications;
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while retrieving " + identifiers.size() +
+                    " application(s) by their identifiers", e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+    }
+
     private Connection getConnection() throws SQLException {
         return DeviceManagementDAOFactory.getConnection();
     }
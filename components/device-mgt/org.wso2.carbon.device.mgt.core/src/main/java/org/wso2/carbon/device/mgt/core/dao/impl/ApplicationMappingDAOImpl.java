@@ -74,6 +74,9 @@ public class ApplicationMappingDAOImpl implements ApplicationMappingDAO {
         PreparedStatement stmt = null;
         ResultSet rs = null;
         List<Integer> mappingIds = new ArrayList<>();
+        if (applicationIds.isEmpty()) {
+            return mappingIds;
+        }
         try {
             conn = this.getConnection();
             String sql = "INSERT INTO DM_DEVICE_APPLICATION_MAPPING (DEVICE_ID, APPLICATION_ID, " +
@@ -105,6 +108,9 @@ public class ApplicationMappingDAOImpl implements ApplicationMappingDAO {
                                          int tenantId) throws DeviceManagementDAOException {
         Connection conn;
         PreparedStatement stmt = null;
+        if (appIdList.isEmpty()) {
+            return;
+        }
         try {
             conn = this.getConnection();
             String sql = "DELETE DM_DEVICE_APPLICATION_MAPPING WHERE DEVICE_ID = ? AND " +
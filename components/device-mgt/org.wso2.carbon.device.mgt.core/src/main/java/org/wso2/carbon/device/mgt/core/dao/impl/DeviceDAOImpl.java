@@ -30,7 +30,9 @@ import org.wso2.carbon.device.mgt.core.dao.util.DeviceManagementDAOUtil;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class DeviceDAOImpl implements DeviceDAO {
 
@@ -233,6 +235,162 @@ public class DeviceDAOImpl implements DeviceDAO {
         return devices;
     }
 
+    @Override
+    public List<Device> getDevicesOfUsers(List<String> usernames, int tenantId) throws DeviceManagementDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<Device> devices = new ArrayList<>();
+        if (usernames.isEmpty()) {
+            return devices;
+        }
+        try {
+            conn = this.getConnection();
+            StringBuilder sql = new StringBuilder(
+                    "SELECT d.ID AS DEVICE_ID, d.DESCRIPTION, d.NAME AS DEVICE_NAME, t.NAME AS DEVICE_TYPE, " +
+                            "d.DEVICE_IDENTIFICATION, e.OWNER, e.OWNERSHIP, e.STATUS, e.DATE_OF_LAST_UPDATE, " +
+                            "e.DATE_OF_ENROLMENT FROM DM_ENROLMENT e INNER JOIN DM_DEVICE d ON d.ID = e.DEVICE_ID " +
+                            "INNER JOIN DM_DEVICE_TYPE t ON t.ID = d.DEVICE_TYPE_ID WHERE e.TENANT_ID = ? AND " +
+                            "d.TENANT_ID = ? AND e.OWNER IN (");
+            for (int i = 0; i < usernames.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(") ORDER BY d.ID");
+            stmt = conn.prepareStatement(sql.toString());
+            int index = 1;
+            stmt.setInt(index++, tenantId);
+            stmt.setInt(index++, tenantId);
+            for (String username : usernames) {
+                stmt.setString(index++, username);
+            }
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                devices.add(this.loadDevice(rs));
+            }
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while fetching the list of devices belonging to " +
+                    usernames.size() + " user(s)", e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return devices;
+    }
+
+    @Override
+    public List<Device> getDevices(int tenantId, int lastDeviceId, int limit) throws DeviceManagementDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<Device> devices = new ArrayList<>();
+        try {
+            conn = this.getConnection();
+            String sql =
+                    "SELECT d.ID AS DEVICE_ID, d.DESCRIPTION, d.NAME AS DEVICE_NAME, t.NAME AS DEVICE_TYPE, " +
+                            "d.DEVICE_IDENTIFICATION, e.OWNER, e.OWNERSHIP, e.STATUS, e.DATE_OF_LAST_UPDATE, " +
+                            "e.DATE_OF_ENROLMENT, e.ID AS ENROLMENT_ID FROM (SELECT DISTINCT DEVICE_ID " +
+                            "FROM DM_ENROLMENT WHERE TENANT_ID = ? AND DEVICE_ID > ? ORDER BY DEVICE_ID LIMIT ?) p, " +
+                            "DM_DEVICE d, DM_DEVICE_TYPE t, DM_ENROLMENT e WHERE p.DEVICE_ID = d.ID " +
+                            "AND d.DEVICE_TYPE_ID = t.ID AND d.TENANT_ID = ? AND e.DEVICE_ID = d.ID " +
+                            "AND e.TENANT_ID = ? ORDER BY d.ID, e.ID";
+            stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, tenantId);
+            stmt.setInt(2, lastDeviceId);
+            stmt.setInt(3, limit);
+            stmt.setInt(4, tenantId);
+            stmt.setInt(5, tenantId);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                Device device = this.loadDevice(rs);
+                devices.add(device);
+            }
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while retrieving the page of registered " +
+                    "devices that follows the device id '" + lastDeviceId + "'", e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return devices;
+    }
+
+    @Override
+    public List<Device> getDevices(String type, int tenantId, int lastDeviceId,
+                                   int limit) throws DeviceManagementDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<Device> devices = new ArrayList<>();
+        try {
+            conn = this.getConnection();
+            String sql =
+                    "SELECT d.ID AS DEVICE_ID, d.DESCRIPTION, d.NAME AS DEVICE_NAME, t.NAME AS DEVICE_TYPE, " +
+                            "d.DEVICE_IDENTIFICATION, e.OWNER, e.OWNERSHIP, e.STATUS, e.DATE_OF_LAST_UPDATE, " +
+                            "e.DATE_OF_ENROLMENT, e.ID AS ENROLMENT_ID FROM (SELECT DISTINCT e1.DEVICE_ID " +
+                            "FROM DM_ENROLMENT e1, DM_DEVICE d1, DM_DEVICE_TYPE t1 WHERE e1.DEVICE_ID = d1.ID " +
+                            "AND d1.DEVICE_TYPE_ID = t1.ID AND t1.NAME = ? AND d1.TENANT_ID = ? " +
+                            "AND e1.TENANT_ID = ? AND e1.DEVICE_ID > ? ORDER BY e1.DEVICE_ID LIMIT ?) p, " +
+                            "DM_DEVICE d, DM_DEVICE_TYPE t, DM_ENROLMENT e WHERE p.DEVICE_ID = d.ID " +
+                            "AND d.DEVICE_TYPE_ID = t.ID AND e.DEVICE_ID = d.ID AND e.TENANT_ID = ? " +
+                            "ORDER BY d.ID, e.ID";
+            stmt = conn.prepareStatement(sql);
+            stmt.setString(1, type);
+            stmt.setInt(2, tenantId);
+            stmt.setInt(3, tenantId);
+            stmt.setInt(4, lastDeviceId);
+            stmt.setInt(5, limit);
+            stmt.setInt(6, tenantId);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                Device device = this.loadDevice(rs);
+                devices.add(device);
+            }
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while retrieving the page of devices of type '" +
+                    type + "' that follows the device id '" + lastDeviceId + "'", e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return devices;
+    }
+
+    @Override
+    public List<Device> getDevicesOfUser(String username, int tenantId, int lastDeviceId,
+                                         int limit) throws DeviceManagementDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<Device> devices = new ArrayList<>();
+        try {
+            conn = this.getConnection();
+            String sql =
+                    "SELECT d.ID AS DEVICE_ID, d.DESCRIPTION, d.NAME AS DEVICE_NAME, t.NAME AS DEVICE_TYPE, " +
+                            "d.DEVICE_IDENTIFICATION, e.OWNER, e.OWNERSHIP, e.STATUS, e.DATE_OF_LAST_UPDATE, " +
+                            "e.DATE_OF_ENROLMENT, e.ID AS ENROLMENT_ID FROM (SELECT DISTINCT DEVICE_ID " +
+                            "FROM DM_ENROLMENT WHERE TENANT_ID = ? AND OWNER = ? AND DEVICE_ID > ? " +
+                            "ORDER BY DEVICE_ID LIMIT ?) p, DM_DEVICE d, DM_DEVICE_TYPE t, DM_ENROLMENT e " +
+                            "WHERE p.DEVICE_ID = d.ID AND d.DEVICE_TYPE_ID = t.ID AND d.TENANT_ID = ? " +
+                            "AND e.DEVICE_ID = d.ID AND e.TENANT_ID = ? AND e.OWNER = ? ORDER BY d.ID, e.ID";
+            stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, tenantId);
+            stmt.setString(2, username);
+            stmt.setInt(3, lastDeviceId);
+            stmt.setInt(4, limit);
+            stmt.setInt(5, tenantId);
+            stmt.setInt(6, tenantId);
+            stmt.setString(7, username);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                Device device = this.loadDevice(rs);
+                devices.add(device);
+            }
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while retrieving the page of devices that " +
+                    "belong to '" + username + "' and follow the device id '" + lastDeviceId + "'", e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return devices;
+    }
+
     private Connection getConnection() throws SQLException {
         return DeviceManagementDAOFactory.getConnection();
     }
@@ -462,6 +620,90 @@ public class DeviceDAOImpl implements DeviceDAO {
         }
     }
 
+    @Override
+    public Map<String, Integer> getEnrolmentIdsByStatus(String deviceType, List<String> deviceIdentifiers,
+                                                        Status status,
+                                                        int tenantId) throws DeviceManagementDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        Map<String, Integer> enrolmentIds = new HashMap<>();
+        if (deviceIdentifiers.isEmpty()) {
+            return enrolmentIds;
+        }
+        try {
+            conn = this.getConnection();
+            StringBuilder sql = new StringBuilder(
+                    "SELECT e.ID AS ENROLMENT_ID, d.DEVICE_IDENTIFICATION FROM DM_ENROLMENT e, DM_DEVICE d, " +
+                            "DM_DEVICE_TYPE t WHERE e.DEVICE_ID = d.ID AND d.DEVICE_TYPE_ID = t.ID AND t.NAME = ? " +
+                            "AND d.TENANT_ID = ? AND e.STATUS = ? AND e.TENANT_ID = ? AND " +
+                            "d.DEVICE_IDENTIFICATION IN (");
+            for (int i = 0; i < deviceIdentifiers.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(")");
+            stmt = conn.prepareStatement(sql.toString());
+            int index = 1;
+            stmt.setString(index++, deviceType);
+            stmt.setInt(index++, tenantId);
+            stmt.setString(index++, status.toString());
+            stmt.setInt(index++, tenantId);
+            for (String deviceIdentifier : deviceIdentifiers) {
+                stmt.setString(index++, deviceIdentifier);
+            }
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                enrolmentIds.put(rs.getString("DEVICE_IDENTIFICATION"), rs.getInt("ENROLMENT_ID"));
+            }
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while retrieving the enrolment ids of '" +
+                    deviceType + "' devices", e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return enrolmentIds;
+    }
+
+    @Override
+    public Map<String, Integer> getDeviceIds(String deviceType, List<String> deviceIdentifiers,
+                                             int tenantId) throws DeviceManagementDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        Map<String, Integer> deviceIds = new HashMap<>();
+        if (deviceIdentifiers.isEmpty()) {
+            return deviceIds;
+        }
+        try {
+            conn = this.getConnection();
+            StringBuilder sql = new StringBuilder(
+                    "SELECT d.ID AS DEVICE_ID, d.DEVICE_IDENTIFICATION FROM DM_DEVICE d, DM_DEVICE_TYPE t WHERE " +
+                            "d.DEVICE_TYPE_ID = t.ID AND t.NAME = ? AND d.TENANT_ID = ? AND " +
+                            "d.DEVICE_IDENTIFICATION IN (");
+            for (int i = 0; i < deviceIdentifiers.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(")");
+            stmt = conn.prepareStatement(sql.toString());
+            int index = 1;
+            stmt.setString(index++, deviceType);
+            stmt.setInt(index++, tenantId);
+            for (String deviceIdentifier : deviceIdentifiers) {
+                stmt.setString(index++, deviceIdentifier);
+            }
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                deviceIds.put(rs.getString("DEVICE_IDENTIFICATION"), rs.getInt("DEVICE_ID"));
+            }
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while retrieving the ids of '" + deviceType +
+                    "' devices", e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return deviceIds;
+    }
+
     private Device loadDevice(ResultSet rs) throws SQLException {
         Device device = new Device();
         device.setId(rs.getInt("DEVICE_ID"));
@@ -515,4 +757,44 @@ public class DeviceDAOImpl implements DeviceDAO {
         }
         return devices;
     }
+
+    @Override
+    public List<Device> getDevicesByStatus(EnrolmentInfo.Status status, int tenantId, int lastDeviceId,
+                                           int limit) throws DeviceManagementDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<Device> devices = new ArrayList<>();
+        try {
+            conn = this.getConnection();
+            String sql =
+                    "SELECT d.ID AS DEVICE_ID, d.DESCRIPTION, d.NAME AS DEVICE_NAME, t.NAME AS DEVICE_TYPE, " +
+                            "d.DEVICE_IDENTIFICATION, e.OWNER, e.OWNERSHIP, e.STATUS, e.DATE_OF_LAST_UPDATE, " +
+                            "e.DATE_OF_ENROLMENT, e.ID AS ENROLMENT_ID FROM (SELECT DISTINCT DEVICE_ID " +
+                            "FROM DM_ENROLMENT WHERE TENANT_ID = ? AND STATUS = ? AND DEVICE_ID > ? " +
+                            "ORDER BY DEVICE_ID LIMIT ?) p, DM_DEVICE d, DM_DEVICE_TYPE t, DM_ENROLMENT e " +
+                            "WHERE p.DEVICE_ID = d.ID AND d.DEVICE_TYPE_ID = t.ID AND d.TENANT_ID = ? " +
+                            "AND e.DEVICE_ID = d.ID AND e.TENANT_ID = ? AND e.STATUS = ? ORDER BY d.ID, e.ID";
+            stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, tenantId);
+            stmt.setString(2, status.toString());
+            stmt.setInt(3, lastDeviceId);
+            stmt.setInt(4, limit);
+            stmt.setInt(5, tenantId);
+            stmt.setInt(6, tenantId);
+            stmt.setString(7, status.toString());
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                Device device = this.loadDevice(rs);
+                devices.add(device);
+            }
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while retrieving the page of devices that " +
+                    "matches to status '" + status + "' and follow the device id '" + lastDeviceId + "'", e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return devices;
+    }
+
 }
@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.core.dao.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Manages the connection a thread holds against a data source on behalf of a DAO factory. Connection acquisition
+ * calls nest, so that a business method which opens a connection or begins a transaction can be invoked from within
+ * another one without clobbering the connection of the caller:
+ * <ul>
+ * <li>A nested openConnection or beginTransaction joins the connection of the enclosing scope and only the
+ * outermost closeConnection releases it.</li>
+ * <li>A nested beginTransaction within a read-only scope starts the transaction on the shared connection, and the
+ * transaction ends with the scope that started it.</li>
+ * <li>Commit and rollback only take effect in the scope that started the transaction. A rollback of a joined scope
+ * marks the transaction rollback-only and the commit of the outermost scope then fails.</li>
+ * </ul>
+ * Factories built on the same data source can optionally share a single connection per thread, in which case the
+ * nesting above spans the device, operation and policy management DAO factories.
+ * <p/>
+ * When a leak detection threshold is configured, the stack trace of the code that obtained each connection is
+ * recorded, and connections held for longer than the threshold are reported along with that stack trace.
+ */
+public class TransactionManager {
+
+    private static final Log log = LogFactory.getLog(TransactionManager.class);
+
+    private static final ThreadLocal<Map<Object, ConnectionHolder>> connectionHolders =
+            new ThreadLocal<Map<Object, ConnectionHolder>>() {
+                @Override
+                protected Map<Object, ConnectionHolder> initialValue() {
+                    return new HashMap<>();
+                }
+            };
+    private static final Set<ConnectionHolder> openConnections =
+            Collections.newSetFromMap(new ConcurrentHashMap<ConnectionHolder, Boolean>());
+
+    private static volatile boolean shareConnections;
+    private static volatile long leakDetectionThreshold;
+    private static ScheduledExecutorService leakDetector;
+
+    private final DataSource dataSource;
+    private final String name;
+
+    /**
+     * @param dataSource Data source the connections are obtained from
+     * @param name       Name of the DAO factory used when reporting leaked connections
+     */
+    public TransactionManager(DataSource dataSource, String name) {
+        this.dataSource = dataSource;
+        this.name = name;
+    }
+
+    /**
+     * Configures the behaviour shared by all the transaction managers. Has to be called before the DAO factories
+     * start handing out connections.
+     *
+     * @param shareConnections       true to share a single connection per thread among the DAO factories that are
+     *                               built on the same data source
+     * @param leakDetectionThreshold Time in milliseconds after which a connection that is still held is reported as
+     *                               leaked, 0 to disable leak detection
+     */
+    public static synchronized void configure(boolean shareConnections, long leakDetectionThreshold) {
+        TransactionManager.shareConnections = shareConnections;
+        TransactionManager.leakDetectionThreshold = leakDetectionThreshold;
+        if (leakDetectionThreshold > 0 && leakDetector == null) {
+            leakDetector = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "DeviceManagementConnectionLeakDetector");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            leakDetector.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    reportLeakedConnections();
+                }
+            }, leakDetectionThreshold, leakDetectionThreshold, TimeUnit.MILLISECONDS);
+        } else if (leakDetectionThreshold <= 0 && leakDetector != null) {
+            leakDetector.shutdownNow();
+            leakDetector = null;
+        }
+    }
+
+    public void beginTransaction() throws SQLException {
+        ConnectionHolder holder = this.getConnectionHolder();
+        if (holder == null) {
+            holder = this.createConnectionHolder(true);
+        } else if (holder.transactionDepth > 0 && holder.depth > 0) {
+            holder.depth++;
+            return;
+        } else if (holder.transactionDepth == 0) {
+            holder.connection.setAutoCommit(false);
+        }
+        holder.depth++;
+        holder.transactionDepth = holder.depth;
+    }
+
+    public void openConnection() throws SQLException {
+        ConnectionHolder holder = this.getConnectionHolder();
+        if (holder == null) {
+            holder = this.createConnectionHolder(false);
+        }
+        holder.depth++;
+    }
+
+    /**
+     * Returns the connection held by the current thread. A connection that is not yet held is obtained outside of
+     * any scope and is released by the next closeConnection of the thread.
+     *
+     * @param transactional true to obtain a connection that does not auto commit, if one is not already held
+     * @return Connection held by the current thread
+     * @throws SQLException If an error occurs while obtaining the connection
+     */
+    public Connection getConnection(boolean transactional) throws SQLException {
+        ConnectionHolder holder = this.getConnectionHolder();
+        if (holder == null) {
+            holder = this.createConnectionHolder(transactional);
+        }
+        return holder.connection;
+    }
+
+    public void commitTransaction() throws SQLException {
+        ConnectionHolder holder = this.getConnectionHolder();
+        if (holder == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Datasource connection associated with the current thread is null, hence commit " +
+                        "has not been attempted");
+            }
+            return;
+        }
+        if (holder.transactionDepth > 0 && holder.depth > holder.transactionDepth) {
+            return;
+        }
+        if (holder.rollbackOnly) {
+            holder.rollbackOnly = false;
+            holder.connection.rollback();
+            throw new SQLException("Transaction has been rolled back as a nested scope marked it rollback-only");
+        }
+        holder.connection.commit();
+    }
+
+    public void rollbackTransaction() throws SQLException {
+        ConnectionHolder holder = this.getConnectionHolder();
+        if (holder == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Datasource connection associated with the current thread is null, hence rollback " +
+                        "has not been attempted");
+            }
+            return;
+        }
+        if (holder.transactionDepth > 0 && holder.depth > holder.transactionDepth) {
+            holder.rollbackOnly = true;
+            return;
+        }
+        holder.rollbackOnly = false;
+        holder.connection.rollback();
+    }
+
+    public void closeConnection() {
+        ConnectionHolder holder = this.getConnectionHolder();
+        if (holder == null) {
+            return;
+        }
+        if (holder.depth > 1) {
+            if (holder.depth == holder.transactionDepth) {
+                this.endNestedTransaction(holder);
+            }
+            holder.depth--;
+            return;
+        }
+        connectionHolders.get().remove(this.getKey());
+        openConnections.remove(holder);
+        try {
+            holder.connection.close();
+        } catch (SQLException e) {
+            log.warn("Error occurred while closing the connection", e);
+        }
+        long heldTime = System.currentTimeMillis() - holder.openedTime;
+        if (holder.reported) {
+            log.info("Connection of " + name + " reported as leaked has been released after " + heldTime + " ms");
+        } else if (leakDetectionThreshold > 0 && heldTime > leakDetectionThreshold) {
+            log.warn("Connection of " + name + " has been held for " + heldTime + " ms, which exceeds the leak " +
+                    "detection threshold of " + leakDetectionThreshold + " ms", holder.openedAt);
+        }
+    }
+
+    /**
+     * Ends a transaction started within a read-only scope, rolling back any work that was neither committed nor
+     * rolled back and handing the connection back to the enclosing scope in auto commit mode.
+     */
+    private void endNestedTransaction(ConnectionHolder holder) {
+        holder.transactionDepth = 0;
+        holder.rollbackOnly = false;
+        try {
+            holder.connection.rollback();
+            holder.connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            log.warn("Error occurred while ending the transaction of a nested scope", e);
+        }
+    }
+
+    private ConnectionHolder createConnectionHolder(boolean transactional) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        if (transactional) {
+            try {
+                connection.setAutoCommit(false);
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+        }
+        ConnectionHolder holder = new ConnectionHolder(connection, name);
+        if (transactional) {
+            holder.transactionDepth = 1;
+        }
+        connectionHolders.get().put(this.getKey(), holder);
+        if (leakDetectionThreshold > 0) {
+            openConnections.add(holder);
+        }
+        return holder;
+    }
+
+    private ConnectionHolder getConnectionHolder() {
+        return connectionHolders.get().get(this.getKey());
+    }
+
+    private Object getKey() {
+        return shareConnections ? dataSource : this;
+    }
+
+    private static void reportLeakedConnections() {
+        long now = System.currentTimeMillis();
+        for (ConnectionHolder holder : openConnections) {
+            if (!holder.reported && now - holder.openedTime > leakDetectionThreshold) {
+                holder.reported = true;
+                log.warn("Connection of " + holder.owner + " obtained by the thread '" + holder.threadName +
+                        "' has been held for " + (now - holder.openedTime) + " ms, which exceeds the leak " +
+                        "detection threshold of " + leakDetectionThreshold + " ms", holder.openedAt);
+            }
+        }
+    }
+
+    /**
+     * Connection held by a thread along with the nesting depth of the scopes sharing it.
+     */
+    private static class ConnectionHolder {
+
+        private final Connection connection;
+        private final String owner;
+        private final String threadName;
+        private final long openedTime;
+        private final Throwable openedAt;
+        private int depth;
+        private int transactionDepth;
+        private boolean rollbackOnly;
+        private volatile boolean reported;
+
+        ConnectionHolder(Connection connection, String owner) {
+            this.connection = connection;
+            this.owner = owner;
+            this.threadName = Thread.currentThread().getName();
+            this.openedTime = System.currentTimeMillis();
+            this.openedAt = leakDetectionThreshold > 0 ? new Throwable("Connection obtained at") : null;
+        }
+
+    }
+
+}
@@ -18,6 +18,7 @@
  */
 package org.wso2.carbon.device.mgt.core.dto.operation.mgt;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -37,11 +38,14 @@ public class ConfigOperation extends Operation {
         properties.add(new Property(name, value, type));
     }
 
-    public static class Property {
+    public static class Property implements Serializable {
         private String name;
         private Object value;
         private Class<?> type;
 
+        public Property() {
+        }
+
         public Property(String name, Object value, Class<?> type) {
             this.name = name;
             this.value = value;
@@ -23,7 +23,9 @@ import org.wso2.carbon.device.mgt.common.license.mgt.LicenseManager;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManager;
 import org.wso2.carbon.device.mgt.core.app.mgt.config.AppManagementConfig;
 import org.wso2.carbon.device.mgt.core.config.license.LicenseConfig;
+import org.wso2.carbon.device.mgt.core.operation.mgt.notification.PendingOperationPoller;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
+import org.wso2.carbon.ntask.core.service.TaskService;
 import org.wso2.carbon.registry.core.service.RegistryService;
 import org.wso2.carbon.user.core.service.RealmService;
 import org.wso2.carbon.user.core.tenant.TenantManager;
@@ -40,7 +42,9 @@ public class DeviceManagementDataHolder {
     private ApplicationManager appManager;
     private AppManagementConfig appManagerConfig;
     private OperationManager operationManager;
+    private PendingOperationPoller pendingOperationPoller;
     private ConfigurationContextService configurationContextService;
+    private TaskService taskService;
 
     private static DeviceManagementDataHolder thisInstance = new DeviceManagementDataHolder();
 
@@ -126,6 +130,14 @@ public class DeviceManagementDataHolder {
         this.operationManager = operationManager;
     }
 
+    public PendingOperationPoller getPendingOperationPoller() {
+        return pendingOperationPoller;
+    }
+
+    public void setPendingOperationPoller(PendingOperationPoller pendingOperationPoller) {
+        this.pendingOperationPoller = pendingOperationPoller;
+    }
+
     public ConfigurationContextService getConfigurationContextService() {
         return configurationContextService;
     }
@@ -134,4 +146,12 @@ public class DeviceManagementDataHolder {
         this.configurationContextService = configurationContextService;
     }
 
+    public TaskService getTaskService() {
+        return taskService;
+    }
+
+    public void setTaskService(TaskService taskService) {
+        this.taskService = taskService;
+    }
+
 }
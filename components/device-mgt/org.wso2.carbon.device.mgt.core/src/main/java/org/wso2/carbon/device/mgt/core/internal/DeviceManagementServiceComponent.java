@@ -35,15 +35,23 @@ import org.wso2.carbon.device.mgt.core.app.mgt.config.AppManagementConfig;
 import org.wso2.carbon.device.mgt.core.app.mgt.config.AppManagementConfigurationManager;
 import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
 import org.wso2.carbon.device.mgt.core.config.DeviceManagementConfig;
+import org.wso2.carbon.device.mgt.core.config.archival.OperationArchivalConfiguration;
 import org.wso2.carbon.device.mgt.core.config.datasource.DataSourceConfig;
 import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
+import org.wso2.carbon.device.mgt.core.dao.util.TransactionManager;
 import org.wso2.carbon.device.mgt.core.operation.mgt.OperationManagerImpl;
+import org.wso2.carbon.device.mgt.core.operation.mgt.archival.OperationArchivalTaskManager;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
+import org.wso2.carbon.device.mgt.core.operation.mgt.notification.PendingOperationPoller;
+import org.wso2.carbon.device.mgt.core.role.RoleMembershipListener;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderServiceImpl;
 import org.wso2.carbon.device.mgt.core.util.DeviceManagementSchemaInitializer;
+import org.wso2.carbon.device.mgt.core.util.DeviceManagerUtil;
 import org.wso2.carbon.ndatasource.core.DataSourceService;
+import org.wso2.carbon.ntask.core.service.TaskService;
 import org.wso2.carbon.registry.core.service.RegistryService;
+import org.wso2.carbon.user.core.listener.UserOperationEventListener;
 import org.wso2.carbon.user.core.service.RealmService;
 import org.wso2.carbon.utils.ConfigurationContextService;
 
@@ -88,6 +96,12 @@ import java.util.List;
  * policy="dynamic"
  * bind="setConfigurationContextService"
  * unbind="unsetConfigurationContextService"
+ * @scr.reference name="ntask.component"
+ * interface="org.wso2.carbon.ntask.core.service.TaskService"
+ * cardinality="0..1"
+ * policy="dynamic"
+ * bind="setTaskService"
+ * unbind="unsetTaskService"
  */
 public class DeviceManagementServiceComponent {
 
@@ -111,6 +125,8 @@ public class DeviceManagementServiceComponent {
                     DeviceConfigurationManager.getInstance().getDeviceManagementConfig();
 
             DataSourceConfig dsConfig = config.getDeviceManagementConfigRepository().getDataSourceConfig();
+            TransactionManager.configure(dsConfig.isShareConnections(),
+                    dsConfig.getConnectionLeakDetectionThreshold());
             DeviceManagementDAOFactory.init(dsConfig);
 
             /*Initialize Operation Manager*/
@@ -131,6 +147,9 @@ public class DeviceManagementServiceComponent {
             /* Registering declarative service instances exposed by DeviceManagementServiceComponent */
             this.registerServices(componentContext);
 
+            /* Scheduling the task that archives the history of completed operations, if enabled */
+            this.scheduleOperationArchivalTask(config);
+
             /* This is a workaround to initialize all Device Management Service Providers after the initialization
              * of Device Management Service component in order to avoid bundle start up order related complications */
             notifyStartupListeners();
@@ -144,7 +163,11 @@ public class DeviceManagementServiceComponent {
 
     @SuppressWarnings("unused")
     protected void deactivate(ComponentContext componentContext) {
-        //do nothing
+        PendingOperationPoller poller = DeviceManagementDataHolder.getInstance().getPendingOperationPoller();
+        if (poller != null) {
+            poller.shutdown();
+            DeviceManagementDataHolder.getInstance().setPendingOperationPoller(null);
+        }
     }
 
     public static void registerPluginInitializationListener(PluginInitializationListener listener) {
@@ -159,6 +182,29 @@ public class DeviceManagementServiceComponent {
     private void initOperationsManager() throws OperationManagementException {
         OperationManager operationManager = new OperationManagerImpl();
         DeviceManagementDataHolder.getInstance().setOperationManager(operationManager);
+        DeviceManagementDataHolder.getInstance().setPendingOperationPoller(new PendingOperationPoller(
+                operationManager, DeviceManagerUtil.getOperationLongPollMaxWaitTime(),
+                DeviceManagementConstants.OperationLongPoll.THREAD_POOL_SIZE));
+    }
+
+    private void scheduleOperationArchivalTask(DeviceManagementConfig config) {
+        OperationArchivalConfiguration archivalConfig =
+                config.getDeviceManagementConfigRepository().getOperationArchivalConfiguration();
+        if (archivalConfig == null || !archivalConfig.isEnabled()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Operation archival is disabled, hence operation archival task is not scheduled");
+            }
+            return;
+        }
+        if (DeviceManagementDataHolder.getInstance().getTaskService() == null) {
+            log.warn("Task service is not available, hence operation archival task is not scheduled");
+            return;
+        }
+        try {
+            new OperationArchivalTaskManager().scheduleTask(archivalConfig.getTaskFrequency());
+        } catch (OperationManagementException e) {
+            log.error("Error occurred while scheduling the operation archival task", e);
+        }
     }
 
     private void registerServices(ComponentContext componentContext) {
@@ -171,6 +217,9 @@ public class DeviceManagementServiceComponent {
         DeviceManagementDataHolder.getInstance().setDeviceManagementProvider(deviceManagementProvider);
         bundleContext.registerService(DeviceManagementProviderService.class.getName(), deviceManagementProvider, null);
 
+        /* Registering the listener discarding the cached role memberships upon user store changes */
+        bundleContext.registerService(UserOperationEventListener.class.getName(), new RoleMembershipListener(), null);
+
 	     /* Registering App Management service */
         try {
             AppManagementConfigurationManager.getInstance().initConfig();
@@ -316,6 +365,25 @@ public class DeviceManagementServiceComponent {
         DeviceManagementDataHolder.getInstance().setConfigurationContextService(null);
     }
 
+    protected void setTaskService(TaskService taskService) {
+        if (log.isDebugEnabled()) {
+            log.debug("Setting the task service");
+        }
+        DeviceManagementDataHolder.getInstance().setTaskService(taskService);
+        /* The task service is optional, hence it may become available only after the bundle is initialized */
+        DeviceManagementConfig config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig();
+        if (config != null) {
+            this.scheduleOperationArchivalTask(config);
+        }
+    }
+
+    protected void unsetTaskService(TaskService taskService) {
+        if (log.isDebugEnabled()) {
+            log.debug("Un-setting the task service");
+        }
+        DeviceManagementDataHolder.getInstance().setTaskService(null);
+    }
+
     public static void registerStartupListener(DeviceManagerStartupListener startupListener) {
         startupListeners.add(startupListener);
     }
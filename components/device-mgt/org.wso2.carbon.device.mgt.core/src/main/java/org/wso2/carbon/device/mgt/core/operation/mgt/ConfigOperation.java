@@ -43,6 +43,9 @@ public class ConfigOperation extends Operation {
         private Object value;
         private Class<?> type;
 
+        public Property() {
+        }
+
         public Property(String name, Object value, Class<?> type) {
             this.name = name;
             this.value = value;
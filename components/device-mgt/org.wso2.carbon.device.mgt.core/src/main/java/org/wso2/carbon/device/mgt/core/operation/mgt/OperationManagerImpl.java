@@ -35,12 +35,14 @@ import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOE
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationMappingDAO;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.util.OperationDAOUtil;
-import org.wso2.carbon.device.mgt.core.operation.mgt.util.OperationCreateTimeComparator;
+import org.wso2.carbon.device.mgt.core.operation.mgt.notification.PendingOperationNotifier;
+import org.wso2.carbon.device.mgt.core.util.DeviceManagerUtil;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class implements all the functionality exposed as part of the OperationManager. Any transaction initiated
@@ -86,20 +88,33 @@ public class OperationManagerImpl implements OperationManager {
 
             int operationId = this.lookupOperationDAO(operation).addOperation(operationDto);
 
-            int enrolmentId;
             int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+            int batchSize = DeviceManagerUtil.getOperationFanOutBatchSize();
+            boolean isCommitPerBatch = DeviceManagerUtil.isOperationFanOutCommitPerBatch();
+
+            List<Integer> mappedEnrolmentIds = new ArrayList<>();
+            Map<String, List<String>> deviceIdsOfType = new LinkedHashMap<>();
             for (DeviceIdentifier deviceId : deviceIds) {
-                enrolmentId = deviceDAO.getEnrolmentByStatus(deviceId, EnrolmentInfo.Status.ACTIVE, tenantId);
-                if (enrolmentId < 0) {
-                    String errorMsg = "The operation not added for device.The device not found for " +
-                            "device Identifier type -'" + deviceId.getType() + "' and device Id '" +
-                            deviceId.getId();
-                    log.error(errorMsg);
-                } else {
-                    operationMappingDAO.addOperationMapping(operationId, enrolmentId);
+                List<String> identifiers = deviceIdsOfType.get(deviceId.getType());
+                if (identifiers == null) {
+                    identifiers = new ArrayList<>();
+                    deviceIdsOfType.put(deviceId.getType(), identifiers);
+                }
+                identifiers.add(deviceId.getId());
+            }
+            for (Map.Entry<String, List<String>> entry : deviceIdsOfType.entrySet()) {
+                List<String> identifiers = entry.getValue();
+                for (int from = 0; from < identifiers.size(); from += batchSize) {
+                    List<String> batch = identifiers.subList(from, Math.min(from + batchSize, identifiers.size()));
+                    mappedEnrolmentIds.addAll(this.addOperationMappings(operationId, entry.getKey(), batch,
+                            tenantId));
+                    if (isCommitPerBatch) {
+                        OperationManagementDAOFactory.commitTransaction();
+                    }
                 }
             }
             OperationManagementDAOFactory.commitTransaction();
+            PendingOperationNotifier.getInstance().notifyOperationAdded(mappedEnrolmentIds);
             return operationId;
         } catch (OperationManagementDAOException e) {
             OperationManagementDAOFactory.rollbackTransaction();
@@ -108,12 +123,41 @@ public class OperationManagerImpl implements OperationManager {
             OperationManagementDAOFactory.rollbackTransaction();
             throw new OperationManagementException("Error occurred while retrieving device metadata", e);
         } catch (TransactionManagementException e) {
-            throw new OperationManagementException("Error occurred while initiating the transaction", e);
+            OperationManagementDAOFactory.rollbackTransaction();
+            throw new OperationManagementException("Error occurred while processing the transaction", e);
         } finally {
             OperationManagementDAOFactory.closeConnection();
         }
     }
 
+    /**
+     * Maps the given operation to the active enrolments of a batch of devices of the same type. Enrolment ids of the
+     * whole batch are resolved in a single query and the mappings are written in a single JDBC batch.
+     *
+     * @return Enrolment ids the operation got mapped to
+     */
+    private List<Integer> addOperationMappings(int operationId, String deviceType, List<String> identifiers,
+                                      int tenantId) throws DeviceManagementDAOException,
+            OperationManagementDAOException {
+        Map<String, Integer> enrolmentIds =
+                deviceDAO.getEnrolmentIdsByStatus(deviceType, identifiers, EnrolmentInfo.Status.ACTIVE, tenantId);
+        List<Integer> enrolmentIdList = new ArrayList<>(identifiers.size());
+        for (String identifier : identifiers) {
+            Integer enrolmentId = enrolmentIds.get(identifier);
+            if (enrolmentId == null) {
+                String errorMsg = "The operation not added for device.The device not found for " +
+                        "device Identifier type -'" + deviceType + "' and device Id '" + identifier;
+                log.error(errorMsg);
+            } else {
+                enrolmentIdList.add(enrolmentId);
+            }
+        }
+        if (!enrolmentIdList.isEmpty()) {
+            operationMappingDAO.addOperationMappings(operationId, enrolmentIdList);
+        }
+        return enrolmentIdList;
+    }
+
     @Override
     public List<? extends Operation> getOperations(DeviceIdentifier deviceId) throws OperationManagementException {
         int enrolmentId;
@@ -157,8 +201,6 @@ public class OperationManagerImpl implements OperationManager {
             log.debug("Device identifier id:[" + deviceId.getId() + "] type:[" + deviceId.getType() + "]");
         }
         int enrolmentId;
-        List<Operation> operations = new ArrayList<>();
-        List<org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation> dtoOperationList = new ArrayList<>();
         try {
             OperationManagementDAOFactory.openConnection();
 
@@ -169,26 +211,7 @@ public class OperationManagerImpl implements OperationManager {
                 throw new OperationManagementException("Device not found for the given device Identifier:" +
                     deviceId.getId() + " and given type:" + deviceId.getType());
             }
-
-            dtoOperationList.addAll(commandOperationDAO.getOperationsByDeviceAndStatus(
-                    enrolmentId, org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Status.PENDING));
-
-            dtoOperationList.addAll(configOperationDAO.getOperationsByDeviceAndStatus(
-                    enrolmentId, org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Status.PENDING));
-
-            dtoOperationList.addAll(profileOperationDAO.getOperationsByDeviceAndStatus(
-                    enrolmentId, org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Status.PENDING));
-
-            dtoOperationList.addAll(policyOperationDAO.getOperationsByDeviceAndStatus(
-                    enrolmentId, org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Status.PENDING));
-
-            Operation operation;
-            for (org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation dtoOperation : dtoOperationList) {
-                operation = OperationDAOUtil.convertOperation(dtoOperation);
-                operations.add(operation);
-            }
-            Collections.sort(operations, new OperationCreateTimeComparator());
-            return operations;
+            return this.lookupPendingOperations(enrolmentId);
         } catch (OperationManagementDAOException e) {
             throw new OperationManagementException("Error occurred while retrieving the list of " +
                     "pending operations assigned for '" + deviceId.getType() + "' device '" +
@@ -210,7 +233,6 @@ public class OperationManagerImpl implements OperationManager {
             log.debug("device identifier id:[" + deviceId.getId() + "] type:[" + deviceId.getType()
                     + "]");
         }
-        Operation operation = null;
         int enrolmentId;
         try {
             OperationManagementDAOFactory.openConnection();
@@ -222,30 +244,7 @@ public class OperationManagerImpl implements OperationManager {
                 throw new OperationManagementException("Device not found for given device " +
                         "Identifier:" + deviceId.getId() + " and given type" + deviceId.getType());
             }
-            org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation dtoOperation = operationDAO
-                    .getNextOperation(enrolmentId);
-
-            if (dtoOperation != null) {
-                if (org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Type.COMMAND
-                        .equals(dtoOperation.getType())) {
-                    org.wso2.carbon.device.mgt.core.dto.operation.mgt.CommandOperation commandOperation;
-                    commandOperation =
-                            (org.wso2.carbon.device.mgt.core.dto.operation.mgt.CommandOperation) commandOperationDAO
-                                    .getOperation(dtoOperation.getId());
-                    dtoOperation.setEnabled(commandOperation.isEnabled());
-                } else if (org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Type.CONFIG
-                        .equals(dtoOperation.getType())) {
-                    dtoOperation = configOperationDAO.getOperation(dtoOperation.getId());
-                } else if (org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Type.PROFILE
-                        .equals(dtoOperation.getType())) {
-                    dtoOperation = profileOperationDAO.getOperation(dtoOperation.getId());
-                } else if (org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Type
-                        .POLICY.equals(dtoOperation.getType())) {
-                    dtoOperation = policyOperationDAO.getOperation(dtoOperation.getId());
-                }
-                operation = OperationDAOUtil.convertOperation(dtoOperation);
-            }
-            return operation;
+            return this.lookupNextPendingOperation(enrolmentId);
         } catch (OperationManagementDAOException e) {
             throw new OperationManagementException("Error occurred while retrieving next pending operation", e);
         } catch (DeviceManagementDAOException e) {
@@ -258,6 +257,30 @@ public class OperationManagerImpl implements OperationManager {
         }
     }
 
+    private List<? extends Operation> lookupPendingOperations(
+            int enrolmentId) throws OperationManagementDAOException {
+        return this.lookupOperations(enrolmentId,
+                org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Status.PENDING,
+                DeviceManagerUtil.getPendingOperationsLimit());
+    }
+
+    private Operation lookupNextPendingOperation(int enrolmentId) throws OperationManagementDAOException {
+        List<Operation> operations = this.lookupOperations(enrolmentId,
+                org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Status.PENDING, 1);
+        return operations.isEmpty() ? null : operations.get(0);
+    }
+
+    private List<Operation> lookupOperations(int enrolmentId,
+                                             org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Status status,
+                                             int limit) throws OperationManagementDAOException {
+        List<Operation> operations = new ArrayList<>();
+        for (org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation dtoOperation :
+                operationDAO.getOperationsWithDetails(enrolmentId, status, limit)) {
+            operations.add(OperationDAOUtil.convertOperation(dtoOperation));
+        }
+        return operations;
+    }
+
     @Override
     public void updateOperation(DeviceIdentifier deviceId, Operation operation) throws OperationManagementException {
         int operationId = operation.getId();
@@ -288,7 +311,8 @@ public class OperationManagerImpl implements OperationManager {
             throw new OperationManagementException("Error occurred while fetching the device for device identifier: " +
                     deviceId.getId() + "type:" + deviceId.getType(), e);
         } catch (TransactionManagementException e) {
-            throw new OperationManagementException("Error occurred while initiating a transaction", e);
+            OperationManagementDAOFactory.rollbackTransaction();
+            throw new OperationManagementException("Error occurred while processing the transaction", e);
         } finally {
             OperationManagementDAOFactory.closeConnection();
         }
@@ -311,7 +335,8 @@ public class OperationManagerImpl implements OperationManager {
             OperationManagementDAOFactory.rollbackTransaction();
             throw new OperationManagementException("Error occurred while deleting the operation: " + operationId, e);
         } catch (TransactionManagementException e) {
-            throw new OperationManagementException("Error occurred while initiating a transaction", e);
+            OperationManagementDAOFactory.rollbackTransaction();
+            throw new OperationManagementException("Error occurred while processing the transaction", e);
         } finally {
             OperationManagementDAOFactory.closeConnection();
         }
@@ -380,9 +405,6 @@ public class OperationManagerImpl implements OperationManager {
     @Override
     public List<? extends Operation> getOperationsByDeviceAndStatus(
             DeviceIdentifier deviceId, Operation.Status status) throws OperationManagementException {
-        List<Operation> operations = new ArrayList<>();
-        List<org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation> dtoOperationList =
-                new ArrayList<>();
         try {
             OperationManagementDAOFactory.openConnection();
 
@@ -396,27 +418,7 @@ public class OperationManagerImpl implements OperationManager {
 
             org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Status dtoOpStatus = org.wso2.carbon.device
                     .mgt.core.dto.operation.mgt.Operation.Status.valueOf(status.toString());
-            dtoOperationList.addAll(commandOperationDAO.getOperationsByDeviceAndStatus(enrolmentId, dtoOpStatus));
-
-            dtoOperationList.addAll(
-                    configOperationDAO.getOperationsByDeviceAndStatus(enrolmentId,
-                            org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Status.PENDING));
-
-            dtoOperationList.addAll(
-                    profileOperationDAO.getOperationsByDeviceAndStatus(enrolmentId,
-                            org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Status.PENDING));
-
-            dtoOperationList.addAll(
-                    policyOperationDAO.getOperationsByDeviceAndStatus(enrolmentId,
-                            org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation.Status.PENDING));
-
-            Operation operation;
-
-            for (org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation dtoOperation : dtoOperationList) {
-                operation = OperationDAOUtil.convertOperation(dtoOperation);
-                operations.add(operation);
-            }
-            return operations;
+            return this.lookupOperations(enrolmentId, dtoOpStatus, 0);
         } catch (OperationManagementDAOException e) {
             throw new OperationManagementException("Error occurred while retrieving the list of " +
                     "operations assigned for '" + deviceId.getType() + "' device '" +
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.operation.mgt.archival;
+
+/**
+ * Number of rows moved out of the operation tables by a single run of the operation archiver.
+ */
+public class OperationArchivalResult {
+
+    private int operations;
+    private int operationMappings;
+    private int operationResponses;
+    private int batches;
+
+    public int getOperations() {
+        return operations;
+    }
+
+    public int getOperationMappings() {
+        return operationMappings;
+    }
+
+    public int getOperationResponses() {
+        return operationResponses;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    void addBatch(int operations, int operationMappings, int operationResponses) {
+        this.operations += operations;
+        this.operationMappings += operationMappings;
+        this.operationResponses += operationResponses;
+        this.batches++;
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.operation.mgt.archival;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
+import org.wso2.carbon.device.mgt.core.DeviceManagementConstants;
+import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.DeviceManagementConfig;
+import org.wso2.carbon.device.mgt.core.config.archival.OperationArchivalConfiguration;
+import org.wso2.carbon.ntask.core.Task;
+
+import java.util.Map;
+
+/**
+ * Task that periodically archives or purges the history of the operations that expired the configured retention
+ * period and reports the number of rows moved by each run.
+ */
+public class OperationArchivalTask implements Task {
+
+    private static final Log log = LogFactory.getLog(OperationArchivalTask.class);
+
+    private Map<String, String> properties;
+
+    @Override
+    public void setProperties(Map<String, String> map) {
+        this.properties = map;
+    }
+
+    @Override
+    public void init() {
+    }
+
+    @Override
+    public void execute() {
+        boolean purge = false;
+        int retentionPeriod = DeviceManagementConstants.OperationArchival.DEFAULT_RETENTION_PERIOD;
+        int batchSize = DeviceManagementConstants.OperationArchival.DEFAULT_BATCH_SIZE;
+        OperationArchivalConfiguration archivalConfig = this.getOperationArchivalConfiguration();
+        if (archivalConfig != null) {
+            purge = DeviceManagementConstants.OperationArchival.MODE_PURGE.equalsIgnoreCase(archivalConfig.getMode());
+            if (archivalConfig.getRetentionPeriod() > 0) {
+                retentionPeriod = archivalConfig.getRetentionPeriod();
+            }
+            if (archivalConfig.getBatchSize() > 0) {
+                batchSize = archivalConfig.getBatchSize();
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Operation archival task started to run with a retention period of " + retentionPeriod +
+                    " day(s)");
+        }
+
+        long startTime = System.currentTimeMillis();
+        try {
+            OperationArchivalResult result =
+                    new OperationArchiver(purge, retentionPeriod, batchSize).archiveExpiredOperations();
+            log.info("Operation archival task " + (purge ? "purged " : "archived ") + result.getOperations() +
+                    " operation(s), " + result.getOperationMappings() + " operation mapping(s) and " +
+                    result.getOperationResponses() + " operation response(s) in " + result.getBatches() +
+                    " batch(es) within " + (System.currentTimeMillis() - startTime) + " ms");
+        } catch (OperationManagementException e) {
+            log.error("Error occurred while archiving the operations older than " + retentionPeriod + " day(s)", e);
+        }
+    }
+
+    private OperationArchivalConfiguration getOperationArchivalConfiguration() {
+        DeviceManagementConfig config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig();
+        if (config != null && config.getDeviceManagementConfigRepository() != null) {
+            return config.getDeviceManagementConfigRepository().getOperationArchivalConfiguration();
+        }
+        return null;
+    }
+
+}
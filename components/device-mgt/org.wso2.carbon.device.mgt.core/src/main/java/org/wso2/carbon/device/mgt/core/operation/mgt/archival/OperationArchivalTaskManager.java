@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.operation.mgt.archival;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
+import org.wso2.carbon.device.mgt.core.DeviceManagementConstants;
+import org.wso2.carbon.device.mgt.core.internal.DeviceManagementDataHolder;
+import org.wso2.carbon.ntask.common.TaskException;
+import org.wso2.carbon.ntask.core.TaskInfo;
+import org.wso2.carbon.ntask.core.TaskInfo.TriggerInfo;
+import org.wso2.carbon.ntask.core.TaskManager;
+import org.wso2.carbon.ntask.core.service.TaskService;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.util.HashMap;
+
+/**
+ * Registers the operation archival task with the task service. Operations are not owned by a tenant, hence a single
+ * task is registered under the super tenant and it covers the operations of all the tenants.
+ */
+public class OperationArchivalTaskManager {
+
+    private static final Log log = LogFactory.getLog(OperationArchivalTaskManager.class);
+
+    public void scheduleTask(long taskFrequency) throws OperationManagementException {
+        if (taskFrequency <= 0) {
+            taskFrequency = DeviceManagementConstants.OperationArchival.DEFAULT_TASK_FREQUENCY;
+        }
+        PrivilegedCarbonContext.startTenantFlow();
+        try {
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(MultitenantConstants.SUPER_TENANT_ID,
+                    true);
+            TaskManager taskManager = this.getTaskManager();
+
+            TriggerInfo triggerInfo = new TriggerInfo();
+            triggerInfo.setIntervalMillis(taskFrequency);
+            triggerInfo.setRepeatCount(-1);
+
+            TaskInfo taskInfo = new TaskInfo(DeviceManagementConstants.OperationArchival.TASK_NAME,
+                    DeviceManagementConstants.OperationArchival.TASK_CLAZZ, new HashMap<String, String>(),
+                    triggerInfo);
+            taskManager.registerTask(taskInfo);
+            taskManager.rescheduleTask(taskInfo.getName());
+            if (log.isDebugEnabled()) {
+                log.debug("Operation archival task is scheduled to run every " + taskFrequency + " ms");
+            }
+        } catch (TaskException e) {
+            throw new OperationManagementException("Error occurred while scheduling the operation archival task", e);
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    public void unscheduleTask() throws OperationManagementException {
+        PrivilegedCarbonContext.startTenantFlow();
+        try {
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(MultitenantConstants.SUPER_TENANT_ID,
+                    true);
+            this.getTaskManager().deleteTask(DeviceManagementConstants.OperationArchival.TASK_NAME);
+        } catch (TaskException e) {
+            throw new OperationManagementException("Error occurred while deleting the operation archival task", e);
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    private TaskManager getTaskManager() throws TaskException {
+        TaskService taskService = DeviceManagementDataHolder.getInstance().getTaskService();
+        if (taskService == null) {
+            throw new IllegalStateException("Task service is not initialized properly");
+        }
+        taskService.registerTaskType(DeviceManagementConstants.OperationArchival.TASK_TYPE);
+        return taskService.getTaskManager(DeviceManagementConstants.OperationArchival.TASK_TYPE);
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.operation.mgt.archival;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.common.TransactionManagementException;
+import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationArchivalDAO;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOException;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves the operations that expired the retention period, along with their enrolment mappings and device responses,
+ * to the archive tables or purges them. An operation expires once it is older than the retention period and is no
+ * longer pending or in progress on any enrolment.
+ * <p/>
+ * Expired operations are processed in batches ordered by the operation id and each batch is committed in a
+ * transaction of its own, so that a run never holds locks on more than a single batch of rows and a failed run
+ * keeps the batches it already committed.
+ */
+public class OperationArchiver {
+
+    private static final Log log = LogFactory.getLog(OperationArchiver.class);
+
+    private OperationArchivalDAO operationArchivalDAO;
+    private boolean purge;
+    private int retentionPeriod;
+    private int batchSize;
+
+    /**
+     * @param purge           true to delete the expired operations, false to move them to the archive tables
+     * @param retentionPeriod Number of days a completed operation is retained
+     * @param batchSize       Maximum number of operations moved within a single transaction
+     */
+    public OperationArchiver(boolean purge, int retentionPeriod, int batchSize) {
+        this.operationArchivalDAO = OperationManagementDAOFactory.getOperationArchivalDAO();
+        this.purge = purge;
+        this.retentionPeriod = retentionPeriod;
+        this.batchSize = batchSize;
+    }
+
+    public OperationArchivalResult archiveExpiredOperations() throws OperationManagementException {
+        long createdBefore = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionPeriod);
+        return this.archiveOperationsCreatedBefore(new Timestamp(createdBefore));
+    }
+
+    OperationArchivalResult archiveOperationsCreatedBefore(Timestamp createdBefore)
+            throws OperationManagementException {
+        OperationArchivalResult result = new OperationArchivalResult();
+        int lastOperationId = 0;
+        List<Integer> operationIds;
+        do {
+            try {
+                OperationManagementDAOFactory.beginTransaction();
+                operationIds = operationArchivalDAO.getExpiredOperationIds(lastOperationId, createdBefore, batchSize);
+                if (!operationIds.isEmpty()) {
+                    this.archiveBatch(operationIds, result);
+                    lastOperationId = operationIds.get(operationIds.size() - 1);
+                }
+                OperationManagementDAOFactory.commitTransaction();
+            } catch (OperationManagementDAOException e) {
+                OperationManagementDAOFactory.rollbackTransaction();
+                throw new OperationManagementException("Error occurred while archiving the operations created " +
+                        "before '" + createdBefore + "' after the operation id " + lastOperationId, e);
+            } catch (TransactionManagementException e) {
+                OperationManagementDAOFactory.rollbackTransaction();
+                throw new OperationManagementException("Error occurred while processing the transaction", e);
+            } finally {
+                OperationManagementDAOFactory.closeConnection();
+            }
+        } while (operationIds.size() == batchSize);
+        return result;
+    }
+
+    private void archiveBatch(List<Integer> operationIds,
+                              OperationArchivalResult result) throws OperationManagementDAOException {
+        if (!purge) {
+            Timestamp archivedTime = new Timestamp(System.currentTimeMillis());
+            operationArchivalDAO.archiveOperations(operationIds, archivedTime);
+            operationArchivalDAO.archiveOperationMappings(operationIds, archivedTime);
+            operationArchivalDAO.archiveOperationResponses(operationIds, archivedTime);
+        }
+        int responses = operationArchivalDAO.removeOperationResponses(operationIds);
+        int mappings = operationArchivalDAO.removeOperationMappings(operationIds);
+        int operations = operationArchivalDAO.removeOperations(operationIds);
+        result.addBatch(operations, mappings, responses);
+        if (log.isDebugEnabled()) {
+            log.debug((purge ? "Purged " : "Archived ") + operations + " operation(s) ranging from the id " +
+                    operationIds.get(0) + " to " + operationIds.get(operationIds.size() - 1));
+        }
+    }
+
+}
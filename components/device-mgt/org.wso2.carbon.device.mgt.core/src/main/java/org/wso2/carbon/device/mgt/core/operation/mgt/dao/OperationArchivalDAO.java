@@ -0,0 +1,65 @@
+/*
+ *   Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.wso2.carbon.device.mgt.core.operation.mgt.dao;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * DAO used by the operation archival task to move the history of completed operations out of the operation
+ * tables. Every method works on an explicit set of operation ids, so that the caller is able to keep each
+ * transaction bounded to a single batch.
+ */
+public interface OperationArchivalDAO {
+
+    /**
+     * Retrieves the ids of the operations created before the given time that are no longer pending or in progress
+     * on any of the enrolments they are mapped to, in the ascending order of the id.
+     *
+     * @param lastOperationId Only operations with an id greater than this one are considered
+     * @param createdBefore   Creation time the operations have to be older than
+     * @param limit           Maximum number of ids to be returned
+     * @return Ids of the expired operations
+     * @throws OperationManagementDAOException If an error occurs while retrieving the operation ids
+     */
+    List<Integer> getExpiredOperationIds(int lastOperationId, Timestamp createdBefore,
+                                         int limit) throws OperationManagementDAOException;
+
+    int archiveOperations(List<Integer> operationIds, Timestamp archivedTime) throws OperationManagementDAOException;
+
+    int archiveOperationMappings(List<Integer> operationIds,
+                                 Timestamp archivedTime) throws OperationManagementDAOException;
+
+    int archiveOperationResponses(List<Integer> operationIds,
+                                  Timestamp archivedTime) throws OperationManagementDAOException;
+
+    int removeOperationResponses(List<Integer> operationIds) throws OperationManagementDAOException;
+
+    int removeOperationMappings(List<Integer> operationIds) throws OperationManagementDAOException;
+
+    /**
+     * Removes the given operations along with their type specific details.
+     *
+     * @param operationIds Ids of the operations to be removed
+     * @return Number of operations removed
+     * @throws OperationManagementDAOException If an error occurs while removing the operations
+     */
+    int removeOperations(List<Integer> operationIds) throws OperationManagementDAOException;
+
+}
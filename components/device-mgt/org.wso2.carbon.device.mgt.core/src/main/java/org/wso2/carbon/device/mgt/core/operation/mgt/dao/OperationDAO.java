@@ -37,6 +37,20 @@ public interface OperationDAO {
     List<? extends Operation> getOperationsByDeviceAndStatus(int enrolmentId, Operation.Status status)
             throws OperationManagementDAOException;
 
+    /**
+     * Retrieves the operations of all types that are mapped to an enrolment with the given status, along with their
+     * type specific details, in a single query. Operations are ordered by their id, which follows the order in which
+     * they were added.
+     *
+     * @param enrolmentId Enrolment id of the device
+     * @param status      Status of the operation mappings
+     * @param limit       Maximum number of operations to be retrieved, or 0 to retrieve all of them
+     * @return List of operations
+     * @throws OperationManagementDAOException If some unusual behaviour is observed while retrieving the operations
+     */
+    List<? extends Operation> getOperationsWithDetails(int enrolmentId, Operation.Status status,
+                                                       int limit) throws OperationManagementDAOException;
+
     List<? extends Operation> getOperationsForDevice(int enrolmentId) throws OperationManagementDAOException;
 
     Operation getNextOperation(int enrolmentId) throws OperationManagementDAOException;
@@ -24,6 +24,7 @@ import org.wso2.carbon.device.mgt.common.TransactionManagementException;
 import org.wso2.carbon.device.mgt.core.config.datasource.DataSourceConfig;
 import org.wso2.carbon.device.mgt.core.config.datasource.JNDILookupDefinition;
 import org.wso2.carbon.device.mgt.core.dao.util.DeviceManagementDAOUtil;
+import org.wso2.carbon.device.mgt.core.dao.util.TransactionManager;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.impl.*;
 
 import javax.sql.DataSource;
@@ -35,8 +36,7 @@ import java.util.List;
 public class OperationManagementDAOFactory {
 
     private static final Log log = LogFactory.getLog(OperationManagementDAOFactory.class);
-    private static DataSource dataSource;
-    private static ThreadLocal<Connection> currentConnection = new ThreadLocal<Connection>();
+    private static TransactionManager transactionManager;
 
     public static OperationDAO getCommandOperationDAO() {
         return new CommandOperationDAOImpl();
@@ -62,19 +62,21 @@ public class OperationManagementDAOFactory {
         return new OperationDAOImpl();
     }
 
+    public static OperationArchivalDAO getOperationArchivalDAO() {
+        return new OperationArchivalDAOImpl();
+    }
+
     public static void init(DataSource dtSource) {
-        dataSource = dtSource;
+        transactionManager = new TransactionManager(dtSource, "operation management");
     }
 
     public static void init(DataSourceConfig config) {
-        dataSource = resolveDataSource(config);
+        transactionManager = new TransactionManager(resolveDataSource(config), "operation management");
     }
 
     public static void beginTransaction() throws TransactionManagementException {
         try {
-            Connection conn = dataSource.getConnection();
-            conn.setAutoCommit(false);
-            currentConnection.set(conn);
+            transactionManager.beginTransaction();
         } catch (SQLException e) {
             throw new TransactionManagementException(
                     "Error occurred while retrieving config.datasource connection", e);
@@ -82,55 +84,28 @@ public class OperationManagementDAOFactory {
     }
 
     public static void openConnection() throws SQLException {
-        currentConnection.set(dataSource.getConnection());
+        transactionManager.openConnection();
     }
 
     public static Connection getConnection() throws SQLException {
-        if (currentConnection.get() == null) {
-            currentConnection.set(dataSource.getConnection());
-        }
-        return currentConnection.get();
+        return transactionManager.getConnection(false);
     }
 
     public static void closeConnection() {
-        Connection con = currentConnection.get();
-        if (con != null) {
-            try {
-                con.close();
-            } catch (SQLException e) {
-                log.error("Error occurred while close the connection");
-            }
-            currentConnection.remove();
-        }
+        transactionManager.closeConnection();
     }
 
-    public static void commitTransaction() {
+    public static void commitTransaction() throws TransactionManagementException {
         try {
-            Connection conn = currentConnection.get();
-            if (conn != null) {
-                conn.commit();
-            } else {
-                if (log.isDebugEnabled()) {
-                    log.debug("Datasource connection associated with the current thread is null, hence commit " +
-                            "has not been attempted");
-                }
-            }
+            transactionManager.commitTransaction();
         } catch (SQLException e) {
-            log.error("Error occurred while committing the transaction", e);
+            throw new TransactionManagementException("Error occurred while committing the transaction", e);
         }
     }
 
     public static void rollbackTransaction() {
         try {
-            Connection conn = currentConnection.get();
-            if (conn != null) {
-                conn.rollback();
-            } else {
-                if (log.isDebugEnabled()) {
-                    log.debug("Datasource connection associated with the current thread is null, hence rollback " +
-                            "has not been attempted");
-                }
-            }
+            transactionManager.rollbackTransaction();
         } catch (SQLException e) {
             log.error("Error occurred while roll-backing the transaction", e);
         }
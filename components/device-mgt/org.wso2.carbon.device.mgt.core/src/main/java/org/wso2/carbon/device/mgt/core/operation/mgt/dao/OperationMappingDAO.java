@@ -18,10 +18,21 @@
  */
 package org.wso2.carbon.device.mgt.core.operation.mgt.dao;
 
+import java.util.List;
+
 public interface OperationMappingDAO {
 
     void addOperationMapping(int operationId, Integer deviceIds) throws OperationManagementDAOException;
 
+    /**
+     * Maps an operation to a set of enrolments using a single JDBC batch.
+     *
+     * @param operationId  Id of the operation
+     * @param enrolmentIds Ids of the enrolments the operation is targeted at
+     * @throws OperationManagementDAOException If an error occurs while persisting the mappings
+     */
+    void addOperationMappings(int operationId, List<Integer> enrolmentIds) throws OperationManagementDAOException;
+
     void removeOperationMapping(int operationId, Integer deviceIds) throws OperationManagementDAOException;
 
 }
@@ -21,13 +21,14 @@ package org.wso2.carbon.device.mgt.core.operation.mgt.dao.impl;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.core.codec.PayloadCodecException;
+import org.wso2.carbon.device.mgt.core.codec.PayloadCodecUtil;
 import org.wso2.carbon.device.mgt.core.dto.operation.mgt.ConfigOperation;
 import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOException;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOUtil;
 
-import java.io.*;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -48,10 +49,13 @@ public class ConfigOperationDAOImpl extends OperationDAOImpl {
             Connection conn = OperationManagementDAOFactory.getConnection();
             stmt = conn.prepareStatement("INSERT INTO DM_CONFIG_OPERATION(OPERATION_ID, OPERATION_CONFIG) VALUES(?, ?)");
             stmt.setInt(1, operationId);
-            stmt.setObject(2, operation);
+            stmt.setBytes(2, PayloadCodecUtil.encode(operation));
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new OperationManagementDAOException("Error occurred while adding command operation", e);
+        } catch (PayloadCodecException e) {
+            throw new OperationManagementDAOException("Error occurred while serializing configuration operation " +
+                    "object", e);
         } finally {
             OperationManagementDAOUtil.cleanupResources(stmt);
         }
@@ -77,39 +81,19 @@ public class ConfigOperationDAOImpl extends OperationDAOImpl {
     @Override
     public void updateOperation(Operation operation) throws OperationManagementDAOException {
         PreparedStatement stmt = null;
-        ByteArrayOutputStream bao = null;
-        ObjectOutputStream oos = null;
         try {
             super.updateOperation(operation);
             Connection connection = OperationManagementDAOFactory.getConnection();
             stmt = connection.prepareStatement("UPDATE DM_CONFIG_OPERATION O SET O.OPERATION_CONFIG = ? " +
                     "WHERE O.OPERATION_ID = ?");
-            bao = new ByteArrayOutputStream();
-            oos = new ObjectOutputStream(bao);
-            oos.writeObject(operation);
-
-            stmt.setBytes(1, bao.toByteArray());
+            stmt.setBytes(1, PayloadCodecUtil.encode(operation));
             stmt.setInt(2, operation.getId());
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new OperationManagementDAOException("Error occurred while update policy operation metadata", e);
-        } catch (IOException e) {
+        } catch (PayloadCodecException e) {
             throw new OperationManagementDAOException("Error occurred while serializing policy operation object", e);
         } finally {
-            if (bao != null) {
-                try {
-                    bao.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ByteArrayOutputStream", e);
-                }
-            }
-            if (oos != null) {
-                try {
-                    oos.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ObjectOutputStream", e);
-                }
-            }
             OperationManagementDAOUtil.cleanupResources(stmt);
         }
     }
@@ -119,9 +103,6 @@ public class ConfigOperationDAOImpl extends OperationDAOImpl {
         PreparedStatement stmt = null;
         ResultSet rs = null;
         ConfigOperation configOperation = null;
-
-        ByteArrayInputStream bais;
-        ObjectInputStream ois;
         try {
             Connection conn = OperationManagementDAOFactory.getConnection();
             String sql = "SELECT OPERATION_ID, ENABLED, OPERATION_CONFIG FROM DM_CONFIG_OPERATION WHERE OPERATION_ID = ?";
@@ -130,17 +111,12 @@ public class ConfigOperationDAOImpl extends OperationDAOImpl {
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                byte[] operationDetails = rs.getBytes("OPERATION_DETAILS");
-                bais = new ByteArrayInputStream(operationDetails);
-                ois = new ObjectInputStream(bais);
-                configOperation = (ConfigOperation) ois.readObject();
+                byte[] operationDetails = rs.getBytes("OPERATION_CONFIG");
+                configOperation = (ConfigOperation) PayloadCodecUtil.decode(operationDetails);
             }
-        } catch (IOException e) {
-            throw new OperationManagementDAOException("IO Error occurred while de serialize the policy operation " +
+        } catch (PayloadCodecException e) {
+            throw new OperationManagementDAOException("Error occurred while de serialize the configuration operation " +
                     "object", e);
-        } catch (ClassNotFoundException e) {
-            throw new OperationManagementDAOException("Class not found error occurred while de serialize the policy " +
-                    "operation object", e);
         } catch (SQLException e) {
             throw new OperationManagementDAOException("SQL Error occurred while retrieving the policy operation " +
                     "object available for the id '"
@@ -158,9 +134,6 @@ public class ConfigOperationDAOImpl extends OperationDAOImpl {
         ResultSet rs = null;
         ConfigOperation configOperation;
         List<Operation> operations = new ArrayList<>();
-
-        ByteArrayInputStream bais = null;
-        ObjectInputStream ois = null;
         try {
             Connection conn = OperationManagementDAOFactory.getConnection();
             String sql = "SELECT co.OPERATION_ID, co.OPERATION_CONFIG FROM DM_CONFIG_OPERATION co " +
@@ -174,36 +147,17 @@ public class ConfigOperationDAOImpl extends OperationDAOImpl {
 
             while (rs.next()) {
                 byte[] operationDetails = rs.getBytes("OPERATION_CONFIG");
-                bais = new ByteArrayInputStream(operationDetails);
-                ois = new ObjectInputStream(bais);
-                configOperation = (ConfigOperation) ois.readObject();
+                configOperation = (ConfigOperation) PayloadCodecUtil.decode(operationDetails);
                 configOperation.setStatus(status);
                 operations.add(configOperation);
             }
-        } catch (IOException e) {
-            throw new OperationManagementDAOException("IO Error occurred while de serialize the configuration " +
-                    "operation object", e);
-        } catch (ClassNotFoundException e) {
-            throw new OperationManagementDAOException("Class not found error occurred while de serialize the " +
-                    "configuration operation object", e);
+        } catch (PayloadCodecException e) {
+            throw new OperationManagementDAOException("Error occurred while de serialize the configuration operation " +
+                    "object", e);
         } catch (SQLException e) {
             throw new OperationManagementDAOException("SQL error occurred while retrieving the operation available " +
                     "for the device'" + enrolmentId + "' with status '" + status.toString(), e);
         } finally {
-            if (bais != null) {
-                try {
-                    bais.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ByteArrayOutputStream", e);
-                }
-            }
-            if (ois != null) {
-                try {
-                    ois.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ObjectOutputStream", e);
-                }
-            }
             OperationManagementDAOUtil.cleanupResources(stmt, rs);
         }
         return operations;
@@ -0,0 +1,160 @@
+/*
+ *   Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.wso2.carbon.device.mgt.core.operation.mgt.dao.impl;
+
+import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationArchivalDAO;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOException;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OperationArchivalDAOImpl implements OperationArchivalDAO {
+
+    private static final String[] OPERATION_DETAIL_TABLES = {"DM_COMMAND_OPERATION", "DM_CONFIG_OPERATION",
+            "DM_PROFILE_OPERATION", "DM_POLICY_OPERATION"};
+
+    @Override
+    public List<Integer> getExpiredOperationIds(int lastOperationId, Timestamp createdBefore,
+                                                int limit) throws OperationManagementDAOException {
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<Integer> operationIds = new ArrayList<>();
+        try {
+            Connection conn = OperationManagementDAOFactory.getConnection();
+            String sql = "SELECT o.ID FROM DM_OPERATION o WHERE o.ID > ? AND o.CREATED_TIMESTAMP < ? AND NOT EXISTS " +
+                    "(SELECT 1 FROM DM_ENROLMENT_OPERATION_MAPPING om WHERE om.OPERATION_ID = o.ID AND " +
+                    "om.STATUS IN (?, ?)) ORDER BY o.ID LIMIT ?";
+            stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, lastOperationId);
+            stmt.setTimestamp(2, createdBefore);
+            stmt.setString(3, Operation.Status.PENDING.toString());
+            stmt.setString(4, Operation.Status.IN_PROGRESS.toString());
+            stmt.setInt(5, limit);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                operationIds.add(rs.getInt("ID"));
+            }
+        } catch (SQLException e) {
+            throw new OperationManagementDAOException("Error occurred while retrieving the ids of the operations " +
+                    "created before '" + createdBefore + "'", e);
+        } finally {
+            OperationManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return operationIds;
+    }
+
+    @Override
+    public int archiveOperations(List<Integer> operationIds,
+                                 Timestamp archivedTime) throws OperationManagementDAOException {
+        String sql = "INSERT INTO DM_OPERATION_ARCH (ID, TYPE, CREATED_TIMESTAMP, RECEIVED_TIMESTAMP, " +
+                "OPERATION_CODE, OPERATION_DETAILS, ARCHIVED_TIMESTAMP) SELECT o.ID, o.TYPE, o.CREATED_TIMESTAMP, " +
+                "o.RECEIVED_TIMESTAMP, o.OPERATION_CODE, COALESCE(co.OPERATION_CONFIG, pfo.OPERATION_DETAILS, " +
+                "po.OPERATION_DETAILS), ? FROM DM_OPERATION o LEFT JOIN DM_CONFIG_OPERATION co ON " +
+                "co.OPERATION_ID = o.ID LEFT JOIN DM_PROFILE_OPERATION pfo ON pfo.OPERATION_ID = o.ID LEFT JOIN " +
+                "DM_POLICY_OPERATION po ON po.OPERATION_ID = o.ID WHERE o.ID IN (" +
+                this.getPlaceholders(operationIds.size()) + ")";
+        return this.executeUpdate(sql, operationIds, archivedTime, "archiving operations");
+    }
+
+    @Override
+    public int archiveOperationMappings(List<Integer> operationIds,
+                                        Timestamp archivedTime) throws OperationManagementDAOException {
+        String sql = "INSERT INTO DM_ENROLMENT_OPERATION_MAPPING_ARCH (ID, ENROLMENT_ID, OPERATION_ID, STATUS, " +
+                "ARCHIVED_TIMESTAMP) SELECT ID, ENROLMENT_ID, OPERATION_ID, STATUS, ? FROM " +
+                "DM_ENROLMENT_OPERATION_MAPPING WHERE OPERATION_ID IN (" +
+                this.getPlaceholders(operationIds.size()) + ")";
+        return this.executeUpdate(sql, operationIds, archivedTime, "archiving operation mappings");
+    }
+
+    @Override
+    public int archiveOperationResponses(List<Integer> operationIds,
+                                         Timestamp archivedTime) throws OperationManagementDAOException {
+        String sql = "INSERT INTO DM_DEVICE_OPERATION_RESPONSE_ARCH (ID, DEVICE_ID, OPERATION_ID, " +
+                "OPERATION_RESPONSE, ARCHIVED_TIMESTAMP) SELECT ID, DEVICE_ID, OPERATION_ID, OPERATION_RESPONSE, ? " +
+                "FROM DM_DEVICE_OPERATION_RESPONSE WHERE OPERATION_ID IN (" +
+                this.getPlaceholders(operationIds.size()) + ")";
+        return this.executeUpdate(sql, operationIds, archivedTime, "archiving operation responses");
+    }
+
+    @Override
+    public int removeOperationResponses(List<Integer> operationIds) throws OperationManagementDAOException {
+        String sql = "DELETE FROM DM_DEVICE_OPERATION_RESPONSE WHERE OPERATION_ID IN (" +
+                this.getPlaceholders(operationIds.size()) + ")";
+        return this.executeUpdate(sql, operationIds, null, "removing operation responses");
+    }
+
+    @Override
+    public int removeOperationMappings(List<Integer> operationIds) throws OperationManagementDAOException {
+        String sql = "DELETE FROM DM_ENROLMENT_OPERATION_MAPPING WHERE OPERATION_ID IN (" +
+                this.getPlaceholders(operationIds.size()) + ")";
+        return this.executeUpdate(sql, operationIds, null, "removing operation mappings");
+    }
+
+    @Override
+    public int removeOperations(List<Integer> operationIds) throws OperationManagementDAOException {
+        String placeholders = this.getPlaceholders(operationIds.size());
+        for (String detailTable : OPERATION_DETAIL_TABLES) {
+            String sql = "DELETE FROM " + detailTable + " WHERE OPERATION_ID IN (" + placeholders + ")";
+            this.executeUpdate(sql, operationIds, null, "removing operation details from " + detailTable);
+        }
+        String sql = "DELETE FROM DM_OPERATION WHERE ID IN (" + placeholders + ")";
+        return this.executeUpdate(sql, operationIds, null, "removing operations");
+    }
+
+    private int executeUpdate(String sql, List<Integer> operationIds, Timestamp archivedTime,
+                              String action) throws OperationManagementDAOException {
+        PreparedStatement stmt = null;
+        try {
+            Connection conn = OperationManagementDAOFactory.getConnection();
+            stmt = conn.prepareStatement(sql);
+            int index = 1;
+            if (archivedTime != null) {
+                stmt.setTimestamp(index++, archivedTime);
+            }
+            for (Integer operationId : operationIds) {
+                stmt.setInt(index++, operationId);
+            }
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new OperationManagementDAOException("Error occurred while " + action, e);
+        } finally {
+            OperationManagementDAOUtil.cleanupResources(stmt);
+        }
+    }
+
+    private String getPlaceholders(int count) {
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                placeholders.append(", ");
+            }
+            placeholders.append("?");
+        }
+        return placeholders.toString();
+    }
+
+}
@@ -20,15 +20,15 @@ package org.wso2.carbon.device.mgt.core.operation.mgt.dao.impl;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.core.codec.PayloadCodecException;
+import org.wso2.carbon.device.mgt.core.codec.PayloadCodecUtil;
+import org.wso2.carbon.device.mgt.core.dto.operation.mgt.CommandOperation;
 import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationDAO;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOException;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOUtil;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Date;
@@ -106,39 +106,19 @@ public class OperationDAOImpl implements OperationDAO {
     public void addOperationResponse(int enrolmentId, int operationId, Object operationResponse)
             throws OperationManagementDAOException {
         PreparedStatement stmt = null;
-        ByteArrayOutputStream bao = null;
-        ObjectOutputStream oos = null;
         try {
             Connection connection = OperationManagementDAOFactory.getConnection();
             stmt = connection.prepareStatement("INSERT INTO DM_DEVICE_OPERATION_RESPONSE(OPERATION_ID,DEVICE_ID," +
                     "OPERATION_RESPONSE) VALUES(?, ?, ?)");
-            bao = new ByteArrayOutputStream();
-            oos = new ObjectOutputStream(bao);
-            oos.writeObject(operationResponse);
-
             stmt.setInt(1, operationId);
             stmt.setInt(2, enrolmentId);
-            stmt.setBytes(3, bao.toByteArray());
+            stmt.setBytes(3, PayloadCodecUtil.encode(operationResponse));
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new OperationManagementDAOException("Error occurred while inserting operation response", e);
-        } catch (IOException e) {
-            throw new OperationManagementDAOException("Error occurred while serializing policy operation object", e);
+        } catch (PayloadCodecException e) {
+            throw new OperationManagementDAOException("Error occurred while serializing operation response object", e);
         } finally {
-            if (bao != null) {
-                try {
-                    bao.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ByteArrayOutputStream", e);
-                }
-            }
-            if (oos != null) {
-                try {
-                    oos.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ObjectOutputStream", e);
-                }
-            }
             OperationManagementDAOUtil.cleanupResources(stmt);
         }
     }
@@ -273,6 +253,87 @@ public class OperationDAOImpl implements OperationDAO {
         return operations;
     }
 
+    @Override
+    public List<? extends Operation> getOperationsWithDetails(int enrolmentId, Operation.Status status,
+                                                              int limit) throws OperationManagementDAOException {
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<Operation> operations = new ArrayList<Operation>();
+        try {
+            Connection conn = OperationManagementDAOFactory.getConnection();
+            String sql = "SELECT o.ID, o.TYPE, o.CREATED_TIMESTAMP, o.RECEIVED_TIMESTAMP, o.OPERATION_CODE, " +
+                    "co.ENABLED AS COMMAND_ENABLED, cfo.OPERATION_CONFIG, pro.OPERATION_DETAILS AS PROFILE_DETAILS, " +
+                    "po.OPERATION_DETAILS AS POLICY_DETAILS FROM DM_ENROLMENT_OPERATION_MAPPING om " +
+                    "INNER JOIN DM_OPERATION o ON o.ID = om.OPERATION_ID " +
+                    "LEFT JOIN DM_COMMAND_OPERATION co ON co.OPERATION_ID = o.ID " +
+                    "LEFT JOIN DM_CONFIG_OPERATION cfo ON cfo.OPERATION_ID = o.ID " +
+                    "LEFT JOIN DM_PROFILE_OPERATION pro ON pro.OPERATION_ID = o.ID " +
+                    "LEFT JOIN DM_POLICY_OPERATION po ON po.OPERATION_ID = o.ID " +
+                    "WHERE om.ENROLMENT_ID = ? AND om.STATUS = ? ORDER BY om.OPERATION_ID";
+            if (limit > 0) {
+                sql = sql + " LIMIT ?";
+            }
+            stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, enrolmentId);
+            stmt.setString(2, status.toString());
+            if (limit > 0) {
+                stmt.setInt(3, limit);
+            }
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                Operation operation = this.getOperationWithDetails(rs);
+                operation.setStatus(status);
+                operations.add(operation);
+            }
+        } catch (PayloadCodecException e) {
+            throw new OperationManagementDAOException("Error occurred while de serialize the operation object", e);
+        } catch (SQLException e) {
+            throw new OperationManagementDAOException("SQL error occurred while retrieving the operations " +
+                    "available for the device'" + enrolmentId + "' with status '" + status.toString(), e);
+        } finally {
+            OperationManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return operations;
+    }
+
+    /**
+     * Builds an operation out of a row of the unified operation query. Config, profile and policy operations are
+     * stored as encoded objects, while the details of a command operation are held in columns.
+     */
+    private Operation getOperationWithDetails(ResultSet rs) throws SQLException, PayloadCodecException {
+        Operation.Type type = this.getType(rs.getString("TYPE"));
+        byte[] operationDetails = null;
+        if (Operation.Type.CONFIG.equals(type)) {
+            operationDetails = rs.getBytes("OPERATION_CONFIG");
+        } else if (Operation.Type.PROFILE.equals(type)) {
+            operationDetails = rs.getBytes("PROFILE_DETAILS");
+        } else if (Operation.Type.POLICY.equals(type)) {
+            operationDetails = rs.getBytes("POLICY_DETAILS");
+        }
+        if (operationDetails != null) {
+            return (Operation) PayloadCodecUtil.decode(operationDetails);
+        }
+
+        Operation operation;
+        if (Operation.Type.COMMAND.equals(type)) {
+            operation = new CommandOperation();
+            operation.setEnabled(rs.getInt("COMMAND_ENABLED") != 0);
+        } else {
+            operation = new Operation();
+        }
+        operation.setId(rs.getInt("ID"));
+        operation.setType(type);
+        operation.setCreatedTimeStamp(rs.getTimestamp("CREATED_TIMESTAMP").toString());
+        if (rs.getTimestamp("RECEIVED_TIMESTAMP") == null) {
+            operation.setReceivedTimeStamp("");
+        } else {
+            operation.setReceivedTimeStamp(rs.getTimestamp("RECEIVED_TIMESTAMP").toString());
+        }
+        operation.setCode(rs.getString("OPERATION_CODE"));
+        return operation;
+    }
+
     @Override
     public List<? extends Operation> getOperationsForDevice(int enrolmentId) throws OperationManagementDAOException {
         PreparedStatement stmt = null;
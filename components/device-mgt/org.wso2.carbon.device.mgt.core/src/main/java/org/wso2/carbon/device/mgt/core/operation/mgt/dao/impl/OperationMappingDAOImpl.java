@@ -27,6 +27,7 @@ import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationMappingDAO;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.List;
 
 public class OperationMappingDAOImpl implements OperationMappingDAO {
 
@@ -48,6 +49,28 @@ public class OperationMappingDAOImpl implements OperationMappingDAO {
         }
     }
 
+    @Override
+    public void addOperationMappings(int operationId,
+                                     List<Integer> enrolmentIds) throws OperationManagementDAOException {
+        PreparedStatement stmt = null;
+        try {
+            Connection conn = OperationManagementDAOFactory.getConnection();
+            String sql = "INSERT INTO DM_ENROLMENT_OPERATION_MAPPING(ENROLMENT_ID, OPERATION_ID, STATUS) VALUES (?, ?,?)";
+            stmt = conn.prepareStatement(sql);
+            for (Integer enrolmentId : enrolmentIds) {
+                stmt.setInt(1, enrolmentId);
+                stmt.setInt(2, operationId);
+                stmt.setString(3, Operation.Status.PENDING.toString());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+            throw new OperationManagementDAOException("Error occurred while persisting device operation mappings", e);
+        } finally {
+            OperationManagementDAOUtil.cleanupResources(stmt, null);
+        }
+    }
+
     @Override
     public void removeOperationMapping(int operationId,
                                        Integer deviceIds) throws OperationManagementDAOException {
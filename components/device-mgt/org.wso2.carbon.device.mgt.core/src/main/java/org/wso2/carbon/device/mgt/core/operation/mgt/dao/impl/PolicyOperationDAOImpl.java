@@ -20,13 +20,14 @@ package org.wso2.carbon.device.mgt.core.operation.mgt.dao.impl;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.core.codec.PayloadCodecException;
+import org.wso2.carbon.device.mgt.core.codec.PayloadCodecUtil;
 import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.core.dto.operation.mgt.PolicyOperation;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOException;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOUtil;
 
-import java.io.*;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -49,10 +50,12 @@ public class PolicyOperationDAOImpl extends OperationDAOImpl {
             stmt = conn.prepareStatement("INSERT INTO DM_POLICY_OPERATION(OPERATION_ID, OPERATION_DETAILS) " +
                     "VALUES(?, ?)");
             stmt.setInt(1, operationId);
-            stmt.setObject(2, policyOperation);
+            stmt.setBytes(2, PayloadCodecUtil.encode(policyOperation));
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new OperationManagementDAOException("Error occurred while adding policy operation", e);
+        } catch (PayloadCodecException e) {
+            throw new OperationManagementDAOException("Error occurred while serializing policy operation object", e);
         } finally {
             OperationManagementDAOUtil.cleanupResources(stmt);
         }
@@ -62,39 +65,19 @@ public class PolicyOperationDAOImpl extends OperationDAOImpl {
     @Override
     public void updateOperation(Operation operation) throws OperationManagementDAOException {
         PreparedStatement stmt = null;
-        ByteArrayOutputStream bao = null;
-        ObjectOutputStream oos = null;
         try {
             super.updateOperation(operation);
             Connection connection = OperationManagementDAOFactory.getConnection();
             stmt = connection.prepareStatement("UPDATE DM_POLICY_OPERATION O SET O.OPERATION_DETAILS=? " +
                     "WHERE O.OPERATION_ID=?");
-            bao = new ByteArrayOutputStream();
-            oos = new ObjectOutputStream(bao);
-            oos.writeObject(operation);
-
-            stmt.setBytes(1, bao.toByteArray());
+            stmt.setBytes(1, PayloadCodecUtil.encode(operation));
             stmt.setInt(2, operation.getId());
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new OperationManagementDAOException("Error occurred while update policy operation metadata", e);
-        } catch (IOException e) {
+        } catch (PayloadCodecException e) {
             throw new OperationManagementDAOException("Error occurred while serializing policy operation object", e);
         } finally {
-            if (bao != null) {
-                try {
-                    bao.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ByteArrayOutputStream", e);
-                }
-            }
-            if (oos != null) {
-                try {
-                    oos.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ObjectOutputStream", e);
-                }
-            }
             OperationManagementDAOUtil.cleanupResources(stmt);
         }
     }
@@ -120,9 +103,6 @@ public class PolicyOperationDAOImpl extends OperationDAOImpl {
         PreparedStatement stmt = null;
         ResultSet rs = null;
         PolicyOperation policyOperation = null;
-
-        ByteArrayInputStream bais;
-        ObjectInputStream ois;
         try {
             Connection conn = OperationManagementDAOFactory.getConnection();
             String sql = "SELECT OPERATION_ID, ENABLED, OPERATION_DETAILS FROM DM_POLICY_OPERATION WHERE OPERATION_ID=?";
@@ -132,16 +112,11 @@ public class PolicyOperationDAOImpl extends OperationDAOImpl {
 
             if (rs.next()) {
                 byte[] operationDetails = rs.getBytes("OPERATION_DETAILS");
-                bais = new ByteArrayInputStream(operationDetails);
-                ois = new ObjectInputStream(bais);
-                policyOperation = (PolicyOperation) ois.readObject();
+                policyOperation = (PolicyOperation) PayloadCodecUtil.decode(operationDetails);
             }
-        } catch (IOException e) {
-            throw new OperationManagementDAOException("IO Error occurred while de serialize the policy operation " +
+        } catch (PayloadCodecException e) {
+            throw new OperationManagementDAOException("Error occurred while de serialize the policy operation " +
                     "object", e);
-        } catch (ClassNotFoundException e) {
-            throw new OperationManagementDAOException("Class not found error occurred while de serialize the " +
-                    "policy operation object", e);
         } catch (SQLException e) {
             throw new OperationManagementDAOException("SQL Error occurred while retrieving the policy operation " +
                     "object available for the id '" + operationId + "'", e);
@@ -158,9 +133,6 @@ public class PolicyOperationDAOImpl extends OperationDAOImpl {
         ResultSet rs = null;
         PolicyOperation policyOperation;
         List<Operation> operations = new ArrayList<>();
-
-        ByteArrayInputStream bais = null;
-        ObjectInputStream ois = null;
         try {
             Connection conn = OperationManagementDAOFactory.getConnection();
             String sql = "SELECT po.OPERATION_ID, ENABLED, OPERATION_DETAILS FROM DM_POLICY_OPERATION po " +
@@ -174,36 +146,17 @@ public class PolicyOperationDAOImpl extends OperationDAOImpl {
 
             while (rs.next()) {
                 byte[] operationDetails = rs.getBytes("OPERATION_DETAILS");
-                bais = new ByteArrayInputStream(operationDetails);
-                ois = new ObjectInputStream(bais);
-                policyOperation = (PolicyOperation) ois.readObject();
+                policyOperation = (PolicyOperation) PayloadCodecUtil.decode(operationDetails);
                 policyOperation.setStatus(status);
                 operations.add(policyOperation);
             }
-        } catch (IOException e) {
-            throw new OperationManagementDAOException("IO Error occurred while de serialize the profile " +
-                    "operation object", e);
-        } catch (ClassNotFoundException e) {
-            throw new OperationManagementDAOException("Class not found error occurred while de serialize the " +
-                    "profile operation object", e);
+        } catch (PayloadCodecException e) {
+            throw new OperationManagementDAOException("Error occurred while de serialize the policy operation " +
+                    "object", e);
         } catch (SQLException e) {
             throw new OperationManagementDAOException("SQL error occurred while retrieving the operation " +
                     "available for the device'" + enrolmentId + "' with status '" + status.toString(), e);
         } finally {
-            if (bais != null) {
-                try {
-                    bais.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ByteArrayOutputStream", e);
-                }
-            }
-            if (ois != null) {
-                try {
-                    ois.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ObjectOutputStream", e);
-                }
-            }
             OperationManagementDAOUtil.cleanupResources(stmt, rs);
         }
         return operations;
@@ -20,13 +20,14 @@ package org.wso2.carbon.device.mgt.core.operation.mgt.dao.impl;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.core.codec.PayloadCodecException;
+import org.wso2.carbon.device.mgt.core.codec.PayloadCodecUtil;
 import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.core.dto.operation.mgt.ProfileOperation;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOException;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOUtil;
 
-import java.io.*;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -48,10 +49,12 @@ public class ProfileOperationDAOImpl extends OperationDAOImpl {
             stmt = conn.prepareStatement("INSERT INTO DM_PROFILE_OPERATION(OPERATION_ID, OPERATION_DETAILS) " +
                     "VALUES(?, ?)");
             stmt.setInt(1, operationId);
-            stmt.setObject(2, profileOp);
+            stmt.setBytes(2, PayloadCodecUtil.encode(profileOp));
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new OperationManagementDAOException("Error occurred while adding profile operation", e);
+        } catch (PayloadCodecException e) {
+            throw new OperationManagementDAOException("Error occurred while serializing profile operation object", e);
         } finally {
             OperationManagementDAOUtil.cleanupResources(stmt);
         }
@@ -61,40 +64,20 @@ public class ProfileOperationDAOImpl extends OperationDAOImpl {
     @Override
     public void updateOperation(Operation operation) throws OperationManagementDAOException {
         PreparedStatement stmt = null;
-        ByteArrayOutputStream bao = null;
-        ObjectOutputStream oos = null;
         try {
             super.updateOperation(operation);
             Connection connection = OperationManagementDAOFactory.getConnection();
             stmt = connection.prepareStatement("UPDATE DM_PROFILE_OPERATION O SET O.OPERATION_DETAILS=? " +
                     "WHERE O.OPERATION_ID=?");
 
-            bao = new ByteArrayOutputStream();
-            oos = new ObjectOutputStream(bao);
-            oos.writeObject(operation);
-
-            stmt.setBytes(1, bao.toByteArray());
+            stmt.setBytes(1, PayloadCodecUtil.encode(operation));
             stmt.setInt(2, operation.getId());
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new OperationManagementDAOException("Error occurred while update operation metadata", e);
-        } catch (IOException e) {
+        } catch (PayloadCodecException e) {
             throw new OperationManagementDAOException("Error occurred while serializing profile operation object", e);
         } finally {
-            if (bao != null) {
-                try {
-                    bao.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ByteArrayOutputStream", e);
-                }
-            }
-            if (oos != null) {
-                try {
-                    oos.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ObjectOutputStream", e);
-                }
-            }
             OperationManagementDAOUtil.cleanupResources(stmt);
         }
     }
@@ -119,9 +102,6 @@ public class ProfileOperationDAOImpl extends OperationDAOImpl {
         PreparedStatement stmt = null;
         ResultSet rs = null;
         ProfileOperation profileOperation = null;
-
-        ByteArrayInputStream bais;
-        ObjectInputStream ois;
         try {
             Connection conn = OperationManagementDAOFactory.getConnection();
             String sql = "SELECT OPERATION_ID, ENABLED, OPERATION_DETAILS FROM DM_PROFILE_OPERATION WHERE OPERATION_ID=?";
@@ -132,16 +112,11 @@ public class ProfileOperationDAOImpl extends OperationDAOImpl {
 
             if (rs.next()) {
                 byte[] operationDetails = rs.getBytes("OPERATION_DETAILS");
-                bais = new ByteArrayInputStream(operationDetails);
-                ois = new ObjectInputStream(bais);
-                profileOperation = (ProfileOperation) ois.readObject();
+                profileOperation = (ProfileOperation) PayloadCodecUtil.decode(operationDetails);
             }
-        } catch (IOException e) {
-            throw new OperationManagementDAOException("IO Error occurred while de serialize the profile " +
-                    "operation object", e);
-        } catch (ClassNotFoundException e) {
-            throw new OperationManagementDAOException("Class not found error occurred while de serialize the " +
-                    "profile operation object", e);
+        } catch (PayloadCodecException e) {
+            throw new OperationManagementDAOException("Error occurred while de serialize the profile operation " +
+                    "object", e);
         } catch (SQLException e) {
             throw new OperationManagementDAOException("SQL Error occurred while retrieving the command " +
                     "operation object " + "available for the id '" + id, e);
@@ -160,9 +135,6 @@ public class ProfileOperationDAOImpl extends OperationDAOImpl {
 
         List<Operation> operationList = new ArrayList<Operation>();
 
-        ByteArrayInputStream bais = null;
-        ObjectInputStream ois = null;
-
         try {
             Connection conn = OperationManagementDAOFactory.getConnection();
             String sql = "Select po.OPERATION_ID, ENABLED, OPERATION_DETAILS from DM_PROFILE_OPERATION po " +
@@ -178,37 +150,18 @@ public class ProfileOperationDAOImpl extends OperationDAOImpl {
 
             while (rs.next()) {
                 byte[] operationDetails = rs.getBytes("OPERATION_DETAILS");
-                bais = new ByteArrayInputStream(operationDetails);
-                ois = new ObjectInputStream(bais);
-                profileOperation = (ProfileOperation) ois.readObject();
+                profileOperation = (ProfileOperation) PayloadCodecUtil.decode(operationDetails);
                 profileOperation.setStatus(status);
                 operationList.add(profileOperation);
             }
 
-        } catch (IOException e) {
-            throw new OperationManagementDAOException("IO Error occurred while de serialize the profile " +
-                    "operation object", e);
-        } catch (ClassNotFoundException e) {
-            throw new OperationManagementDAOException("Class not found error occurred while de serialize the " +
-                    "profile operation object", e);
+        } catch (PayloadCodecException e) {
+            throw new OperationManagementDAOException("Error occurred while de serialize the profile operation " +
+                    "object", e);
         } catch (SQLException e) {
             throw new OperationManagementDAOException("SQL error occurred while retrieving the operation " +
                     "available for the device'" + enrolmentId + "' with status '" + status.toString(), e);
         } finally {
-            if (bais != null) {
-                try {
-                    bais.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ByteArrayOutputStream", e);
-                }
-            }
-            if (ois != null) {
-                try {
-                    ois.close();
-                } catch (IOException e) {
-                    log.warn("Error occurred while closing ObjectOutputStream", e);
-                }
-            }
             OperationManagementDAOUtil.cleanupResources(stmt, rs);
         }
         return operationList;
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.core.operation.mgt.notification;
+
+import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
+
+import java.util.List;
+
+/**
+ * Receives the outcome of a long polling request for pending operations. Exactly one of the methods is invoked per
+ * request, either on the thread that started polling or on a thread of the {@link PendingOperationPoller}, hence
+ * implementations must not block, e.g. they should write the response of an asynchronous servlet request and
+ * complete it.
+ */
+public interface PendingOperationCallback {
+
+    /**
+     * @param operations Pending operations of the device, which is empty if no operation was added before the wait
+     *                   timed out
+     */
+    void onPendingOperations(List<? extends Operation> operations);
+
+    void onError(OperationManagementException e);
+
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.core.operation.mgt.notification;
+
+/**
+ * Device request waiting for an operation to be mapped to its enrolment. Listeners are notified on the thread that
+ * added the operation, hence they must not block.
+ */
+public interface PendingOperationListener {
+
+    int getEnrolmentId();
+
+    /**
+     * Invoked once an operation is mapped to the enrolment of the listener and the mapping is committed.
+     */
+    void onOperationAdded();
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.operation.mgt.notification;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory registry of the device requests that are long polling for pending operations, keyed by enrolment id.
+ * Operation manager signals the registry once the mappings of a new operation are committed, which notifies the
+ * requests waiting on the affected enrolments.
+ * <p/>
+ * The registry is local to the node. A device waiting on a node other than the one that added the operation is not
+ * notified early, but still picks the operation up once its wait times out and it goes back to the database.
+ */
+public class PendingOperationNotifier {
+
+    private static final Log log = LogFactory.getLog(PendingOperationNotifier.class);
+    private static PendingOperationNotifier pendingOperationNotifier = new PendingOperationNotifier();
+
+    private final Map<Integer, Set<PendingOperationListener>> listeners = new HashMap<>();
+
+    private PendingOperationNotifier() {
+    }
+
+    public static PendingOperationNotifier getInstance() {
+        return pendingOperationNotifier;
+    }
+
+    /**
+     * Registers a listener for the enrolment it is interested in. The listener has to be registered before the
+     * database is checked for pending operations so that an operation added in between is not missed.
+     *
+     * @param listener Listener of the polling device
+     */
+    public void register(PendingOperationListener listener) {
+        synchronized (listeners) {
+            Set<PendingOperationListener> enrolmentListeners = listeners.get(listener.getEnrolmentId());
+            if (enrolmentListeners == null) {
+                enrolmentListeners = new HashSet<>();
+                listeners.put(listener.getEnrolmentId(), enrolmentListeners);
+            }
+            enrolmentListeners.add(listener);
+        }
+    }
+
+    public void unregister(PendingOperationListener listener) {
+        synchronized (listeners) {
+            Set<PendingOperationListener> enrolmentListeners = listeners.get(listener.getEnrolmentId());
+            if (enrolmentListeners != null) {
+                enrolmentListeners.remove(listener);
+                if (enrolmentListeners.isEmpty()) {
+                    listeners.remove(listener.getEnrolmentId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Notifies the listeners of the given enrolments. Has to be called only after the operation mappings are
+     * committed, so that the notified requests are able to read them. Listeners are invoked on the calling thread.
+     *
+     * @param enrolmentIds Enrolment ids the operation got mapped to
+     */
+    public void notifyOperationAdded(Collection<Integer> enrolmentIds) {
+        Set<PendingOperationListener> notifiable = new HashSet<>();
+        synchronized (listeners) {
+            if (listeners.isEmpty()) {
+                return;
+            }
+            for (Integer enrolmentId : enrolmentIds) {
+                Set<PendingOperationListener> enrolmentListeners = listeners.get(enrolmentId);
+                if (enrolmentListeners != null) {
+                    notifiable.addAll(enrolmentListeners);
+                }
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Notifying " + notifiable.size() + " long polling request(s) of a newly added operation");
+        }
+        for (PendingOperationListener listener : notifiable) {
+            listener.onOperationAdded();
+        }
+    }
+
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.core.operation.mgt.notification;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.CarbonContext;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
+import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManager;
+import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOException;
+import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves long polling requests for pending operations without holding a request thread while a device waits. A poll
+ * that finds pending operations completes on the calling thread. Otherwise it is registered with the
+ * {@link PendingOperationNotifier} and the calling thread returns straight away; the poll is completed on one of the
+ * threads of this poller, either once an operation is mapped to the enrolment of the device or once the wait times
+ * out, whichever comes first. Callers are expected to suspend the request meanwhile, e.g. using an asynchronous
+ * servlet.
+ */
+public class PendingOperationPoller {
+
+    private static final Log log = LogFactory.getLog(PendingOperationPoller.class);
+
+    private final OperationManager operationManager;
+    private final long maxWaitTime;
+    private final ScheduledExecutorService executor;
+
+    public PendingOperationPoller(OperationManager operationManager, long maxWaitTime, int threadPoolSize) {
+        this.operationManager = operationManager;
+        this.maxWaitTime = maxWaitTime;
+        this.executor = new ScheduledThreadPoolExecutor(threadPoolSize, new PollerThreadFactory());
+    }
+
+    /**
+     * Polls for the pending operations of a device. This method does not wait for an operation to be added, the
+     * outcome is delivered to the callback.
+     *
+     * @param deviceId DeviceIdentifier of the device
+     * @param timeout  Maximum time to wait for an operation in milliseconds. It is capped by the configured maximum
+     *                 long poll wait time.
+     * @param callback Callback the pending operations are delivered to
+     * @throws OperationManagementException If the device is not found or its pending operations cannot be retrieved
+     */
+    public void poll(DeviceIdentifier deviceId, long timeout,
+                     PendingOperationCallback callback) throws OperationManagementException {
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        Poll poll = new Poll(deviceId, this.getEnrolmentId(deviceId, tenantId), tenantId, callback);
+        PendingOperationNotifier.getInstance().register(poll);
+        List<? extends Operation> operations;
+        try {
+            operations = this.getPendingOperations(deviceId);
+        } catch (OperationManagementException e) {
+            PendingOperationNotifier.getInstance().unregister(poll);
+            throw e;
+        }
+        long waitTime = Math.max(0, Math.min(timeout, maxWaitTime));
+        if (!operations.isEmpty() || waitTime == 0) {
+            poll.complete(operations);
+            return;
+        }
+        try {
+            poll.setTimeout(executor.schedule(new PollTimeout(poll), waitTime, TimeUnit.MILLISECONDS));
+        } catch (RejectedExecutionException e) {
+            poll.complete(operations);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    protected int getEnrolmentId(DeviceIdentifier deviceId, int tenantId) throws OperationManagementException {
+        try {
+            OperationManagementDAOFactory.openConnection();
+            int enrolmentId = DeviceManagementDAOFactory.getDeviceDAO().getEnrolmentByStatus(deviceId,
+                    EnrolmentInfo.Status.ACTIVE, tenantId);
+            if (enrolmentId < 0) {
+                throw new OperationManagementException("Device not found for the given device Identifier:" +
+                        deviceId.getId() + " and given type:" + deviceId.getType());
+            }
+            return enrolmentId;
+        } catch (DeviceManagementDAOException e) {
+            throw new OperationManagementException("Error occurred while retrieving the device " +
+                    "for device Identifier type -'" + deviceId.getType() + "' and device Id '"
+                    + deviceId.getId() + "'", e);
+        } catch (SQLException e) {
+            throw new OperationManagementException("Error occurred while opening a connection to the data source", e);
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+    }
+
+    protected List<? extends Operation> getPendingOperations(
+            DeviceIdentifier deviceId) throws OperationManagementException {
+        return operationManager.getPendingOperations(deviceId);
+    }
+
+    private class Poll implements PendingOperationListener {
+
+        private final DeviceIdentifier deviceId;
+        private final int enrolmentId;
+        private final int tenantId;
+        private final PendingOperationCallback callback;
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile ScheduledFuture<?> timeout;
+
+        Poll(DeviceIdentifier deviceId, int enrolmentId, int tenantId, PendingOperationCallback callback) {
+            this.deviceId = deviceId;
+            this.enrolmentId = enrolmentId;
+            this.tenantId = tenantId;
+            this.callback = callback;
+        }
+
+        @Override
+        public int getEnrolmentId() {
+            return enrolmentId;
+        }
+
+        @Override
+        public void onOperationAdded() {
+            if (completed.get()) {
+                return;
+            }
+            try {
+                executor.execute(new PollLookup(this));
+            } catch (RejectedExecutionException e) {
+                log.warn("Pending operation poller is shut down, hence the poll of device '" + deviceId.getId() +
+                        "' is not notified of the added operation");
+            }
+        }
+
+        void setTimeout(ScheduledFuture<?> timeout) {
+            this.timeout = timeout;
+            if (completed.get()) {
+                timeout.cancel(false);
+            }
+        }
+
+        boolean markCompleted() {
+            if (!completed.compareAndSet(false, true)) {
+                return false;
+            }
+            PendingOperationNotifier.getInstance().unregister(this);
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            return true;
+        }
+
+        void complete(List<? extends Operation> operations) {
+            if (this.markCompleted()) {
+                callback.onPendingOperations(operations);
+            }
+        }
+
+        void fail(OperationManagementException e) {
+            if (this.markCompleted()) {
+                callback.onError(e);
+            }
+        }
+    }
+
+    /**
+     * Looks up the pending operations of a notified poll. The poll keeps waiting if the operation has already been
+     * picked up, e.g. by another request of the same device.
+     */
+    private class PollLookup implements Runnable {
+
+        private final Poll poll;
+
+        PollLookup(Poll poll) {
+            this.poll = poll;
+        }
+
+        @Override
+        public void run() {
+            if (poll.completed.get()) {
+                return;
+            }
+            PrivilegedCarbonContext.startTenantFlow();
+            try {
+                PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(poll.tenantId, true);
+                List<? extends Operation> operations = PendingOperationPoller.this.getPendingOperations(poll.deviceId);
+                if (!operations.isEmpty()) {
+                    poll.complete(operations);
+                }
+            } catch (OperationManagementException e) {
+                poll.fail(e);
+            } catch (RuntimeException e) {
+                poll.fail(new OperationManagementException("Error occurred while retrieving the pending " +
+                        "operations of device '" + poll.deviceId.getId() + "'", e));
+            } finally {
+                PrivilegedCarbonContext.endTenantFlow();
+            }
+        }
+    }
+
+    private static class PollTimeout implements Runnable {
+
+        private final Poll poll;
+
+        PollTimeout(Poll poll) {
+            this.poll = poll;
+        }
+
+        @Override
+        public void run() {
+            poll.complete(Collections.<Operation>emptyList());
+        }
+    }
+
+    private static class PollerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "PendingOperationPoller-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
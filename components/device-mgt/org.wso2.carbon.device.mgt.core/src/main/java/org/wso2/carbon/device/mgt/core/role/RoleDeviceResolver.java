@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.role;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceManagementException;
+import org.wso2.carbon.device.mgt.core.dao.DeviceDAO;
+import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOException;
+import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
+import org.wso2.carbon.device.mgt.core.internal.DeviceManagementDataHolder;
+import org.wso2.carbon.device.mgt.core.util.DeviceManagerUtil;
+import org.wso2.carbon.user.api.UserStoreException;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves the devices owned by the users of a role. Owners are pushed to the database in chunks bound to a single
+ * IN query each, rather than querying the devices of each user separately.
+ * <p/>
+ * Role memberships can optionally be cached for a configurable period. The cached snapshots of a tenant are
+ * discarded by {@link RoleMembershipListener} whenever a user or role of the tenant changes on this node, hence only
+ * changes made through other nodes of a cluster remain invisible to the resolver until the snapshot expires.
+ */
+public class RoleDeviceResolver {
+
+    private static final Log log = LogFactory.getLog(RoleDeviceResolver.class);
+    private static RoleDeviceResolver roleDeviceResolver = new RoleDeviceResolver();
+
+    private final ConcurrentMap<Integer, Map<String, MembershipSnapshot>> memberships = new ConcurrentHashMap<>();
+    private DeviceDAO deviceDAO;
+
+    private RoleDeviceResolver() {
+        this.deviceDAO = DeviceManagementDAOFactory.getDeviceDAO();
+    }
+
+    public static RoleDeviceResolver getInstance() {
+        return roleDeviceResolver;
+    }
+
+    /**
+     * Retrieves the devices owned by the users assigned with the given role.
+     *
+     * @param role     Name of the role
+     * @param tenantId Id of the tenant the role belongs to
+     * @return Devices owned by the users of the role
+     * @throws DeviceManagementException If the users of the role or their devices could not be retrieved
+     */
+    public List<Device> getDevicesOfRole(String role, int tenantId) throws DeviceManagementException {
+        List<String> users = this.getUsersOfRole(role, tenantId);
+        List<Device> devices = new ArrayList<>();
+        if (users.isEmpty()) {
+            return devices;
+        }
+        int chunkSize = DeviceManagerUtil.getRoleDeviceOwnerChunkSize();
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            for (int i = 0; i < users.size(); i += chunkSize) {
+                devices.addAll(deviceDAO.getDevicesOfUsers(
+                        users.subList(i, Math.min(i + chunkSize, users.size())), tenantId));
+            }
+        } catch (DeviceManagementDAOException | SQLException e) {
+            throw new DeviceManagementException("Error occurred while retrieving the devices of the users " +
+                    "assigned with the role '" + role + "'", e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+        if (users.size() > chunkSize) {
+            Collections.sort(devices, new Comparator<Device>() {
+                @Override
+                public int compare(Device device1, Device device2) {
+                    return (device1.getId() < device2.getId()) ? -1 : ((device1.getId() == device2.getId()) ? 0 : 1);
+                }
+            });
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Resolved " + devices.size() + " device(s) owned by " + users.size() + " user(s) of the " +
+                    "role '" + role + "'");
+        }
+        return devices;
+    }
+
+    /**
+     * Retrieves the users assigned with the given role, served from the cached snapshot of the role while it is
+     * fresh.
+     *
+     * @param role     Name of the role
+     * @param tenantId Id of the tenant the role belongs to
+     * @return Distinct users of the role
+     * @throws DeviceManagementException If the users of the role could not be retrieved from the user store
+     */
+    public List<String> getUsersOfRole(String role, int tenantId) throws DeviceManagementException {
+        long ttl = DeviceManagerUtil.getRoleMembershipCacheTTL();
+        // snapshots of the tenant are looked up once, so that a snapshot taken before an invalidation of the tenant
+        // is stored in the discarded map rather than cached again
+        Map<String, MembershipSnapshot> tenantMemberships = null;
+        if (ttl > 0) {
+            tenantMemberships = this.getMembershipsOfTenant(tenantId);
+            MembershipSnapshot snapshot = tenantMemberships.get(role);
+            if (snapshot != null && !snapshot.isExpired()) {
+                return snapshot.getUsers();
+            }
+        }
+        String[] users;
+        try {
+            users = DeviceManagementDataHolder.getInstance().getRealmService().getTenantUserRealm(tenantId)
+                    .getUserStoreManager().getUserListOfRole(role);
+        } catch (UserStoreException e) {
+            throw new DeviceManagementException("Error occurred while obtaining the users, who are assigned " +
+                    "with the role '" + role + "'", e);
+        }
+        List<String> distinctUsers = (users == null) ? Collections.<String>emptyList() :
+                Collections.unmodifiableList(new ArrayList<>(new LinkedHashSet<>(Arrays.asList(users))));
+        if (tenantMemberships != null) {
+            tenantMemberships.put(role, new MembershipSnapshot(distinctUsers, System.currentTimeMillis() + ttl));
+        }
+        return distinctUsers;
+    }
+
+    /**
+     * Discards the cached snapshots of all the roles of the given tenant, so that the next lookups go back to the
+     * user store.
+     *
+     * @param tenantId Id of the tenant
+     */
+    public void invalidate(int tenantId) {
+        memberships.remove(tenantId);
+    }
+
+    public void clear() {
+        memberships.clear();
+    }
+
+    private Map<String, MembershipSnapshot> getMembershipsOfTenant(int tenantId) {
+        Map<String, MembershipSnapshot> tenantMemberships = memberships.get(tenantId);
+        if (tenantMemberships == null) {
+            tenantMemberships = new ConcurrentHashMap<>();
+            Map<String, MembershipSnapshot> existing = memberships.putIfAbsent(tenantId, tenantMemberships);
+            if (existing != null) {
+                tenantMemberships = existing;
+            }
+        }
+        return tenantMemberships;
+    }
+
+    private static class MembershipSnapshot {
+
+        private final List<String> users;
+        private final long expiryTime;
+
+        MembershipSnapshot(List<String> users, long expiryTime) {
+            this.users = users;
+            this.expiryTime = expiryTime;
+        }
+
+        List<String> getUsers() {
+            return users;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiryTime;
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.core.role;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.user.api.Permission;
+import org.wso2.carbon.user.core.UserStoreException;
+import org.wso2.carbon.user.core.UserStoreManager;
+import org.wso2.carbon.user.core.common.AbstractUserOperationEventListener;
+
+import java.util.Map;
+
+/**
+ * Discards the role memberships cached by {@link RoleDeviceResolver} for a tenant whenever a user or a role of the
+ * tenant is added, removed or reassigned.
+ */
+public class RoleMembershipListener extends AbstractUserOperationEventListener {
+
+    private static final Log log = LogFactory.getLog(RoleMembershipListener.class);
+    private static final int EXECUTION_ORDER_ID = 9000;
+
+    @Override
+    public int getExecutionOrderId() {
+        return EXECUTION_ORDER_ID;
+    }
+
+    @Override
+    public boolean doPostAddUser(String userName, Object credential, String[] roleList, Map<String, String> claims,
+                                 String profile, UserStoreManager userStoreManager) throws UserStoreException {
+        this.invalidate(userStoreManager);
+        return true;
+    }
+
+    @Override
+    public boolean doPostDeleteUser(String userName, UserStoreManager userStoreManager) throws UserStoreException {
+        this.invalidate(userStoreManager);
+        return true;
+    }
+
+    @Override
+    public boolean doPostAddRole(String roleName, String[] userList, Permission[] permissions,
+                                 UserStoreManager userStoreManager) throws UserStoreException {
+        this.invalidate(userStoreManager);
+        return true;
+    }
+
+    @Override
+    public boolean doPostDeleteRole(String roleName, UserStoreManager userStoreManager) throws UserStoreException {
+        this.invalidate(userStoreManager);
+        return true;
+    }
+
+    @Override
+    public boolean doPostUpdateRoleName(String roleName, String newRoleName,
+                                        UserStoreManager userStoreManager) throws UserStoreException {
+        this.invalidate(userStoreManager);
+        return true;
+    }
+
+    @Override
+    public boolean doPostUpdateUserListOfRole(String roleName, String[] deletedUsers, String[] newUsers,
+                                              UserStoreManager userStoreManager) throws UserStoreException {
+        this.invalidate(userStoreManager);
+        return true;
+    }
+
+    @Override
+    public boolean doPostUpdateRoleListOfUser(String userName, String[] deletedRoles, String[] newRoles,
+                                              UserStoreManager userStoreManager) throws UserStoreException {
+        this.invalidate(userStoreManager);
+        return true;
+    }
+
+    private void invalidate(UserStoreManager userStoreManager) throws UserStoreException {
+        int tenantId = userStoreManager.getTenantId();
+        RoleDeviceResolver.getInstance().invalidate(tenantId);
+        if (log.isDebugEnabled()) {
+            log.debug("Discarded the role memberships cached for the tenant '" + tenantId + "'");
+        }
+    }
+
+}
@@ -23,7 +23,9 @@ import org.wso2.carbon.device.mgt.common.app.mgt.Application;
 import org.wso2.carbon.device.mgt.common.configuration.mgt.TenantConfiguration;
 import org.wso2.carbon.device.mgt.common.license.mgt.License;
 import org.wso2.carbon.device.mgt.common.license.mgt.LicenseManager;
+import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManager;
+import org.wso2.carbon.device.mgt.core.operation.mgt.notification.PendingOperationCallback;
 import java.util.List;
 
 /**
@@ -101,6 +103,50 @@ public interface DeviceManagementProviderService extends OperationManager {
      */
     List<Device> getDevicesByStatus(EnrolmentInfo.Status status) throws DeviceManagementException;
 
+    /**
+     * Method to retrieve a page of devices that belong to the current tenant. Devices are ordered by their id and
+     * the cursor of the returned page has to be passed in to retrieve the following page.
+     *
+     * @param cursor   Cursor of the previous page, or 0 to retrieve the first page
+     * @param pageSize Maximum number of devices to be included in the page
+     * @return Page of devices
+     * @throws DeviceManagementException If some unusual behaviour is observed while fetching the page
+     */
+    PaginationResult getAllDevices(int cursor, int pageSize) throws DeviceManagementException;
+
+    PaginationResult getAllDevices(String deviceType, int cursor, int pageSize) throws DeviceManagementException;
+
+    PaginationResult getDevicesOfUser(String userName, int cursor, int pageSize) throws DeviceManagementException;
+
+    PaginationResult getDevicesByStatus(EnrolmentInfo.Status status, int cursor,
+                                        int pageSize) throws DeviceManagementException;
+
+    /**
+     * Method to walk through all the devices of the current tenant page by page. Only a single page of devices is
+     * held in memory at a time, the size of which is governed by the configured device list page size.
+     *
+     * @param handler Handler that gets invoked for each page of devices
+     * @throws DeviceManagementException If some unusual behaviour is observed while fetching or handling a page
+     */
+    void processAllDevices(DeviceListHandler handler) throws DeviceManagementException;
+
+    void processAllDevices(String deviceType, DeviceListHandler handler) throws DeviceManagementException;
+
+    void processDevicesOfUser(String userName, DeviceListHandler handler) throws DeviceManagementException;
+
+    void processDevicesByStatus(EnrolmentInfo.Status status,
+                                DeviceListHandler handler) throws DeviceManagementException;
+
+    /**
+     * Method to merge the plugin specific information, i.e. features and properties, into devices that were loaded
+     * without it. Plugins implementing BulkDeviceManager are consulted once per device type.
+     *
+     * @param devices Devices to be populated
+     * @return The devices provided, populated with the plugin specific information
+     * @throws DeviceManagementException If some unusual behaviour is observed while fetching the plugin information
+     */
+    List<Device> populatePluginInfo(List<Device> devices) throws DeviceManagementException;
+
     License getLicense(String deviceType, String languageCode) throws DeviceManagementException;
 
     void addLicense(String deviceType, License license) throws DeviceManagementException;
@@ -132,6 +178,21 @@ public interface DeviceManagementProviderService extends OperationManager {
     boolean setStatus(DeviceIdentifier deviceId, String currentOwner,
                       EnrolmentInfo.Status status) throws DeviceManagementException;
 
+    /**
+     * Long polling variant of {@link #getPendingOperations(DeviceIdentifier)}, meant to be used by asynchronous
+     * requests. If the device does not have any pending operations, this method returns without waiting and the
+     * operations are delivered to the callback once an operation is added to the device, or an empty list once the
+     * given time elapses.
+     *
+     * @param deviceId DeviceIdentifier of the device
+     * @param timeout  Maximum time to wait for an operation in milliseconds. It is capped by the configured maximum
+     *                 long poll wait time.
+     * @param callback Callback the pending operations are delivered to
+     * @throws OperationManagementException If the device is not found or its pending operations cannot be retrieved
+     */
+    void pollPendingOperations(DeviceIdentifier deviceId, long timeout,
+                               PendingOperationCallback callback) throws OperationManagementException;
+
 
 
 }
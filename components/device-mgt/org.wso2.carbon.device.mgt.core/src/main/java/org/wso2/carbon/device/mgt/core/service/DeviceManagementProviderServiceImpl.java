@@ -26,6 +26,7 @@ import org.wso2.carbon.device.mgt.common.license.mgt.License;
 import org.wso2.carbon.device.mgt.common.license.mgt.LicenseManagementException;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
+import org.wso2.carbon.device.mgt.common.spi.BulkDeviceManager;
 import org.wso2.carbon.device.mgt.common.spi.DeviceManagementService;
 import org.wso2.carbon.device.mgt.core.DeviceManagementPluginRepository;
 import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
@@ -37,7 +38,10 @@ import org.wso2.carbon.device.mgt.core.internal.DeviceManagementDataHolder;
 import org.wso2.carbon.device.mgt.core.internal.DeviceManagementServiceComponent;
 import org.wso2.carbon.device.mgt.core.internal.EmailServiceDataHolder;
 import org.wso2.carbon.device.mgt.core.internal.PluginInitializationListener;
-import org.wso2.carbon.user.api.UserStoreException;
+import org.wso2.carbon.device.mgt.core.operation.mgt.notification.PendingOperationCallback;
+import org.wso2.carbon.device.mgt.core.operation.mgt.notification.PendingOperationPoller;
+import org.wso2.carbon.device.mgt.core.role.RoleDeviceResolver;
+import org.wso2.carbon.device.mgt.core.util.DeviceManagerUtil;
 
 import java.io.IOException;
 import java.net.URLDecoder;
@@ -45,7 +49,10 @@ import java.net.URLEncoder;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class DeviceManagementProviderServiceImpl implements DeviceManagementProviderService,
         PluginInitializationListener {
@@ -158,7 +165,8 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
                         }
                     } catch (TransactionManagementException | DeviceManagementDAOException e) {
                         DeviceManagementDAOFactory.rollbackTransaction();
-                        log.error("Error occurred while adding enrolment related metadata", e);
+                        throw new DeviceManagementException("Error occurred while adding enrolment related " +
+                                "metadata", e);
                     } finally {
                         DeviceManagementDAOFactory.closeConnection();
                     }
@@ -175,8 +183,9 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
                 DeviceManagementDAOFactory.commitTransaction();
             } catch (DeviceManagementDAOException | TransactionManagementException e) {
                 DeviceManagementDAOFactory.rollbackTransaction();
-                log.error("Error occurred while adding metadata of '" + device.getType() + "' device carrying " +
-                        "the identifier '" + device.getDeviceIdentifier() + "'", e);
+                throw new DeviceManagementException("Error occurred while adding metadata of '" +
+                        device.getType() + "' device carrying the identifier '" + device.getDeviceIdentifier() +
+                        "'", e);
             } finally {
                 DeviceManagementDAOFactory.closeConnection();
             }
@@ -298,7 +307,6 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
 
     @Override
     public List<Device> getAllDevices() throws DeviceManagementException {
-        List<Device> devices = new ArrayList<>();
         List<Device> allDevices;
         try {
             DeviceManagementDAOFactory.openConnection();
@@ -310,30 +318,11 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         } finally {
             DeviceManagementDAOFactory.closeConnection();
         }
-        for (Device device : allDevices) {
-            DeviceManager deviceManager = this.getDeviceManager(device.getType());
-            if (deviceManager == null) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Device Manager associated with the device type '" + device.getType() + "' is null. " +
-                            "Therefore, not attempting method 'isEnrolled'");
-                }
-                devices.add(device);
-                continue;
-            }
-            Device dmsDevice =
-                    deviceManager.getDevice(new DeviceIdentifier(device.getDeviceIdentifier(), device.getType()));
-            if (dmsDevice != null) {
-                device.setFeatures(dmsDevice.getFeatures());
-                device.setProperties(dmsDevice.getProperties());
-            }
-            devices.add(device);
-        }
-        return devices;
+        return this.populatePluginInfo(allDevices);
     }
 
     @Override
     public List<Device> getAllDevices(String deviceType) throws DeviceManagementException {
-        List<Device> devices = new ArrayList<>();
         List<Device> allDevices;
         try {
             DeviceManagementDAOFactory.openConnection();
@@ -344,26 +333,7 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         } finally {
             DeviceManagementDAOFactory.closeConnection();
         }
-
-        for (Device device : allDevices) {
-            DeviceManager deviceManager = this.getDeviceManager(deviceType);
-            if (deviceManager == null) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Device Manager associated with the device type '" + deviceType + "' is null. " +
-                            "Therefore, not attempting method 'isEnrolled'");
-                }
-                devices.add(device);
-                continue;
-            }
-            Device dmsDevice =
-                    deviceManager.getDevice(new DeviceIdentifier(device.getDeviceIdentifier(), device.getType()));
-            if (dmsDevice != null) {
-                device.setFeatures(dmsDevice.getFeatures());
-                device.setProperties(dmsDevice.getProperties());
-            }
-            devices.add(device);
-        }
-        return devices;
+        return this.populatePluginInfo(allDevices);
     }
 
     @Override
@@ -640,6 +610,16 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         return DeviceManagementDataHolder.getInstance().getOperationManager().getNextPendingOperation(deviceId);
     }
 
+    @Override
+    public void pollPendingOperations(DeviceIdentifier deviceId, long timeout,
+                                      PendingOperationCallback callback) throws OperationManagementException {
+        PendingOperationPoller poller = DeviceManagementDataHolder.getInstance().getPendingOperationPoller();
+        if (poller == null) {
+            throw new OperationManagementException("Pending operation poller is not initialized");
+        }
+        poller.poll(deviceId, timeout, callback);
+    }
+
     @Override
     public void updateOperation(DeviceIdentifier deviceId, Operation operation) throws OperationManagementException {
         DeviceManagementDataHolder.getInstance().getOperationManager().updateOperation(deviceId, operation);
@@ -672,7 +652,6 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
 
     @Override
     public List<Device> getDevicesOfUser(String username) throws DeviceManagementException {
-        List<Device> devices = new ArrayList<>();
         List<Device> userDevices;
         try {
             DeviceManagementDAOFactory.openConnection();
@@ -683,66 +662,13 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         } finally {
             DeviceManagementDAOFactory.closeConnection();
         }
-
-        for (Device device : userDevices) {
-            DeviceManager deviceManager = this.getDeviceManager(device.getType());
-            if (deviceManager == null) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Device Manager associated with the device type '" + device.getType() + "' is null. " +
-                            "Therefore, not attempting method 'isEnrolled'");
-                }
-                devices.add(device);
-                continue;
-            }
-            Device dmsDevice =
-                    deviceManager.getDevice(new DeviceIdentifier(device.getDeviceIdentifier(), device.getType()));
-            if (dmsDevice != null) {
-                device.setFeatures(dmsDevice.getFeatures());
-                device.setProperties(dmsDevice.getProperties());
-            }
-            devices.add(device);
-        }
-        return devices;
-
+        return this.populatePluginInfo(userDevices);
     }
 
     @Override
     public List<Device> getAllDevicesOfRole(String role) throws DeviceManagementException {
-        List<Device> devices = new ArrayList<>();
-        String[] users;
-        int tenantId = this.getTenantId();
-        try {
-            users = DeviceManagementDataHolder.getInstance().getRealmService().getTenantUserRealm(tenantId)
-                    .getUserStoreManager().getUserListOfRole(role);
-        } catch (UserStoreException e) {
-            throw new DeviceManagementException("Error occurred while obtaining the users, who are assigned " +
-                    "with the role '" + role + "'", e);
-        }
-
-        List<Device> userDevices;
-        for (String user : users) {
-            userDevices = new ArrayList<>();
-            try {
-                DeviceManagementDAOFactory.openConnection();
-                userDevices = deviceDAO.getDevicesOfUser(user, tenantId);
-            } catch (DeviceManagementDAOException | SQLException e) {
-                log.error("Error occurred while obtaining the devices of user '" + user + "'", e);
-            } finally {
-                DeviceManagementDAOFactory.closeConnection();
-            }
-            for (Device device : userDevices) {
-                Device dmsDevice =
-                        this.getPluginRepository().getDeviceManagementService(
-                                device.getType()).getDeviceManager().getDevice(
-                                new DeviceIdentifier(device.getDeviceIdentifier(), device.getType()));
-                if (dmsDevice != null) {
-                    device.setFeatures(dmsDevice.getFeatures());
-                    device.setProperties(dmsDevice.getProperties());
-                }
-                devices.add(device);
-            }
-        }
-        return devices;
+        List<Device> devices = RoleDeviceResolver.getInstance().getDevicesOfRole(role, this.getTenantId());
+        return this.populatePluginInfo(devices);
     }
 
     @Override
@@ -759,7 +685,6 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
 
     @Override
     public List<Device> getDevicesByName(String deviceName) throws DeviceManagementException {
-        List<Device> devices = new ArrayList<>();
         List<Device> allDevices;
         try {
             DeviceManagementDAOFactory.openConnection();
@@ -770,19 +695,7 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         } finally {
             DeviceManagementDAOFactory.closeConnection();
         }
-        for (Device device : allDevices) {
-            Device dmsDevice =
-                    this.getPluginRepository().getDeviceManagementService(
-                            device.getType()).getDeviceManager().getDevice(
-                            new DeviceIdentifier(device.getDeviceIdentifier(), device.getType()));
-            if (dmsDevice != null) {
-                device.setFeatures(dmsDevice.getFeatures());
-                device.setProperties(dmsDevice.getProperties());
-            }
-            devices.add(device);
-        }
-        return devices;
-
+        return this.populatePluginInfo(allDevices);
     }
 
     @Override
@@ -821,7 +734,6 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
 
 
     public List<Device> getDevicesByStatus(EnrolmentInfo.Status status) throws DeviceManagementException {
-        List<Device> devices = new ArrayList<>();
         List<Device> allDevices;
         try {
             DeviceManagementDAOFactory.openConnection();
@@ -831,21 +743,196 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
                     "Error occurred while fetching the list of devices that matches to status: '" + status + "'", e);
         } finally {
             DeviceManagementDAOFactory.closeConnection();
+        }
+        return this.populatePluginInfo(allDevices);
+    }
 
+    @Override
+    public PaginationResult getAllDevices(int cursor, int pageSize) throws DeviceManagementException {
+        return this.getDevicePage(new DevicePageLoader() {
+            @Override
+            public List<Device> load(int tenantId, int lastDeviceId, int limit) throws DeviceManagementDAOException {
+                return deviceDAO.getDevices(tenantId, lastDeviceId, limit);
+            }
+        }, cursor, pageSize, "Error occurred while retrieving a page of devices pertaining to the current tenant");
+    }
+
+    @Override
+    public PaginationResult getAllDevices(final String deviceType, int cursor,
+                                          int pageSize) throws DeviceManagementException {
+        return this.getDevicePage(new DevicePageLoader() {
+            @Override
+            public List<Device> load(int tenantId, int lastDeviceId, int limit) throws DeviceManagementDAOException {
+                return deviceDAO.getDevices(deviceType, tenantId, lastDeviceId, limit);
+            }
+        }, cursor, pageSize, "Error occurred while retrieving a page of devices of type '" + deviceType + "'");
+    }
+
+    @Override
+    public PaginationResult getDevicesOfUser(final String userName, int cursor,
+                                             int pageSize) throws DeviceManagementException {
+        return this.getDevicePage(new DevicePageLoader() {
+            @Override
+            public List<Device> load(int tenantId, int lastDeviceId, int limit) throws DeviceManagementDAOException {
+                return deviceDAO.getDevicesOfUser(userName, tenantId, lastDeviceId, limit);
+            }
+        }, cursor, pageSize, "Error occurred while retrieving a page of devices that belong to the user '" +
+                userName + "'");
+    }
+
+    @Override
+    public PaginationResult getDevicesByStatus(final EnrolmentInfo.Status status, int cursor,
+                                               int pageSize) throws DeviceManagementException {
+        return this.getDevicePage(new DevicePageLoader() {
+            @Override
+            public List<Device> load(int tenantId, int lastDeviceId, int limit) throws DeviceManagementDAOException {
+                return deviceDAO.getDevicesByStatus(status, tenantId, lastDeviceId, limit);
+            }
+        }, cursor, pageSize, "Error occurred while retrieving a page of devices that matches to status: '" +
+                status + "'");
+    }
+
+    @Override
+    public void processAllDevices(DeviceListHandler handler) throws DeviceManagementException {
+        PaginationResult page;
+        int cursor = 0;
+        do {
+            page = this.getAllDevices(cursor, DeviceManagerUtil.getDeviceListPageSize());
+            cursor = this.handleDevicePage(page, handler);
+        } while (page.hasMore());
+    }
+
+    @Override
+    public void processAllDevices(String deviceType, DeviceListHandler handler) throws DeviceManagementException {
+        PaginationResult page;
+        int cursor = 0;
+        do {
+            page = this.getAllDevices(deviceType, cursor, DeviceManagerUtil.getDeviceListPageSize());
+            cursor = this.handleDevicePage(page, handler);
+        } while (page.hasMore());
+    }
+
+    @Override
+    public void processDevicesOfUser(String userName, DeviceListHandler handler) throws DeviceManagementException {
+        PaginationResult page;
+        int cursor = 0;
+        do {
+            page = this.getDevicesOfUser(userName, cursor, DeviceManagerUtil.getDeviceListPageSize());
+            cursor = this.handleDevicePage(page, handler);
+        } while (page.hasMore());
+    }
+
+    @Override
+    public void processDevicesByStatus(EnrolmentInfo.Status status,
+                                       DeviceListHandler handler) throws DeviceManagementException {
+        PaginationResult page;
+        int cursor = 0;
+        do {
+            page = this.getDevicesByStatus(status, cursor, DeviceManagerUtil.getDeviceListPageSize());
+            cursor = this.handleDevicePage(page, handler);
+        } while (page.hasMore());
+    }
+
+    private int handleDevicePage(PaginationResult page, DeviceListHandler handler) throws DeviceManagementException {
+        if (!page.getData().isEmpty()) {
+            handler.handle(page.getData());
+        }
+        return page.getCursor();
+    }
+
+    private PaginationResult getDevicePage(DevicePageLoader loader, int cursor, int pageSize,
+                                           String errorMsg) throws DeviceManagementException {
+        if (pageSize <= 0) {
+            pageSize = DeviceManagerUtil.getDeviceListPageSize();
+        }
+        List<Device> pageDevices;
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            pageDevices = loader.load(this.getTenantId(), cursor, pageSize);
+        } catch (DeviceManagementDAOException | SQLException e) {
+            throw new DeviceManagementException(errorMsg, e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+
+        /* A page carries every enrolment of the devices it covers, hence the number of distinct devices, rather than
+        * the number of rows, decides whether the page is a full one */
+        int distinctDevices = 0;
+        int lastDeviceId = cursor;
+        for (Device device : pageDevices) {
+            if (device.getId() != lastDeviceId) {
+                distinctDevices++;
+                lastDeviceId = device.getId();
+            }
         }
+        return new PaginationResult(this.populatePluginInfo(pageDevices), lastDeviceId,
+                distinctDevices == pageSize);
+    }
 
-        for (Device device : allDevices) {
-            Device dmsDevice =
-                    this.getPluginRepository().getDeviceManagementService(
-                            device.getType()).getDeviceManager().getDevice(
-                            new DeviceIdentifier(device.getDeviceIdentifier(), device.getType()));
+    /**
+     * Merges plugin specific information, i.e. features and properties, into the devices provided. Devices are
+     * grouped by their type so that plugins implementing {@link BulkDeviceManager} are consulted once per device type,
+     * while the rest of the plugins fall back to being queried once per device.
+     */
+    @Override
+    public List<Device> populatePluginInfo(List<Device> devices) throws DeviceManagementException {
+        Map<String, List<Device>> devicesByType = new HashMap<>();
+        for (Device device : devices) {
+            List<Device> devicesOfType = devicesByType.get(device.getType());
+            if (devicesOfType == null) {
+                devicesOfType = new ArrayList<>();
+                devicesByType.put(device.getType(), devicesOfType);
+            }
+            devicesOfType.add(device);
+        }
+        for (Map.Entry<String, List<Device>> entry : devicesByType.entrySet()) {
+            String deviceType = entry.getKey();
+            DeviceManager deviceManager = this.getDeviceManager(deviceType);
+            if (deviceManager == null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Device Manager associated with the device type '" + deviceType + "' is null. " +
+                            "Therefore, not attempting method 'getDevice'");
+                }
+                continue;
+            }
+            if (deviceManager instanceof BulkDeviceManager) {
+                this.populatePluginInfo(entry.getValue(), (BulkDeviceManager) deviceManager);
+                continue;
+            }
+            for (Device device : entry.getValue()) {
+                Device dmsDevice =
+                        deviceManager.getDevice(new DeviceIdentifier(device.getDeviceIdentifier(), deviceType));
+                if (dmsDevice != null) {
+                    device.setFeatures(dmsDevice.getFeatures());
+                    device.setProperties(dmsDevice.getProperties());
+                }
+            }
+        }
+        return devices;
+    }
+
+    private void populatePluginInfo(List<Device> devices,
+                                    BulkDeviceManager deviceManager) throws DeviceManagementException {
+        Map<String, DeviceIdentifier> deviceIds = new LinkedHashMap<>();
+        for (Device device : devices) {
+            deviceIds.put(device.getDeviceIdentifier(),
+                    new DeviceIdentifier(device.getDeviceIdentifier(), device.getType()));
+        }
+        List<Device> dmsDevices = deviceManager.getDevices(deviceIds.values());
+        if (dmsDevices == null) {
+            return;
+        }
+        Map<String, Device> dmsDevicesById = new HashMap<>();
+        for (Device dmsDevice : dmsDevices) {
+            dmsDevicesById.put(dmsDevice.getDeviceIdentifier(), dmsDevice);
+        }
+        for (Device device : devices) {
+            Device dmsDevice = dmsDevicesById.get(device.getDeviceIdentifier());
             if (dmsDevice != null) {
                 device.setFeatures(dmsDevice.getFeatures());
                 device.setProperties(dmsDevice.getProperties());
             }
-            devices.add(device);
         }
-        return devices;
     }
 
     private int getTenantId() {
@@ -865,4 +952,14 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         return deviceManagementService.getDeviceManager();
     }
 
+    /**
+     * Loads a single page of devices, making it possible to share the paging logic among the different kinds of
+     * device listings.
+     */
+    private interface DevicePageLoader {
+
+        List<Device> load(int tenantId, int lastDeviceId, int limit) throws DeviceManagementDAOException;
+
+    }
+
 }
@@ -23,8 +23,14 @@ import org.w3c.dom.Document;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
+import org.wso2.carbon.device.mgt.core.DeviceManagementConstants;
+import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.DeviceManagementConfig;
 import org.wso2.carbon.device.mgt.core.config.datasource.DataSourceConfig;
 import org.wso2.carbon.device.mgt.core.config.datasource.JNDILookupDefinition;
+import org.wso2.carbon.device.mgt.core.config.operation.OperationConfiguration;
+import org.wso2.carbon.device.mgt.core.config.pagination.PaginationConfiguration;
+import org.wso2.carbon.device.mgt.core.config.role.RoleDeviceResolverConfiguration;
 import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOException;
 import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
 import org.wso2.carbon.device.mgt.core.dao.DeviceTypeDAO;
@@ -147,4 +153,122 @@ public final class DeviceManagerUtil {
         return ctx.getTenantId();
     }
 
+    /**
+     * Returns the number of devices to be retrieved per page when a device listing is processed page by page. Falls
+     * back to the default page size if it is not explicitly configured in cdm-config.xml.
+     *
+     * @return device list page size
+     */
+    public static int getDeviceListPageSize() {
+        DeviceManagementConfig config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig();
+        if (config != null && config.getDeviceManagementConfigRepository() != null) {
+            PaginationConfiguration paginationConfig =
+                    config.getDeviceManagementConfigRepository().getPaginationConfiguration();
+            if (paginationConfig != null && paginationConfig.getDeviceListPageSize() > 0) {
+                return paginationConfig.getDeviceListPageSize();
+            }
+        }
+        return DeviceManagementConstants.Pagination.DEFAULT_DEVICE_LIST_PAGE_SIZE;
+    }
+
+    /**
+     * Returns the number of devices that are resolved and mapped to an operation in a single database round trip
+     * when the operation is added. Falls back to the default batch size if it is not explicitly configured in
+     * cdm-config.xml.
+     *
+     * @return operation fan out batch size
+     */
+    public static int getOperationFanOutBatchSize() {
+        OperationConfiguration operationConfig = getOperationConfiguration();
+        if (operationConfig != null && operationConfig.getFanOutBatchSize() > 0) {
+            return operationConfig.getFanOutBatchSize();
+        }
+        return DeviceManagementConstants.OperationFanOut.DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * Checks whether the operation mappings of each fan out batch have to be committed as soon as the batch is
+     * written, instead of committing all of them at once at the end of the operation.
+     *
+     * @return true if each batch has to be committed separately
+     */
+    public static boolean isOperationFanOutCommitPerBatch() {
+        OperationConfiguration operationConfig = getOperationConfiguration();
+        return operationConfig != null && operationConfig.isCommitPerBatch();
+    }
+
+    /**
+     * Returns the maximum time in milliseconds a long polling device is parked waiting for an operation to be
+     * mapped to its enrolment. Falls back to the default wait time if it is not explicitly configured in
+     * cdm-config.xml.
+     *
+     * @return maximum long poll wait time in milliseconds
+     */
+    public static long getOperationLongPollMaxWaitTime() {
+        OperationConfiguration operationConfig = getOperationConfiguration();
+        if (operationConfig != null && operationConfig.getLongPollMaxWaitTime() > 0) {
+            return operationConfig.getLongPollMaxWaitTime();
+        }
+        return DeviceManagementConstants.OperationLongPoll.DEFAULT_MAX_WAIT_TIME;
+    }
+
+    /**
+     * Returns the maximum number of pending operations handed over to a device in a single check-in. Operations
+     * beyond the limit stay pending and are delivered in the following check-ins. Falls back to the default limit
+     * if it is not explicitly configured in cdm-config.xml.
+     *
+     * @return pending operations limit
+     */
+    public static int getPendingOperationsLimit() {
+        OperationConfiguration operationConfig = getOperationConfiguration();
+        if (operationConfig != null && operationConfig.getPendingOperationsLimit() > 0) {
+            return operationConfig.getPendingOperationsLimit();
+        }
+        return DeviceManagementConstants.PendingOperations.DEFAULT_LIMIT;
+    }
+
+    /**
+     * Returns the maximum number of owners bound to a single query when resolving the devices of a role. Falls
+     * back to the default chunk size if it is not explicitly configured in cdm-config.xml.
+     *
+     * @return owner chunk size
+     */
+    public static int getRoleDeviceOwnerChunkSize() {
+        RoleDeviceResolverConfiguration resolverConfig = getRoleDeviceResolverConfiguration();
+        if (resolverConfig != null && resolverConfig.getOwnerChunkSize() > 0) {
+            return resolverConfig.getOwnerChunkSize();
+        }
+        return DeviceManagementConstants.RoleDeviceResolver.DEFAULT_OWNER_CHUNK_SIZE;
+    }
+
+    /**
+     * Returns the time in milliseconds a snapshot of the users of a role is reused before the user store is
+     * consulted again. A value of 0, which is also the default, disables caching of role memberships.
+     *
+     * @return role membership cache TTL in milliseconds
+     */
+    public static long getRoleMembershipCacheTTL() {
+        RoleDeviceResolverConfiguration resolverConfig = getRoleDeviceResolverConfiguration();
+        if (resolverConfig != null && resolverConfig.getMembershipCacheTTL() > 0) {
+            return resolverConfig.getMembershipCacheTTL();
+        }
+        return DeviceManagementConstants.RoleDeviceResolver.DEFAULT_MEMBERSHIP_CACHE_TTL;
+    }
+
+    private static RoleDeviceResolverConfiguration getRoleDeviceResolverConfiguration() {
+        DeviceManagementConfig config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig();
+        if (config != null && config.getDeviceManagementConfigRepository() != null) {
+            return config.getDeviceManagementConfigRepository().getRoleDeviceResolverConfiguration();
+        }
+        return null;
+    }
+
+    private static OperationConfiguration getOperationConfiguration() {
+        DeviceManagementConfig config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig();
+        if (config != null && config.getDeviceManagementConfigRepository() != null) {
+            return config.getDeviceManagementConfigRepository().getOperationConfiguration();
+        }
+        return null;
+    }
+
 }
@@ -25,6 +25,7 @@ import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
 import org.wso2.carbon.device.mgt.common.app.mgt.Application;
 import org.wso2.carbon.device.mgt.common.app.mgt.ApplicationManagementException;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.core.DeviceManagementPluginRepository;
 import org.wso2.carbon.device.mgt.core.TestDeviceManagementService;
 import org.wso2.carbon.device.mgt.core.app.mgt.config.AppManagementConfig;
@@ -102,4 +103,66 @@ public class ApplicationManagementProviderServiceTest {
 
     }
 
+    @Test(dependsOnMethods = {"updateApplicationTest"})
+    public void updateApplicationVersionTest() {
+        Application application3 = TestDataHolder.generateApplicationDummyData("org.wso2.app3");
+        Application application4 = TestDataHolder.generateApplicationDummyData("org.wso2.app4");
+        Application application5 = TestDataHolder.generateApplicationDummyData("org.wso2.app5");
+        application5.setVersion("2.0.0");
+
+        List<Application> applications = new ArrayList<Application>();
+        applications.add(application3);
+        applications.add(application4);
+        applications.add(application5);
+        applications.add(application5);
+
+        DeviceIdentifier deviceIdentifier = new DeviceIdentifier();
+        deviceIdentifier.setId(TestDataHolder.initialDeviceIdentifier);
+        deviceIdentifier.setType(TestDataHolder.initialTestDevice.getType());
+
+        try {
+            appMgtProvider.updateApplicationListInstalledInDevice(deviceIdentifier, applications);
+            List<Application> installedApps = appMgtProvider.getApplicationListForDevice(deviceIdentifier);
+            Assert.assertEquals(installedApps.size(), 3, "Upgraded application is mapped more than once");
+            for (Application installedApp : installedApps) {
+                if ("org.wso2.app5".equals(installedApp.getApplicationIdentifier())) {
+                    Assert.assertEquals(installedApp.getVersion(), "2.0.0", "Upgraded application version is not " +
+                            "reflected in the inventory");
+                }
+            }
+        } catch (ApplicationManagementException appMgtEx) {
+            String msg = "Error occurred while updating the version of an installed application";
+            log.error(msg, appMgtEx);
+            Assert.fail(msg, appMgtEx);
+        }
+    }
+
+    @Test(dependsOnMethods = {"updateApplicationTest"})
+    public void installApplicationToDevicesTest() {
+        String deviceType = TestDataHolder.initialTestDevice.getType();
+        List<DeviceIdentifier> deviceIds = new ArrayList<DeviceIdentifier>();
+        deviceIds.add(new DeviceIdentifier(TestDataHolder.initialDeviceIdentifier, deviceType));
+        deviceIds.add(new DeviceIdentifier(TestDataHolder.initialDeviceIdentifier, deviceType));
+        deviceIds.add(new DeviceIdentifier("12346", deviceType));
+        deviceIds.add(new DeviceIdentifier(TestDataHolder.initialDeviceIdentifier, "unsupported"));
+
+        Operation operation = new Operation();
+        operation.setType(Operation.Type.PROFILE);
+        operation.setCode("INSTALL_APPLICATION");
+        try {
+            ApplicationInstallResult result = appMgtProvider.installApplicationToDevices(operation, deviceIds);
+            Assert.assertEquals(result.getAcceptedDevices().size(), 1, "Duplicate targets are not collapsed or " +
+                    "the actively enrolled device is not accepted");
+            Assert.assertEquals(result.getInactiveDevices().size(), 1, "Device that is not actively enrolled is " +
+                    "not reported");
+            Assert.assertEquals(result.getUnsupportedDevices().size(), 1, "Device of an unsupported type is not " +
+                    "reported");
+            Assert.assertFalse(result.isFullyAccepted(), "Partially accepted install is reported as fully accepted");
+        } catch (ApplicationManagementException appMgtEx) {
+            String msg = "Error occurred while installing an application on a set of devices";
+            log.error(msg, appMgtEx);
+            Assert.fail(msg, appMgtEx);
+        }
+    }
+
 }
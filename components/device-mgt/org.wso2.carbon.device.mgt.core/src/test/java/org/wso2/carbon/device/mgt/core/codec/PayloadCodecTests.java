@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.core.codec;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.core.codec.impl.DeflatePayloadCodec;
+import org.wso2.carbon.device.mgt.core.codec.impl.JavaSerializationPayloadCodec;
+import org.wso2.carbon.device.mgt.core.codec.impl.JsonPayloadCodec;
+import org.wso2.carbon.device.mgt.core.dto.operation.mgt.CommandOperation;
+import org.wso2.carbon.device.mgt.core.dto.operation.mgt.ConfigOperation;
+import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.core.dto.operation.mgt.PolicyOperation;
+import org.wso2.carbon.device.mgt.core.dto.operation.mgt.ProfileOperation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class PayloadCodecTests {
+
+    @Test
+    public void testEncodeAndDecode() throws PayloadCodecException {
+        ProfileOperation operation = this.getTestOperation();
+        byte[] payload = PayloadCodecUtil.encode(operation);
+
+        ProfileOperation decoded = (ProfileOperation) PayloadCodecUtil.decode(payload);
+        Assert.assertEquals(decoded.getCode(), operation.getCode(), "Decoded operation code does not match");
+        Assert.assertEquals(decoded.getPayLoad(), operation.getPayLoad(), "Decoded operation payload does not match");
+    }
+
+    @Test
+    public void testDecodeLegacyPayload() throws PayloadCodecException, IOException {
+        ProfileOperation operation = this.getTestOperation();
+        ByteArrayOutputStream bao = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(bao);
+        oos.writeObject(operation);
+        oos.close();
+
+        ProfileOperation decoded = (ProfileOperation) PayloadCodecUtil.decode(bao.toByteArray());
+        Assert.assertEquals(decoded.getCode(), operation.getCode(), "Java serialized operation is not decoded");
+    }
+
+    @Test
+    public void testDecodeDeflatedPayload() throws PayloadCodecException {
+        ProfileOperation operation = this.getTestOperation();
+        byte[] body = new DeflatePayloadCodec().encode(operation);
+        byte[] payload = new byte[body.length + 5];
+        payload[0] = 'C';
+        payload[1] = 'D';
+        payload[2] = 'M';
+        payload[3] = 1;
+        payload[4] = DeflatePayloadCodec.ID;
+        System.arraycopy(body, 0, payload, 5, body.length);
+
+        ProfileOperation decoded = (ProfileOperation) PayloadCodecUtil.decode(payload);
+        Assert.assertEquals(decoded.getCode(), operation.getCode(), "Deflated operation is not decoded");
+    }
+
+    @Test
+    public void testJsonEncodeAndDecodeProfileOperation() throws PayloadCodecException {
+        ProfileOperation operation = this.getTestOperation();
+        operation.setId(7);
+        operation.setEnabled(true);
+        operation.setStatus(Operation.Status.PENDING);
+        Properties properties = new Properties();
+        properties.setProperty("priority", "high");
+        operation.setProperties(properties);
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("maxFailedAttempts", 5);
+        payload.put("minLength", 4L);
+        payload.put("allowSimple", false);
+        payload.put("expiresAt", new Timestamp(1420070400000L));
+        payload.put("apps", Arrays.asList("com.android.chrome", "com.android.email"));
+        operation.setPayLoad(payload);
+
+        JsonPayloadCodec codec = new JsonPayloadCodec();
+        ProfileOperation decoded = (ProfileOperation) codec.decode(codec.encode(operation), null);
+        Assert.assertEquals(decoded.getId(), 7, "Decoded operation id does not match");
+        Assert.assertTrue(decoded.isEnabled(), "Decoded operation is not enabled");
+        Assert.assertEquals(decoded.getStatus(), Operation.Status.PENDING, "Decoded operation status does not match");
+        Assert.assertEquals(decoded.getType(), Operation.Type.PROFILE, "Decoded operation type does not match");
+        Assert.assertEquals(decoded.getProperties(), properties, "Decoded operation properties do not match");
+        Assert.assertEquals(decoded.getPayLoad(), payload, "Decoded operation payload does not match");
+        Assert.assertEquals(((Map<?, ?>) decoded.getPayLoad()).get("maxFailedAttempts").getClass(), Integer.class,
+                "Type of a payload value is not retained");
+    }
+
+    @Test
+    public void testJsonEncodeAndDecodeConfigOperation() throws PayloadCodecException {
+        ConfigOperation operation = new ConfigOperation();
+        operation.setCode("WIFI");
+        operation.addConfigProperty("ssid", "corporate", String.class);
+        operation.addConfigProperty("channel", 11, Integer.class);
+        operation.addConfigProperty("hidden", true, boolean.class);
+
+        JsonPayloadCodec codec = new JsonPayloadCodec();
+        ConfigOperation decoded = (ConfigOperation) codec.decode(codec.encode(operation), null);
+        List<ConfigOperation.Property> properties = decoded.getConfigProperties();
+        Assert.assertEquals(properties.size(), 3, "Decoded operation does not have all the config properties");
+        for (int i = 0; i < properties.size(); i++) {
+            ConfigOperation.Property expected = operation.getConfigProperties().get(i);
+            Assert.assertEquals(properties.get(i).getName(), expected.getName(), "Property name does not match");
+            Assert.assertEquals(properties.get(i).getValue(), expected.getValue(), "Property value does not match");
+            Assert.assertEquals(properties.get(i).getType(), expected.getType(), "Property type does not match");
+        }
+    }
+
+    @Test
+    public void testJsonEncodeAndDecodePolicyOperation() throws PayloadCodecException {
+        List<ProfileOperation> profileOperations = new ArrayList<>();
+        profileOperations.add(this.getTestOperation());
+        ProfileOperation camera = new ProfileOperation();
+        camera.setCode("CAMERA");
+        camera.setPayLoad(Boolean.FALSE);
+        profileOperations.add(camera);
+        PolicyOperation operation = new PolicyOperation();
+        operation.setCode("POLICY_BUNDLE");
+        operation.setProfileOperations(profileOperations);
+
+        JsonPayloadCodec codec = new JsonPayloadCodec();
+        PolicyOperation decoded = (PolicyOperation) codec.decode(codec.encode(operation), null);
+        Assert.assertEquals(decoded.getProfileOperations().size(), 2, "Profile operations of the policy are lost");
+        Assert.assertEquals(decoded.getProfileOperations().get(0).getPayLoad(), this.getTestOperation().getPayLoad(),
+                "Payload of a profile operation does not match");
+        Assert.assertEquals(decoded.getProfileOperations().get(1).getPayLoad(), Boolean.FALSE,
+                "Payload of a profile operation does not match");
+    }
+
+    @Test
+    public void testJsonPayloadIsSmallerThanJavaSerialization() throws PayloadCodecException {
+        ProfileOperation operation = this.getTestOperation();
+        int jsonLength = new JsonPayloadCodec().encode(operation).length;
+        int serializedLength = new JavaSerializationPayloadCodec().encode(operation).length;
+        Assert.assertTrue(jsonLength < serializedLength, "JSON payload of " + jsonLength + " bytes is not smaller " +
+                "than the serialized payload of " + serializedLength + " bytes");
+    }
+
+    @Test
+    public void testRoundTripCommandOperation() throws PayloadCodecException {
+        CommandOperation operation = new CommandOperation();
+        operation.setCode("DEVICE_LOCK");
+        operation.setEnabled(true);
+        operation.setStatus(Operation.Status.PENDING);
+        operation.setPayLoad("{\"message\":\"Locked by the administrator\"}");
+
+        for (Object decoded : this.roundTrip(operation)) {
+            CommandOperation command = (CommandOperation) decoded;
+            this.assertOperation(command, operation);
+            Assert.assertTrue(command.isEnabled(), "Decoded command operation is not enabled");
+        }
+    }
+
+    @Test
+    public void testRoundTripConfigOperation() throws PayloadCodecException {
+        ConfigOperation operation = new ConfigOperation();
+        operation.setCode("WIFI");
+        operation.addConfigProperty("ssid", "corporate", String.class);
+        operation.addConfigProperty("channel", 11, Integer.class);
+
+        for (Object decoded : this.roundTrip(operation)) {
+            ConfigOperation config = (ConfigOperation) decoded;
+            this.assertOperation(config, operation);
+            Assert.assertEquals(config.getConfigProperties().size(), 2, "Config properties are not decoded");
+            Assert.assertEquals(config.getConfigProperties().get(1).getValue(), 11, "Property value does not match");
+            Assert.assertEquals(config.getConfigProperties().get(1).getType(), Integer.class,
+                    "Property type does not match");
+        }
+    }
+
+    @Test
+    public void testRoundTripProfileOperation() throws PayloadCodecException {
+        ProfileOperation operation = this.getTestOperation();
+        operation.setId(3);
+        Properties properties = new Properties();
+        properties.setProperty("priority", "high");
+        operation.setProperties(properties);
+
+        for (Object decoded : this.roundTrip(operation)) {
+            ProfileOperation profile = (ProfileOperation) decoded;
+            this.assertOperation(profile, operation);
+            Assert.assertEquals(profile.getProperties(), properties, "Operation properties do not match");
+        }
+    }
+
+    @Test
+    public void testRoundTripPolicyOperation() throws PayloadCodecException {
+        PolicyOperation operation = new PolicyOperation();
+        operation.setCode("POLICY_BUNDLE");
+        operation.setProfileOperations(new ArrayList<>(Arrays.asList(this.getTestOperation())));
+        operation.setPayLoad(operation.getProfileOperations());
+
+        for (Object decoded : this.roundTrip(operation)) {
+            PolicyOperation policy = (PolicyOperation) decoded;
+            Assert.assertEquals(policy.getCode(), operation.getCode(), "Decoded operation code does not match");
+            Assert.assertEquals(policy.getProfileOperations().size(), 1, "Profile operations are not decoded");
+            this.assertOperation(policy.getProfileOperations().get(0), this.getTestOperation());
+            Assert.assertEquals(((List<?>) policy.getPayLoad()).size(), 1, "Payload of the policy is not decoded");
+        }
+    }
+
+    @Test
+    public void testRoundTripOperationResponse() throws PayloadCodecException {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "COMPLETED");
+        response.put("installedApps", Arrays.asList("com.android.chrome", "com.android.email"));
+
+        for (Object decoded : this.roundTrip("{\"batteryLevel\":80}")) {
+            Assert.assertEquals(decoded, "{\"batteryLevel\":80}", "Decoded operation response does not match");
+        }
+        for (Object decoded : this.roundTrip(response)) {
+            Assert.assertEquals(decoded, response, "Decoded operation response does not match");
+        }
+    }
+
+    @Test(expectedExceptions = PayloadCodecException.class)
+    public void testJsonEncodeRejectsClassWithoutNoArgConstructor() throws PayloadCodecException {
+        ProfileOperation operation = this.getTestOperation();
+        operation.setPayLoad(new PushToken("token"));
+        new JsonPayloadCodec().encode(operation);
+    }
+
+    @Test(expectedExceptions = PayloadCodecException.class)
+    public void testJsonEncodeRejectsClassNotAllowed() throws PayloadCodecException {
+        ProfileOperation operation = this.getTestOperation();
+        operation.setPayLoad(new AtomicBoolean(true));
+        new JsonPayloadCodec().encode(operation);
+    }
+
+    @Test(expectedExceptions = PayloadCodecException.class)
+    public void testJsonDecodeRejectsClassNotAllowed() throws PayloadCodecException {
+        String payload = "{\"@type\":\"java.lang.ProcessBuilder\",\"@value\":{}}";
+        new JsonPayloadCodec().decode(payload.getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    @Test(expectedExceptions = PayloadCodecException.class)
+    public void testJsonEncodeRejectsCycle() throws PayloadCodecException {
+        List<Object> payload = new ArrayList<>();
+        payload.add(payload);
+        new JsonPayloadCodec().encode(payload);
+    }
+
+    @Test(expectedExceptions = PayloadCodecException.class)
+    public void testDecodeUnknownPayload() throws PayloadCodecException {
+        PayloadCodecUtil.decode(new byte[]{1, 2, 3, 4, 5, 6});
+    }
+
+    /**
+     * Encodes the payload with every codec and decodes it back.
+     */
+    private List<Object> roundTrip(Object payload) throws PayloadCodecException {
+        List<Object> decoded = new ArrayList<>();
+        for (PayloadCodec codec : new PayloadCodec[]{new JavaSerializationPayloadCodec(), new DeflatePayloadCodec(),
+                new JsonPayloadCodec()}) {
+            decoded.add(codec.decode(codec.encode(payload), null));
+        }
+        return decoded;
+    }
+
+    private void assertOperation(Operation decoded, Operation expected) {
+        Assert.assertEquals(decoded.getId(), expected.getId(), "Decoded operation id does not match");
+        Assert.assertEquals(decoded.getCode(), expected.getCode(), "Decoded operation code does not match");
+        Assert.assertEquals(decoded.getType(), expected.getType(), "Decoded operation type does not match");
+        Assert.assertEquals(decoded.getStatus(), expected.getStatus(), "Decoded operation status does not match");
+        Assert.assertEquals(decoded.getPayLoad(), expected.getPayLoad(), "Decoded operation payload does not match");
+    }
+
+    private ProfileOperation getTestOperation() {
+        ProfileOperation operation = new ProfileOperation();
+        operation.setCode("PASSCODE_POLICY");
+        operation.setType(Operation.Type.PROFILE);
+        operation.setPayLoad("{\"maxFailedAttempts\":5,\"minLength\":4}");
+        return operation;
+    }
+
+    private static class PushToken implements Serializable {
+
+        private String token;
+
+        PushToken(String token) {
+            this.token = token;
+        }
+    }
+
+}
@@ -28,6 +28,9 @@ import org.wso2.carbon.device.mgt.core.common.BaseDeviceManagementTest;
 import org.wso2.carbon.device.mgt.core.common.TestDataHolder;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class ApplicationPersistenceTests extends BaseDeviceManagementTest {
 
@@ -61,6 +64,28 @@ public class ApplicationPersistenceTests extends BaseDeviceManagementTest {
                 "retrieved");
     }
 
+    @Test(dependsOnMethods = {"testAddApplication"})
+    public void testAddAndGetApplications() {
+        List<Application> applications = new ArrayList<>();
+        applications.add(TestDataHolder.generateApplicationDummyData("test sample2"));
+        applications.add(TestDataHolder.generateApplicationDummyData("test sample3"));
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            applicationDAO.addApplications(applications, -1234);
+            List<Application> targets = applicationDAO.getApplications(
+                    Arrays.asList("test sample1", "test sample2", "test sample3", "unknown"), -1234);
+            Assert.assertEquals(targets.size(), 3, "Applications are not retrieved by their identifiers");
+            Assert.assertTrue(applicationDAO.getApplications(Arrays.asList("unknown"), -1234).isEmpty(),
+                    "Application retrieved for an unknown identifier");
+        } catch (DeviceManagementDAOException | SQLException e) {
+            String msg = "Error occurred while adding and retrieving a list of applications";
+            log.error(msg, e);
+            Assert.fail(msg, e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
     private Application getApplication(String appIdentifier, int tenantId) throws DeviceManagementDAOException {
         Application application = null;
         try {
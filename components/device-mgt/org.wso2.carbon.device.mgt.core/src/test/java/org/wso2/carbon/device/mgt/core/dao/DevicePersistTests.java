@@ -32,6 +32,10 @@ import org.wso2.carbon.device.mgt.core.common.TestDataHolder;
 import org.wso2.carbon.device.mgt.core.dto.DeviceType;
 
 import java.sql.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 public class DevicePersistTests extends BaseDeviceManagementTest {
 
@@ -107,6 +111,106 @@ public class DevicePersistTests extends BaseDeviceManagementTest {
                 device.getType() + "' carrying the identifier '" + device.getDeviceIdentifier() + "', is null");
     }
 
+    @Test(dependsOnMethods = {"testAddDeviceTest"})
+    public void testGetDevicesPageTest() {
+        int tenantId = TestDataHolder.SUPER_TENANT_ID;
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            for (String identifier : new String[]{"12346", "12347"}) {
+                Device device = TestDataHolder.generateDummyDeviceData(TestDataHolder.TEST_DEVICE_TYPE);
+                device.setDeviceIdentifier(identifier);
+                device.setId(deviceDAO.addDevice(TestDataHolder.initialTestDeviceType.getId(), device, tenantId));
+                deviceDAO.addEnrollment(device, tenantId);
+            }
+
+            List<Device> firstPage = deviceDAO.getDevices(tenantId, 0, 2);
+            Assert.assertEquals(firstPage.size(), 2, "First page does not carry the requested number of devices");
+            int cursor = firstPage.get(firstPage.size() - 1).getId();
+            Assert.assertTrue(firstPage.get(0).getId() < cursor, "Devices of the page are not ordered by id");
+
+            List<Device> secondPage = deviceDAO.getDevices(TestDataHolder.TEST_DEVICE_TYPE, tenantId, cursor, 2);
+            Assert.assertEquals(secondPage.size(), 1, "Second page does not carry the remaining device");
+            Assert.assertTrue(secondPage.get(0).getId() > cursor, "Second page overlaps with the first page");
+
+            List<Device> lastPage = deviceDAO.getDevicesOfUser("admin", tenantId, secondPage.get(0).getId(), 2);
+            Assert.assertTrue(lastPage.isEmpty(), "Page retrieved beyond the last device is not empty");
+        } catch (DeviceManagementDAOException | SQLException e) {
+            String msg = "Error occurred while retrieving devices page by page";
+            log.error(msg, e);
+            Assert.fail(msg, e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
+    @Test(dependsOnMethods = {"testGetDevicesPageTest"})
+    public void testGetEnrolmentIdsByStatusTest() {
+        int tenantId = TestDataHolder.SUPER_TENANT_ID;
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            Map<String, Integer> enrolmentIds = deviceDAO.getEnrolmentIdsByStatus(TestDataHolder.TEST_DEVICE_TYPE,
+                    Arrays.asList("12346", "12347", "unknown"), Status.CREATED, tenantId);
+            Assert.assertEquals(enrolmentIds.size(), 2, "Enrolment ids are not resolved for the enrolled devices");
+            Assert.assertFalse(enrolmentIds.containsKey("unknown"), "Enrolment id resolved for an unknown device");
+            Assert.assertFalse(enrolmentIds.get("12346").equals(enrolmentIds.get("12347")),
+                    "Same enrolment id resolved for two devices");
+        } catch (DeviceManagementDAOException | SQLException e) {
+            String msg = "Error occurred while retrieving enrolment ids of devices";
+            log.error(msg, e);
+            Assert.fail(msg, e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
+    @Test(dependsOnMethods = {"testGetDevicesPageTest"})
+    public void testGetDeviceIdsTest() {
+        int tenantId = TestDataHolder.SUPER_TENANT_ID;
+        String identifier = TestDataHolder.initialTestDevice.getDeviceIdentifier();
+        try {
+            int expectedId = this.getDeviceId(identifier, tenantId);
+            DeviceManagementDAOFactory.openConnection();
+            Map<String, Integer> deviceIds = deviceDAO.getDeviceIds(TestDataHolder.TEST_DEVICE_TYPE,
+                    Arrays.asList(identifier, "12346", "unknown"), tenantId);
+            Assert.assertEquals(deviceIds.size(), 2, "Device ids are not resolved for the enrolled devices");
+            Assert.assertEquals(deviceIds.get(identifier).intValue(), expectedId,
+                    "Resolved device id does not match the persisted device id");
+            Assert.assertFalse(deviceIds.containsKey("unknown"), "Device id resolved for an unknown device");
+            Assert.assertTrue(deviceDAO.getDeviceIds(TestDataHolder.TEST_DEVICE_TYPE,
+                    Collections.<String>emptyList(), tenantId).isEmpty(), "Device ids resolved for no devices");
+        } catch (DeviceManagementDAOException | SQLException e) {
+            String msg = "Error occurred while retrieving ids of devices";
+            log.error(msg, e);
+            Assert.fail(msg, e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
+    @Test(dependsOnMethods = {"testGetDevicesPageTest"})
+    public void testGetDevicesOfUsersTest() {
+        int tenantId = TestDataHolder.SUPER_TENANT_ID;
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            List<Device> devices = deviceDAO.getDevicesOfUsers(Arrays.asList("admin", "unknown"), tenantId);
+            Assert.assertEquals(devices.size(), 3, "Devices owned by the given users are not retrieved");
+            for (int i = 1; i < devices.size(); i++) {
+                Assert.assertTrue(devices.get(i - 1).getId() < devices.get(i).getId(),
+                        "Devices of the users are not ordered by id");
+            }
+            Assert.assertTrue(deviceDAO.getDevicesOfUsers(Arrays.asList("unknown"), tenantId).isEmpty(),
+                    "Devices retrieved for a user who does not own any");
+            Assert.assertTrue(deviceDAO.getDevicesOfUsers(Collections.<String>emptyList(), tenantId).isEmpty(),
+                    "Devices retrieved for an empty list of users");
+        } catch (DeviceManagementDAOException | SQLException e) {
+            String msg = "Error occurred while retrieving devices of a list of users";
+            log.error(msg, e);
+            Assert.fail(msg, e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
     private int getDeviceId(String deviceIdentification, int tenantId) throws DeviceManagementDAOException {
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.core.dao.util;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.TransactionManagementException;
+import org.wso2.carbon.device.mgt.core.TestUtils;
+import org.wso2.carbon.device.mgt.core.common.BaseDeviceManagementTest;
+import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class TransactionManagerTests extends BaseDeviceManagementTest {
+
+    private static final String COMMITTED_TYPE = "TxCommitted";
+    private static final String ROLLED_BACK_TYPE = "TxRolledBack";
+    private static final String NESTED_TYPE = "TxNested";
+
+    @BeforeClass
+    @Override
+    public void init() throws Exception {
+        initDatSource();
+    }
+
+    @Test
+    public void testNestedTransactionJoinsEnclosingTransaction() throws SQLException {
+        TransactionManager transactionManager = new TransactionManager(this.getDataSource(), "test");
+        transactionManager.beginTransaction();
+        try {
+            Connection outer = transactionManager.getConnection(false);
+            transactionManager.beginTransaction();
+            try {
+                Assert.assertSame(transactionManager.getConnection(false), outer,
+                        "Nested transaction does not join the connection of the enclosing transaction");
+                this.addDeviceType(transactionManager.getConnection(false), ROLLED_BACK_TYPE);
+                transactionManager.commitTransaction();
+            } finally {
+                transactionManager.closeConnection();
+            }
+            Assert.assertFalse(outer.isClosed(), "Nested scope closed the connection of the enclosing scope");
+            transactionManager.rollbackTransaction();
+        } finally {
+            transactionManager.closeConnection();
+        }
+        Assert.assertEquals(this.countDeviceTypes(ROLLED_BACK_TYPE), 0,
+                "Commit of a nested transaction is not deferred to the enclosing transaction");
+    }
+
+    @Test
+    public void testRollbackOfNestedTransactionFailsEnclosingCommit() throws SQLException {
+        TransactionManager transactionManager = new TransactionManager(this.getDataSource(), "test");
+        transactionManager.beginTransaction();
+        try {
+            this.addDeviceType(transactionManager.getConnection(false), ROLLED_BACK_TYPE);
+            transactionManager.beginTransaction();
+            transactionManager.rollbackTransaction();
+            transactionManager.closeConnection();
+            try {
+                transactionManager.commitTransaction();
+                Assert.fail("Transaction marked rollback-only by a nested scope is committed");
+            } catch (SQLException e) {
+                // expected as the nested scope rolled back
+            }
+        } finally {
+            transactionManager.closeConnection();
+        }
+        Assert.assertEquals(this.countDeviceTypes(ROLLED_BACK_TYPE), 0,
+                "Transaction marked rollback-only by a nested scope is committed");
+    }
+
+    @Test
+    public void testFactoryCommitAfterNestedRollbackIsPropagated() throws Exception {
+        DeviceManagementDAOFactory.beginTransaction();
+        try {
+            this.addDeviceType(DeviceManagementDAOFactory.getConnection(), ROLLED_BACK_TYPE);
+            DeviceManagementDAOFactory.beginTransaction();
+            DeviceManagementDAOFactory.rollbackTransaction();
+            DeviceManagementDAOFactory.closeConnection();
+            try {
+                DeviceManagementDAOFactory.commitTransaction();
+                Assert.fail("Failure of the enclosing commit is not propagated to the caller");
+            } catch (TransactionManagementException e) {
+                // expected as the nested scope rolled back
+            }
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+        Assert.assertEquals(this.countDeviceTypes(ROLLED_BACK_TYPE), 0,
+                "Transaction marked rollback-only by a nested scope is committed");
+    }
+
+    @Test
+    public void testTransactionNestedInReadScope() throws SQLException {
+        TransactionManager transactionManager = new TransactionManager(this.getDataSource(), "test");
+        transactionManager.openConnection();
+        try {
+            Connection connection = transactionManager.getConnection(false);
+            transactionManager.beginTransaction();
+            try {
+                this.addDeviceType(transactionManager.getConnection(false), NESTED_TYPE);
+                transactionManager.commitTransaction();
+            } finally {
+                transactionManager.closeConnection();
+            }
+            Assert.assertFalse(connection.isClosed(), "Nested transaction closed the connection of the read scope");
+            Assert.assertTrue(connection.getAutoCommit(),
+                    "Connection is not handed back to the read scope in auto commit mode");
+        } finally {
+            transactionManager.closeConnection();
+        }
+        Assert.assertEquals(this.countDeviceTypes(NESTED_TYPE), 1, "Transaction nested in a read scope is lost");
+    }
+
+    @Test
+    public void testConnectionSharedAmongManagersOfSameDataSource() throws SQLException {
+        TransactionManager.configure(true, 0);
+        TransactionManager deviceTransactionManager = new TransactionManager(this.getDataSource(), "device");
+        TransactionManager policyTransactionManager = new TransactionManager(this.getDataSource(), "policy");
+        try {
+            deviceTransactionManager.beginTransaction();
+            try {
+                policyTransactionManager.openConnection();
+                try {
+                    Assert.assertSame(policyTransactionManager.getConnection(false),
+                            deviceTransactionManager.getConnection(false),
+                            "Connection is not shared among the managers of the same data source");
+                    this.addDeviceType(policyTransactionManager.getConnection(false), COMMITTED_TYPE);
+                } finally {
+                    policyTransactionManager.closeConnection();
+                }
+                deviceTransactionManager.commitTransaction();
+            } finally {
+                deviceTransactionManager.closeConnection();
+            }
+        } finally {
+            TransactionManager.configure(false, 0);
+        }
+        Assert.assertEquals(this.countDeviceTypes(COMMITTED_TYPE), 1, "Work of the shared connection is lost");
+    }
+
+    @AfterClass
+    public void cleanup() throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = this.getDataSource().getConnection();
+            stmt = conn.prepareStatement("DELETE FROM DM_DEVICE_TYPE WHERE NAME IN (?, ?, ?)");
+            stmt.setString(1, COMMITTED_TYPE);
+            stmt.setString(2, ROLLED_BACK_TYPE);
+            stmt.setString(3, NESTED_TYPE);
+            stmt.executeUpdate();
+        } finally {
+            TestUtils.cleanupResources(conn, stmt, null);
+        }
+    }
+
+    private void addDeviceType(Connection conn, String name) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            stmt = conn.prepareStatement("INSERT INTO DM_DEVICE_TYPE (NAME) VALUES (?)");
+            stmt.setString(1, name);
+            stmt.executeUpdate();
+        } finally {
+            TestUtils.cleanupResources(null, stmt, null);
+        }
+    }
+
+    private int countDeviceTypes(String name) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = this.getDataSource().getConnection();
+            stmt = conn.prepareStatement("SELECT COUNT(*) FROM DM_DEVICE_TYPE WHERE NAME = ?");
+            stmt.setString(1, name);
+            rs = stmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        } finally {
+            TestUtils.cleanupResources(conn, stmt, rs);
+        }
+    }
+
+}
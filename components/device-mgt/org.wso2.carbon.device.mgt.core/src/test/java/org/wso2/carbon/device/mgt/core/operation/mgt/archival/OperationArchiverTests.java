@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.core.operation.mgt.archival;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.core.TestUtils;
+import org.wso2.carbon.device.mgt.core.common.BaseDeviceManagementTest;
+import org.wso2.carbon.device.mgt.core.common.TestDataHolder;
+import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+public class OperationArchiverTests extends BaseDeviceManagementTest {
+
+    private int deviceId;
+    private int enrolmentId;
+    private int completedOperationId;
+    private int failedOperationId;
+    private int pendingOperationId;
+    private int recentOperationId;
+
+    @BeforeClass
+    @Override
+    public void init() throws Exception {
+        initDatSource();
+        OperationManagementDAOFactory.init(this.getDataSource());
+        deviceId = TestDataHolder.initialTestDevice.getId();
+        enrolmentId = this.getEnrolmentId(deviceId);
+
+        Timestamp expiredTime = new Timestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(10));
+        completedOperationId = this.addOperation(expiredTime, Operation.Status.COMPLETED);
+        this.addOperationResponse(completedOperationId);
+        failedOperationId = this.addOperation(expiredTime, Operation.Status.ERROR);
+        pendingOperationId = this.addOperation(expiredTime, Operation.Status.PENDING);
+        recentOperationId = this.addOperation(new Timestamp(System.currentTimeMillis()), Operation.Status.COMPLETED);
+    }
+
+    @Test
+    public void testArchiveExpiredOperations() throws Exception {
+        OperationArchiver archiver = new OperationArchiver(false, 5, 1);
+        Timestamp createdBefore = new Timestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(5));
+        OperationArchivalResult result = archiver.archiveOperationsCreatedBefore(createdBefore);
+
+        Assert.assertEquals(result.getOperations(), 2, "Expired operations are not archived");
+        Assert.assertEquals(result.getOperationMappings(), 2, "Mappings of the expired operations are not archived");
+        Assert.assertEquals(result.getOperationResponses(), 1, "Responses of the expired operations are not archived");
+        Assert.assertEquals(result.getBatches(), 2, "Expired operations are not archived one batch at a time");
+
+        Assert.assertEquals(this.count("DM_OPERATION_ARCH", "ID", completedOperationId), 1);
+        Assert.assertEquals(this.count("DM_OPERATION_ARCH", "ID", failedOperationId), 1);
+        Assert.assertEquals(this.count("DM_ENROLMENT_OPERATION_MAPPING_ARCH", "OPERATION_ID", failedOperationId), 1);
+        Assert.assertEquals(this.count("DM_DEVICE_OPERATION_RESPONSE_ARCH", "OPERATION_ID", completedOperationId),
+                1);
+        Assert.assertEquals(this.count("DM_OPERATION", "ID", completedOperationId), 0,
+                "Archived operation is not removed");
+        Assert.assertEquals(this.count("DM_DEVICE_OPERATION_RESPONSE", "OPERATION_ID", completedOperationId), 0,
+                "Response of the archived operation is not removed");
+        Assert.assertEquals(this.count("DM_OPERATION", "ID", pendingOperationId), 1,
+                "Operation still pending on a device is archived");
+        Assert.assertEquals(this.count("DM_OPERATION", "ID", recentOperationId), 1,
+                "Operation within the retention period is archived");
+    }
+
+    @Test(dependsOnMethods = {"testArchiveExpiredOperations"})
+    public void testPurgeExpiredOperations() throws Exception {
+        OperationArchiver archiver = new OperationArchiver(true, 0, 10);
+        Timestamp createdBefore = new Timestamp(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1));
+        OperationArchivalResult result = archiver.archiveOperationsCreatedBefore(createdBefore);
+
+        Assert.assertEquals(result.getOperations(), 1, "Expired operation is not purged");
+        Assert.assertEquals(this.count("DM_OPERATION", "ID", recentOperationId), 0, "Purged operation is not removed");
+        Assert.assertEquals(this.count("DM_OPERATION_ARCH", "ID", recentOperationId), 0,
+                "Purged operation is archived");
+        Assert.assertEquals(this.count("DM_OPERATION", "ID", pendingOperationId), 1,
+                "Operation still pending on a device is purged");
+    }
+
+    @AfterClass
+    public void cleanup() throws SQLException {
+        Connection conn = null;
+        Statement stmt = null;
+        try {
+            conn = this.getDataSource().getConnection();
+            stmt = conn.createStatement();
+            stmt.executeUpdate("DELETE FROM DM_DEVICE_OPERATION_RESPONSE");
+            stmt.executeUpdate("DELETE FROM DM_ENROLMENT_OPERATION_MAPPING");
+            stmt.executeUpdate("DELETE FROM DM_COMMAND_OPERATION");
+            stmt.executeUpdate("DELETE FROM DM_OPERATION");
+        } finally {
+            TestUtils.cleanupResources(conn, stmt, null);
+        }
+    }
+
+    private int getEnrolmentId(int deviceId) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = this.getDataSource().getConnection();
+            stmt = conn.prepareStatement("SELECT ID FROM DM_ENROLMENT WHERE DEVICE_ID = ?");
+            stmt.setInt(1, deviceId);
+            rs = stmt.executeQuery();
+            Assert.assertTrue(rs.next(), "Enrolment of the test device is not found");
+            return rs.getInt("ID");
+        } finally {
+            TestUtils.cleanupResources(conn, stmt, rs);
+        }
+    }
+
+    private int addOperation(Timestamp createdTime, Operation.Status status) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = this.getDataSource().getConnection();
+            stmt = conn.prepareStatement("INSERT INTO DM_OPERATION(TYPE, CREATED_TIMESTAMP, OPERATION_CODE) " +
+                    "VALUES (?, ?, ?)", new String[]{"id"});
+            stmt.setString(1, Operation.Type.COMMAND.toString());
+            stmt.setTimestamp(2, createdTime);
+            stmt.setString(3, "DEVICE_LOCK");
+            stmt.executeUpdate();
+            rs = stmt.getGeneratedKeys();
+            Assert.assertTrue(rs.next(), "Id of the test operation is not generated");
+            int operationId = rs.getInt(1);
+            TestUtils.cleanupResources(null, stmt, rs);
+            rs = null;
+
+            stmt = conn.prepareStatement("INSERT INTO DM_COMMAND_OPERATION(OPERATION_ID, ENABLED) VALUES (?, ?)");
+            stmt.setInt(1, operationId);
+            stmt.setBoolean(2, true);
+            stmt.executeUpdate();
+            TestUtils.cleanupResources(null, stmt, null);
+
+            stmt = conn.prepareStatement("INSERT INTO DM_ENROLMENT_OPERATION_MAPPING(ENROLMENT_ID, OPERATION_ID, " +
+                    "STATUS) VALUES (?, ?, ?)");
+            stmt.setInt(1, enrolmentId);
+            stmt.setInt(2, operationId);
+            stmt.setString(3, status.toString());
+            stmt.executeUpdate();
+            return operationId;
+        } finally {
+            TestUtils.cleanupResources(conn, stmt, rs);
+        }
+    }
+
+    private void addOperationResponse(int operationId) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = this.getDataSource().getConnection();
+            stmt = conn.prepareStatement("INSERT INTO DM_DEVICE_OPERATION_RESPONSE(DEVICE_ID, OPERATION_ID, " +
+                    "OPERATION_RESPONSE) VALUES (?, ?, ?)");
+            stmt.setInt(1, deviceId);
+            stmt.setInt(2, operationId);
+            stmt.setBytes(3, "OK".getBytes());
+            stmt.executeUpdate();
+        } finally {
+            TestUtils.cleanupResources(conn, stmt, null);
+        }
+    }
+
+    private int count(String table, String column, int operationId) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = this.getDataSource().getConnection();
+            stmt = conn.prepareStatement("SELECT COUNT(*) FROM " + table + " WHERE " + column + " = ?");
+            stmt.setInt(1, operationId);
+            rs = stmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        } finally {
+            TestUtils.cleanupResources(conn, stmt, rs);
+        }
+    }
+
+}
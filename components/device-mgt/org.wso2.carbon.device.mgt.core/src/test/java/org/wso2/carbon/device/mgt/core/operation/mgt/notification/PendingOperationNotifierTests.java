@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.core.operation.mgt.notification;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PendingOperationNotifierTests {
+
+    private static final int ENROLMENT_ID = 101;
+    private static final int OTHER_ENROLMENT_ID = 102;
+
+    @Test
+    public void testListenerIsNotified() {
+        PendingOperationNotifier notifier = PendingOperationNotifier.getInstance();
+        CountingListener listener = new CountingListener(ENROLMENT_ID);
+        notifier.register(listener);
+        try {
+            notifier.notifyOperationAdded(Arrays.asList(OTHER_ENROLMENT_ID, ENROLMENT_ID));
+            Assert.assertEquals(listener.notifications.get(), 1, "Listener is not notified of the added operation");
+        } finally {
+            notifier.unregister(listener);
+        }
+    }
+
+    @Test
+    public void testOtherEnrolmentIsNotNotified() {
+        PendingOperationNotifier notifier = PendingOperationNotifier.getInstance();
+        CountingListener listener = new CountingListener(ENROLMENT_ID);
+        notifier.register(listener);
+        try {
+            notifier.notifyOperationAdded(Collections.singletonList(OTHER_ENROLMENT_ID));
+            Assert.assertEquals(listener.notifications.get(), 0, "Listener is notified of an operation of another " +
+                    "enrolment");
+        } finally {
+            notifier.unregister(listener);
+        }
+    }
+
+    @Test
+    public void testUnregisteredListenerIsNotNotified() {
+        PendingOperationNotifier notifier = PendingOperationNotifier.getInstance();
+        CountingListener listener = new CountingListener(ENROLMENT_ID);
+        notifier.register(listener);
+        notifier.unregister(listener);
+
+        notifier.notifyOperationAdded(Collections.singletonList(ENROLMENT_ID));
+        Assert.assertEquals(listener.notifications.get(), 0, "Unregistered listener is notified");
+    }
+
+    private static class CountingListener implements PendingOperationListener {
+
+        private final int enrolmentId;
+        private final AtomicInteger notifications = new AtomicInteger();
+
+        CountingListener(int enrolmentId) {
+            this.enrolmentId = enrolmentId;
+        }
+
+        @Override
+        public int getEnrolmentId() {
+            return enrolmentId;
+        }
+
+        @Override
+        public void onOperationAdded() {
+            notifications.incrementAndGet();
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.core.operation.mgt.notification;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PendingOperationPollerTests {
+
+    private static final int ENROLMENT_ID = 201;
+    private static final long MAX_WAIT_TIME = 500;
+
+    private TestPendingOperationPoller poller;
+
+    @BeforeClass
+    public void init() {
+        poller = new TestPendingOperationPoller();
+    }
+
+    @AfterClass
+    public void shutdown() {
+        poller.shutdown();
+    }
+
+    @Test
+    public void testPendingOperationsAreDeliveredImmediately() throws OperationManagementException {
+        poller.pendingOperations = Collections.singletonList(this.getOperation());
+        CollectingCallback callback = new CollectingCallback();
+        poller.poll(this.getDeviceIdentifier(), 10000, callback);
+
+        Assert.assertEquals(callback.latch.getCount(), 0, "Pending operations are not delivered on the calling " +
+                "thread");
+        Assert.assertEquals(callback.operations.size(), 1, "Pending operations are not delivered");
+    }
+
+    @Test
+    public void testPollIsCompletedOnceOperationIsAdded() throws OperationManagementException,
+            InterruptedException {
+        poller.pendingOperations = Collections.emptyList();
+        CollectingCallback callback = new CollectingCallback();
+        poller.poll(this.getDeviceIdentifier(), 10000, callback);
+        Assert.assertEquals(callback.latch.getCount(), 1, "Poll is completed although there are no pending " +
+                "operations");
+
+        poller.pendingOperations = Collections.singletonList(this.getOperation());
+        PendingOperationNotifier.getInstance().notifyOperationAdded(Collections.singletonList(ENROLMENT_ID));
+        Assert.assertTrue(callback.latch.await(5, TimeUnit.SECONDS), "Poll is not completed once an operation " +
+                "is added");
+        Assert.assertEquals(callback.operations.size(), 1, "Added operation is not delivered");
+        Assert.assertEquals(callback.invocations.get(), 1, "Callback is invoked more than once");
+    }
+
+    @Test
+    public void testPollTimesOut() throws OperationManagementException, InterruptedException {
+        poller.pendingOperations = Collections.emptyList();
+        CollectingCallback callback = new CollectingCallback();
+        poller.poll(this.getDeviceIdentifier(), 100, callback);
+
+        Assert.assertTrue(callback.latch.await(5, TimeUnit.SECONDS), "Poll does not time out");
+        Assert.assertTrue(callback.operations.isEmpty(), "Operations are delivered although none was added");
+    }
+
+    @Test
+    public void testWaitIsCappedByMaxWaitTime() throws OperationManagementException, InterruptedException {
+        poller.pendingOperations = Collections.emptyList();
+        CollectingCallback callback = new CollectingCallback();
+        poller.poll(this.getDeviceIdentifier(), 60000, callback);
+
+        Assert.assertTrue(callback.latch.await(5, TimeUnit.SECONDS), "Wait is not capped by the maximum wait time");
+        PendingOperationNotifier.getInstance().notifyOperationAdded(Collections.singletonList(ENROLMENT_ID));
+        Assert.assertEquals(callback.invocations.get(), 1, "Callback of a timed out poll is invoked again");
+    }
+
+    private DeviceIdentifier getDeviceIdentifier() {
+        DeviceIdentifier deviceIdentifier = new DeviceIdentifier();
+        deviceIdentifier.setId("111");
+        deviceIdentifier.setType("android");
+        return deviceIdentifier;
+    }
+
+    private Operation getOperation() {
+        Operation operation = new Operation();
+        operation.setCode("DEVICE_LOCK");
+        operation.setType(Operation.Type.COMMAND);
+        return operation;
+    }
+
+    private static class TestPendingOperationPoller extends PendingOperationPoller {
+
+        private volatile List<? extends Operation> pendingOperations = Collections.emptyList();
+
+        TestPendingOperationPoller() {
+            super(null, MAX_WAIT_TIME, 1);
+        }
+
+        @Override
+        protected int getEnrolmentId(DeviceIdentifier deviceId, int tenantId) {
+            return ENROLMENT_ID;
+        }
+
+        @Override
+        protected List<? extends Operation> getPendingOperations(DeviceIdentifier deviceId) {
+            return pendingOperations;
+        }
+    }
+
+    private static class CollectingCallback implements PendingOperationCallback {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final AtomicInteger invocations = new AtomicInteger();
+        private volatile List<? extends Operation> operations;
+
+        @Override
+        public void onPendingOperations(List<? extends Operation> operations) {
+            this.operations = operations;
+            invocations.incrementAndGet();
+            latch.countDown();
+        }
+
+        @Override
+        public void onError(OperationManagementException e) {
+            invocations.incrementAndGet();
+            latch.countDown();
+        }
+    }
+
+}
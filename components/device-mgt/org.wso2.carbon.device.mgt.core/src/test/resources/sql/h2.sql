@@ -28,6 +28,7 @@ CREATE TABLE IF NOT EXISTS DM_OPERATION (
 
 CREATE TABLE IF NOT EXISTS DM_CONFIG_OPERATION (
     OPERATION_ID INTEGER NOT NULL,
+    OPERATION_CONFIG  BLOB DEFAULT NULL,
     PRIMARY KEY (OPERATION_ID),
     CONSTRAINT fk_dm_operation_config FOREIGN KEY (OPERATION_ID) REFERENCES
     DM_OPERATION (ID) ON DELETE NO ACTION ON UPDATE NO ACTION
@@ -50,6 +51,15 @@ CREATE TABLE IF NOT EXISTS DM_PROFILE_OPERATION (
     DM_OPERATION (ID) ON DELETE NO ACTION ON UPDATE NO ACTION
 );
 
+CREATE TABLE IF NOT EXISTS DM_POLICY_OPERATION (
+    OPERATION_ID INTEGER NOT NULL,
+    ENABLED INTEGER NOT NULL DEFAULT 0,
+    OPERATION_DETAILS BLOB DEFAULT NULL,
+    PRIMARY KEY (OPERATION_ID),
+    CONSTRAINT fk_dm_operation_policy FOREIGN KEY (OPERATION_ID) REFERENCES
+    DM_OPERATION (ID) ON DELETE NO ACTION ON UPDATE NO ACTION
+);
+
 CREATE TABLE IF NOT EXISTS DM_ENROLMENT (
     ID INTEGER AUTO_INCREMENT NOT NULL,
     DEVICE_ID INTEGER NOT NULL,
@@ -76,6 +86,50 @@ CREATE TABLE IF NOT EXISTS DM_ENROLMENT_OPERATION_MAPPING (
     DM_OPERATION (ID) ON DELETE NO ACTION ON UPDATE NO ACTION
 );
 
+CREATE TABLE IF NOT EXISTS DM_DEVICE_OPERATION_RESPONSE (
+    ID INTEGER AUTO_INCREMENT NOT NULL,
+    DEVICE_ID INTEGER NOT NULL,
+    OPERATION_ID INTEGER NOT NULL,
+    OPERATION_RESPONSE BLOB DEFAULT NULL,
+    PRIMARY KEY (ID),
+    CONSTRAINT fk_dm_device_operation_response_device FOREIGN KEY (DEVICE_ID) REFERENCES
+    DM_DEVICE (ID) ON DELETE NO ACTION ON UPDATE NO ACTION,
+    CONSTRAINT fk_dm_device_operation_response_operation FOREIGN KEY (OPERATION_ID) REFERENCES
+    DM_OPERATION (ID) ON DELETE NO ACTION ON UPDATE NO ACTION
+);
+
+-- -----------------------------------------------------
+-- Archive of the operations that expired the retention period
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS DM_OPERATION_ARCH (
+    ID INTEGER NOT NULL,
+    TYPE VARCHAR(50) NOT NULL,
+    CREATED_TIMESTAMP TIMESTAMP NOT NULL,
+    RECEIVED_TIMESTAMP TIMESTAMP NULL,
+    OPERATION_CODE VARCHAR(1000) NOT NULL,
+    OPERATION_DETAILS BLOB DEFAULT NULL,
+    ARCHIVED_TIMESTAMP TIMESTAMP NOT NULL,
+    PRIMARY KEY (ID)
+);
+
+CREATE TABLE IF NOT EXISTS DM_ENROLMENT_OPERATION_MAPPING_ARCH (
+    ID INTEGER NOT NULL,
+    ENROLMENT_ID INTEGER NOT NULL,
+    OPERATION_ID INTEGER NOT NULL,
+    STATUS VARCHAR(50) NULL,
+    ARCHIVED_TIMESTAMP TIMESTAMP NOT NULL,
+    PRIMARY KEY (ID)
+);
+
+CREATE TABLE IF NOT EXISTS DM_DEVICE_OPERATION_RESPONSE_ARCH (
+    ID INTEGER NOT NULL,
+    DEVICE_ID INTEGER NOT NULL,
+    OPERATION_ID INTEGER NOT NULL,
+    OPERATION_RESPONSE BLOB DEFAULT NULL,
+    ARCHIVED_TIMESTAMP TIMESTAMP NOT NULL,
+    PRIMARY KEY (ID)
+);
+
 
 CREATE TABLE IF NOT EXISTS DM_APPLICATION (
     ID INTEGER AUTO_INCREMENT NOT NULL,
@@ -104,3 +158,15 @@ CREATE TABLE IF NOT EXISTS DM_DEVICE_APPLICATION_MAPPING (
     DM_APPLICATION (ID) ON DELETE NO ACTION ON UPDATE NO ACTION
 );
 
+
+-- -----------------------------------------------------
+-- Secondary indexes backing the device and operation lookups
+-- -----------------------------------------------------
+CREATE INDEX IF NOT EXISTS IDX_DM_DEVICE_TYPE_NAME ON DM_DEVICE_TYPE (NAME);
+CREATE INDEX IF NOT EXISTS IDX_DM_DEVICE_IDENTIFICATION ON DM_DEVICE (DEVICE_IDENTIFICATION, TENANT_ID);
+CREATE INDEX IF NOT EXISTS IDX_DM_DEVICE_TENANT_TYPE ON DM_DEVICE (TENANT_ID, DEVICE_TYPE_ID);
+CREATE INDEX IF NOT EXISTS IDX_DM_ENROLMENT_TENANT_DEVICE ON DM_ENROLMENT (TENANT_ID, DEVICE_ID, STATUS);
+CREATE INDEX IF NOT EXISTS IDX_DM_ENROLMENT_TENANT_OWNER ON DM_ENROLMENT (TENANT_ID, OWNER, DEVICE_ID);
+CREATE INDEX IF NOT EXISTS IDX_DM_ENROLMENT_TENANT_STATUS ON DM_ENROLMENT (TENANT_ID, STATUS, DEVICE_ID);
+CREATE INDEX IF NOT EXISTS IDX_DM_ENROLMENT_OP_MAPPING ON DM_ENROLMENT_OPERATION_MAPPING (ENROLMENT_ID, STATUS, OPERATION_ID);
+CREATE INDEX IF NOT EXISTS IDX_DM_OPERATION_CREATED ON DM_OPERATION (CREATED_TIMESTAMP);
@@ -0,0 +1,129 @@
+/*
+*  Copyright (c) 2015 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+
+package org.wso2.carbon.policy.evaluator;
+
+import org.wso2.carbon.policy.evaluator.utils.Constants;
+import org.wso2.carbon.policy.mgt.common.ProfileFeature;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Combining algorithms a feature rule may name as its evaluation criteria.
+ */
+public enum CombiningAlgorithm {
+
+    DENY_OVERRIDES(Constants.DENY_OVERRIDES) {
+        @Override
+        FeatureCombiner newCombiner() {
+            return new FeatureCombiner.OverridesCombiner(Constants.DENY);
+        }
+    },
+    PERMIT_OVERRIDES(Constants.PERMIT_OVERRIDES) {
+        @Override
+        FeatureCombiner newCombiner() {
+            return new FeatureCombiner.OverridesCombiner(Constants.PERMIT);
+        }
+    },
+    FIRST_APPLICABLE(Constants.FIRST_APPLICABLE) {
+        @Override
+        FeatureCombiner newCombiner() {
+            return new FeatureCombiner.FirstApplicableCombiner();
+        }
+    },
+    LAST_APPLICABLE(Constants.LAST_APPLICABLE) {
+        @Override
+        FeatureCombiner newCombiner() {
+            return new FeatureCombiner.LastApplicableCombiner();
+        }
+    },
+    ALL_APPLICABLE(Constants.ALL_APPLICABLE) {
+        @Override
+        FeatureCombiner newCombiner() {
+            return new FeatureCombiner.AllApplicableCombiner();
+        }
+    },
+    HIGHEST_APPLICABLE(Constants.HIGHEST_APPLICABLE) {
+        @Override
+        FeatureCombiner newCombiner() {
+            return new FeatureCombiner.ExtremeValueCombiner(true);
+        }
+    },
+    LOWEST_APPLICABLE(Constants.LOWEST_APPLICABLE) {
+        @Override
+        FeatureCombiner newCombiner() {
+            return new FeatureCombiner.ExtremeValueCombiner(false);
+        }
+    };
+
+    private static final Map<String, CombiningAlgorithm> algorithms = new HashMap<>();
+
+    static {
+        for (CombiningAlgorithm algorithm : values()) {
+            algorithms.put(algorithm.criteria, algorithm);
+        }
+    }
+
+    private final String criteria;
+
+    CombiningAlgorithm(String criteria) {
+        this.criteria = criteria;
+    }
+
+    public String getCriteria() {
+        return criteria;
+    }
+
+    abstract FeatureCombiner newCombiner();
+
+    /**
+     * Combines the features of the given type out of the given features.
+     *
+     * @param featureName          Feature code the features are matched on, ignoring case
+     * @param featureList          Features in the order of the policies they belong to
+     * @param effectiveFeatureList List the effective features are added to
+     * @throws PDPException If the algorithm compares rule values and a feature does not carry a valid one
+     */
+    public void combine(String featureName, List<ProfileFeature> featureList,
+                        List<ProfileFeature> effectiveFeatureList) throws PDPException {
+        FeatureCombiner combiner = newCombiner();
+        for (ProfileFeature feature : featureList) {
+            if (featureName.equalsIgnoreCase(feature.getFeatureCode())) {
+                combiner.offer(feature);
+            }
+        }
+        combiner.collect(effectiveFeatureList);
+    }
+
+    /**
+     * Resolves the algorithm named by the evaluation criteria of a feature rule.
+     *
+     * @param criteria Evaluation criteria, matched ignoring case
+     * @return Matching algorithm or null if the criteria does not name one
+     */
+    public static CombiningAlgorithm getCombiningAlgorithm(String criteria) {
+        if (criteria == null) {
+            return null;
+        }
+        return algorithms.get(criteria.trim().toLowerCase(Locale.ENGLISH));
+    }
+
+}
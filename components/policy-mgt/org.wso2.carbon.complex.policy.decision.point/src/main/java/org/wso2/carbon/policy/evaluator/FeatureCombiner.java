@@ -0,0 +1,200 @@
+/*
+*  Copyright (c) 2015 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+
+package org.wso2.carbon.policy.evaluator;
+
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.wso2.carbon.policy.evaluator.utils.Constants;
+import org.wso2.carbon.policy.mgt.common.ProfileFeature;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges the features of a single type, offered in the order of the policies they belong to, into the effective
+ * features of that type. A combiner holds the state of one evaluation and is not shared between evaluations.
+ * <p/>
+ * The rule value of a feature is carried by the {@link Constants#RULE_VALUE} entry of its JSON content, e.g.
+ * {"ruleValue": "deny", ...} or {"ruleValue": 6, ...}. Algorithms comparing rule values fail on features whose content
+ * does not carry one, rather than guessing a value out of the rest of the payload.
+ */
+abstract class FeatureCombiner {
+
+    abstract void offer(ProfileFeature feature) throws PDPException;
+
+    abstract void collect(List<ProfileFeature> effectiveFeatureList);
+
+    static String getRuleValue(ProfileFeature feature) throws PDPException {
+        Object content = feature.getContent();
+        if (content == null) {
+            throw new PDPException("Content of the feature '" + feature.getFeatureCode() + "' is not defined");
+        }
+        if (!(content instanceof Map)) {
+            try {
+                content = new JSONParser().parse(content.toString());
+            } catch (ParseException e) {
+                throw new PDPException("Error occurred while parsing the content of the feature '" +
+                        feature.getFeatureCode() + "'", e);
+            }
+        }
+        if (!(content instanceof Map)) {
+            throw new PDPException("Content of the feature '" + feature.getFeatureCode() + "' is not a JSON object");
+        }
+        Object ruleValue = ((Map) content).get(Constants.RULE_VALUE);
+        if (ruleValue == null) {
+            throw new PDPException("Content of the feature '" + feature.getFeatureCode() + "' does not carry the '" +
+                    Constants.RULE_VALUE + "' entry");
+        }
+        return ruleValue.toString().trim();
+    }
+
+    /**
+     * Picks the first feature carrying the overriding rule value, or the last feature if none carries it.
+     */
+    static class OverridesCombiner extends FeatureCombiner {
+
+        private final String overridingValue;
+        private ProfileFeature evaluatedFeature;
+        private boolean overridden;
+
+        OverridesCombiner(String overridingValue) {
+            this.overridingValue = overridingValue;
+        }
+
+        @Override
+        void offer(ProfileFeature feature) throws PDPException {
+            if (overridden) {
+                return;
+            }
+            evaluatedFeature = feature;
+            overridden = overridingValue.equalsIgnoreCase(getRuleValue(feature));
+        }
+
+        @Override
+        void collect(List<ProfileFeature> effectiveFeatureList) {
+            if (evaluatedFeature != null) {
+                effectiveFeatureList.add(evaluatedFeature);
+            }
+        }
+    }
+
+    static class FirstApplicableCombiner extends FeatureCombiner {
+
+        private ProfileFeature evaluatedFeature;
+
+        @Override
+        void offer(ProfileFeature feature) {
+            if (evaluatedFeature == null) {
+                evaluatedFeature = feature;
+            }
+        }
+
+        @Override
+        void collect(List<ProfileFeature> effectiveFeatureList) {
+            if (evaluatedFeature != null) {
+                effectiveFeatureList.add(evaluatedFeature);
+            }
+        }
+    }
+
+    static class LastApplicableCombiner extends FeatureCombiner {
+
+        private ProfileFeature evaluatedFeature;
+
+        @Override
+        void offer(ProfileFeature feature) {
+            evaluatedFeature = feature;
+        }
+
+        @Override
+        void collect(List<ProfileFeature> effectiveFeatureList) {
+            if (evaluatedFeature != null) {
+                effectiveFeatureList.add(evaluatedFeature);
+            }
+        }
+    }
+
+    static class AllApplicableCombiner extends FeatureCombiner {
+
+        private ProfileFeature firstFeature;
+        private List<ProfileFeature> features;
+
+        @Override
+        void offer(ProfileFeature feature) {
+            // Most policies carry a feature only once, hence the list is not allocated until a second one shows up
+            if (firstFeature == null) {
+                firstFeature = feature;
+            } else {
+                if (features == null) {
+                    features = new ArrayList<ProfileFeature>();
+                }
+                features.add(feature);
+            }
+        }
+
+        @Override
+        void collect(List<ProfileFeature> effectiveFeatureList) {
+            if (firstFeature != null) {
+                effectiveFeatureList.add(firstFeature);
+            }
+            if (features != null) {
+                effectiveFeatureList.addAll(features);
+            }
+        }
+    }
+
+    /**
+     * Picks the first feature with the highest, or the lowest, numeric rule value.
+     */
+    static class ExtremeValueCombiner extends FeatureCombiner {
+
+        private final boolean highest;
+        private ProfileFeature evaluatedFeature;
+        private long evaluatedValue;
+
+        ExtremeValueCombiner(boolean highest) {
+            this.highest = highest;
+        }
+
+        @Override
+        void offer(ProfileFeature feature) throws PDPException {
+            String ruleValue = getRuleValue(feature);
+            long value;
+            try {
+                value = Long.parseLong(ruleValue);
+            } catch (NumberFormatException e) {
+                throw new PDPException("Rule value '" + ruleValue + "' of the feature '" + feature.getFeatureCode() +
+                        "' is not a number", e);
+            }
+            if (evaluatedFeature == null || (highest ? value > evaluatedValue : value < evaluatedValue)) {
+                evaluatedFeature = feature;
+                evaluatedValue = value;
+            }
+        }
+
+        @Override
+        void collect(List<ProfileFeature> effectiveFeatureList) {
+            if (evaluatedFeature != null) {
+                effectiveFeatureList.add(evaluatedFeature);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+*  Copyright (c) 2015 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+
+package org.wso2.carbon.policy.evaluator;
+
+import org.wso2.carbon.policy.mgt.common.ProfileFeature;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Feature rules compiled for repeated evaluations. The evaluation criteria of each rule is resolved to its combining
+ * algorithm once, when the engine is built, and rules naming an unknown criteria are dropped.
+ * <p/>
+ * An evaluation walks the features once, handing each one over to the combiners of the rules on its feature type,
+ * and then collects the effective features in the order of the rules. The engine itself is immutable and can be
+ * shared between threads.
+ */
+public class FeatureCombiningEngine {
+
+    private final CombiningAlgorithm[] algorithms;
+    private final Map<String, int[]> ruleIndexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    public FeatureCombiningEngine(List<FeatureRules> featureRulesList) {
+        List<CombiningAlgorithm> resolvedAlgorithms = new ArrayList<>(featureRulesList.size());
+        for (FeatureRules rule : featureRulesList) {
+            CombiningAlgorithm algorithm = CombiningAlgorithm.getCombiningAlgorithm(rule.getEvaluationCriteria());
+            if (algorithm == null || rule.getName() == null) {
+                continue;
+            }
+            int ruleIndex = resolvedAlgorithms.size();
+            resolvedAlgorithms.add(algorithm);
+
+            int[] indexes = ruleIndexes.get(rule.getName());
+            if (indexes == null) {
+                indexes = new int[]{ruleIndex};
+            } else {
+                int[] extendedIndexes = new int[indexes.length + 1];
+                System.arraycopy(indexes, 0, extendedIndexes, 0, indexes.length);
+                extendedIndexes[indexes.length] = ruleIndex;
+                indexes = extendedIndexes;
+            }
+            ruleIndexes.put(rule.getName(), indexes);
+        }
+        this.algorithms = resolvedAlgorithms.toArray(new CombiningAlgorithm[resolvedAlgorithms.size()]);
+    }
+
+    /**
+     * Merges the given features into the effective features.
+     *
+     * @param featureList Features in the order of the policies they belong to
+     * @return Effective features, in the order of the rules that selected them
+     * @throws PDPException If a rule compares rule values and a feature does not carry a valid one
+     */
+    public List<ProfileFeature> evaluate(List<ProfileFeature> featureList) throws PDPException {
+        FeatureCombiner[] combiners = new FeatureCombiner[algorithms.length];
+        for (ProfileFeature feature : featureList) {
+            if (feature.getFeatureCode() == null) {
+                continue;
+            }
+            int[] indexes = ruleIndexes.get(feature.getFeatureCode());
+            if (indexes == null) {
+                continue;
+            }
+            for (int index : indexes) {
+                FeatureCombiner combiner = combiners[index];
+                if (combiner == null) {
+                    combiner = algorithms[index].newCombiner();
+                    combiners[index] = combiner;
+                }
+                combiner.offer(feature);
+            }
+        }
+        List<ProfileFeature> effectiveFeatureList = new ArrayList<>();
+        for (FeatureCombiner combiner : combiners) {
+            if (combiner != null) {
+                combiner.collect(effectiveFeatureList);
+            }
+        }
+        return effectiveFeatureList;
+    }
+
+}
@@ -18,7 +18,6 @@
 
 package org.wso2.carbon.policy.evaluator;
 
-import org.wso2.carbon.policy.evaluator.utils.Constants;
 import org.wso2.carbon.policy.mgt.common.Policy;
 import org.wso2.carbon.policy.mgt.common.ProfileFeature;
 
@@ -39,10 +38,21 @@ public class FeatureFilterImpl implements FeatureFilter {
      * @return
      */
     @Override
-    public List<ProfileFeature> evaluate(List<Policy> policyList, List<FeatureRules> featureRulesList) {
+    public List<ProfileFeature> evaluate(List<Policy> policyList, List<FeatureRules> featureRulesList) throws PDPException {
         return evaluateFeatures(extractFeatures(policyList), featureRulesList);
      }
 
+    /**
+     * This method returns the effective feature list of the given policy list using rules compiled in advance, which
+     * saves resolving the rules on every evaluation.
+     * @param policyList
+     * @param combiningEngine
+     * @return
+     */
+    public List<ProfileFeature> evaluate(List<Policy> policyList, FeatureCombiningEngine combiningEngine) throws PDPException {
+        return combiningEngine.evaluate(extractFeatures(policyList));
+    }
+
     /**
      * This method extract the features from the given policy list in the order they are provided in the list.
      * @param policyList
@@ -57,39 +67,14 @@ public class FeatureFilterImpl implements FeatureFilter {
     }
 
     /**
-     * This method is responsible for supplying tasks to other methods to evaluate given features.
+     * This method merges the given features according to the rule of each feature type in a single pass over the
+     * features. Effective features are returned in the order of the rules.
      * @param featureList
      * @param featureRulesList
      * @return
      */
-    public List<ProfileFeature> evaluateFeatures(List<ProfileFeature> featureList, List<FeatureRules> featureRulesList) {
-        List<ProfileFeature> effectiveFeatureList = new ArrayList<ProfileFeature>();
-        for (FeatureRules rule : featureRulesList) {
-            String ruleName = rule.getEvaluationCriteria();
-            String featureName = rule.getName();
-            if (ruleName.equalsIgnoreCase(Constants.DENY_OVERRIDES)) {
-                getDenyOverridesFeatures(featureName, featureList, effectiveFeatureList);
-            }
-            if (ruleName.equalsIgnoreCase(Constants.PERMIT_OVERRIDES)) {
-                getPermitOverridesFeatures(featureName, featureList, effectiveFeatureList);
-            }
-            if (ruleName.equalsIgnoreCase(Constants.FIRST_APPLICABLE)) {
-                getFirstApplicableFeatures(featureName, featureList, effectiveFeatureList);
-            }
-            if (ruleName.equalsIgnoreCase(Constants.LAST_APPLICABLE)) {
-                getLastApplicableFeatures(featureName, featureList, effectiveFeatureList);
-            }
-            if (ruleName.equalsIgnoreCase(Constants.ALL_APPLICABLE)) {
-                getAllApplicableFeatures(featureName, featureList, effectiveFeatureList);
-            }
-            if (ruleName.equalsIgnoreCase(Constants.HIGHEST_APPLICABLE)) {
-                getHighestApplicableFeatures(featureName, featureList, effectiveFeatureList);
-            }
-            if (ruleName.equalsIgnoreCase(Constants.LOWEST_APPLICABLE)) {
-                getLowestApplicableFeatures(featureName, featureList, effectiveFeatureList);
-            }
-        }
-        return effectiveFeatureList;
+    public List<ProfileFeature> evaluateFeatures(List<ProfileFeature> featureList, List<FeatureRules> featureRulesList) throws PDPException {
+        return new FeatureCombiningEngine(featureRulesList).evaluate(featureList);
     }
 
     /**
@@ -100,23 +85,8 @@ public class FeatureFilterImpl implements FeatureFilter {
      * @param featureList
      * @param effectiveFeatureList
      */
-    public void getDenyOverridesFeatures(String featureName, List<ProfileFeature> featureList, List<ProfileFeature> effectiveFeatureList) {
-        ProfileFeature evaluatedFeature = null;
-//        for (ProfileFeature feature : featureList) {
-//            if (feature.getFeature().getName().equalsIgnoreCase(featureName)) {
-//                if (feature.getFeature().getRuleValue().equalsIgnoreCase("Deny")) {
-//                    evaluatedFeature = feature;
-//                    effectiveFeatureList.add(evaluatedFeature);
-//                    return;
-//                } else {
-//                    evaluatedFeature = feature;
-//                }
-//            }
-//        }
-        if (evaluatedFeature != null) {
-            effectiveFeatureList.add(evaluatedFeature);
-        }
-
+    public void getDenyOverridesFeatures(String featureName, List<ProfileFeature> featureList, List<ProfileFeature> effectiveFeatureList) throws PDPException {
+        CombiningAlgorithm.DENY_OVERRIDES.combine(featureName, featureList, effectiveFeatureList);
     }
 
     /**
@@ -127,23 +97,8 @@ public class FeatureFilterImpl implements FeatureFilter {
      * @param featureList
      * @param effectiveFeatureList
      */
-    public void getPermitOverridesFeatures(String featureName, List<ProfileFeature> featureList, List<ProfileFeature> effectiveFeatureList) {
-        ProfileFeature evaluatedFeature = null;
-//        for (ProfileFeature feature : featureList) {
-//            if (feature.getFeature().getName().equalsIgnoreCase(featureName)) {
-//                if (feature.getFeature().getRuleValue().equalsIgnoreCase("Permit")) {
-//                    evaluatedFeature = feature;
-//                    effectiveFeatureList.add(evaluatedFeature);
-//                    return;
-//                } else {
-//                    evaluatedFeature = feature;
-//                }
-//            }
-//        }
-        if (evaluatedFeature != null) {
-            effectiveFeatureList.add(evaluatedFeature);
-        }
-
+    public void getPermitOverridesFeatures(String featureName, List<ProfileFeature> featureList, List<ProfileFeature> effectiveFeatureList) throws PDPException {
+        CombiningAlgorithm.PERMIT_OVERRIDES.combine(featureName, featureList, effectiveFeatureList);
     }
 
     /**
@@ -154,14 +109,8 @@ public class FeatureFilterImpl implements FeatureFilter {
      * @param featureList
      * @param effectiveFeatureList
      */
-    public void getFirstApplicableFeatures(String featureName, List<ProfileFeature> featureList, List<ProfileFeature> effectiveFeatureList) {
-        for (ProfileFeature feature : featureList) {
-//            if (feature.getFeature().getName().equalsIgnoreCase(featureName)) {
-//                effectiveFeatureList.add(feature);
-//                return;
-//
-//            }
-        }
+    public void getFirstApplicableFeatures(String featureName, List<ProfileFeature> featureList, List<ProfileFeature> effectiveFeatureList) throws PDPException {
+        CombiningAlgorithm.FIRST_APPLICABLE.combine(featureName, featureList, effectiveFeatureList);
     }
 
     /**
@@ -172,16 +121,8 @@ public class FeatureFilterImpl implements FeatureFilter {
      * @param featureList
      * @param effectiveFeatureList
      */
-    public void getLastApplicableFeatures(String featureName, List<ProfileFeature> featureList, List<ProfileFeature> effectiveFeatureList) {
-        ProfileFeature evaluatedFeature = null;
-//        for (ProfileFeature feature : featureList) {
-//            if (feature.getFeature().getName().equalsIgnoreCase(featureName)) {
-//                evaluatedFeature = feature;
-//            }
-//        }
-        if (evaluatedFeature != null) {
-            effectiveFeatureList.add(evaluatedFeature);
-        }
+    public void getLastApplicableFeatures(String featureName, List<ProfileFeature> featureList, List<ProfileFeature> effectiveFeatureList) throws PDPException {
+        CombiningAlgorithm.LAST_APPLICABLE.combine(featureName, featureList, effectiveFeatureList);
     }
 
     /**
@@ -192,12 +133,8 @@ public class FeatureFilterImpl implements FeatureFilter {
      * @param featureList
      * @param effectiveFeatureList
      */
-    public void getAllApplicableFeatures(String featureName, List<ProfileFeature> featureList, List<ProfileFeature> effectiveFeatureList) {
-        for (ProfileFeature feature : featureList) {
-//            if (feature.getFeature().getName().equalsIgnoreCase(featureName)) {
-//                effectiveFeatureList.add(feature);
-//            }
-        }
+    public void getAllApplicableFeatures(String featureName, List<ProfileFeature> featureList, List<ProfileFeature> effectiveFeatureList) throws PDPException {
+        CombiningAlgorithm.ALL_APPLICABLE.combine(featureName, featureList, effectiveFeatureList);
     }
 
     /**
@@ -208,20 +145,8 @@ public class FeatureFilterImpl implements FeatureFilter {
      * @param featureList
      * @param effectiveFeatureList
      */
-    public void getHighestApplicableFeatures(String featureName, List<ProfileFeature> featureList, List<ProfileFeature> effectiveFeatureList) {
-        ProfileFeature evaluatedFeature = null;
-        int intValve = 0;
-//        for (ProfileFeature feature : featureList) {
-//            if (feature.getFeature().getName().equalsIgnoreCase(featureName)) {
-//                if (Integer.parseInt(feature.getFeature().getRuleValue()) > intValve) {
-//                    intValve = Integer.parseInt(feature.getFeature().getRuleValue());
-//                    evaluatedFeature = feature;
-//                }
-//            }
-//        }
-        if (evaluatedFeature != null) {
-            effectiveFeatureList.add(evaluatedFeature);
-        }
+    public void getHighestApplicableFeatures(String featureName, List<ProfileFeature> featureList, List<ProfileFeature> effectiveFeatureList) throws PDPException {
+        CombiningAlgorithm.HIGHEST_APPLICABLE.combine(featureName, featureList, effectiveFeatureList);
     }
 
     /**
@@ -232,19 +157,7 @@ public class FeatureFilterImpl implements FeatureFilter {
      * @param featureList
      * @param effectiveFeatureList
      */
-    public void getLowestApplicableFeatures(String featureName, List<ProfileFeature> featureList, List<ProfileFeature> effectiveFeatureList) {
-        ProfileFeature evaluatedFeature = null;
-//        int intValve = 0;
-//        for (ProfileFeature feature : featureList) {
-//            if (feature.getFeature().getName().equalsIgnoreCase(featureName)) {
-//                if (Integer.parseInt(feature.getFeature().getRuleValue()) < intValve) {
-//                    intValve = Integer.parseInt(feature.getFeature().getRuleValue());
-//                    evaluatedFeature = feature;
-//                }
-//            }
-//        }
-        if (evaluatedFeature != null) {
-            effectiveFeatureList.add(evaluatedFeature);
-        }
+    public void getLowestApplicableFeatures(String featureName, List<ProfileFeature> featureList, List<ProfileFeature> effectiveFeatureList) throws PDPException {
+        CombiningAlgorithm.LOWEST_APPLICABLE.combine(featureName, featureList, effectiveFeatureList);
     }
 }
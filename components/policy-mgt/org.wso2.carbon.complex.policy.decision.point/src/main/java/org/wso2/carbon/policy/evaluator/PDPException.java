@@ -31,6 +31,7 @@ public class PDPException extends Exception {
     }
 
     public PDPException(String message) {
+        super(message);
         setPdpErrorMessage(message);
     }
 
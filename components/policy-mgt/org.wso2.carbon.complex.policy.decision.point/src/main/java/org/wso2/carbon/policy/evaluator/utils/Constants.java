@@ -27,4 +27,9 @@ public class Constants {
     public static final String ALL_APPLICABLE = "all_applicable";
     public static final String HIGHEST_APPLICABLE = "highest_applicable";
     public static final String LOWEST_APPLICABLE = "lowest_applicable";
+
+    public static final String DENY = "deny";
+    public static final String PERMIT = "permit";
+
+    public static final String RULE_VALUE = "ruleValue";
 }
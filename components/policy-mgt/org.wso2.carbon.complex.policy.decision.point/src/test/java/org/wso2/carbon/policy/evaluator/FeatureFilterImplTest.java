@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.evaluator;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.policy.evaluator.utils.Constants;
+import org.wso2.carbon.policy.mgt.common.Policy;
+import org.wso2.carbon.policy.mgt.common.Profile;
+import org.wso2.carbon.policy.mgt.common.ProfileFeature;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FeatureFilterImplTest {
+
+    private static final String CAMERA = "CAMERA";
+    private static final String PASSCODE_POLICY = "PASSCODE_POLICY";
+    private static final String WIFI = "WIFI";
+
+    private FeatureFilterImpl featureFilter = new FeatureFilterImpl();
+
+    @Test
+    public void testDenyOverrides() throws PDPException {
+        List<ProfileFeature> features = Arrays.asList(
+                this.getCameraFeature(1, Constants.PERMIT),
+                this.getCameraFeature(2, Constants.DENY),
+                this.getCameraFeature(3, Constants.PERMIT));
+
+        Assert.assertEquals(this.getIds(this.combine(CombiningAlgorithm.DENY_OVERRIDES, CAMERA, features)),
+                Arrays.asList(2), "Denied feature does not override the permitted features");
+        Assert.assertEquals(this.getIds(this.combine(CombiningAlgorithm.DENY_OVERRIDES, CAMERA,
+                Arrays.asList(this.getCameraFeature(1, Constants.PERMIT), this.getCameraFeature(3, Constants.PERMIT)))),
+                Arrays.asList(3), "Last permitted feature is not picked when no feature is denied");
+    }
+
+    @Test
+    public void testPermitOverrides() throws PDPException {
+        List<ProfileFeature> features = Arrays.asList(
+                this.getCameraFeature(1, Constants.DENY),
+                this.getCameraFeature(2, Constants.PERMIT),
+                this.getCameraFeature(3, Constants.PERMIT));
+
+        Assert.assertEquals(this.getIds(this.combine(CombiningAlgorithm.PERMIT_OVERRIDES, CAMERA, features)),
+                Arrays.asList(2), "First permitted feature does not override the denied features");
+        Assert.assertEquals(this.getIds(this.combine(CombiningAlgorithm.PERMIT_OVERRIDES, CAMERA,
+                Arrays.asList(this.getCameraFeature(1, Constants.DENY), this.getCameraFeature(3, Constants.DENY)))),
+                Arrays.asList(3), "Last denied feature is not picked when no feature is permitted");
+    }
+
+    @Test
+    public void testFirstApplicable() throws PDPException {
+        List<ProfileFeature> features = Arrays.asList(
+                this.getWifiFeature(1),
+                this.getCameraFeature(2, Constants.DENY),
+                this.getWifiFeature(3));
+
+        Assert.assertEquals(this.getIds(this.combine(CombiningAlgorithm.FIRST_APPLICABLE, WIFI, features)),
+                Arrays.asList(1), "First feature of the type is not picked");
+    }
+
+    @Test
+    public void testLastApplicable() throws PDPException {
+        List<ProfileFeature> features = Arrays.asList(
+                this.getWifiFeature(1),
+                this.getWifiFeature(2),
+                this.getCameraFeature(3, Constants.DENY));
+
+        Assert.assertEquals(this.getIds(this.combine(CombiningAlgorithm.LAST_APPLICABLE, WIFI, features)),
+                Arrays.asList(2), "Last feature of the type is not picked");
+    }
+
+    @Test
+    public void testAllApplicable() throws PDPException {
+        List<ProfileFeature> features = Arrays.asList(
+                this.getWifiFeature(1),
+                this.getCameraFeature(2, Constants.DENY),
+                this.getWifiFeature(3),
+                this.getWifiFeature(4));
+
+        Assert.assertEquals(this.getIds(this.combine(CombiningAlgorithm.ALL_APPLICABLE, WIFI, features)),
+                Arrays.asList(1, 3, 4), "Every feature of the type is not picked in the order of the policies");
+    }
+
+    @Test
+    public void testHighestApplicable() throws PDPException {
+        List<ProfileFeature> features = Arrays.asList(
+                this.getPasscodeFeature(1, 6),
+                this.getPasscodeFeature(2, 12),
+                this.getPasscodeFeature(3, -1),
+                this.getPasscodeFeature(4, 12));
+
+        Assert.assertEquals(this.getIds(this.combine(CombiningAlgorithm.HIGHEST_APPLICABLE, PASSCODE_POLICY,
+                features)), Arrays.asList(2), "First feature with the highest rule value is not picked");
+    }
+
+    @Test
+    public void testLowestApplicable() throws PDPException {
+        List<ProfileFeature> features = Arrays.asList(
+                this.getPasscodeFeature(1, 6),
+                this.getPasscodeFeature(2, -1),
+                this.getPasscodeFeature(3, 12),
+                this.getPasscodeFeature(4, -1));
+
+        Assert.assertEquals(this.getIds(this.combine(CombiningAlgorithm.LOWEST_APPLICABLE, PASSCODE_POLICY,
+                features)), Arrays.asList(2), "First feature with the lowest rule value is not picked");
+    }
+
+    @Test
+    public void testRuleValueOfParsedContent() throws PDPException {
+        Map<String, Object> content = new HashMap<>();
+        content.put(Constants.RULE_VALUE, Constants.DENY);
+        content.put("enabled", false);
+        ProfileFeature deniedFeature = this.getFeature(2, CAMERA, content);
+
+        Assert.assertEquals(this.getIds(this.combine(CombiningAlgorithm.DENY_OVERRIDES, CAMERA,
+                Arrays.asList(this.getCameraFeature(1, Constants.PERMIT), deniedFeature))), Arrays.asList(2),
+                "Rule value is not taken from content which is already parsed");
+    }
+
+    @Test
+    public void testMissingRuleValue() {
+        ProfileFeature feature = this.getFeature(1, CAMERA, "{\"enabled\": false}");
+        for (CombiningAlgorithm algorithm : new CombiningAlgorithm[]{CombiningAlgorithm.DENY_OVERRIDES,
+                CombiningAlgorithm.PERMIT_OVERRIDES, CombiningAlgorithm.HIGHEST_APPLICABLE,
+                CombiningAlgorithm.LOWEST_APPLICABLE}) {
+            try {
+                this.combine(algorithm, CAMERA, Arrays.asList(feature));
+                Assert.fail("Feature without a rule value is combined by '" + algorithm.getCriteria() + "'");
+            } catch (PDPException e) {
+                Assert.assertTrue(e.getMessage().contains(Constants.RULE_VALUE),
+                        "Failure does not name the missing rule value");
+            }
+        }
+    }
+
+    @Test
+    public void testRuleValueNotRequired() throws PDPException {
+        ProfileFeature feature = this.getFeature(1, CAMERA, "{\"enabled\": false}");
+        for (CombiningAlgorithm algorithm : new CombiningAlgorithm[]{CombiningAlgorithm.FIRST_APPLICABLE,
+                CombiningAlgorithm.LAST_APPLICABLE, CombiningAlgorithm.ALL_APPLICABLE}) {
+            Assert.assertEquals(this.getIds(this.combine(algorithm, CAMERA, Arrays.asList(feature))),
+                    Arrays.asList(1), "Feature without a rule value is not combined by '" +
+                            algorithm.getCriteria() + "'");
+        }
+    }
+
+    @Test(expectedExceptions = PDPException.class)
+    public void testContentNotJson() throws PDPException {
+        this.combine(CombiningAlgorithm.DENY_OVERRIDES, CAMERA, Arrays.asList(this.getFeature(1, CAMERA, "deny")));
+    }
+
+    @Test(expectedExceptions = PDPException.class)
+    public void testRuleValueNotNumeric() throws PDPException {
+        this.combine(CombiningAlgorithm.HIGHEST_APPLICABLE, CAMERA,
+                Arrays.asList(this.getCameraFeature(1, Constants.DENY)));
+    }
+
+    @Test
+    public void testEvaluate() throws PDPException {
+        List<Policy> policies = Arrays.asList(
+                this.getPolicy(1, this.getCameraFeature(11, Constants.PERMIT), this.getPasscodeFeature(12, 6),
+                        this.getWifiFeature(13)),
+                this.getPolicy(2, this.getCameraFeature(21, Constants.DENY), this.getPasscodeFeature(22, 8)),
+                this.getPolicy(3, this.getCameraFeature(31, Constants.PERMIT), this.getWifiFeature(33)));
+        List<FeatureRules> featureRules = Arrays.asList(
+                this.getFeatureRule(WIFI, Constants.ALL_APPLICABLE),
+                this.getFeatureRule("camera", Constants.DENY_OVERRIDES),
+                this.getFeatureRule(PASSCODE_POLICY, Constants.HIGHEST_APPLICABLE),
+                this.getFeatureRule(PASSCODE_POLICY, "unknown_criteria"));
+
+        List<Integer> expectedIds = Arrays.asList(13, 33, 21, 22);
+        Assert.assertEquals(this.getIds(featureFilter.evaluate(policies, featureRules)), expectedIds,
+                "Effective features are not picked by the rule of each feature type");
+        Assert.assertEquals(this.getIds(featureFilter.evaluate(policies, new FeatureCombiningEngine(featureRules))),
+                expectedIds, "Rules compiled in advance pick different effective features");
+    }
+
+    private List<ProfileFeature> combine(CombiningAlgorithm algorithm, String featureName,
+                                         List<ProfileFeature> features) throws PDPException {
+        List<ProfileFeature> effectiveFeatures = new ArrayList<>();
+        algorithm.combine(featureName, features, effectiveFeatures);
+        return effectiveFeatures;
+    }
+
+    private List<Integer> getIds(List<ProfileFeature> features) {
+        List<Integer> ids = new ArrayList<>();
+        for (ProfileFeature feature : features) {
+            ids.add(feature.getId());
+        }
+        return ids;
+    }
+
+    private ProfileFeature getCameraFeature(int id, String ruleValue) {
+        return this.getFeature(id, CAMERA, "{\"" + Constants.RULE_VALUE + "\": \"" + ruleValue + "\", " +
+                "\"enabled\": " + Constants.PERMIT.equals(ruleValue) + "}");
+    }
+
+    private ProfileFeature getPasscodeFeature(int id, int ruleValue) {
+        return this.getFeature(id, PASSCODE_POLICY, "{\"" + Constants.RULE_VALUE + "\": " + ruleValue + ", " +
+                "\"maxFailedAttempts\": 5, \"minLength\": 8, \"maxPINAgeInDays\": 90, \"pinHistory\": 3, " +
+                "\"allowSimple\": false, \"requireAlphanumeric\": true}");
+    }
+
+    private ProfileFeature getWifiFeature(int id) {
+        return this.getFeature(id, WIFI, "{\"ssid\": \"corporate-" + id + "\", \"password\": \"secret\"}");
+    }
+
+    private ProfileFeature getFeature(int id, String featureCode, Object content) {
+        ProfileFeature feature = new ProfileFeature();
+        feature.setId(id);
+        feature.setFeatureCode(featureCode);
+        feature.setContent(content);
+        return feature;
+    }
+
+    private Policy getPolicy(int id, ProfileFeature... features) {
+        Profile profile = new Profile();
+        profile.setProfileId(id);
+        profile.setProfileFeaturesList(Arrays.asList(features));
+
+        Policy policy = new Policy();
+        policy.setId(id);
+        policy.setPolicyName("Policy_" + id);
+        policy.setProfile(profile);
+        return policy;
+    }
+
+    private FeatureRules getFeatureRule(String name, String evaluationCriteria) {
+        FeatureRules featureRule = new FeatureRules();
+        featureRule.setName(name);
+        featureRule.setEvaluationCriteria(evaluationCriteria);
+        return featureRule;
+    }
+
+}
@@ -125,6 +125,16 @@ public interface PolicyAdministratorPoint {
      */
     void setPolicyUsed(DeviceIdentifier deviceIdentifier, Policy policy) throws PolicyManagementException;
 
+    /**
+     * Records the policies used by a batch of devices in a single transaction.
+     *
+     * @param deviceIdentifiers Devices of the current tenant, each appearing only once
+     * @param policies          Policy used by the device at the same position
+     * @throws PolicyManagementException
+     */
+    void setPoliciesUsed(List<DeviceIdentifier> deviceIdentifiers, List<Policy> policies)
+            throws PolicyManagementException;
+
     /**
      * This method will add the profile to database,
      * @param profile
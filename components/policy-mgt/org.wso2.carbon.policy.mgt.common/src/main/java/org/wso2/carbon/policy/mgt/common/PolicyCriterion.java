@@ -19,10 +19,11 @@
 
 package org.wso2.carbon.policy.mgt.common;
 
+import java.io.Serializable;
 import java.util.Map;
 import java.util.Properties;
 
-public class PolicyCriterion {
+public class PolicyCriterion implements Serializable {
 
     private int id;
     private int criteriaId;
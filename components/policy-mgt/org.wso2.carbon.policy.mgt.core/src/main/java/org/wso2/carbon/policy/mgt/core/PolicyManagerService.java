@@ -24,6 +24,7 @@ import org.wso2.carbon.device.mgt.common.Feature;
 import org.wso2.carbon.policy.mgt.common.*;
 import org.wso2.carbon.policy.mgt.common.monitor.ComplianceData;
 import org.wso2.carbon.policy.mgt.common.monitor.ComplianceFeature;
+import org.wso2.carbon.policy.mgt.common.monitor.DeviceComplianceResponse;
 import org.wso2.carbon.policy.mgt.common.monitor.PolicyComplianceException;
 import org.wso2.carbon.policy.mgt.core.task.TaskScheduleService;
 
@@ -74,6 +75,9 @@ public interface PolicyManagerService {
 
     boolean checkCompliance(DeviceIdentifier deviceIdentifier, Object response) throws PolicyComplianceException;
 
+    List<ComplianceData> checkPolicyCompliance(List<DeviceComplianceResponse> deviceResponses)
+            throws PolicyComplianceException;
+
     ComplianceData getDeviceCompliance(DeviceIdentifier deviceIdentifier) throws PolicyComplianceException;
 
     boolean isCompliance(DeviceIdentifier deviceIdentifier) throws PolicyComplianceException;
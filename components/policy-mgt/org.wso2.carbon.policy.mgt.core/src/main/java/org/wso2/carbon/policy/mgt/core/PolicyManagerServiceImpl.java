@@ -29,6 +29,7 @@ import org.wso2.carbon.device.mgt.core.operation.mgt.ProfileOperation;
 import org.wso2.carbon.policy.mgt.common.*;
 import org.wso2.carbon.policy.mgt.common.monitor.ComplianceData;
 import org.wso2.carbon.policy.mgt.common.monitor.ComplianceFeature;
+import org.wso2.carbon.policy.mgt.common.monitor.DeviceComplianceResponse;
 import org.wso2.carbon.policy.mgt.common.monitor.PolicyComplianceException;
 import org.wso2.carbon.policy.mgt.core.impl.PolicyAdministratorPointImpl;
 import org.wso2.carbon.policy.mgt.core.impl.PolicyInformationPointImpl;
@@ -217,6 +218,12 @@ public class PolicyManagerServiceImpl implements PolicyManagerService {
         return true;
     }
 
+    @Override
+    public List<ComplianceData> checkPolicyCompliance(List<DeviceComplianceResponse> deviceResponses)
+            throws PolicyComplianceException {
+        return monitoringManager.checkPolicyCompliance(deviceResponses);
+    }
+
     @Override
     public ComplianceData getDeviceCompliance(DeviceIdentifier deviceIdentifier) throws PolicyComplianceException {
         return monitoringManager.getDevicePolicyCompliance(deviceIdentifier);
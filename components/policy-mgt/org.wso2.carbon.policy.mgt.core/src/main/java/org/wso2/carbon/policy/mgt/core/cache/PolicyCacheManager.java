@@ -19,10 +19,16 @@
 
 package org.wso2.carbon.policy.mgt.core.cache;
 
-import org.wso2.carbon.device.mgt.core.policy.mgt.policy.Policy;
+import org.wso2.carbon.policy.mgt.common.Policy;
 
+import java.util.Collection;
 import java.util.List;
 
+/**
+ * Tenant scoped cache of the policies. Cached entries are kept per tenant so that an invalidation triggered by one
+ * tenant does not affect the entries of the others. Policies handed to and returned from the cache are copies, hence
+ * callers are free to modify them.
+ */
 public interface PolicyCacheManager {
 
     void addAllPolicies(List<Policy> policies);
@@ -41,9 +47,20 @@ public interface PolicyCacheManager {
 
     Policy getPolicy(int policyId);
 
-    void addPolicyToDevice(int deviceId, int policyId);
-
-    List<Integer> getPolicyAppliedDeviceIds(int policyId);
-
-    int getPolicyIdOfDevice(int deviceId);
+    /**
+     * @param policyIds Ids of the policies to look up
+     * @return Copies of the cached policies with the given ids in the order of the cached policies, or null if the
+     * policies have not been cached
+     */
+    List<Policy> getPolicies(Collection<Integer> policyIds);
+
+    /**
+     * @return Number of look ups that were served from the cache since the cache manager was initialized.
+     */
+    long getHitCount();
+
+    /**
+     * @return Number of look ups that could not be served from the cache since the cache manager was initialized.
+     */
+    long getMissCount();
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core.cache;
+
+import org.wso2.carbon.policy.mgt.common.PIPDevice;
+import org.wso2.carbon.policy.mgt.common.Policy;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagementConstants;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable index of the policies of a tenant, compiled into inverted maps from device type, ownership type, role
+ * and user to the ids of the policies they are eligible for. Selecting the policies related to a device is thereby
+ * reduced to intersecting the candidate sets of its attributes rather than scanning every policy.
+ * <p/>
+ * Matching follows the semantics of the policy filter: attributes are compared ignoring case, and a policy that
+ * does not restrict an attribute, either by leaving it empty or by setting it to ANY, is a candidate for every
+ * value of the attribute.
+ */
+public class PolicyIndex {
+
+    private final Map<String, List<Policy>> policiesOfDeviceType = new HashMap<>();
+    private final Map<String, Set<Integer>> policyIdsOfOwnershipType = new HashMap<>();
+    private final Set<Integer> anyOwnershipPolicyIds = new HashSet<>();
+    private final Map<String, Set<Integer>> policyIdsOfRole = new HashMap<>();
+    private final Set<Integer> anyRolePolicyIds = new HashSet<>();
+    private final Map<String, Set<Integer>> policyIdsOfUser = new HashMap<>();
+    private final Set<Integer> anyUserPolicyIds = new HashSet<>();
+
+    /**
+     * @param policies Policies of the tenant, ordered by priority
+     */
+    public PolicyIndex(List<Policy> policies) {
+        for (Policy policy : policies) {
+            if (policy.getProfile() == null || policy.getProfile().getDeviceType() == null) {
+                continue;
+            }
+            addToList(policiesOfDeviceType, policy.getProfile().getDeviceType().getName(), policy);
+
+            if (PolicyManagementConstants.ANY.equalsIgnoreCase(policy.getOwnershipType())) {
+                anyOwnershipPolicyIds.add(policy.getId());
+            } else if (policy.getOwnershipType() != null) {
+                addToSet(policyIdsOfOwnershipType, policy.getOwnershipType(), policy.getId());
+            }
+
+            List<String> roles = policy.getRoles();
+            if (roles == null || roles.isEmpty() || PolicyManagementConstants.ANY.equalsIgnoreCase(roles.get(0))) {
+                anyRolePolicyIds.add(policy.getId());
+            } else {
+                for (String role : roles) {
+                    addToSet(policyIdsOfRole, role, policy.getId());
+                }
+            }
+
+            List<String> users = policy.getUsers();
+            if (users == null || users.isEmpty() || users.contains(PolicyManagementConstants.ANY)) {
+                anyUserPolicyIds.add(policy.getId());
+            } else {
+                for (String user : users) {
+                    addToSet(policyIdsOfUser, user, policy.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Selects the policies eligible for the given device. Attributes the device does not carry are not used to
+     * narrow down the selection.
+     *
+     * @param pipDevice Device to select the policies for
+     * @return Related policies, ordered by priority
+     */
+    public List<Policy> getRelatedPolicies(PIPDevice pipDevice) {
+        if (pipDevice.getDeviceType() == null) {
+            return new ArrayList<>();
+        }
+        List<Policy> candidates = policiesOfDeviceType.get(normalize(pipDevice.getDeviceType().getName()));
+        if (candidates == null) {
+            return new ArrayList<>();
+        }
+
+        Set<Integer> ownershipMatches = null;
+        if (pipDevice.getOwnershipType() != null && !pipDevice.getOwnershipType().isEmpty()) {
+            ownershipMatches = union(anyOwnershipPolicyIds,
+                    Collections.singletonList(policyIdsOfOwnershipType.get(normalize(pipDevice.getOwnershipType()))));
+        }
+        Set<Integer> roleMatches = null;
+        if (pipDevice.getRoles() != null) {
+            List<Set<Integer>> policyIdsOfRoles = new ArrayList<>(pipDevice.getRoles().length);
+            for (String role : pipDevice.getRoles()) {
+                policyIdsOfRoles.add(policyIdsOfRole.get(normalize(role)));
+            }
+            roleMatches = union(anyRolePolicyIds, policyIdsOfRoles);
+        }
+        Set<Integer> userMatches = null;
+        if (pipDevice.getUserId() != null && !pipDevice.getUserId().isEmpty()) {
+            userMatches = union(anyUserPolicyIds,
+                    Collections.singletonList(policyIdsOfUser.get(normalize(pipDevice.getUserId()))));
+        }
+
+        List<Policy> policies = new ArrayList<>();
+        for (Policy policy : candidates) {
+            if ((ownershipMatches == null || ownershipMatches.contains(policy.getId())) &&
+                    (roleMatches == null || roleMatches.contains(policy.getId())) &&
+                    (userMatches == null || userMatches.contains(policy.getId()))) {
+                policies.add(policy);
+            }
+        }
+        return policies;
+    }
+
+    private static Set<Integer> union(Set<Integer> anyPolicyIds, Collection<Set<Integer>> policyIdSets) {
+        Set<Integer> policyIds = new HashSet<>(anyPolicyIds);
+        for (Set<Integer> policyIdSet : policyIdSets) {
+            if (policyIdSet != null) {
+                policyIds.addAll(policyIdSet);
+            }
+        }
+        return policyIds;
+    }
+
+    private static void addToList(Map<String, List<Policy>> map, String key, Policy policy) {
+        String normalizedKey = normalize(key);
+        List<Policy> policies = map.get(normalizedKey);
+        if (policies == null) {
+            policies = new ArrayList<>();
+            map.put(normalizedKey, policies);
+        }
+        policies.add(policy);
+    }
+
+    private static void addToSet(Map<String, Set<Integer>> map, String key, int policyId) {
+        String normalizedKey = normalize(key);
+        Set<Integer> policyIds = map.get(normalizedKey);
+        if (policyIds == null) {
+            policyIds = new HashSet<>();
+            map.put(normalizedKey, policyIds);
+        }
+        policyIds.add(policyId);
+    }
+
+    private static String normalize(String key) {
+        return key == null ? null : key.toLowerCase(Locale.ENGLISH);
+    }
+
+}
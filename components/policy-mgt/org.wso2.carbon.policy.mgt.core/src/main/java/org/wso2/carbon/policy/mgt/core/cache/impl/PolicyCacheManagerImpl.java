@@ -19,65 +19,239 @@
 
 package org.wso2.carbon.policy.mgt.core.cache.impl;
 
-import org.wso2.carbon.device.mgt.core.policy.mgt.policy.Policy;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.policy.mgt.common.Policy;
 import org.wso2.carbon.policy.mgt.core.cache.PolicyCacheManager;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
 
+import javax.cache.Cache;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * PolicyCacheManager implementation backed by the device management JCache. Entries are keyed by the tenant id
+ * of the current carbon context, hence each tenant gets its own partition of the cache.
+ * <p/>
+ * Policies are copied on their way in and out of the cache, so that a caller modifying a policy it added or got
+ * does not change the policies seen by the other callers.
+ * <p/>
+ * Every change of the policies of a tenant also replaces the version of the policies kept in the cache, which lets
+ * the policy indexes held locally by each node detect a change made through another node.
+ */
 public class PolicyCacheManagerImpl implements PolicyCacheManager {
 
-    @Override
-    public void addAllPolicies(List<Policy> policies) {
+    private static final Log log = LogFactory.getLog(PolicyCacheManagerImpl.class);
+
+    private static final String POLICIES_KEY = "POLICIES";
+    private static final String POLICIES_VERSION_KEY = "POLICIES_VERSION";
+
+    private static volatile PolicyCacheManagerImpl policyCacheManager;
 
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    private PolicyCacheManagerImpl() {
+    }
+
+    public static PolicyCacheManagerImpl getInstance() {
+        if (policyCacheManager == null) {
+            synchronized (PolicyCacheManagerImpl.class) {
+                if (policyCacheManager == null) {
+                    policyCacheManager = new PolicyCacheManagerImpl();
+                }
+            }
+        }
+        return policyCacheManager;
     }
 
     @Override
-    public void updateAllPolicies(List<Policy> policies) {
+    public synchronized void addAllPolicies(List<Policy> policies) {
+        this.putEntry(POLICIES_KEY, PolicyManagerUtil.copyPolicies(policies));
+    }
 
+    @Override
+    public synchronized void updateAllPolicies(List<Policy> policies) {
+        this.removeAllPolicies();
+        this.addAllPolicies(policies);
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public List<Policy> getAllPolicies() {
-        return null;
+        List<Policy> policies = (List<Policy>) this.getEntry(POLICIES_KEY);
+        if (policies == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return PolicyManagerUtil.copyPolicies(policies);
     }
 
     @Override
-    public void removeAllPolicies() {
-
+    public synchronized void removeAllPolicies() {
+        this.removeEntry(POLICIES_KEY);
+        this.changePoliciesVersion();
+        if (log.isDebugEnabled()) {
+            log.debug("Policy cache of tenant " + this.getTenantId() + " has been invalidated");
+        }
     }
 
     @Override
-    public void addPolicy(Policy policy) {
-
+    @SuppressWarnings("unchecked")
+    public synchronized void addPolicy(Policy policy) {
+        this.changePoliciesVersion();
+        List<Policy> policies = (List<Policy>) this.getEntry(POLICIES_KEY);
+        if (policies == null) {
+            // Nothing has been cached yet, the policy gets picked up along with the rest on the next full load.
+            return;
+        }
+        List<Policy> updatedPolicies = new ArrayList<>(policies);
+        updatedPolicies.add(PolicyManagerUtil.copyPolicy(policy));
+        this.putEntry(POLICIES_KEY, updatedPolicies);
     }
 
     @Override
-    public void updatePolicy(Policy policy) {
-
+    @SuppressWarnings("unchecked")
+    public synchronized void updatePolicy(Policy policy) {
+        this.changePoliciesVersion();
+        List<Policy> policies = (List<Policy>) this.getEntry(POLICIES_KEY);
+        if (policies == null) {
+            return;
+        }
+        List<Policy> updatedPolicies = new ArrayList<>(policies.size());
+        for (Policy cachedPolicy : policies) {
+            updatedPolicies.add(cachedPolicy.getId() == policy.getId() ? PolicyManagerUtil.copyPolicy(policy) :
+                    cachedPolicy);
+        }
+        this.putEntry(POLICIES_KEY, updatedPolicies);
     }
 
     @Override
-    public void removePolicy(int policyId) {
-
+    @SuppressWarnings("unchecked")
+    public synchronized void removePolicy(int policyId) {
+        this.changePoliciesVersion();
+        List<Policy> policies = (List<Policy>) this.getEntry(POLICIES_KEY);
+        if (policies != null) {
+            List<Policy> updatedPolicies = new ArrayList<>(policies.size());
+            for (Policy cachedPolicy : policies) {
+                if (cachedPolicy.getId() != policyId) {
+                    updatedPolicies.add(cachedPolicy);
+                }
+            }
+            this.putEntry(POLICIES_KEY, updatedPolicies);
+        }
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public Policy getPolicy(int policyId) {
+        List<Policy> policies = (List<Policy>) this.getEntry(POLICIES_KEY);
+        if (policies != null) {
+            for (Policy policy : policies) {
+                if (policy.getId() == policyId) {
+                    hitCount.incrementAndGet();
+                    return PolicyManagerUtil.copyPolicy(policy);
+                }
+            }
+        }
+        missCount.incrementAndGet();
         return null;
     }
 
     @Override
-    public void addPolicyToDevice(int deviceId, int policyId) {
+    @SuppressWarnings("unchecked")
+    public List<Policy> getPolicies(Collection<Integer> policyIds) {
+        List<Policy> policies = (List<Policy>) this.getEntry(POLICIES_KEY);
+        if (policies == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        List<Policy> matchingPolicies = new ArrayList<>();
+        for (Policy policy : policies) {
+            if (policyIds.contains(policy.getId())) {
+                matchingPolicies.add(PolicyManagerUtil.copyPolicy(policy));
+            }
+        }
+        return matchingPolicies;
+    }
 
+    /**
+     * Returns the version of the policies of the current tenant, starting a new version if the cache does not hold
+     * one yet.
+     *
+     * @return Version of the policies of the current tenant, or null if the cache is not available
+     */
+    String getPoliciesVersion() {
+        String version = (String) this.getEntry(POLICIES_VERSION_KEY);
+        if (version == null && this.getCache() != null) {
+            version = UUID.randomUUID().toString();
+            this.putEntry(POLICIES_VERSION_KEY, version);
+        }
+        return version;
+    }
+
+    private void changePoliciesVersion() {
+        this.putEntry(POLICIES_VERSION_KEY, UUID.randomUUID().toString());
+        PolicyIndexManager.getInstance().invalidate();
     }
 
     @Override
-    public List<Integer> getPolicyAppliedDeviceIds(int policyId) {
-        return null;
+    public long getHitCount() {
+        return hitCount.get();
     }
 
     @Override
-    public int getPolicyIdOfDevice(int deviceId) {
-        return 0;
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private Object getEntry(String key) {
+        Cache cache = this.getCache();
+        if (cache == null) {
+            return null;
+        }
+        return cache.get(this.getTenantKey(key));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void putEntry(String key, Object value) {
+        Cache cache = this.getCache();
+        if (cache != null) {
+            cache.put(this.getTenantKey(key), value);
+        }
+    }
+
+    private void removeEntry(String key) {
+        Cache cache = this.getCache();
+        if (cache != null) {
+            cache.remove(this.getTenantKey(key));
+        }
     }
+
+    private Cache getCache() {
+        try {
+            return PolicyManagerUtil.getCacheManagerImpl();
+        } catch (RuntimeException e) {
+            // The cache is an optimization, hence lookups fall back to the data source if it is not available.
+            if (log.isDebugEnabled()) {
+                log.debug("Policy cache is not available, policies will be loaded from the data source", e);
+            }
+            return null;
+        }
+    }
+
+    private String getTenantKey(String key) {
+        return this.getTenantId() + ":" + key;
+    }
+
+    private int getTenantId() {
+        return PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+    }
+
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core.cache.impl;
+
+import org.wso2.carbon.policy.mgt.common.Policy;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagementConstants;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the decoded policies applied to devices, keyed by the hash of their stored content. As the content of a hash
+ * never changes, entries are never stale and are only evicted once the least recently used entries exceed the
+ * capacity. Devices sharing a policy thereby share a single decoded instance, which callers must not modify.
+ */
+public class PolicyContentCache {
+
+    private static PolicyContentCache policyContentCache =
+            new PolicyContentCache(PolicyManagementConstants.POLICY_CONTENT_CACHE_SIZE);
+
+    private final Map<String, Policy> policies;
+
+    PolicyContentCache(final int capacity) {
+        this.policies = new LinkedHashMap<String, Policy>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Policy> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public static PolicyContentCache getInstance() {
+        return policyContentCache;
+    }
+
+    public synchronized Policy getPolicy(int tenantId, String contentHash) {
+        return policies.get(getKey(tenantId, contentHash));
+    }
+
+    public synchronized void addPolicy(int tenantId, String contentHash, Policy policy) {
+        policies.put(getKey(tenantId, contentHash), policy);
+    }
+
+    public synchronized void clear() {
+        policies.clear();
+    }
+
+    private static String getKey(int tenantId, String contentHash) {
+        return tenantId + ":" + contentHash;
+    }
+
+}
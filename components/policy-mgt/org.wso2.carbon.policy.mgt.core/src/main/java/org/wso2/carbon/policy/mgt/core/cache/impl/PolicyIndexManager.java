@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core.cache.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
+import org.wso2.carbon.policy.mgt.core.cache.PolicyIndex;
+import org.wso2.carbon.policy.mgt.core.mgt.PolicyManager;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagementConstants;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the compiled policy index of each tenant. An index is compiled lazily from the policies of the tenant and
+ * kept until the policies change. An index is recompiled when:
+ * <ul>
+ * <li>the policies are changed through this node, which invalidates the index of the tenant right away;</li>
+ * <li>the version of the policies kept in the cluster-wide policy cache no longer matches the version the index was
+ * compiled for, as the policies were changed through another node;</li>
+ * <li>the index outlives {@link PolicyManagementConstants#POLICY_INDEX_TTL}, which bounds the staleness of an index
+ * when the policy cache is not available.</li>
+ * </ul>
+ */
+public class PolicyIndexManager {
+
+    private static final Log log = LogFactory.getLog(PolicyIndexManager.class);
+    private static PolicyIndexManager policyIndexManager = new PolicyIndexManager();
+
+    private final Map<Integer, IndexEntry> indexes = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private PolicyIndexManager() {
+    }
+
+    public static PolicyIndexManager getInstance() {
+        return policyIndexManager;
+    }
+
+    /**
+     * Returns the policy index of the current tenant, compiling it from the policies provided by the given policy
+     * manager if the tenant does not have an up to date index.
+     *
+     * @param policyManager Policy manager to load the policies of the tenant from
+     * @return Policy index of the current tenant
+     * @throws PolicyManagementException If the policies of the tenant could not be loaded
+     */
+    public PolicyIndex getPolicyIndex(PolicyManager policyManager) throws PolicyManagementException {
+        int tenantId = this.getTenantId();
+        String version = PolicyCacheManagerImpl.getInstance().getPoliciesVersion();
+        IndexEntry entry = indexes.get(tenantId);
+        if (entry != null && entry.isValid(version)) {
+            return entry.getIndex();
+        }
+        long currentGeneration = generation.get();
+        PolicyIndex index = new PolicyIndex(policyManager.getPolicies());
+        // An index compiled while the policies were being changed is handed out but not kept.
+        synchronized (this) {
+            if (generation.get() == currentGeneration) {
+                indexes.put(tenantId, new IndexEntry(index, version,
+                        System.currentTimeMillis() + PolicyManagementConstants.POLICY_INDEX_TTL));
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Policy index of tenant " + tenantId + " has been compiled");
+        }
+        return index;
+    }
+
+    public void invalidate() {
+        int tenantId = this.getTenantId();
+        synchronized (this) {
+            generation.incrementAndGet();
+            indexes.remove(tenantId);
+        }
+    }
+
+    private int getTenantId() {
+        return PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+    }
+
+    private static class IndexEntry {
+
+        private final PolicyIndex index;
+        private final String version;
+        private final long expiryTime;
+
+        IndexEntry(PolicyIndex index, String version, long expiryTime) {
+            this.index = index;
+            this.version = version;
+            this.expiryTime = expiryTime;
+        }
+
+        PolicyIndex getIndex() {
+            return index;
+        }
+
+        boolean isValid(String currentVersion) {
+            if (System.currentTimeMillis() >= expiryTime) {
+                return false;
+            }
+            return (version == null) ? currentVersion == null : version.equals(currentVersion);
+        }
+    }
+
+}
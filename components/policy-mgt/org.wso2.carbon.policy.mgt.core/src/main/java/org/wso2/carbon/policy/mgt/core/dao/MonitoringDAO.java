@@ -41,10 +41,32 @@ public interface MonitoringDAO {
 
     void setDeviceAsCompliance(int deviceId, int policyId) throws MonitoringDAOException;
 
+    /**
+     * Marks a batch of devices as compliant to the given policies.
+     * @param devicePolicyMap <Device Id, Policy Id>
+     * @throws MonitoringDAOException
+     */
+    void setDevicesAsCompliance(Map<Integer, Integer> devicePolicyMap) throws MonitoringDAOException;
+
+    /**
+     * Marks a batch of devices as not compliant to the given policies.
+     * @param devicePolicyMap <Device Id, Policy Id>
+     * @throws MonitoringDAOException
+     */
+    void setDevicesAsNoneCompliance(Map<Integer, Integer> devicePolicyMap) throws MonitoringDAOException;
+
     void addNoneComplianceFeatures(int policyComplianceStatusId, int deviceId, List<ComplianceFeature>
             complianceFeatures)
             throws MonitoringDAOException;
 
+    /**
+     * Adds the none compliance features of a batch of devices.
+     * @param complianceFeatures <Compliance status Id, None compliance features>
+     * @throws MonitoringDAOException
+     */
+    void addNoneComplianceFeatures(Map<Integer, List<ComplianceFeature>> complianceFeatures)
+            throws MonitoringDAOException;
+
     ComplianceData getCompliance(int deviceId) throws MonitoringDAOException;
 
     List<ComplianceData> getCompliance(List<Integer> deviceIds) throws MonitoringDAOException;
@@ -53,6 +75,8 @@ public interface MonitoringDAO {
 
     void deleteNoneComplianceData(int policyComplianceStatusId) throws MonitoringDAOException;
 
+    void deleteNoneComplianceData(List<Integer> policyComplianceStatusIds) throws MonitoringDAOException;
+
     void updateAttempts(int deviceId, boolean reset) throws MonitoringDAOException;
 
     void updateAttempts(List<Integer> deviceId, boolean reset) throws MonitoringDAOException;
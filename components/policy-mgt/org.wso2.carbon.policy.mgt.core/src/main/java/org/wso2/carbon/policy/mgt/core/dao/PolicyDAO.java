@@ -27,6 +27,7 @@ import org.wso2.carbon.policy.mgt.common.ProfileFeature;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public interface PolicyDAO {
 
@@ -80,6 +81,43 @@ public interface PolicyDAO {
 
     List<Integer> getPolicyOfUser(String username) throws PolicyManagerDAOException;
 
+    /**
+     * Retrieves the ids of the policies whose profile targets the given device type.
+     * @param deviceType Name of the device type
+     * @throws PolicyManagerDAOException
+     */
+    List<Integer> getPolicyIdsOfDeviceType(String deviceType) throws PolicyManagerDAOException;
+
+    /**
+     * Retrieves the given policies along with their profiles and profile features in a single pass. Devices, roles,
+     * users and criteria of the policies are not populated.
+     * @param policyIds Ids of the policies
+     * @return Policies found, ordered by their ids
+     * @throws PolicyManagerDAOException
+     */
+    List<Policy> getPolicies(List<Integer> policyIds) throws PolicyManagerDAOException;
+
+    /**
+     * @param policyIds Ids of the policies
+     * @return Map of policy id to the roles mapped to it, policies without roles are not included
+     * @throws PolicyManagerDAOException
+     */
+    Map<Integer, List<String>> getPolicyAppliedRoles(List<Integer> policyIds) throws PolicyManagerDAOException;
+
+    /**
+     * @param policyIds Ids of the policies
+     * @return Map of policy id to the users mapped to it, policies without users are not included
+     * @throws PolicyManagerDAOException
+     */
+    Map<Integer, List<String>> getPolicyAppliedUsers(List<Integer> policyIds) throws PolicyManagerDAOException;
+
+    /**
+     * @param policyIds Ids of the policies
+     * @return Map of policy id to the devices mapped to it, carrying only the id, identifier and type
+     * @throws PolicyManagerDAOException
+     */
+    Map<Integer, List<Device>> getPolicyAppliedDevices(List<Integer> policyIds) throws PolicyManagerDAOException;
+
     boolean deletePolicy(Policy policy) throws PolicyManagerDAOException;
 
     boolean deletePolicy(int policyId) throws PolicyManagerDAOException;
@@ -98,6 +136,27 @@ public interface PolicyDAO {
     void updateEffectivePolicyToDevice(int deviceId, Policy policy)
             throws PolicyManagerDAOException;
 
+    /**
+     * Adds the evaluated policies of a batch of devices which do not have an applied policy yet.
+     * @param devicePolicyMap <Device Id, Effective policy>
+     * @throws PolicyManagerDAOException
+     */
+    void addEffectivePolicyToDevices(Map<Integer, Policy> devicePolicyMap) throws PolicyManagerDAOException;
+
+    /**
+     * Replaces the applied policies of a batch of devices with their newly evaluated policies.
+     * @param devicePolicyMap <Device Id, Effective policy>
+     * @throws PolicyManagerDAOException
+     */
+    void updateEffectivePolicyToDevices(Map<Integer, Policy> devicePolicyMap) throws PolicyManagerDAOException;
+
+    /**
+     * Retrieves the devices the given policy is currently applied to, carrying only the id, identifier and type.
+     * @param policyId Id of the policy
+     * @throws PolicyManagerDAOException
+     */
+    List<Device> getDevicesWithAppliedPolicy(int policyId) throws PolicyManagerDAOException;
+
     boolean checkPolicyAvailable(int deviceId) throws PolicyManagerDAOException;
 
     int getPolicyCount() throws PolicyManagerDAOException;
@@ -107,4 +166,12 @@ public interface PolicyDAO {
     Policy getAppliedPolicy(int deviceId) throws PolicyManagerDAOException;
 
     HashMap<Integer, Integer> getAppliedPolicyIds(List<Integer> deviceIds) throws PolicyManagerDAOException;
+
+    /**
+     * Retrieves the policies applied to a batch of devices.
+     * @param deviceIds Primary keys of the devices
+     * @return Map of device id to the policy applied to it, devices without an applied policy are not included
+     * @throws PolicyManagerDAOException
+     */
+    Map<Integer, Policy> getAppliedPolicies(List<Integer> deviceIds) throws PolicyManagerDAOException;
  }
@@ -20,6 +20,7 @@ package org.wso2.carbon.policy.mgt.core.dao;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.core.dao.util.TransactionManager;
 import org.wso2.carbon.policy.mgt.core.config.datasource.DataSourceConfig;
 import org.wso2.carbon.policy.mgt.core.config.datasource.JNDILookupDefinition;
 import org.wso2.carbon.policy.mgt.core.dao.impl.FeatureDAOImpl;
@@ -38,14 +39,16 @@ public class PolicyManagementDAOFactory {
 
     private static DataSource dataSource;
     private static final Log log = LogFactory.getLog(PolicyManagementDAOFactory.class);
-    private static ThreadLocal<Connection> currentConnection = new ThreadLocal<Connection>();
+    private static TransactionManager transactionManager;
 
     public static void init(DataSourceConfig config) {
         dataSource = resolveDataSource(config);
+        transactionManager = new TransactionManager(dataSource, "policy management");
     }
 
     public static void init(DataSource dtSource) {
         dataSource = dtSource;
+        transactionManager = new TransactionManager(dataSource, "policy management");
     }
 
     public static DataSource getDataSource() {
@@ -105,48 +108,27 @@ public class PolicyManagementDAOFactory {
 
     public static void beginTransaction() throws PolicyManagerDAOException {
         try {
-            Connection conn = dataSource.getConnection();
-            conn.setAutoCommit(false);
-            currentConnection.set(conn);
+            transactionManager.beginTransaction();
         } catch (SQLException e) {
             throw new PolicyManagerDAOException("Error occurred while retrieving config.datasource connection", e);
         }
     }
 
     public static Connection getConnection() throws PolicyManagerDAOException {
-        if (currentConnection.get() == null) {
-            try {
-                Connection conn = dataSource.getConnection();
-                conn.setAutoCommit(false);
-                currentConnection.set(conn);
-            } catch (SQLException e) {
-                throw new PolicyManagerDAOException("Error occurred while retrieving data source connection", e);
-            }
+        try {
+            return transactionManager.getConnection(true);
+        } catch (SQLException e) {
+            throw new PolicyManagerDAOException("Error occurred while retrieving data source connection", e);
         }
-        return currentConnection.get();
     }
 
     public static void closeConnection() {
-        Connection con = currentConnection.get();
-        try {
-            con.close();
-        } catch (SQLException e) {
-            log.warn("Error occurred while close the connection", e);
-        }
-        currentConnection.remove();
+        transactionManager.closeConnection();
     }
 
     public static void commitTransaction() throws PolicyManagerDAOException {
         try {
-            Connection conn = currentConnection.get();
-            if (conn != null) {
-                conn.commit();
-            } else {
-                if (log.isDebugEnabled()) {
-                    log.debug("Datasource connection associated with the current thread is null, hence commit " +
-                        "has not been attempted");
-                }
-            }
+            transactionManager.commitTransaction();
         } catch (SQLException e) {
             throw new PolicyManagerDAOException("Error occurred while committing the transaction", e);
         }
@@ -154,22 +136,14 @@ public class PolicyManagementDAOFactory {
 
     public static void rollbackTransaction() {
         try {
-            Connection conn = currentConnection.get();
-            if (conn != null) {
-                conn.rollback();
-            } else {
-                if (log.isDebugEnabled()) {
-                    log.debug("Datasource connection associated with the current thread is null, hence rollback " +
-                        "has not been attempted");
-                }
-            }
+            transactionManager.rollbackTransaction();
         } catch (SQLException e) {
             log.warn("Error occurred while roll-backing the transaction", e);
         }
     }
 
     public static void openConnection() throws SQLException {
-        currentConnection.set(dataSource.getConnection());
+        transactionManager.openConnection();
     }
 
 }
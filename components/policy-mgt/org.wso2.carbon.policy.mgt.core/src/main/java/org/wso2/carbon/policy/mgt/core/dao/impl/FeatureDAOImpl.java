@@ -32,9 +32,7 @@ import org.wso2.carbon.policy.mgt.core.dao.PolicyManagerDAOException;
 import org.wso2.carbon.policy.mgt.core.dao.util.PolicyManagementDAOUtil;
 import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -314,30 +312,7 @@ public class FeatureDAOImpl implements FeatureDAO {
                 profileFeature.setId(resultSet.getInt("ID"));
                 profileFeature.setProfileId(resultSet.getInt("PROFILE_ID"));
 
-                ByteArrayInputStream bais = null;
-                ObjectInputStream ois = null;
-                byte[] contentBytes;
-                try {
-                    contentBytes = (byte[]) resultSet.getBytes("CONTENT");
-                    bais = new ByteArrayInputStream(contentBytes);
-                    ois = new ObjectInputStream(bais);
-                    profileFeature.setContent((Object) ois.readObject().toString());
-                } finally {
-                    if (bais != null) {
-                        try {
-                            bais.close();
-                        } catch (IOException e) {
-                            log.warn("Error occurred while closing ByteArrayOutputStream", e);
-                        }
-                    }
-                    if (ois != null) {
-                        try {
-                            ois.close();
-                        } catch (IOException e) {
-                            log.warn("Error occurred while closing ObjectOutputStream", e);
-                        }
-                    }
-                }
+                profileFeature.setContent(PolicyManagerUtil.getObject(resultSet.getBytes("CONTENT")).toString());
 
                 featureList.add(profileFeature);
             }
@@ -345,8 +320,6 @@ public class FeatureDAOImpl implements FeatureDAO {
             throw new FeatureManagerDAOException("Unable to get the list of the features from database.", e);
         } catch (IOException e) {
             throw new FeatureManagerDAOException("Unable to read the byte stream for content", e);
-        } catch (ClassNotFoundException e) {
-            throw new FeatureManagerDAOException("Class not found while converting the object", e);
         } finally {
             PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
         }
@@ -408,38 +381,13 @@ public class FeatureDAOImpl implements FeatureDAO {
                 profileFeature.setFeatureCode(resultSet.getString("FEATURE_CODE"));
                 profileFeature.setDeviceTypeId(resultSet.getInt("DEVICE_TYPE_ID"));
 
-                ByteArrayInputStream bais = null;
-                ObjectInputStream ois = null;
-                byte[] contentBytes;
-                try {
-                    contentBytes = resultSet.getBytes("CONTENT");
-                    bais = new ByteArrayInputStream(contentBytes);
-                    ois = new ObjectInputStream(bais);
-                    profileFeature.setContent(ois.readObject().toString());
-                } finally {
-                    if (bais != null) {
-                        try {
-                            bais.close();
-                        } catch (IOException e) {
-                            log.warn("Error occurred while closing ByteArrayOutputStream", e);
-                        }
-                    }
-                    if (ois != null) {
-                        try {
-                            ois.close();
-                        } catch (IOException e) {
-                            log.warn("Error occurred while closing ObjectOutputStream", e);
-                        }
-                    }
-                }
+                profileFeature.setContent(PolicyManagerUtil.getObject(resultSet.getBytes("CONTENT")).toString());
                 featureList.add(profileFeature);
             }
         } catch (SQLException e) {
             throw new FeatureManagerDAOException("Unable to get the list of the features from database.", e);
         } catch (IOException e) {
             throw new FeatureManagerDAOException("Unable to read the byte stream for content", e);
-        } catch (ClassNotFoundException e) {
-            throw new FeatureManagerDAOException("Class not found while converting the object", e);
         } finally {
             PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
         }
@@ -29,7 +29,7 @@ import org.wso2.carbon.policy.mgt.core.dao.MonitoringDAOException;
 import org.wso2.carbon.policy.mgt.core.dao.PolicyManagementDAOFactory;
 import org.wso2.carbon.policy.mgt.core.dao.PolicyManagerDAOException;
 import org.wso2.carbon.policy.mgt.core.dao.util.PolicyManagementDAOUtil;
-import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagementConstants;
 
 import java.sql.*;
 import java.util.*;
@@ -166,6 +166,89 @@ public class MonitoringDAOImpl implements MonitoringDAO {
         }
     }
 
+    @Override
+    public void setDevicesAsCompliance(Map<Integer, Integer> devicePolicyMap) throws MonitoringDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        Timestamp currentTimestamp = new Timestamp(Calendar.getInstance().getTime().getTime());
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            conn = this.getConnection();
+            String query = "UPDATE DM_POLICY_COMPLIANCE_STATUS SET STATUS = 1, ATTEMPTS = 0, LAST_SUCCESS_TIME = ?, " +
+                    "POLICY_ID = ? WHERE DEVICE_ID = ? AND TENANT_ID = ?";
+            stmt = conn.prepareStatement(query);
+            for (Map.Entry<Integer, Integer> entry : devicePolicyMap.entrySet()) {
+                stmt.setTimestamp(1, currentTimestamp);
+                stmt.setInt(2, entry.getValue());
+                stmt.setInt(3, entry.getKey());
+                stmt.setInt(4, tenantId);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+            throw new MonitoringDAOException("Error occurred while updating the compliance of " +
+                    devicePolicyMap.size() + " device(s) in the database.", e);
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, null);
+        }
+    }
+
+    @Override
+    public void setDevicesAsNoneCompliance(Map<Integer, Integer> devicePolicyMap) throws MonitoringDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        Timestamp currentTimestamp = new Timestamp(Calendar.getInstance().getTime().getTime());
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            conn = this.getConnection();
+            String query = "UPDATE DM_POLICY_COMPLIANCE_STATUS SET STATUS = 0, ATTEMPTS = 0, LAST_FAILED_TIME = ?, " +
+                    "POLICY_ID = ? WHERE DEVICE_ID = ? AND TENANT_ID = ?";
+            stmt = conn.prepareStatement(query);
+            for (Map.Entry<Integer, Integer> entry : devicePolicyMap.entrySet()) {
+                stmt.setTimestamp(1, currentTimestamp);
+                stmt.setInt(2, entry.getValue());
+                stmt.setInt(3, entry.getKey());
+                stmt.setInt(4, tenantId);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+            throw new MonitoringDAOException("Error occurred while updating the none compliance of " +
+                    devicePolicyMap.size() + " device(s) in the database.", e);
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, null);
+        }
+    }
+
+    @Override
+    public void addNoneComplianceFeatures(Map<Integer, List<ComplianceFeature>> complianceFeatures)
+            throws MonitoringDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            conn = this.getConnection();
+            String query = "INSERT INTO DM_POLICY_COMPLIANCE_FEATURES (COMPLIANCE_STATUS_ID, FEATURE_CODE, STATUS, " +
+                    "TENANT_ID) VALUES (?, ?, ?, ?) ";
+            stmt = conn.prepareStatement(query);
+            for (Map.Entry<Integer, List<ComplianceFeature>> entry : complianceFeatures.entrySet()) {
+                for (ComplianceFeature feature : entry.getValue()) {
+                    stmt.setInt(1, entry.getKey());
+                    stmt.setString(2, feature.getFeatureCode());
+                    stmt.setInt(3, feature.isCompliance() ? 1 : 0);
+                    stmt.setInt(4, tenantId);
+                    stmt.addBatch();
+                }
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+            throw new MonitoringDAOException("Error occurred while adding the none compliance features of " +
+                    complianceFeatures.size() + " device(s) to the database.", e);
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, null);
+        }
+    }
+
     @Override
     public void addNoneComplianceFeatures(int policyComplianceStatusId, int deviceId, List<ComplianceFeature>
             complianceFeatures) throws MonitoringDAOException {
@@ -243,24 +326,35 @@ public class MonitoringDAOImpl implements MonitoringDAO {
         int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
         try {
             conn = this.getConnection();
-            String query = "SELECT * FROM DM_POLICY_COMPLIANCE_STATUS WHERE TENANT_ID = ? AND DEVICE_ID IN (?)";
-            stmt = conn.prepareStatement(query);
-            stmt.setInt(1, tenantId);
-            stmt.setString(2, PolicyManagerUtil.makeString(deviceIds));
-
-            resultSet = stmt.executeQuery();
-            while (resultSet.next()) {
-                ComplianceData complianceData = new ComplianceData();
-                complianceData.setId(resultSet.getInt("ID"));
-                complianceData.setDeviceId(resultSet.getInt("DEVICE_ID"));
-                complianceData.setPolicyId(resultSet.getInt("POLICY_ID"));
-                complianceData.setStatus(resultSet.getBoolean("STATUS"));
-                complianceData.setAttempts(resultSet.getInt("ATTEMPTS"));
-                complianceData.setLastRequestedTime(resultSet.getTimestamp("LAST_REQUESTED_TIME"));
-                complianceData.setLastSucceededTime(resultSet.getTimestamp("LAST_SUCCESS_TIME"));
-                complianceData.setLastFailedTime(resultSet.getTimestamp("LAST_FAILED_TIME"));
+            for (int from = 0; from < deviceIds.size(); from += PolicyManagementConstants.DEVICE_ID_CHUNK_SIZE) {
+                List<Integer> chunk = deviceIds.subList(from,
+                        Math.min(from + PolicyManagementConstants.DEVICE_ID_CHUNK_SIZE, deviceIds.size()));
+                String query = "SELECT * FROM DM_POLICY_COMPLIANCE_STATUS WHERE TENANT_ID = ? AND DEVICE_ID IN (" +
+                        PolicyManagementDAOUtil.getInClausePlaceholders(chunk.size()) + ")";
+                stmt = conn.prepareStatement(query);
+                int index = 1;
+                stmt.setInt(index++, tenantId);
+                for (int deviceId : chunk) {
+                    stmt.setInt(index++, deviceId);
+                }
 
-                complianceDataList.add(complianceData);
+                resultSet = stmt.executeQuery();
+                while (resultSet.next()) {
+                    ComplianceData complianceData = new ComplianceData();
+                    complianceData.setId(resultSet.getInt("ID"));
+                    complianceData.setDeviceId(resultSet.getInt("DEVICE_ID"));
+                    complianceData.setPolicyId(resultSet.getInt("POLICY_ID"));
+                    complianceData.setStatus(resultSet.getBoolean("STATUS"));
+                    complianceData.setAttempts(resultSet.getInt("ATTEMPTS"));
+                    complianceData.setLastRequestedTime(resultSet.getTimestamp("LAST_REQUESTED_TIME"));
+                    complianceData.setLastSucceededTime(resultSet.getTimestamp("LAST_SUCCESS_TIME"));
+                    complianceData.setLastFailedTime(resultSet.getTimestamp("LAST_FAILED_TIME"));
+
+                    complianceDataList.add(complianceData);
+                }
+                PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+                stmt = null;
+                resultSet = null;
             }
             return complianceDataList;
         } catch (SQLException e) {
@@ -322,6 +416,29 @@ public class MonitoringDAOImpl implements MonitoringDAO {
 
     }
 
+    @Override
+    public void deleteNoneComplianceData(List<Integer> policyComplianceStatusIds) throws MonitoringDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            conn = this.getConnection();
+            String query = "DELETE FROM DM_POLICY_COMPLIANCE_FEATURES WHERE COMPLIANCE_STATUS_ID = ? AND TENANT_ID = ?";
+            stmt = conn.prepareStatement(query);
+            for (int policyComplianceStatusId : policyComplianceStatusIds) {
+                stmt.setInt(1, policyComplianceStatusId);
+                stmt.setInt(2, tenantId);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+            throw new MonitoringDAOException("Unable to delete compliance data of " +
+                    policyComplianceStatusIds.size() + " device(s) from database.", e);
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, null);
+        }
+    }
+
     @Override
     public void updateAttempts(int deviceId, boolean reset) throws MonitoringDAOException {
         Connection conn;
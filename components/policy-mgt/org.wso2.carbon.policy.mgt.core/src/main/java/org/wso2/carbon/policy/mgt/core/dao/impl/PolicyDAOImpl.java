@@ -23,20 +23,22 @@ import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.core.dto.DeviceType;
 import org.wso2.carbon.policy.mgt.common.Criterion;
 import org.wso2.carbon.policy.mgt.common.Policy;
 import org.wso2.carbon.policy.mgt.common.PolicyCriterion;
+import org.wso2.carbon.policy.mgt.common.Profile;
 import org.wso2.carbon.policy.mgt.common.ProfileFeature;
+import org.wso2.carbon.policy.mgt.core.cache.impl.PolicyContentCache;
 import org.wso2.carbon.policy.mgt.core.dao.FeatureManagerDAOException;
 import org.wso2.carbon.policy.mgt.core.dao.PolicyDAO;
 import org.wso2.carbon.policy.mgt.core.dao.PolicyManagementDAOFactory;
 import org.wso2.carbon.policy.mgt.core.dao.PolicyManagerDAOException;
 import org.wso2.carbon.policy.mgt.core.dao.util.PolicyManagementDAOUtil;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagementConstants;
 import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.sql.*;
 import java.util.*;
 
@@ -431,9 +433,9 @@ public class PolicyDAOImpl implements PolicyDAO {
         try {
             conn = this.getConnection();
             String query = "SELECT DPC.ID, DPC.CRITERIA_ID, DPCP.PROP_KEY, DPCP.PROP_VALUE, DPCP.CONTENT FROM " +
-                    "DM_POLICY_CRITERIA DPC LEFT JOIN DM_POLICY_CRITERIA_PROPERTIES DPCP " +
-                    "ON DPCP.POLICY_CRITERION_ID = DPC.ID RIGHT JOIN DM_CRITERIA DC " +
-                    "ON DC.ID=DPC.CRITERIA_ID WHERE DPC.POLICY_ID = ?";
+                    "DM_POLICY_CRITERIA DPC INNER JOIN DM_CRITERIA DC ON DC.ID = DPC.CRITERIA_ID " +
+                    "LEFT JOIN DM_POLICY_CRITERIA_PROPERTIES DPCP ON DPCP.POLICY_CRITERION_ID = DPC.ID " +
+                    "WHERE DPC.POLICY_ID = ?";
             stmt = conn.prepareStatement(query);
             stmt.setInt(1, policyId);
             resultSet = stmt.executeQuery();
@@ -673,31 +675,234 @@ public class PolicyDAOImpl implements PolicyDAO {
         }
     }
 
-
     @Override
-    public void addEffectivePolicyToDevice(int deviceId, Policy policy) throws PolicyManagerDAOException {
+    public List<Integer> getPolicyIdsOfDeviceType(String deviceType) throws PolicyManagerDAOException {
         Connection conn;
         PreparedStatement stmt = null;
-        Timestamp currentTimestamp = new Timestamp(Calendar.getInstance().getTime().getTime());
+        ResultSet resultSet = null;
+        List<Integer> policyIds = new ArrayList<>();
         int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
         try {
             conn = this.getConnection();
-            String query = "INSERT INTO DM_DEVICE_POLICY_APPLIED (DEVICE_ID, POLICY_ID, POLICY_CONTENT, " +
-                    "CREATED_TIME, UPDATED_TIME, TENANT_ID) VALUES (?, ?, ?, ?, ?, ?)";
+            String query = "SELECT p.ID FROM DM_POLICY p INNER JOIN DM_PROFILE pr ON p.PROFILE_ID = pr.ID " +
+                    "INNER JOIN DM_DEVICE_TYPE t ON pr.DEVICE_TYPE_ID = t.ID WHERE t.NAME = ? AND p.TENANT_ID = ?";
             stmt = conn.prepareStatement(query);
-            stmt.setInt(1, deviceId);
-            stmt.setInt(2, policy.getId());
-            stmt.setBytes(3, PolicyManagerUtil.getBytes(policy));
-            stmt.setTimestamp(4, currentTimestamp);
-            stmt.setTimestamp(5, currentTimestamp);
-            stmt.setInt(6, tenantId);
-            stmt.executeUpdate();
-        } catch (SQLException | IOException e) {
-            throw new PolicyManagerDAOException("Error occurred while adding the evaluated feature list to device", e);
+            stmt.setString(1, deviceType);
+            stmt.setInt(2, tenantId);
+            resultSet = stmt.executeQuery();
+
+            while (resultSet.next()) {
+                policyIds.add(resultSet.getInt("ID"));
+            }
+        } catch (SQLException e) {
+            throw new PolicyManagerDAOException("Error occurred while reading the policies of device type (" +
+                    deviceType + ")", e);
         } finally {
-            PolicyManagementDAOUtil.cleanupResources(stmt, null);
+            PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+        }
+        return policyIds;
+    }
+
+    @Override
+    public List<Policy> getPolicies(List<Integer> policyIds) throws PolicyManagerDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        Map<Integer, Policy> policies = new LinkedHashMap<>();
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            conn = this.getConnection();
+            for (List<Integer> chunk : this.getChunks(policyIds)) {
+                String query = "SELECT p.ID, p.NAME, p.PROFILE_ID, p.PRIORITY, p.COMPLIANCE, p.OWNERSHIP_TYPE, " +
+                        "pr.PROFILE_NAME, pr.TENANT_ID AS PROFILE_TENANT_ID, pr.DEVICE_TYPE_ID, pr.CREATED_TIME, " +
+                        "pr.UPDATED_TIME, t.NAME AS DEVICE_TYPE, f.ID AS FEATURE_ID, f.FEATURE_CODE, " +
+                        "f.DEVICE_TYPE_ID AS FEATURE_DEVICE_TYPE_ID, f.CONTENT FROM DM_POLICY p " +
+                        "INNER JOIN DM_PROFILE pr ON p.PROFILE_ID = pr.ID " +
+                        "LEFT JOIN DM_DEVICE_TYPE t ON pr.DEVICE_TYPE_ID = t.ID " +
+                        "LEFT JOIN DM_PROFILE_FEATURES f ON f.PROFILE_ID = pr.ID AND f.TENANT_ID = p.TENANT_ID " +
+                        "WHERE p.TENANT_ID = ? AND p.ID IN (" +
+                        PolicyManagementDAOUtil.getInClausePlaceholders(chunk.size()) + ") ORDER BY p.ID, f.ID";
+                stmt = conn.prepareStatement(query);
+                int index = 1;
+                stmt.setInt(index++, tenantId);
+                for (int policyId : chunk) {
+                    stmt.setInt(index++, policyId);
+                }
+                resultSet = stmt.executeQuery();
+
+                while (resultSet.next()) {
+                    int policyId = resultSet.getInt("ID");
+                    Policy policy = policies.get(policyId);
+                    if (policy == null) {
+                        policy = new Policy();
+                        policy.setId(policyId);
+                        policy.setProfileId(resultSet.getInt("PROFILE_ID"));
+                        policy.setPolicyName(resultSet.getString("NAME"));
+                        policy.setTenantId(tenantId);
+                        policy.setPriorityId(resultSet.getInt("PRIORITY"));
+                        policy.setCompliance(resultSet.getString("COMPLIANCE"));
+                        policy.setOwnershipType(resultSet.getString("OWNERSHIP_TYPE"));
+
+                        DeviceType deviceType = new DeviceType();
+                        deviceType.setId(resultSet.getInt("DEVICE_TYPE_ID"));
+                        deviceType.setName(resultSet.getString("DEVICE_TYPE"));
+                        Profile profile = new Profile();
+                        profile.setProfileId(policy.getProfileId());
+                        profile.setProfileName(resultSet.getString("PROFILE_NAME"));
+                        profile.setTenantId(resultSet.getInt("PROFILE_TENANT_ID"));
+                        profile.setDeviceType(deviceType);
+                        profile.setCreatedDate(resultSet.getTimestamp("CREATED_TIME"));
+                        profile.setUpdatedDate(resultSet.getTimestamp("UPDATED_TIME"));
+                        profile.setProfileFeaturesList(new ArrayList<ProfileFeature>());
+                        policy.setProfile(profile);
+                        policies.put(policyId, policy);
+                    }
+                    int featureId = resultSet.getInt("FEATURE_ID");
+                    if (!resultSet.wasNull()) {
+                        ProfileFeature profileFeature = new ProfileFeature();
+                        profileFeature.setId(featureId);
+                        profileFeature.setProfileId(policy.getProfileId());
+                        profileFeature.setFeatureCode(resultSet.getString("FEATURE_CODE"));
+                        profileFeature.setDeviceTypeId(resultSet.getInt("FEATURE_DEVICE_TYPE_ID"));
+                        profileFeature.setContent(PolicyManagerUtil.getObject(resultSet.getBytes("CONTENT")).toString());
+                        policy.getProfile().getProfileFeaturesList().add(profileFeature);
+                    }
+                }
+                PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+                stmt = null;
+                resultSet = null;
+            }
+        } catch (SQLException e) {
+            throw new PolicyManagerDAOException("Error occurred while reading " + policyIds.size() +
+                    " policies from the database", e);
+        } catch (IOException e) {
+            throw new PolicyManagerDAOException("Error occurred while reading the feature contents of " +
+                    policyIds.size() + " policies", e);
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+        }
+        return new ArrayList<>(policies.values());
+    }
+
+    @Override
+    public Map<Integer, List<String>> getPolicyAppliedRoles(List<Integer> policyIds)
+            throws PolicyManagerDAOException {
+        return this.getPolicyMappings("SELECT POLICY_ID, ROLE_NAME AS NAME FROM DM_ROLE_POLICY WHERE POLICY_ID IN (",
+                policyIds, "roles");
+    }
+
+    @Override
+    public Map<Integer, List<String>> getPolicyAppliedUsers(List<Integer> policyIds)
+            throws PolicyManagerDAOException {
+        return this.getPolicyMappings("SELECT POLICY_ID, USERNAME AS NAME FROM DM_USER_POLICY WHERE POLICY_ID IN (",
+                policyIds, "users");
+    }
+
+    @Override
+    public Map<Integer, List<Device>> getPolicyAppliedDevices(List<Integer> policyIds)
+            throws PolicyManagerDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        Map<Integer, List<Device>> policyDevices = new HashMap<>();
+        try {
+            conn = this.getConnection();
+            for (List<Integer> chunk : this.getChunks(policyIds)) {
+                String query = "SELECT p.POLICY_ID, d.ID, d.DEVICE_IDENTIFICATION, t.NAME AS DEVICE_TYPE FROM " +
+                        "DM_DEVICE_POLICY p INNER JOIN DM_DEVICE d ON p.DEVICE_ID = d.ID INNER JOIN DM_DEVICE_TYPE t " +
+                        "ON d.DEVICE_TYPE_ID = t.ID WHERE p.POLICY_ID IN (" +
+                        PolicyManagementDAOUtil.getInClausePlaceholders(chunk.size()) + ")";
+                stmt = conn.prepareStatement(query);
+                int index = 1;
+                for (int policyId : chunk) {
+                    stmt.setInt(index++, policyId);
+                }
+                resultSet = stmt.executeQuery();
+
+                while (resultSet.next()) {
+                    Device device = new Device();
+                    device.setId(resultSet.getInt("ID"));
+                    device.setDeviceIdentifier(resultSet.getString("DEVICE_IDENTIFICATION"));
+                    device.setType(resultSet.getString("DEVICE_TYPE"));
+                    int policyId = resultSet.getInt("POLICY_ID");
+                    List<Device> devices = policyDevices.get(policyId);
+                    if (devices == null) {
+                        devices = new ArrayList<>();
+                        policyDevices.put(policyId, devices);
+                    }
+                    devices.add(device);
+                }
+                PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+                stmt = null;
+                resultSet = null;
+            }
+        } catch (SQLException e) {
+            throw new PolicyManagerDAOException("Error occurred while getting the devices related to " +
+                    policyIds.size() + " policies", e);
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
         }
+        return policyDevices;
+    }
 
+    /**
+     * Reads the names mapped to each of the given policies from a policy mapping table.
+     *
+     * @param queryPrefix Query selecting the POLICY_ID and NAME columns, up to the opening of the IN clause
+     */
+    private Map<Integer, List<String>> getPolicyMappings(String queryPrefix, List<Integer> policyIds,
+                                                         String mappingName) throws PolicyManagerDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        Map<Integer, List<String>> mappings = new HashMap<>();
+        try {
+            conn = this.getConnection();
+            for (List<Integer> chunk : this.getChunks(policyIds)) {
+                stmt = conn.prepareStatement(queryPrefix +
+                        PolicyManagementDAOUtil.getInClausePlaceholders(chunk.size()) + ")");
+                int index = 1;
+                for (int policyId : chunk) {
+                    stmt.setInt(index++, policyId);
+                }
+                resultSet = stmt.executeQuery();
+
+                while (resultSet.next()) {
+                    int policyId = resultSet.getInt("POLICY_ID");
+                    List<String> names = mappings.get(policyId);
+                    if (names == null) {
+                        names = new ArrayList<>();
+                        mappings.put(policyId, names);
+                    }
+                    names.add(resultSet.getString("NAME"));
+                }
+                PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+                stmt = null;
+                resultSet = null;
+            }
+        } catch (SQLException e) {
+            throw new PolicyManagerDAOException("Error occurred while getting the " + mappingName + " related to " +
+                    policyIds.size() + " policies", e);
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+        }
+        return mappings;
+    }
+
+    private List<List<Integer>> getChunks(List<Integer> ids) {
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += PolicyManagementConstants.DEVICE_ID_CHUNK_SIZE) {
+            chunks.add(ids.subList(from, Math.min(from + PolicyManagementConstants.DEVICE_ID_CHUNK_SIZE, ids.size())));
+        }
+        return chunks;
+    }
+
+
+    @Override
+    public void addEffectivePolicyToDevice(int deviceId, Policy policy) throws PolicyManagerDAOException {
+        Map<Integer, Policy> devicePolicyMap = new HashMap<>();
+        devicePolicyMap.put(deviceId, policy);
+        this.addEffectivePolicyToDevices(devicePolicyMap);
     }
 
     @Override
@@ -727,31 +932,258 @@ public class PolicyDAOImpl implements PolicyDAO {
 
     @Override
     public void updateEffectivePolicyToDevice(int deviceId, Policy policy) throws PolicyManagerDAOException {
+        Map<Integer, Policy> devicePolicyMap = new HashMap<>();
+        devicePolicyMap.put(deviceId, policy);
+        this.updateEffectivePolicyToDevices(devicePolicyMap);
+    }
+
+    @Override
+    public void addEffectivePolicyToDevices(Map<Integer, Policy> devicePolicyMap) throws PolicyManagerDAOException {
         Connection conn;
         PreparedStatement stmt = null;
         Timestamp currentTimestamp = new Timestamp(Calendar.getInstance().getTime().getTime());
         int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        Map<Integer, PolicyContentReference> references = new HashMap<>();
         try {
             conn = this.getConnection();
-            String query = "UPDATE DM_DEVICE_POLICY_APPLIED SET POLICY_ID = ?, POLICY_CONTENT = ?, UPDATED_TIME = ?, " +
-                    "APPLIED = ? WHERE DEVICE_ID = ? AND TENANT_ID = ?";
+            String query = "INSERT INTO DM_DEVICE_POLICY_APPLIED (DEVICE_ID, POLICY_ID, POLICY_VERSION, " +
+                    "CONTENT_HASH, CREATED_TIME, UPDATED_TIME, TENANT_ID) VALUES (?, ?, ?, ?, ?, ?, ?)";
             stmt = conn.prepareStatement(query);
-            stmt.setInt(1, policy.getId());
-            stmt.setBytes(2, PolicyManagerUtil.getBytes(policy));
-            stmt.setTimestamp(3, currentTimestamp);
-            stmt.setBoolean(4, false);
-            stmt.setInt(5, deviceId);
-            stmt.setInt(6, tenantId);
-            stmt.executeUpdate();
+            for (Map.Entry<Integer, Policy> entry : devicePolicyMap.entrySet()) {
+                Policy policy = entry.getValue();
+                PolicyContentReference reference = this.storePolicyContent(conn, policy, tenantId, references);
+                stmt.setInt(1, entry.getKey());
+                stmt.setInt(2, policy.getId());
+                stmt.setInt(3, reference.version);
+                stmt.setString(4, reference.contentHash);
+                stmt.setTimestamp(5, currentTimestamp);
+                stmt.setTimestamp(6, currentTimestamp);
+                stmt.setInt(7, tenantId);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException | IOException e) {
+            throw new PolicyManagerDAOException("Error occurred while adding the evaluated policies to " +
+                    devicePolicyMap.size() + " device(s)", e);
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, null);
+        }
+    }
 
+    @Override
+    public void updateEffectivePolicyToDevices(Map<Integer, Policy> devicePolicyMap)
+            throws PolicyManagerDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        Timestamp currentTimestamp = new Timestamp(Calendar.getInstance().getTime().getTime());
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        Map<Integer, PolicyContentReference> references = new HashMap<>();
+        try {
+            conn = this.getConnection();
+            String query = "UPDATE DM_DEVICE_POLICY_APPLIED SET POLICY_ID = ?, POLICY_VERSION = ?, CONTENT_HASH = ?, " +
+                    "POLICY_CONTENT = NULL, UPDATED_TIME = ?, APPLIED = ? WHERE DEVICE_ID = ? AND TENANT_ID = ?";
+            stmt = conn.prepareStatement(query);
+            for (Map.Entry<Integer, Policy> entry : devicePolicyMap.entrySet()) {
+                Policy policy = entry.getValue();
+                PolicyContentReference reference = this.storePolicyContent(conn, policy, tenantId, references);
+                stmt.setInt(1, policy.getId());
+                stmt.setInt(2, reference.version);
+                stmt.setString(3, reference.contentHash);
+                stmt.setTimestamp(4, currentTimestamp);
+                stmt.setBoolean(5, false);
+                stmt.setInt(6, entry.getKey());
+                stmt.setInt(7, tenantId);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
         } catch (SQLException | IOException e) {
-            throw new PolicyManagerDAOException("Error occurred while updating the evaluated feature list " +
-                    "to device", e);
+            throw new PolicyManagerDAOException("Error occurred while updating the evaluated policies of " +
+                    devicePolicyMap.size() + " device(s)", e);
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, null);
+        }
+    }
+
+    /**
+     * Stores the content of the given policy unless a policy with the same content is already stored, so that each
+     * distinct policy content is stored only once however many devices it is applied to. A new content of a policy
+     * is stored as the next version of the policy.
+     * <p/>
+     * Batches applying the same policy may store its content concurrently. The unique keys on the content hash and
+     * on the policy version reject all but one of them, and the others pick up the stored content, or take the next
+     * version when a different content of the policy won the race.
+     *
+     * @param references References already resolved within the current batch, keyed on the policy id
+     * @return Reference to the stored content
+     */
+    private PolicyContentReference storePolicyContent(Connection conn, Policy policy, int tenantId,
+                                                      Map<Integer, PolicyContentReference> references)
+            throws SQLException, IOException {
+        PolicyContentReference reference = references.get(policy.getId());
+        if (reference != null) {
+            return reference;
+        }
+        byte[] content = PolicyManagerUtil.getBytes(policy);
+        String contentHash = PolicyManagerUtil.getContentHash(content);
+        reference = this.getPolicyContentReference(conn, contentHash, tenantId, false);
+        for (int attempt = 1; reference == null; attempt++) {
+            int version = this.getNextPolicyVersion(conn, policy.getId(), tenantId);
+            try {
+                this.insertPolicyContent(conn, policy.getId(), version, contentHash, content, tenantId);
+                reference = new PolicyContentReference(version, contentHash);
+                if (log.isDebugEnabled()) {
+                    log.debug("Stored version " + version + " of the content of policy " + policy.getId());
+                }
+            } catch (SQLException e) {
+                if (!PolicyManagementDAOUtil.isConstraintViolation(e) ||
+                        attempt >= PolicyManagementConstants.POLICY_CONTENT_STORE_ATTEMPTS) {
+                    throw e;
+                }
+                // Stored by a concurrent batch in the meantime, the locking read sees it even if it was committed
+                // after the current transaction started
+                reference = this.getPolicyContentReference(conn, contentHash, tenantId, true);
+                if (log.isDebugEnabled() && reference == null) {
+                    log.debug("Version " + version + " of policy " + policy.getId() + " is already taken by another " +
+                            "content, hence storing the content as the next version");
+                }
+            }
+        }
+        references.put(policy.getId(), reference);
+        return reference;
+    }
+
+    private PolicyContentReference getPolicyContentReference(Connection conn, String contentHash, int tenantId,
+                                                             boolean forUpdate) throws SQLException {
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        try {
+            stmt = conn.prepareStatement("SELECT VERSION FROM DM_POLICY_CONTENT WHERE CONTENT_HASH = ? AND " +
+                    "TENANT_ID = ?" + (forUpdate ? " FOR UPDATE" : ""));
+            stmt.setString(1, contentHash);
+            stmt.setInt(2, tenantId);
+            resultSet = stmt.executeQuery();
+            if (resultSet.next()) {
+                return new PolicyContentReference(resultSet.getInt("VERSION"), contentHash);
+            }
+            return null;
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+        }
+    }
+
+    private int getNextPolicyVersion(Connection conn, int policyId, int tenantId) throws SQLException {
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        try {
+            stmt = conn.prepareStatement("SELECT MAX(VERSION) AS VERSION FROM DM_POLICY_CONTENT WHERE " +
+                    "POLICY_ID = ? AND TENANT_ID = ?");
+            stmt.setInt(1, policyId);
+            stmt.setInt(2, tenantId);
+            resultSet = stmt.executeQuery();
+            int version = 1;
+            if (resultSet.next()) {
+                version = resultSet.getInt("VERSION") + 1;
+            }
+            return version;
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+        }
+    }
+
+    private void insertPolicyContent(Connection conn, int policyId, int version, String contentHash, byte[] content,
+                                     int tenantId) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            stmt = conn.prepareStatement("INSERT INTO DM_POLICY_CONTENT (POLICY_ID, VERSION, CONTENT_HASH, " +
+                    "CONTENT, CREATED_TIME, TENANT_ID) VALUES (?, ?, ?, ?, ?, ?)");
+            stmt.setInt(1, policyId);
+            stmt.setInt(2, version);
+            stmt.setString(3, contentHash);
+            stmt.setBytes(4, content);
+            stmt.setTimestamp(5, new Timestamp(Calendar.getInstance().getTime().getTime()));
+            stmt.setInt(6, tenantId);
+            stmt.executeUpdate();
         } finally {
             PolicyManagementDAOUtil.cleanupResources(stmt, null);
         }
     }
 
+    /**
+     * Resolves the policies of the given content hashes, decoding only the contents not found in the content cache.
+     */
+    private Map<String, Policy> getPolicyContents(Connection conn, Collection<String> contentHashes, int tenantId)
+            throws SQLException, IOException {
+        PolicyContentCache contentCache = PolicyContentCache.getInstance();
+        Map<String, Policy> policies = new HashMap<>();
+        List<String> missingHashes = new ArrayList<>();
+        for (String contentHash : contentHashes) {
+            Policy policy = contentCache.getPolicy(tenantId, contentHash);
+            if (policy != null) {
+                policies.put(contentHash, policy);
+            } else {
+                missingHashes.add(contentHash);
+            }
+        }
+        for (int from = 0; from < missingHashes.size(); from += PolicyManagementConstants.DEVICE_ID_CHUNK_SIZE) {
+            List<String> chunk = missingHashes.subList(from,
+                    Math.min(from + PolicyManagementConstants.DEVICE_ID_CHUNK_SIZE, missingHashes.size()));
+            PreparedStatement stmt = null;
+            ResultSet resultSet = null;
+            try {
+                stmt = conn.prepareStatement("SELECT CONTENT_HASH, CONTENT FROM DM_POLICY_CONTENT WHERE TENANT_ID = ? " +
+                        "AND CONTENT_HASH IN (" + PolicyManagementDAOUtil.getInClausePlaceholders(chunk.size()) + ")");
+                int index = 1;
+                stmt.setInt(index++, tenantId);
+                for (String contentHash : chunk) {
+                    stmt.setString(index++, contentHash);
+                }
+                resultSet = stmt.executeQuery();
+                while (resultSet.next()) {
+                    String contentHash = resultSet.getString("CONTENT_HASH");
+                    Policy policy = (Policy) PolicyManagerUtil.getObject(resultSet.getBytes("CONTENT"));
+                    contentCache.addPolicy(tenantId, contentHash, policy);
+                    policies.put(contentHash, policy);
+                }
+            } finally {
+                PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+            }
+        }
+        return policies;
+    }
+
+    @Override
+    public List<Device> getDevicesWithAppliedPolicy(int policyId) throws PolicyManagerDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        List<Device> devices = new ArrayList<>();
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            conn = this.getConnection();
+            String query = "SELECT d.ID, d.DEVICE_IDENTIFICATION, t.NAME AS DEVICE_TYPE FROM DM_DEVICE_POLICY_APPLIED p " +
+                    "INNER JOIN DM_DEVICE d ON p.DEVICE_ID = d.ID INNER JOIN DM_DEVICE_TYPE t ON " +
+                    "d.DEVICE_TYPE_ID = t.ID WHERE p.POLICY_ID = ? AND p.TENANT_ID = ?";
+            stmt = conn.prepareStatement(query);
+            stmt.setInt(1, policyId);
+            stmt.setInt(2, tenantId);
+            resultSet = stmt.executeQuery();
+
+            while (resultSet.next()) {
+                Device device = new Device();
+                device.setId(resultSet.getInt("ID"));
+                device.setDeviceIdentifier(resultSet.getString("DEVICE_IDENTIFICATION"));
+                device.setType(resultSet.getString("DEVICE_TYPE"));
+                devices.add(device);
+            }
+        } catch (SQLException e) {
+            throw new PolicyManagerDAOException("Error occurred while getting the devices policy (" + policyId +
+                    ") is applied to", e);
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+        }
+        return devices;
+    }
+
     @Override
     public boolean checkPolicyAvailable(int deviceId) throws PolicyManagerDAOException {
         Connection conn;
@@ -761,7 +1193,7 @@ public class PolicyDAOImpl implements PolicyDAO {
         int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
         try {
             conn = this.getConnection();
-            String query = "SELECT * FROM DM_DEVICE_POLICY_APPLIED WHERE DEVICE_ID = ? AND TENANT_ID = ?";
+            String query = "SELECT ID FROM DM_DEVICE_POLICY_APPLIED WHERE DEVICE_ID = ? AND TENANT_ID = ?";
             stmt = conn.prepareStatement(query);
             stmt.setInt(1, deviceId);
             stmt.setInt(2, tenantId);
@@ -924,6 +1356,11 @@ public class PolicyDAOImpl implements PolicyDAO {
             stmt.setInt(1, policyId);
             stmt.executeUpdate();
 
+            String deleteContents = "DELETE FROM DM_POLICY_CONTENT WHERE POLICY_ID = ?";
+            stmt = conn.prepareStatement(deleteContents);
+            stmt.setInt(1, policyId);
+            stmt.executeUpdate();
+
             if (log.isDebugEnabled()) {
                 log.debug("Policy (" + policyId + ") related configs deleted from database.");
             }
@@ -1076,7 +1513,7 @@ public class PolicyDAOImpl implements PolicyDAO {
         int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
         try {
             conn = this.getConnection();
-            String query = "SELECT * FROM DM_DEVICE_POLICY_APPLIED WHERE DEVICE_ID = ? AND TENANT_ID = ?";
+            String query = "SELECT POLICY_ID FROM DM_DEVICE_POLICY_APPLIED WHERE DEVICE_ID = ? AND TENANT_ID = ?";
             stmt = conn.prepareStatement(query);
             stmt.setInt(1, deviceId);
             stmt.setInt(2, tenantId);
@@ -1102,46 +1539,29 @@ public class PolicyDAOImpl implements PolicyDAO {
         Policy policy = null;
         try {
             conn = this.getConnection();
-            String query = "SELECT * FROM DM_DEVICE_POLICY_APPLIED WHERE DEVICE_ID = ? AND TENANT_ID = ?";
+            String query = "SELECT CONTENT_HASH, POLICY_CONTENT FROM DM_DEVICE_POLICY_APPLIED WHERE DEVICE_ID = ? " +
+                    "AND TENANT_ID = ?";
             stmt = conn.prepareStatement(query);
             stmt.setInt(1, deviceId);
             stmt.setInt(2, tenantId);
             resultSet = stmt.executeQuery();
 
+            String contentHash = null;
             while (resultSet.next()) {
-                ByteArrayInputStream bais = null;
-                ObjectInputStream ois = null;
-                byte[] contentBytes;
-
-                try {
-                    contentBytes = (byte[]) resultSet.getBytes("POLICY_CONTENT");
-                    bais = new ByteArrayInputStream(contentBytes);
-                    ois = new ObjectInputStream(bais);
-                    policy = (Policy) ois.readObject();
-                } finally {
-                    if (bais != null) {
-                        try {
-                            bais.close();
-                        } catch (IOException e) {
-                            log.warn("Error occurred while closing ByteArrayOutputStream", e);
-                        }
-                    }
-                    if (ois != null) {
-                        try {
-                            ois.close();
-                        } catch (IOException e) {
-                            log.warn("Error occurred while closing ObjectOutputStream", e);
-                        }
-                    }
+                contentHash = resultSet.getString("CONTENT_HASH");
+                if (contentHash == null) {
+                    // Applied before the policy contents were deduplicated
+                    policy = (Policy) PolicyManagerUtil.getObject(resultSet.getBytes("POLICY_CONTENT"));
                 }
             }
+            if (contentHash != null) {
+                policy = this.getPolicyContents(conn, Collections.singletonList(contentHash), tenantId).get(contentHash);
+            }
 
         } catch (SQLException e) {
             throw new PolicyManagerDAOException("Error occurred while getting the applied policy", e);
         } catch (IOException e) {
             throw new PolicyManagerDAOException("Unable to read the byte stream for content", e);
-        } catch (ClassNotFoundException e) {
-            throw new PolicyManagerDAOException("Class not found while converting the object", e);
         } finally {
             PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
         }
@@ -1157,6 +1577,63 @@ public class PolicyDAOImpl implements PolicyDAO {
         return policy;
     }
 
+    @Override
+    public Map<Integer, Policy> getAppliedPolicies(List<Integer> deviceIds) throws PolicyManagerDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        Map<Integer, Policy> appliedPolicies = new HashMap<>();
+        Map<Integer, String> contentHashes = new HashMap<>();
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            conn = this.getConnection();
+            for (int from = 0; from < deviceIds.size(); from += PolicyManagementConstants.DEVICE_ID_CHUNK_SIZE) {
+                List<Integer> chunk = deviceIds.subList(from,
+                        Math.min(from + PolicyManagementConstants.DEVICE_ID_CHUNK_SIZE, deviceIds.size()));
+                String query = "SELECT DEVICE_ID, CONTENT_HASH, POLICY_CONTENT FROM DM_DEVICE_POLICY_APPLIED WHERE " +
+                        "TENANT_ID = ? AND DEVICE_ID IN (" +
+                        PolicyManagementDAOUtil.getInClausePlaceholders(chunk.size()) + ")";
+                stmt = conn.prepareStatement(query);
+                int index = 1;
+                stmt.setInt(index++, tenantId);
+                for (int deviceId : chunk) {
+                    stmt.setInt(index++, deviceId);
+                }
+                resultSet = stmt.executeQuery();
+
+                while (resultSet.next()) {
+                    String contentHash = resultSet.getString("CONTENT_HASH");
+                    if (contentHash != null) {
+                        contentHashes.put(resultSet.getInt("DEVICE_ID"), contentHash);
+                    } else {
+                        // Applied before the policy contents were deduplicated
+                        appliedPolicies.put(resultSet.getInt("DEVICE_ID"),
+                                (Policy) PolicyManagerUtil.getObject(resultSet.getBytes("POLICY_CONTENT")));
+                    }
+                }
+                PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+                stmt = null;
+                resultSet = null;
+            }
+            Map<String, Policy> policies = this.getPolicyContents(conn, new HashSet<>(contentHashes.values()),
+                    tenantId);
+            for (Map.Entry<Integer, String> entry : contentHashes.entrySet()) {
+                Policy policy = policies.get(entry.getValue());
+                if (policy != null) {
+                    appliedPolicies.put(entry.getKey(), policy);
+                }
+            }
+        } catch (SQLException e) {
+            throw new PolicyManagerDAOException("Error occurred while getting the policies applied to " +
+                    deviceIds.size() + " device(s)", e);
+        } catch (IOException e) {
+            throw new PolicyManagerDAOException("Unable to read the byte stream for content", e);
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+        }
+        return appliedPolicies;
+    }
+
     @Override
     public HashMap<Integer, Integer> getAppliedPolicyIds(List<Integer> deviceIds) throws PolicyManagerDAOException {
         Connection conn;
@@ -1166,14 +1643,26 @@ public class PolicyDAOImpl implements PolicyDAO {
         int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
         try {
             conn = this.getConnection();
-            String query = "SELECT * FROM DM_DEVICE_POLICY_APPLIED WHERE DEVICE_ID = ? AND TENANT_ID = ?";
-            stmt = conn.prepareStatement(query);
-            stmt.setString(1, PolicyManagerUtil.makeString(deviceIds));
-            stmt.setInt(2, tenantId);
-            resultSet = stmt.executeQuery();
+            for (int from = 0; from < deviceIds.size(); from += PolicyManagementConstants.DEVICE_ID_CHUNK_SIZE) {
+                List<Integer> chunk = deviceIds.subList(from,
+                        Math.min(from + PolicyManagementConstants.DEVICE_ID_CHUNK_SIZE, deviceIds.size()));
+                // The serialized policy content is not read, only the ids are needed
+                String query = "SELECT DEVICE_ID, POLICY_ID FROM DM_DEVICE_POLICY_APPLIED WHERE TENANT_ID = ? " +
+                        "AND DEVICE_ID IN (" + PolicyManagementDAOUtil.getInClausePlaceholders(chunk.size()) + ")";
+                stmt = conn.prepareStatement(query);
+                int index = 1;
+                stmt.setInt(index++, tenantId);
+                for (int deviceId : chunk) {
+                    stmt.setInt(index++, deviceId);
+                }
+                resultSet = stmt.executeQuery();
 
-            while (resultSet.next()) {
-                devicePolicyIds.put(resultSet.getInt("DEVICE_ID"), resultSet.getInt("POLICY_ID"));
+                while (resultSet.next()) {
+                    devicePolicyIds.put(resultSet.getInt("DEVICE_ID"), resultSet.getInt("POLICY_ID"));
+                }
+                PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+                stmt = null;
+                resultSet = null;
             }
         } catch (SQLException e) {
             throw new PolicyManagerDAOException("Error occurred while getting the applied policy", e);
@@ -1183,4 +1672,18 @@ public class PolicyDAOImpl implements PolicyDAO {
         return devicePolicyIds;
     }
 
+    /**
+     * Reference to a stored policy content, as recorded against the devices the policy is applied to.
+     */
+    private static class PolicyContentReference {
+
+        private final int version;
+        private final String contentHash;
+
+        PolicyContentReference(int version, String contentHash) {
+            this.version = version;
+            this.contentHash = contentHash;
+        }
+    }
+
 }
@@ -32,6 +32,8 @@ import java.util.Hashtable;
 public class PolicyManagementDAOUtil {
 
     private static final Log log = LogFactory.getLog(PolicyManagementDAOUtil.class);
+    // SQL state class of integrity constraint violations
+    private static final String INTEGRITY_CONSTRAINT_VIOLATION = "23";
 
     public static DataSource lookupDataSource(String dataSourceName, final Hashtable<Object, Object> jndiProperties) {
         try {
@@ -73,4 +75,29 @@ public class PolicyManagementDAOUtil {
         cleanupResources(null, stmt, rs);
     }
 
+    /**
+     * Builds the placeholder list of an IN clause, e.g. "?, ?, ?" for three values.
+     *
+     * @param count Number of values bound to the clause
+     * @return Comma separated placeholders
+     */
+    public static String getInClausePlaceholders(int count) {
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+        return placeholders.toString();
+    }
+
+    /**
+     * Checks whether a statement failed on an integrity constraint, e.g. a duplicate unique key, based on the SQL
+     * state class shared by the supported databases.
+     *
+     * @param e Failure of the statement
+     * @return true if a constraint of the table was violated
+     */
+    public static boolean isConstraintViolation(SQLException e) {
+        return e.getSQLState() != null && e.getSQLState().startsWith(INTEGRITY_CONSTRAINT_VIOLATION);
+    }
+
 }
@@ -0,0 +1,463 @@
+/*
+ *   Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.wso2.carbon.policy.mgt.core.enforcement;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.DeviceManagementException;
+import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.DeviceManagementConfig;
+import org.wso2.carbon.device.mgt.core.config.policy.PolicyConfiguration;
+import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
+import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderServiceImpl;
+import org.wso2.carbon.policy.mgt.common.Policy;
+import org.wso2.carbon.policy.mgt.common.PolicyEvaluationException;
+import org.wso2.carbon.policy.mgt.common.PolicyEvaluationPoint;
+import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
+import org.wso2.carbon.policy.mgt.core.dao.PolicyDAO;
+import org.wso2.carbon.policy.mgt.core.dao.PolicyManagementDAOFactory;
+import org.wso2.carbon.policy.mgt.core.dao.PolicyManagerDAOException;
+import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
+import org.wso2.carbon.policy.mgt.core.mgt.PolicyManager;
+import org.wso2.carbon.policy.mgt.core.mgt.impl.PolicyManagerImpl;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagementConstants;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recomputes the effective policy of the devices affected by an added or changed policy, so that they do not have
+ * to wait for the next monitoring cycle of the whole fleet.
+ * <p/>
+ * The affected devices are the devices the policy is currently applied to, together with the devices of its device
+ * type narrowed down by its user, role and ownership mappings and the devices mapped to it directly. They are
+ * re-evaluated in parallel batches, each batch writing the policies that changed within a single transaction and
+ * delegating them to the devices.
+ * <p/>
+ * Batches run on a bounded pool of threads owned by the propagator and shared by every policy change. A change that
+ * does not fit in the queue of the pool is left to the monitoring task.
+ */
+public class PolicyChangePropagator {
+
+    private static final Log log = LogFactory.getLog(PolicyChangePropagator.class);
+
+    private final PolicyDAO policyDAO;
+    private final PolicyManager policyManager;
+    private final PolicyEvaluationPoint policyEvaluationPoint;
+    private final PolicyEnforcementDelegator delegator;
+    private final int batchSize;
+    private final ThreadPoolExecutor executor;
+
+    public PolicyChangePropagator(PolicyEnforcementDelegator delegator) {
+        this(null, delegator, 0, 0);
+    }
+
+    /**
+     * @param policyEvaluationPoint Evaluation point used to recompute the effective policies, the one registered
+     *                              with the policy management component is used if null
+     * @param delegator             Delegator of the recomputed policies to the devices
+     * @param threadPoolSize        Number of batches evaluated in parallel, the configured size is used if not positive
+     * @param batchSize             Number of devices in a batch, the configured size is used if not positive
+     */
+    public PolicyChangePropagator(PolicyEvaluationPoint policyEvaluationPoint, PolicyEnforcementDelegator delegator,
+                                  int threadPoolSize, int batchSize) {
+        this.policyDAO = PolicyManagementDAOFactory.getPolicyDAO();
+        this.policyManager = new PolicyManagerImpl();
+        this.policyEvaluationPoint = policyEvaluationPoint;
+        this.delegator = delegator;
+        PolicyConfiguration policyConfig = this.getPolicyConfiguration();
+        if (threadPoolSize <= 0) {
+            threadPoolSize = PolicyManagementConstants.DEFAULT_PROPAGATION_THREAD_POOL_SIZE;
+            if (policyConfig != null && policyConfig.getPropagationThreadPoolSize() > 0) {
+                threadPoolSize = policyConfig.getPropagationThreadPoolSize();
+            }
+        }
+        if (batchSize <= 0) {
+            batchSize = PolicyManagementConstants.DEFAULT_PROPAGATION_BATCH_SIZE;
+            if (policyConfig != null && policyConfig.getPropagationBatchSize() > 0) {
+                batchSize = policyConfig.getPropagationBatchSize();
+            }
+        }
+        this.batchSize = batchSize;
+        this.executor = new ThreadPoolExecutor(threadPoolSize, threadPoolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(PolicyManagementConstants.PROPAGATION_QUEUE_CAPACITY),
+                new PropagatorThreadFactory());
+    }
+
+    /**
+     * Schedules recomputing the effective policy of the devices affected by added or changed policies and returns
+     * straight away. The policies are read once the propagation starts, hence they must have been committed.
+     *
+     * @param policyIds Ids of the added or changed policies
+     */
+    public void schedule(List<Integer> policyIds) {
+        if (policyIds.isEmpty()) {
+            return;
+        }
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            executor.execute(new PropagationJob(tenantId, new ArrayList<>(policyIds)));
+        } catch (RejectedExecutionException e) {
+            log.warn("Policy change propagation is overloaded, hence the change of policies " + policyIds +
+                    " is left to the monitoring task.");
+        }
+    }
+
+    /**
+     * Recomputes the effective policy of the devices affected by an added or changed policy and waits for it to
+     * complete. This must not be called from a propagation thread.
+     *
+     * @param policy Policy as it was persisted, including its device type and mappings
+     * @throws PolicyManagementException if the affected devices could not be retrieved
+     */
+    public void propagate(Policy policy) throws PolicyManagementException {
+        PolicyEvaluationPoint evaluationPoint = this.getPolicyEvaluationPoint();
+        if (evaluationPoint == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Policy evaluation point is not available, hence the change of policy " + policy.getId() +
+                        " is left to the monitoring task.");
+            }
+            return;
+        }
+        int policyId = policy.getId();
+        List<Future<?>> results = this.submit(evaluationPoint, policyId, this.getAffectedDevices(policy));
+        try {
+            for (Future<?> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    log.error("Error occurred while recomputing the effective policy of a batch of devices " +
+                            "affected by policy " + policyId, e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while recomputing the effective policies of the devices affected by policy " +
+                    policyId, e);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Submits the affected devices in batches without waiting for them. Batches that do not fit in the queue are
+     * left to the monitoring task.
+     */
+    private List<Future<?>> submit(PolicyEvaluationPoint evaluationPoint, int policyId, List<Device> devices) {
+        List<Future<?>> results = new ArrayList<>();
+        if (devices.isEmpty()) {
+            return results;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Recomputing the effective policy of " + devices.size() + " devices affected by policy " +
+                    policyId);
+        }
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        for (int i = 0; i < devices.size(); i += batchSize) {
+            List<Device> batch = devices.subList(i, Math.min(i + batchSize, devices.size()));
+            try {
+                results.add(executor.submit(new PropagationWorker(tenantId, policyId, evaluationPoint,
+                        new ArrayList<>(batch))));
+            } catch (RejectedExecutionException e) {
+                log.warn("Policy change propagation is overloaded, hence " + (devices.size() - i) + " devices " +
+                        "affected by policy " + policyId + " are left to the monitoring task.");
+                break;
+            }
+        }
+        return results;
+    }
+
+    private List<Device> getAffectedDevices(Policy policy) throws PolicyManagementException {
+        Map<Integer, Device> devices = new LinkedHashMap<>();
+        for (Device device : this.getDevicesWithAppliedPolicy(policy.getId())) {
+            devices.put(device.getId(), device);
+        }
+        if (policy.getProfile() == null || policy.getProfile().getDeviceType() == null) {
+            return new ArrayList<>(devices.values());
+        }
+        String deviceType = policy.getProfile().getDeviceType().getName();
+        DeviceManagementProviderService service = new DeviceManagementProviderServiceImpl();
+        try {
+            List<Device> candidates = new ArrayList<>();
+            if (isRestricted(policy.getUsers())) {
+                for (String user : policy.getUsers()) {
+                    candidates.addAll(service.getDevicesOfUser(user));
+                }
+            } else if (isRestricted(policy.getRoles())) {
+                for (String role : policy.getRoles()) {
+                    candidates.addAll(service.getAllDevicesOfRole(role));
+                }
+            } else {
+                candidates.addAll(service.getAllDevices(deviceType));
+            }
+            for (Device device : candidates) {
+                if (deviceType.equalsIgnoreCase(device.getType()) && this.isOwnershipMatched(policy, device)) {
+                    devices.put(device.getId(), device);
+                }
+            }
+        } catch (DeviceManagementException e) {
+            throw new PolicyManagementException("Error occurred while retrieving the devices affected by policy (" +
+                    policy.getId() + " - " + policy.getPolicyName() + ")", e);
+        }
+        if (policy.getDevices() != null) {
+            for (Device device : policy.getDevices()) {
+                if (device.getDeviceIdentifier() != null && deviceType.equalsIgnoreCase(device.getType())) {
+                    devices.put(device.getId(), device);
+                }
+            }
+        }
+        return new ArrayList<>(devices.values());
+    }
+
+    private List<Device> getDevicesWithAppliedPolicy(int policyId) throws PolicyManagementException {
+        try {
+            PolicyManagementDAOFactory.openConnection();
+            return policyDAO.getDevicesWithAppliedPolicy(policyId);
+        } catch (PolicyManagerDAOException e) {
+            throw new PolicyManagementException("Error occurred while retrieving the devices policy (" + policyId +
+                    ") is applied to", e);
+        } catch (SQLException e) {
+            throw new PolicyManagementException("Error occurred while opening a connection to the data source", e);
+        } finally {
+            PolicyManagementDAOFactory.closeConnection();
+        }
+    }
+
+    /**
+     * Mirrors the policy filter, a mapping that is empty or set to ANY does not restrict the devices of the type.
+     */
+    private static boolean isRestricted(List<String> mapping) {
+        return mapping != null && !mapping.isEmpty() && !mapping.contains(PolicyManagementConstants.ANY);
+    }
+
+    private boolean isOwnershipMatched(Policy policy, Device device) {
+        if (policy.getOwnershipType() == null || PolicyManagementConstants.ANY.equalsIgnoreCase(
+                policy.getOwnershipType()) || device.getEnrolmentInfo() == null ||
+                device.getEnrolmentInfo().getOwnership() == null) {
+            return true;
+        }
+        return policy.getOwnershipType().equalsIgnoreCase(device.getEnrolmentInfo().getOwnership().toString());
+    }
+
+    private PolicyEvaluationPoint getPolicyEvaluationPoint() {
+        if (policyEvaluationPoint != null) {
+            return policyEvaluationPoint;
+        }
+        return PolicyManagementDataHolder.getInstance().getPolicyEvaluationPoint();
+    }
+
+    private PolicyConfiguration getPolicyConfiguration() {
+        DeviceManagementConfig config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig();
+        if (config != null && config.getDeviceManagementConfigRepository() != null) {
+            return config.getDeviceManagementConfigRepository().getPolicyConfiguration();
+        }
+        return null;
+    }
+
+    /**
+     * Resolves the devices affected by a set of changed policies and submits them in batches.
+     */
+    private class PropagationJob implements Runnable {
+
+        private int tenantId;
+        private List<Integer> policyIds;
+
+        PropagationJob(int tenantId, List<Integer> policyIds) {
+            this.tenantId = tenantId;
+            this.policyIds = policyIds;
+        }
+
+        @Override
+        public void run() {
+            PrivilegedCarbonContext.startTenantFlow();
+            try {
+                PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenantId, true);
+                PolicyEvaluationPoint evaluationPoint = getPolicyEvaluationPoint();
+                if (evaluationPoint == null) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Policy evaluation point is not available, hence the change of policies " +
+                                policyIds + " is left to the monitoring task.");
+                    }
+                    return;
+                }
+                Set<Integer> changedPolicyIds = new HashSet<>(policyIds);
+                for (Policy policy : policyManager.getPolicies()) {
+                    if (changedPolicyIds.contains(policy.getId())) {
+                        submit(evaluationPoint, policy.getId(), getAffectedDevices(policy));
+                    }
+                }
+            } catch (PolicyManagementException e) {
+                log.error("Error occurred while recomputing the effective policies of the devices affected by " +
+                        "policies " + policyIds, e);
+            } finally {
+                PrivilegedCarbonContext.endTenantFlow();
+            }
+        }
+    }
+
+    /**
+     * Recomputes the effective policies of a batch of devices and records the ones that changed.
+     */
+    private class PropagationWorker implements Callable<Void> {
+
+        private int tenantId;
+        private int policyId;
+        private PolicyEvaluationPoint evaluationPoint;
+        private List<Device> devices;
+
+        PropagationWorker(int tenantId, int policyId, PolicyEvaluationPoint evaluationPoint, List<Device> devices) {
+            this.tenantId = tenantId;
+            this.policyId = policyId;
+            this.evaluationPoint = evaluationPoint;
+            this.devices = devices;
+        }
+
+        @Override
+        public Void call() throws PolicyManagementException {
+            PrivilegedCarbonContext.startTenantFlow();
+            try {
+                PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenantId, true);
+                Map<Integer, Policy> effectivePolicies = new HashMap<>();
+                for (Device device : devices) {
+                    try {
+                        Policy policy = evaluationPoint.getEffectivePolicy(
+                                new DeviceIdentifier(device.getDeviceIdentifier(), device.getType()));
+                        if (policy != null) {
+                            effectivePolicies.put(device.getId(), policy);
+                        } else if (log.isDebugEnabled()) {
+                            log.debug("No policy is effective for device " + device.getDeviceIdentifier() + " - " +
+                                    device.getType() + " after the change of policy " + policyId);
+                        }
+                    } catch (PolicyEvaluationException e) {
+                        log.error("Error occurred while evaluating the effective policy of device " +
+                                device.getDeviceIdentifier() + " - " + device.getType(), e);
+                    }
+                }
+                if (effectivePolicies.isEmpty()) {
+                    return null;
+                }
+                Map<Integer, Policy> changedPolicies = this.recordEffectivePolicies(effectivePolicies);
+                this.delegate(changedPolicies);
+                return null;
+            } finally {
+                PrivilegedCarbonContext.endTenantFlow();
+            }
+        }
+
+        /**
+         * Writes the effective policies that differ from the applied ones, or that are the changed policy itself.
+         *
+         * @return Effective policies that were written, keyed on the device id
+         */
+        private Map<Integer, Policy> recordEffectivePolicies(Map<Integer, Policy> effectivePolicies)
+                throws PolicyManagementException {
+            Map<Integer, Policy> addedPolicies = new HashMap<>();
+            Map<Integer, Policy> updatedPolicies = new HashMap<>();
+            try {
+                PolicyManagementDAOFactory.beginTransaction();
+                Map<Integer, Integer> appliedPolicyIds =
+                        policyDAO.getAppliedPolicyIds(new ArrayList<>(effectivePolicies.keySet()));
+                for (Map.Entry<Integer, Policy> entry : effectivePolicies.entrySet()) {
+                    Integer appliedPolicyId = appliedPolicyIds.get(entry.getKey());
+                    int effectivePolicyId = entry.getValue().getId();
+                    if (appliedPolicyId == null) {
+                        addedPolicies.put(entry.getKey(), entry.getValue());
+                    } else if (appliedPolicyId != effectivePolicyId || effectivePolicyId == policyId) {
+                        updatedPolicies.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                if (!addedPolicies.isEmpty()) {
+                    policyDAO.addEffectivePolicyToDevices(addedPolicies);
+                }
+                if (!updatedPolicies.isEmpty()) {
+                    policyDAO.updateEffectivePolicyToDevices(updatedPolicies);
+                }
+                PolicyManagementDAOFactory.commitTransaction();
+            } catch (PolicyManagerDAOException e) {
+                PolicyManagementDAOFactory.rollbackTransaction();
+                throw new PolicyManagementException("Error occurred while recording the effective policies of " +
+                        effectivePolicies.size() + " devices affected by policy " + policyId, e);
+            } finally {
+                PolicyManagementDAOFactory.closeConnection();
+            }
+            Map<Integer, Policy> changedPolicies = new HashMap<>(addedPolicies);
+            changedPolicies.putAll(updatedPolicies);
+            return changedPolicies;
+        }
+
+        private void delegate(Map<Integer, Policy> changedPolicies) {
+            Map<Integer, Policy> policies = new HashMap<>();
+            Map<Integer, List<Device>> policyDevices = new HashMap<>();
+            for (Device device : devices) {
+                Policy policy = changedPolicies.get(device.getId());
+                if (policy == null) {
+                    continue;
+                }
+                List<Device> devicesOfPolicy = policyDevices.get(policy.getId());
+                if (devicesOfPolicy == null) {
+                    devicesOfPolicy = new ArrayList<>();
+                    policyDevices.put(policy.getId(), devicesOfPolicy);
+                    policies.put(policy.getId(), policy);
+                }
+                devicesOfPolicy.add(device);
+            }
+            for (Map.Entry<Integer, List<Device>> entry : policyDevices.entrySet()) {
+                try {
+                    delegator.delegate(policies.get(entry.getKey()), entry.getValue());
+                } catch (PolicyDelegationException e) {
+                    log.error("Error occurred while delegating policy " + entry.getKey() + " to " +
+                            entry.getValue().size() + " devices", e);
+                }
+            }
+        }
+    }
+
+    private static class PropagatorThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "PolicyChangePropagator-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -27,9 +27,10 @@ import org.wso2.carbon.policy.mgt.common.PolicyAdministratorPoint;
 import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
 import org.wso2.carbon.policy.mgt.common.Profile;
 import org.wso2.carbon.policy.mgt.common.ProfileManagementException;
-import org.wso2.carbon.policy.mgt.core.enforcement.PolicyDelegationException;
-import org.wso2.carbon.policy.mgt.core.enforcement.PolicyEnforcementDelegator;
-import org.wso2.carbon.policy.mgt.core.enforcement.PolicyEnforcementDelegatorImpl;
+import org.wso2.carbon.policy.mgt.core.cache.PolicyCacheManager;
+import org.wso2.carbon.policy.mgt.core.cache.impl.PolicyCacheManagerImpl;
+import org.wso2.carbon.policy.mgt.core.enforcement.PolicyChangePropagator;
+import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
 import org.wso2.carbon.policy.mgt.core.mgt.FeatureManager;
 import org.wso2.carbon.policy.mgt.core.mgt.PolicyManager;
 import org.wso2.carbon.policy.mgt.core.mgt.ProfileManager;
@@ -37,6 +38,8 @@ import org.wso2.carbon.policy.mgt.core.mgt.impl.FeatureManagerImpl;
 import org.wso2.carbon.policy.mgt.core.mgt.impl.PolicyManagerImpl;
 import org.wso2.carbon.policy.mgt.core.mgt.impl.ProfileManagerImpl;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class PolicyAdministratorPointImpl implements PolicyAdministratorPoint {
@@ -46,40 +49,38 @@ public class PolicyAdministratorPointImpl implements PolicyAdministratorPoint {
     private PolicyManager policyManager;
     private ProfileManager profileManager;
     private FeatureManager featureManager;
-    private PolicyEnforcementDelegator delegator;
+    private PolicyCacheManager cacheManager;
 
     public PolicyAdministratorPointImpl() {
+        this.cacheManager = PolicyCacheManagerImpl.getInstance();
         this.policyManager = new PolicyManagerImpl();
         this.profileManager = new ProfileManagerImpl();
         this.featureManager = new FeatureManagerImpl();
-        this.delegator = new PolicyEnforcementDelegatorImpl();
     }
 
     @Override
     public Policy addPolicy(Policy policy) throws PolicyManagementException {
         Policy resultantPolicy = policyManager.addPolicy(policy);
-//        try {
-//            delegator.delegate(resultantPolicy, resultantPolicy.getDevices());
-//        } catch (PolicyDelegationException e) {
-//            throw new PolicyManagementException("Error occurred while delegating policy operation to the devices", e);
-//        }
+        this.propagate(Collections.singletonList(resultantPolicy.getId()));
         return resultantPolicy;
     }
 
     @Override
     public Policy updatePolicy(Policy policy) throws PolicyManagementException {
         Policy resultantPolicy = policyManager.updatePolicy(policy);
-//        try {
-//            delegator.delegate(resultantPolicy, resultantPolicy.getDevices());
-//        } catch (PolicyDelegationException e) {
-//            throw new PolicyManagementException("Error occurred while delegating policy operation to the devices", e);
-//        }
+        this.propagate(Collections.singletonList(resultantPolicy.getId()));
         return resultantPolicy;
     }
 
     @Override
     public boolean updatePolicyPriorities(List<Policy> policies) throws PolicyManagementException {
-        return policyManager.updatePolicyPriorities(policies);
+        boolean bool = policyManager.updatePolicyPriorities(policies);
+        List<Integer> policyIds = new ArrayList<>(policies.size());
+        for (Policy policy : policies) {
+            policyIds.add(policy.getId());
+        }
+        this.propagate(policyIds);
+        return bool;
     }
 
     @Override
@@ -94,12 +95,16 @@ public class PolicyAdministratorPointImpl implements PolicyAdministratorPoint {
 
     @Override
     public Policy addPolicyToDevice(List<DeviceIdentifier> deviceIdentifierList, Policy policy) throws PolicyManagementException {
-        return policyManager.addPolicyToDevice(deviceIdentifierList, policy);
+        Policy resultantPolicy = policyManager.addPolicyToDevice(deviceIdentifierList, policy);
+        this.propagate(Collections.singletonList(resultantPolicy.getId()));
+        return resultantPolicy;
     }
 
     @Override
     public Policy addPolicyToRole(List<String> roleNames, Policy policy) throws PolicyManagementException {
-        return policyManager.addPolicyToRole(roleNames, policy);
+        Policy resultantPolicy = policyManager.addPolicyToRole(roleNames, policy);
+        this.propagate(Collections.singletonList(resultantPolicy.getId()));
+        return resultantPolicy;
     }
 
     @Override
@@ -147,10 +152,18 @@ public class PolicyAdministratorPointImpl implements PolicyAdministratorPoint {
         policyManager.addAppliedPolicyToDevice(deviceIdentifier, policy);
     }
 
+    @Override
+    public void setPoliciesUsed(List<DeviceIdentifier> deviceIdentifiers, List<Policy> policies)
+            throws PolicyManagementException {
+        policyManager.addAppliedPolicyToDevices(deviceIdentifiers, policies);
+    }
+
     @Override
     public Profile addProfile(Profile profile) throws PolicyManagementException {
         try {
-            return profileManager.addProfile(profile);
+            Profile resultantProfile = profileManager.addProfile(profile);
+            cacheManager.removeAllPolicies();
+            return resultantProfile;
         } catch (ProfileManagementException e) {
             String msg = "Error occurred while persisting the policy.";
             log.error(msg, e);
@@ -161,7 +174,9 @@ public class PolicyAdministratorPointImpl implements PolicyAdministratorPoint {
     @Override
     public boolean deleteProfile(Profile profile) throws PolicyManagementException {
         try {
-            return profileManager.deleteProfile(profile);
+            boolean bool = profileManager.deleteProfile(profile);
+            cacheManager.removeAllPolicies();
+            return bool;
         } catch (ProfileManagementException e) {
             String msg = "Error occurred while deleting the profile.";
             log.error(msg, e);
@@ -172,7 +187,9 @@ public class PolicyAdministratorPointImpl implements PolicyAdministratorPoint {
     @Override
     public Profile updateProfile(Profile profile) throws PolicyManagementException {
         try {
-            return profileManager.updateProfile(profile);
+            Profile resultantProfile = profileManager.updateProfile(profile);
+            cacheManager.removeAllPolicies();
+            return resultantProfile;
         } catch (ProfileManagementException e) {
             String msg = "Error occurred while persisting the profile.";
             log.error(msg, e);
@@ -215,7 +232,9 @@ public class PolicyAdministratorPointImpl implements PolicyAdministratorPoint {
 
     @Override
     public boolean deleteFeature(int featureId) throws FeatureManagementException {
-        return featureManager.deleteFeature(featureId);
+        boolean bool = featureManager.deleteFeature(featureId);
+        cacheManager.removeAllPolicies();
+        return bool;
     }
 
     @Override
@@ -223,4 +242,20 @@ public class PolicyAdministratorPointImpl implements PolicyAdministratorPoint {
         return policyManager.getPolicyCount();
     }
 
+    /**
+     * The policy change is already persisted at this point, hence the effective policies of the affected devices are
+     * recomputed in the background. Without a propagator the change is left to the monitoring task.
+     */
+    private void propagate(List<Integer> policyIds) {
+        PolicyChangePropagator propagator = PolicyManagementDataHolder.getInstance().getPolicyChangePropagator();
+        if (propagator == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Policy change propagation is not available, hence the change of policies " + policyIds +
+                        " is left to the monitoring task.");
+            }
+            return;
+        }
+        propagator.schedule(policyIds);
+    }
+
 }
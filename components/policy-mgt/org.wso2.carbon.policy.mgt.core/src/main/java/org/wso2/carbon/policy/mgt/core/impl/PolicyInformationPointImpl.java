@@ -28,6 +28,8 @@ import org.wso2.carbon.device.mgt.core.dto.DeviceType;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.device.mgt.common.Feature;
 import org.wso2.carbon.policy.mgt.common.*;
+import org.wso2.carbon.policy.mgt.core.cache.PolicyIndex;
+import org.wso2.carbon.policy.mgt.core.cache.impl.PolicyIndexManager;
 import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
 import org.wso2.carbon.policy.mgt.core.mgt.FeatureManager;
 import org.wso2.carbon.policy.mgt.core.mgt.PolicyManager;
@@ -89,24 +91,8 @@ public class PolicyInformationPointImpl implements PolicyInformationPoint {
 
     @Override
     public List<Policy> getRelatedPolicies(PIPDevice pipDevice) throws PolicyManagementException {
-
-        List<Policy> policies = policyManager.getPoliciesOfDeviceType(pipDevice.getDeviceType().getName());
-        PolicyFilter policyFilter = new PolicyFilterImpl();
-
-        if (pipDevice.getDeviceType() != null) {
-            policies = policyFilter.filterDeviceTypeBasedPolicies(pipDevice.getDeviceType().getName(), policies);
-        }
-        if (pipDevice.getOwnershipType() != null && !pipDevice.getOwnershipType().isEmpty()) {
-            policies = policyFilter.filterOwnershipTypeBasedPolicies(pipDevice.getOwnershipType(), policies);
-        }
-        if (pipDevice.getRoles() != null) {
-            policies = policyFilter.filterRolesBasedPolicies(pipDevice.getRoles(), policies);
-        }
-        if(pipDevice.getUserId() != null && !pipDevice.getUserId().isEmpty()) {
-            policies = policyFilter.filterUserBasedPolicies(pipDevice.getUserId(), policies);
-        }
-
-        return policies;
+        PolicyIndex policyIndex = PolicyIndexManager.getInstance().getPolicyIndex(policyManager);
+        return policyIndex.getRelatedPolicies(pipDevice);
     }
 
     @Override
@@ -23,6 +23,7 @@ import org.wso2.carbon.ntask.core.service.TaskService;
 import org.wso2.carbon.policy.mgt.common.PolicyEvaluationPoint;
 import org.wso2.carbon.policy.mgt.common.PolicyInformationPoint;
 import org.wso2.carbon.policy.mgt.common.spi.PolicyMonitoringService;
+import org.wso2.carbon.policy.mgt.core.enforcement.PolicyChangePropagator;
 import org.wso2.carbon.user.core.service.RealmService;
 import org.wso2.carbon.user.core.tenant.TenantManager;
 
@@ -38,6 +39,7 @@ public class PolicyManagementDataHolder {
     private DeviceManagementProviderService deviceManagementService;
     private Map<String, PolicyMonitoringService> policyMonitoringServiceMap = new HashMap<>();
     private TaskService taskService;
+    private PolicyChangePropagator policyChangePropagator;
 
     private static PolicyManagementDataHolder thisInstance = new PolicyManagementDataHolder();
 
@@ -110,4 +112,12 @@ public class PolicyManagementDataHolder {
     public void setTaskService(TaskService taskService) {
         this.taskService = taskService;
     }
+
+    public PolicyChangePropagator getPolicyChangePropagator() {
+        return policyChangePropagator;
+    }
+
+    public void setPolicyChangePropagator(PolicyChangePropagator policyChangePropagator) {
+        this.policyChangePropagator = policyChangePropagator;
+    }
 }
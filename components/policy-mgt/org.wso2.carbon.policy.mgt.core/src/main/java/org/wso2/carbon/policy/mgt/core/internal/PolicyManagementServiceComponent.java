@@ -31,6 +31,8 @@ import org.wso2.carbon.policy.mgt.core.config.PolicyConfigurationManager;
 import org.wso2.carbon.policy.mgt.core.config.PolicyManagementConfig;
 import org.wso2.carbon.policy.mgt.core.config.datasource.DataSourceConfig;
 import org.wso2.carbon.policy.mgt.core.dao.PolicyManagementDAOFactory;
+import org.wso2.carbon.policy.mgt.core.enforcement.PolicyChangePropagator;
+import org.wso2.carbon.policy.mgt.core.enforcement.PolicyEnforcementDelegatorImpl;
 import org.wso2.carbon.user.core.service.RealmService;
 
 /**
@@ -78,6 +80,8 @@ public class PolicyManagementServiceComponent {
             PolicyManagementConfig config = PolicyConfigurationManager.getInstance().getPolicyManagementConfig();
             DataSourceConfig dsConfig = config.getPolicyManagementRepository().getDataSourceConfig();
             PolicyManagementDAOFactory.init(dsConfig);
+            PolicyManagementDataHolder.getInstance().setPolicyChangePropagator(
+                    new PolicyChangePropagator(new PolicyEnforcementDelegatorImpl()));
 
             componentContext.getBundleContext().registerService(
                     PolicyManagerService.class.getName(), new PolicyManagerServiceImpl(), null);
@@ -87,6 +91,14 @@ public class PolicyManagementServiceComponent {
         }
     }
 
+    protected void deactivate(ComponentContext componentContext) {
+        PolicyChangePropagator propagator = PolicyManagementDataHolder.getInstance().getPolicyChangePropagator();
+        if (propagator != null) {
+            propagator.shutdown();
+            PolicyManagementDataHolder.getInstance().setPolicyChangePropagator(null);
+        }
+    }
+
 
     /**
      * Sets Realm Service
@@ -23,6 +23,7 @@ import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.policy.mgt.common.monitor.ComplianceData;
 import org.wso2.carbon.policy.mgt.common.monitor.ComplianceFeature;
+import org.wso2.carbon.policy.mgt.common.monitor.DeviceComplianceResponse;
 import org.wso2.carbon.policy.mgt.common.monitor.PolicyComplianceException;
 
 import java.util.List;
@@ -32,6 +33,14 @@ public interface MonitoringManager {
     List<ComplianceFeature> checkPolicyCompliance(DeviceIdentifier deviceIdentifier, Object deviceResponse)
             throws PolicyComplianceException;
 
+    /**
+     * Checks the compliance of a batch of device responses within a single transaction per monitoring batch.
+     * @param deviceResponses Responses of the devices to the monitoring operation
+     * @return Compliance data of the devices having an applied policy
+     * @throws PolicyComplianceException
+     */
+    List<ComplianceData> checkPolicyCompliance(List<DeviceComplianceResponse> deviceResponses)
+            throws PolicyComplianceException;
 
     boolean isCompliance(DeviceIdentifier deviceIdentifier) throws PolicyComplianceException;
 
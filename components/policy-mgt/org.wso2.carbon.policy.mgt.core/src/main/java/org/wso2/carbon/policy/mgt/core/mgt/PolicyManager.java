@@ -65,6 +65,16 @@ public interface PolicyManager {
 
     void addAppliedPolicyToDevice(DeviceIdentifier deviceIdentifier, Policy policy) throws PolicyManagementException;
 
+    /**
+     * Records the policies applied to a batch of devices in a single transaction.
+     *
+     * @param deviceIdentifiers Devices the policies are applied to, each appearing only once
+     * @param policies          Policy applied to the device at the same position
+     * @throws PolicyManagementException If the applied policies could not be recorded
+     */
+    void addAppliedPolicyToDevices(List<DeviceIdentifier> deviceIdentifiers, List<Policy> policies)
+            throws PolicyManagementException;
+
     boolean checkPolicyAvailable(DeviceIdentifier deviceIdentifier) throws PolicyManagementException;
 
     boolean setPolicyApplied(DeviceIdentifier deviceIdentifier) throws PolicyManagementException;
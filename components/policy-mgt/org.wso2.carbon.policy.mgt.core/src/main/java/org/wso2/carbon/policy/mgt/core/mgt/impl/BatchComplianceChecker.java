@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core.mgt.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.policy.mgt.common.Policy;
+import org.wso2.carbon.policy.mgt.common.ProfileFeature;
+import org.wso2.carbon.policy.mgt.common.monitor.ComplianceData;
+import org.wso2.carbon.policy.mgt.common.monitor.ComplianceDecisionPoint;
+import org.wso2.carbon.policy.mgt.common.monitor.ComplianceFeature;
+import org.wso2.carbon.policy.mgt.common.monitor.DeviceComplianceResponse;
+import org.wso2.carbon.policy.mgt.common.monitor.PolicyComplianceException;
+import org.wso2.carbon.policy.mgt.common.spi.PolicyMonitoringService;
+import org.wso2.carbon.policy.mgt.core.dao.MonitoringDAO;
+import org.wso2.carbon.policy.mgt.core.dao.MonitoringDAOException;
+import org.wso2.carbon.policy.mgt.core.dao.PolicyDAO;
+import org.wso2.carbon.policy.mgt.core.dao.PolicyManagementDAOFactory;
+import org.wso2.carbon.policy.mgt.core.dao.PolicyManagerDAOException;
+import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Checks the compliance of a batch of device responses. The applied policies and compliance status of the whole batch
+ * are loaded with a few chunked queries and the results are written with batched statements within a single
+ * transaction per batch, instead of several connections and queries per device. The policies handed to the
+ * monitoring services and set on the compliance data are copies of the decoded policies.
+ */
+public class BatchComplianceChecker {
+
+    private static final Log log = LogFactory.getLog(BatchComplianceChecker.class);
+
+    private final PolicyDAO policyDAO;
+    private final MonitoringDAO monitoringDAO;
+    private final ComplianceDecisionPoint complianceDecisionPoint;
+    private final int batchSize;
+
+    public BatchComplianceChecker(PolicyDAO policyDAO, MonitoringDAO monitoringDAO,
+                                  ComplianceDecisionPoint complianceDecisionPoint, int batchSize) {
+        this.policyDAO = policyDAO;
+        this.monitoringDAO = monitoringDAO;
+        this.complianceDecisionPoint = complianceDecisionPoint;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Checks the given device responses against the policies applied to the devices and records the outcome.
+     * Responses of devices without an applied policy are skipped, if a device has more than one response only the
+     * last one is checked.
+     *
+     * @param deviceResponses Responses of the devices to the monitoring operation
+     * @return Compliance data of each checked device
+     * @throws PolicyComplianceException if the policies could not be loaded or the outcome could not be recorded
+     */
+    public List<ComplianceData> checkPolicyCompliance(List<DeviceComplianceResponse> deviceResponses)
+            throws PolicyComplianceException {
+        Map<Integer, DeviceComplianceResponse> responses = new LinkedHashMap<>();
+        for (DeviceComplianceResponse deviceResponse : deviceResponses) {
+            responses.put(deviceResponse.getDevice().getId(), deviceResponse);
+        }
+        List<DeviceComplianceResponse> uniqueResponses = new ArrayList<>(responses.values());
+        List<ComplianceData> complianceData = new ArrayList<>(uniqueResponses.size());
+        Map<String, PolicyMonitoringService> monitoringServices = new HashMap<>();
+        for (int i = 0; i < uniqueResponses.size(); i += batchSize) {
+            List<DeviceComplianceResponse> batch =
+                    uniqueResponses.subList(i, Math.min(i + batchSize, uniqueResponses.size()));
+            complianceData.addAll(this.checkBatch(batch, monitoringServices));
+        }
+        return complianceData;
+    }
+
+    private List<ComplianceData> checkBatch(List<DeviceComplianceResponse> deviceResponses,
+                                            Map<String, PolicyMonitoringService> monitoringServices)
+            throws PolicyComplianceException {
+        List<Integer> deviceIds = new ArrayList<>(deviceResponses.size());
+        for (DeviceComplianceResponse deviceResponse : deviceResponses) {
+            deviceIds.add(deviceResponse.getDevice().getId());
+        }
+
+        List<ComplianceData> checkedData = new ArrayList<>(deviceResponses.size());
+        Map<Integer, DeviceIdentifier> noneCompliantDevices = new LinkedHashMap<>();
+        try {
+            PolicyManagementDAOFactory.beginTransaction();
+            Map<Integer, Policy> appliedPolicies = policyDAO.getAppliedPolicies(deviceIds);
+            Map<Integer, Integer> complianceStatusIds = this.getComplianceStatusIds(appliedPolicies);
+
+            Map<Integer, Map<String, ProfileFeature>> profileFeatures = new HashMap<>();
+            Map<Integer, Integer> compliantDevicePolicyIds = new HashMap<>();
+            Map<Integer, Integer> noneCompliantDevicePolicyIds = new HashMap<>();
+            Map<Integer, List<ComplianceFeature>> noneComplianceFeatures = new HashMap<>();
+            List<Integer> checkedStatusIds = new ArrayList<>();
+
+            for (DeviceComplianceResponse deviceResponse : deviceResponses) {
+                Device device = deviceResponse.getDevice();
+                // The applied policies are shared through the content cache, hence each device gets its own copy
+                Policy policy = PolicyManagerUtil.copyPolicy(appliedPolicies.get(device.getId()));
+                if (policy == null) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("There is no policy applied to device " + device.getDeviceIdentifier() + " - " +
+                                device.getType() + ", hence compliance monitoring was not called.");
+                    }
+                    continue;
+                }
+                PolicyMonitoringService monitoringService = this.getMonitoringService(device.getType(),
+                        monitoringServices);
+                if (monitoringService == null) {
+                    log.error("Policy monitoring service is not available for device type " + device.getType() +
+                            ", hence compliance of device " + device.getDeviceIdentifier() + " was not checked.");
+                    continue;
+                }
+                DeviceIdentifier deviceIdentifier = new DeviceIdentifier(device.getDeviceIdentifier(),
+                        device.getType());
+                ComplianceData data = monitoringService.checkPolicyCompliance(deviceIdentifier, policy,
+                        deviceResponse.getResponse());
+                if (data == null) {
+                    data = new ComplianceData();
+                }
+                int complianceStatusId = complianceStatusIds.get(device.getId());
+                data.setId(complianceStatusId);
+                data.setDeviceId(device.getId());
+                data.setPolicyId(policy.getId());
+                data.setPolicy(policy);
+                checkedStatusIds.add(complianceStatusId);
+
+                List<ComplianceFeature> complianceFeatures = data.getComplianceFeatures();
+                if (complianceFeatures != null && !complianceFeatures.isEmpty()) {
+                    Map<String, ProfileFeature> features = this.getProfileFeatures(policy, profileFeatures);
+                    for (ComplianceFeature complianceFeature : complianceFeatures) {
+                        ProfileFeature profileFeature = features.get(toKey(complianceFeature.getFeatureCode()));
+                        if (profileFeature != null) {
+                            complianceFeature.setFeature(profileFeature);
+                        }
+                    }
+                    data.setStatus(false);
+                    noneCompliantDevicePolicyIds.put(device.getId(), policy.getId());
+                    noneComplianceFeatures.put(complianceStatusId, complianceFeatures);
+                    noneCompliantDevices.put(checkedData.size(), deviceIdentifier);
+                } else {
+                    data.setStatus(true);
+                    compliantDevicePolicyIds.put(device.getId(), policy.getId());
+                }
+                checkedData.add(data);
+            }
+
+            // Features recorded by an earlier check are replaced by the ones found in this check
+            if (!checkedStatusIds.isEmpty()) {
+                monitoringDAO.deleteNoneComplianceData(checkedStatusIds);
+            }
+            if (!compliantDevicePolicyIds.isEmpty()) {
+                monitoringDAO.setDevicesAsCompliance(compliantDevicePolicyIds);
+            }
+            if (!noneCompliantDevicePolicyIds.isEmpty()) {
+                monitoringDAO.setDevicesAsNoneCompliance(noneCompliantDevicePolicyIds);
+                monitoringDAO.addNoneComplianceFeatures(noneComplianceFeatures);
+            }
+            PolicyManagementDAOFactory.commitTransaction();
+        } catch (PolicyManagerDAOException e) {
+            PolicyManagementDAOFactory.rollbackTransaction();
+            throw new PolicyComplianceException("Error occurred while retrieving the policies applied to a batch of " +
+                    deviceIds.size() + " devices", e);
+        } catch (MonitoringDAOException e) {
+            PolicyManagementDAOFactory.rollbackTransaction();
+            throw new PolicyComplianceException("Error occurred while recording the compliance of a batch of " +
+                    deviceIds.size() + " devices", e);
+        } catch (PolicyComplianceException e) {
+            PolicyManagementDAOFactory.rollbackTransaction();
+            throw e;
+        } finally {
+            PolicyManagementDAOFactory.closeConnection();
+        }
+
+        for (Map.Entry<Integer, DeviceIdentifier> entry : noneCompliantDevices.entrySet()) {
+            DeviceIdentifier deviceIdentifier = entry.getValue();
+            try {
+                complianceDecisionPoint.validateDevicePolicyCompliance(deviceIdentifier,
+                        checkedData.get(entry.getKey()));
+            } catch (PolicyComplianceException e) {
+                log.error("Error occurred while validating the policy compliance of device " +
+                        deviceIdentifier.getId() + " - " + deviceIdentifier.getType(), e);
+            }
+        }
+        return checkedData;
+    }
+
+    /**
+     * Retrieves the compliance status ids of the given devices, adding a compliance status to the devices monitored
+     * for the first time.
+     */
+    private Map<Integer, Integer> getComplianceStatusIds(Map<Integer, Policy> appliedPolicies)
+            throws MonitoringDAOException {
+        Map<Integer, Integer> complianceStatusIds = new HashMap<>();
+        if (appliedPolicies.isEmpty()) {
+            return complianceStatusIds;
+        }
+        for (ComplianceData data : monitoringDAO.getCompliance(new ArrayList<>(appliedPolicies.keySet()))) {
+            complianceStatusIds.put(data.getDeviceId(), data.getId());
+        }
+        Map<Integer, Integer> firstTimeDevicePolicyIds = new HashMap<>();
+        for (Map.Entry<Integer, Policy> entry : appliedPolicies.entrySet()) {
+            if (!complianceStatusIds.containsKey(entry.getKey())) {
+                firstTimeDevicePolicyIds.put(entry.getKey(), entry.getValue().getId());
+            }
+        }
+        if (!firstTimeDevicePolicyIds.isEmpty()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Adding the compliance status of " + firstTimeDevicePolicyIds.size() +
+                        " devices monitored for the first time");
+            }
+            monitoringDAO.addComplianceDetails(firstTimeDevicePolicyIds);
+            for (ComplianceData data : monitoringDAO.getCompliance(
+                    new ArrayList<>(firstTimeDevicePolicyIds.keySet()))) {
+                complianceStatusIds.put(data.getDeviceId(), data.getId());
+            }
+        }
+        return complianceStatusIds;
+    }
+
+    private PolicyMonitoringService getMonitoringService(String deviceType,
+                                                         Map<String, PolicyMonitoringService> monitoringServices) {
+        if (!monitoringServices.containsKey(deviceType)) {
+            monitoringServices.put(deviceType,
+                    PolicyManagementDataHolder.getInstance().getPolicyMonitoringService(deviceType));
+        }
+        return monitoringServices.get(deviceType);
+    }
+
+    private Map<String, ProfileFeature> getProfileFeatures(Policy policy,
+                                                           Map<Integer, Map<String, ProfileFeature>> profileFeatures) {
+        Map<String, ProfileFeature> features = profileFeatures.get(policy.getId());
+        if (features == null) {
+            features = new HashMap<>();
+            if (policy.getProfile() != null && policy.getProfile().getProfileFeaturesList() != null) {
+                for (ProfileFeature profileFeature : policy.getProfile().getProfileFeaturesList()) {
+                    features.put(toKey(profileFeature.getFeatureCode()), profileFeature);
+                }
+            }
+            profileFeatures.put(policy.getId(), features);
+        }
+        return features;
+    }
+
+    private static String toKey(String featureCode) {
+        return featureCode == null ? null : featureCode.toLowerCase(Locale.ENGLISH);
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core.mgt.impl;
+
+import org.wso2.carbon.policy.mgt.common.monitor.ComplianceData;
+import org.wso2.carbon.policy.mgt.core.dao.MonitoringDAO;
+import org.wso2.carbon.policy.mgt.core.dao.MonitoringDAOException;
+import org.wso2.carbon.policy.mgt.core.dao.PolicyDAO;
+import org.wso2.carbon.policy.mgt.core.dao.PolicyManagerDAOException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compliance status and applied policy id of a batch of devices, loaded with a few chunked queries instead of one
+ * query per device. The snapshot is read within the connection the caller has opened.
+ */
+public class ComplianceSnapshot {
+
+    private final Map<Integer, ComplianceData> complianceData;
+    private final Map<Integer, Integer> appliedPolicyIds;
+
+    private ComplianceSnapshot(Map<Integer, ComplianceData> complianceData, Map<Integer, Integer> appliedPolicyIds) {
+        this.complianceData = complianceData;
+        this.appliedPolicyIds = appliedPolicyIds;
+    }
+
+    public static ComplianceSnapshot load(MonitoringDAO monitoringDAO, PolicyDAO policyDAO,
+                                          List<Integer> deviceIds) throws MonitoringDAOException,
+            PolicyManagerDAOException {
+        Map<Integer, ComplianceData> complianceData = new HashMap<>();
+        for (ComplianceData data : monitoringDAO.getCompliance(deviceIds)) {
+            complianceData.put(data.getDeviceId(), data);
+        }
+        return new ComplianceSnapshot(complianceData, policyDAO.getAppliedPolicyIds(deviceIds));
+    }
+
+    /**
+     * @param deviceId Primary key of the device
+     * @return Compliance status of the device, or null if the device has not been monitored yet
+     */
+    public ComplianceData getComplianceData(int deviceId) {
+        return complianceData.get(deviceId);
+    }
+
+    public Map<Integer, ComplianceData> getComplianceData() {
+        return complianceData;
+    }
+
+    /**
+     * @param deviceId Primary key of the device
+     * @return Id of the policy applied to the device, or null if no policy has been applied to it
+     */
+    public Integer getAppliedPolicyId(int deviceId) {
+        return appliedPolicyIds.get(deviceId);
+    }
+
+}
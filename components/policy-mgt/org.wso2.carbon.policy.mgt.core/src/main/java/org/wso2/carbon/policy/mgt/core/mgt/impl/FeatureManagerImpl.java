@@ -21,7 +21,6 @@ package org.wso2.carbon.policy.mgt.core.mgt.impl;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.device.mgt.common.Feature;
-import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
 import org.wso2.carbon.policy.mgt.common.FeatureManagementException;
 import org.wso2.carbon.policy.mgt.common.Profile;
 import org.wso2.carbon.policy.mgt.common.ProfileFeature;
@@ -245,7 +244,7 @@ public class FeatureManagerImpl implements FeatureManager {
     @Override
     public List<ProfileFeature> getFeaturesForProfile(int profileId) throws FeatureManagementException {
         try {
-            DeviceManagementDAOFactory.openConnection();
+            PolicyManagementDAOFactory.openConnection();
             return featureDAO.getFeaturesForProfile(profileId);
         } catch (FeatureManagerDAOException e) {
             throw new FeatureManagementException("Error occurred while getting the features", e);
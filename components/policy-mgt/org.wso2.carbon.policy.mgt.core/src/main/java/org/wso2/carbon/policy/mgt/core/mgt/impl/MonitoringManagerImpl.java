@@ -27,6 +27,9 @@ import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
+import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.DeviceManagementConfig;
+import org.wso2.carbon.device.mgt.core.config.policy.PolicyConfiguration;
 import org.wso2.carbon.device.mgt.core.dao.DeviceDAO;
 import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOException;
 import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
@@ -37,6 +40,7 @@ import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
 import org.wso2.carbon.policy.mgt.common.monitor.ComplianceData;
 import org.wso2.carbon.policy.mgt.common.monitor.ComplianceDecisionPoint;
 import org.wso2.carbon.policy.mgt.common.monitor.ComplianceFeature;
+import org.wso2.carbon.policy.mgt.common.monitor.DeviceComplianceResponse;
 import org.wso2.carbon.policy.mgt.common.monitor.PolicyComplianceException;
 import org.wso2.carbon.policy.mgt.common.Policy;
 import org.wso2.carbon.policy.mgt.common.ProfileFeature;
@@ -50,6 +54,7 @@ import org.wso2.carbon.policy.mgt.core.impl.ComplianceDecisionPointImpl;
 import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
 import org.wso2.carbon.policy.mgt.core.mgt.MonitoringManager;
 import org.wso2.carbon.policy.mgt.core.mgt.PolicyManager;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagementConstants;
 import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
 
 import java.sql.SQLException;
@@ -157,6 +162,14 @@ public class MonitoringManagerImpl implements MonitoringManager {
         return complianceFeatures;
     }
 
+    @Override
+    public List<ComplianceData> checkPolicyCompliance(List<DeviceComplianceResponse> deviceResponses)
+            throws PolicyComplianceException {
+        BatchComplianceChecker complianceChecker = new BatchComplianceChecker(policyDAO, monitoringDAO,
+                complianceDecisionPoint, this.getMonitoringBatchSize());
+        return complianceChecker.checkPolicyCompliance(deviceResponses);
+    }
+
     @Override
     public boolean isCompliance(DeviceIdentifier deviceIdentifier) throws PolicyComplianceException {
         try {
@@ -225,40 +238,34 @@ public class MonitoringManagerImpl implements MonitoringManager {
             }
 
             List<Integer> deviceIDs = new ArrayList<>(deviceIds.keySet());
-            List<ComplianceData> complianceDatas = monitoringDAO.getCompliance(deviceIDs);
-            HashMap<Integer, Integer> devicePolicyIdMap = policyDAO.getAppliedPolicyIds(deviceIDs);
+
+            PolicyManagementDAOFactory.beginTransaction();
+            ComplianceSnapshot complianceSnapshot = ComplianceSnapshot.load(monitoringDAO, policyDAO, deviceIDs);
 
             Map<Integer, Device> deviceIdsToAddOperation = new HashMap<>();
             Map<Integer, Device> deviceIdsWithExistingOperation = new HashMap<>();
             Map<Integer, Device> inactiveDeviceIds = new HashMap<>();
             Map<Integer, Integer> firstTimeDeviceIdsWithPolicyIds = new HashMap<>();
 
-            Map<Integer, ComplianceData> tempMap = new HashMap<>();
-
-
-            if (complianceDatas != null || !complianceDatas.isEmpty()) {
-                for (ComplianceData complianceData : complianceDatas) {
-
-                    tempMap.put(complianceData.getDeviceId(), complianceData);
-
-                    if (complianceData.getAttempts() == 0) {
-                        deviceIdsToAddOperation.put(complianceData.getDeviceId(),
-                                deviceIds.get(complianceData.getDeviceId()));
-                    } else {
-                        deviceIdsWithExistingOperation.put(complianceData.getDeviceId(),
-                                deviceIds.get(complianceData.getDeviceId()));
-                    }
-                    if (complianceData.getAttempts() >= 20) {
-                        inactiveDeviceIds.put(complianceData.getDeviceId(),
-                                deviceIds.get(complianceData.getDeviceId()));
-                    }
+            for (ComplianceData complianceData : complianceSnapshot.getComplianceData().values()) {
+                if (complianceData.getAttempts() == 0) {
+                    deviceIdsToAddOperation.put(complianceData.getDeviceId(),
+                            deviceIds.get(complianceData.getDeviceId()));
+                } else {
+                    deviceIdsWithExistingOperation.put(complianceData.getDeviceId(),
+                            deviceIds.get(complianceData.getDeviceId()));
+                }
+                if (complianceData.getAttempts() >= 20) {
+                    inactiveDeviceIds.put(complianceData.getDeviceId(),
+                            deviceIds.get(complianceData.getDeviceId()));
                 }
             }
 
             for (Device device : devices) {
-                if (!tempMap.containsKey(device.getId())) {
+                if (complianceSnapshot.getComplianceData(device.getId()) == null) {
                     deviceIdsToAddOperation.put(device.getId(), device);
-                    firstTimeDeviceIdsWithPolicyIds.put(device.getId(), devicePolicyIdMap.get(device.getId()));
+                    firstTimeDeviceIdsWithPolicyIds.put(device.getId(),
+                            complianceSnapshot.getAppliedPolicyId(device.getId()));
                 }
             }
 
@@ -269,8 +276,6 @@ public class MonitoringManagerImpl implements MonitoringManager {
                 }
             }
 
-            PolicyManagementDAOFactory.beginTransaction();
-
             if (!deviceIdsToAddOperation.isEmpty()) {
                 this.addMonitoringOperationsToDatabase(new ArrayList<>(deviceIdsToAddOperation.values()));
                 monitoringDAO.addComplianceDetails(firstTimeDeviceIdsWithPolicyIds);
@@ -325,4 +330,15 @@ public class MonitoringManagerImpl implements MonitoringManager {
         return deviceIdentifiers;
     }
 
+    private int getMonitoringBatchSize() {
+        DeviceManagementConfig config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig();
+        if (config != null && config.getDeviceManagementConfigRepository() != null) {
+            PolicyConfiguration policyConfig = config.getDeviceManagementConfigRepository().getPolicyConfiguration();
+            if (policyConfig != null && policyConfig.getMonitoringBatchSize() > 0) {
+                return policyConfig.getMonitoringBatchSize();
+            }
+        }
+        return PolicyManagementConstants.DEFAULT_MONITORING_BATCH_SIZE;
+    }
+
 }
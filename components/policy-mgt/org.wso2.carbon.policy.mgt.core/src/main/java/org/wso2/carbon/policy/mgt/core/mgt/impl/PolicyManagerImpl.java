@@ -30,16 +30,25 @@ import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderServiceImpl;
 import org.wso2.carbon.policy.mgt.common.*;
+import org.wso2.carbon.policy.mgt.core.cache.PolicyCacheManager;
+import org.wso2.carbon.policy.mgt.core.cache.impl.PolicyCacheManagerImpl;
 import org.wso2.carbon.policy.mgt.core.dao.*;
 import org.wso2.carbon.policy.mgt.core.mgt.PolicyManager;
 import org.wso2.carbon.policy.mgt.core.mgt.ProfileManager;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagementConstants;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
 
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class PolicyManagerImpl implements PolicyManager {
 
@@ -122,6 +131,7 @@ public class PolicyManagerImpl implements PolicyManager {
 //                policyDAO.addLocationToPolicy(policy.getLatitude(), policy.getLongitude(), policy);
 //            }
             PolicyManagementDAOFactory.commitTransaction();
+            PolicyCacheManagerImpl.getInstance().removeAllPolicies();
 
         } catch (PolicyManagerDAOException e) {
             PolicyManagementDAOFactory.rollbackTransaction();
@@ -190,6 +200,7 @@ public class PolicyManagerImpl implements PolicyManager {
 //            }
 
             PolicyManagementDAOFactory.commitTransaction();
+            PolicyCacheManagerImpl.getInstance().removeAllPolicies();
         } catch (PolicyManagerDAOException e) {
             PolicyManagementDAOFactory.rollbackTransaction();
             throw new PolicyManagementException("Error occurred while updating the policy ("
@@ -207,6 +218,7 @@ public class PolicyManagerImpl implements PolicyManager {
             PolicyManagementDAOFactory.beginTransaction();
             bool = policyDAO.updatePolicyPriorities(policies);
             PolicyManagementDAOFactory.commitTransaction();
+            PolicyCacheManagerImpl.getInstance().removeAllPolicies();
         } catch (PolicyManagerDAOException e) {
             PolicyManagementDAOFactory.rollbackTransaction();
             throw new PolicyManagementException("Error occurred while updating the policy priorities", e);
@@ -225,6 +237,7 @@ public class PolicyManagerImpl implements PolicyManager {
             featureDAO.deleteFeaturesOfProfile(policy.getProfileId());
             profileDAO.deleteProfile(policy.getProfileId());
             PolicyManagementDAOFactory.commitTransaction();
+            PolicyCacheManagerImpl.getInstance().removePolicy(policy.getId());
             return true;
         } catch (PolicyManagerDAOException e) {
             PolicyManagementDAOFactory.rollbackTransaction();
@@ -260,6 +273,7 @@ public class PolicyManagerImpl implements PolicyManager {
 
             profileDAO.deleteProfile(policy.getProfileId());
             PolicyManagementDAOFactory.commitTransaction();
+            PolicyCacheManagerImpl.getInstance().removePolicy(policyId);
             return true;
         } catch (PolicyManagerDAOException e) {
             PolicyManagementDAOFactory.rollbackTransaction();
@@ -292,6 +306,7 @@ public class PolicyManagerImpl implements PolicyManager {
             }
             policy = policyDAO.addPolicyToDevice(deviceList, policy);
             PolicyManagementDAOFactory.commitTransaction();
+            PolicyCacheManagerImpl.getInstance().removeAllPolicies();
 
             if (policy.getDevices() != null) {
                 if (log.isDebugEnabled()) {
@@ -326,6 +341,7 @@ public class PolicyManagerImpl implements PolicyManager {
             }
             policy = policyDAO.addPolicyToRole(roleNames, policy);
             PolicyManagementDAOFactory.commitTransaction();
+            PolicyCacheManagerImpl.getInstance().removeAllPolicies();
 
             if (policy.getRoles() != null) {
                 if (log.isDebugEnabled()) {
@@ -358,6 +374,7 @@ public class PolicyManagerImpl implements PolicyManager {
             }
             policy = policyDAO.addPolicyToUser(usernameList, policy);
             PolicyManagementDAOFactory.commitTransaction();
+            PolicyCacheManagerImpl.getInstance().removeAllPolicies();
 
             if (policy.getRoles() != null) {
                 if (log.isDebugEnabled()) {
@@ -455,7 +472,11 @@ public class PolicyManagerImpl implements PolicyManager {
 
     @Override
     public List<Policy> getPolicies() throws PolicyManagementException {
-        List<Policy> policyList;
+        PolicyCacheManager cacheManager = PolicyCacheManagerImpl.getInstance();
+        List<Policy> policyList = cacheManager.getAllPolicies();
+        if (policyList != null) {
+            return policyList;
+        }
         List<Profile> profileList;
         try {
             profileList = profileManager.getAllProfiles();
@@ -489,6 +510,7 @@ public class PolicyManagerImpl implements PolicyManager {
         } finally {
             PolicyManagementDAOFactory.closeConnection();
         }
+        cacheManager.addAllPolicies(policyList);
         return policyList;
     }
 
@@ -496,7 +518,6 @@ public class PolicyManagerImpl implements PolicyManager {
     public List<Policy> getPoliciesOfDevice(DeviceIdentifier deviceIdentifier) throws PolicyManagementException {
 
         List<Integer> policyIdList;
-        List<Policy> policies = new ArrayList<>();
         try {
             PolicyManagementDAOFactory.openConnection();
             DeviceManagementProviderService service = new DeviceManagementProviderServiceImpl();
@@ -513,53 +534,34 @@ public class PolicyManagerImpl implements PolicyManager {
         } finally {
             PolicyManagementDAOFactory.closeConnection();
         }
-
-        List<Policy> tempPolicyList = this.getPolicies();
-
-        for (Policy policy : tempPolicyList) {
-            for (Integer i : policyIdList) {
-                if (policy.getId() == i) {
-                    policies.add(policy);
-                }
-            }
-        }
-
-        Collections.sort(policies);
-        return policies;
+        return this.getPolicies(policyIdList);
     }
 
     @Override
     public List<Policy> getPoliciesOfDeviceType(String deviceTypeName) throws PolicyManagementException {
-        List<Policy> policies = new ArrayList<>();
-        try {
-            List<Profile> profileList = profileManager.getProfilesOfDeviceType(deviceTypeName);
-            List<Policy> allPolicies = this.getPolicies();
 
-            for (Profile profile : profileList) {
-                for (Policy policy : allPolicies) {
-                    if (policy.getProfileId() == profile.getProfileId()) {
-                        policy.setProfile(profile);
-                        policies.add(policy);
-                    }
-                }
-            }
-            Collections.sort(policies);
-        } catch (ProfileManagementException e) {
-            throw new PolicyManagementException("Error occurred while getting all the profile features.", e);
+        List<Integer> policyIdList;
+        try {
+            PolicyManagementDAOFactory.openConnection();
+            policyIdList = policyDAO.getPolicyIdsOfDeviceType(deviceTypeName);
+        } catch (PolicyManagerDAOException e) {
+            throw new PolicyManagementException("Error occurred while getting the policies of device type (" +
+                    deviceTypeName + ")", e);
+        } catch (SQLException e) {
+            throw new PolicyManagementException("Error occurred while open a data source connection", e);
+        } finally {
+            PolicyManagementDAOFactory.closeConnection();
         }
-        return policies;
+        return this.getPolicies(policyIdList);
     }
 
     @Override
     public List<Policy> getPoliciesOfRole(String roleName) throws PolicyManagementException {
 
-        List<Policy> policies = new ArrayList<>();
         List<Integer> policyIdList;
-
         try {
             PolicyManagementDAOFactory.openConnection();
             policyIdList = policyDAO.getPolicyOfRole(roleName);
-
         } catch (PolicyManagerDAOException e) {
             throw new PolicyManagementException("Error occurred while getting the policies.", e);
         } catch (SQLException e) {
@@ -567,26 +569,13 @@ public class PolicyManagerImpl implements PolicyManager {
         } finally {
             PolicyManagementDAOFactory.closeConnection();
         }
-
-        List<Policy> tempPolicyList = this.getPolicies();
-
-        for (Policy policy : tempPolicyList) {
-            for (Integer i : policyIdList) {
-                if (policy.getId() == i) {
-                    policies.add(policy);
-                }
-            }
-        }
-        Collections.sort(policies);
-        return policies;
+        return this.getPolicies(policyIdList);
     }
 
     @Override
     public List<Policy> getPoliciesOfUser(String username) throws PolicyManagementException {
 
-        List<Policy> policies = new ArrayList<>();
         List<Integer> policyIdList;
-
         try {
             PolicyManagementDAOFactory.openConnection();
             policyIdList = policyDAO.getPolicyOfUser(username);
@@ -597,14 +586,48 @@ public class PolicyManagerImpl implements PolicyManager {
         } finally {
             PolicyManagementDAOFactory.closeConnection();
         }
-        List<Policy> tempPolicyList = this.getPolicies();
+        return this.getPolicies(policyIdList);
+    }
 
-        for (Policy policy : tempPolicyList) {
-            for (Integer i : policyIdList) {
-                if (policy.getId() == i) {
-                    policies.add(policy);
-                }
+    /**
+     * Retrieves the given policies sorted by priority. The policies are served from the policy cache when it is
+     * populated, otherwise only the given policies are loaded along with their profiles, devices, roles, users and
+     * criteria. Either way the returned policies are not shared with the cache or other callers.
+     */
+    private List<Policy> getPolicies(List<Integer> policyIds) throws PolicyManagementException {
+        List<Policy> policies = new ArrayList<>();
+        if (policyIds.isEmpty()) {
+            return policies;
+        }
+        Set<Integer> policyIdSet = new LinkedHashSet<>(policyIds);
+        // Only the matching policies are copied out of the cache, the cached instances are never handed out
+        List<Policy> cachedPolicies = PolicyCacheManagerImpl.getInstance().getPolicies(policyIdSet);
+        if (cachedPolicies != null) {
+            return cachedPolicies;
+        }
+        try {
+            PolicyManagementDAOFactory.openConnection();
+            List<Integer> uniquePolicyIds = new ArrayList<>(policyIdSet);
+            policies = policyDAO.getPolicies(uniquePolicyIds);
+            Map<Integer, List<Device>> devices = policyDAO.getPolicyAppliedDevices(uniquePolicyIds);
+            Map<Integer, List<String>> roles = policyDAO.getPolicyAppliedRoles(uniquePolicyIds);
+            Map<Integer, List<String>> users = policyDAO.getPolicyAppliedUsers(uniquePolicyIds);
+            for (Policy policy : policies) {
+                List<Device> policyDevices = devices.get(policy.getId());
+                List<String> policyRoles = roles.get(policy.getId());
+                List<String> policyUsers = users.get(policy.getId());
+                policy.setDevices(policyDevices != null ? policyDevices : new ArrayList<Device>());
+                policy.setRoles(policyRoles != null ? policyRoles : new ArrayList<String>());
+                policy.setUsers(policyUsers != null ? policyUsers : new ArrayList<String>());
+                policy.setPolicyCriterias(policyDAO.getPolicyCriteria(policy.getId()));
             }
+        } catch (PolicyManagerDAOException e) {
+            throw new PolicyManagementException("Error occurred while getting " + policyIdSet.size() +
+                    " policies.", e);
+        } catch (SQLException e) {
+            throw new PolicyManagementException("Error occurred while opening a connection to the data source", e);
+        } finally {
+            PolicyManagementDAOFactory.closeConnection();
         }
         Collections.sort(policies);
         return policies;
@@ -700,6 +723,79 @@ public class PolicyManagerImpl implements PolicyManager {
         }
     }
 
+    @Override
+    public void addAppliedPolicyToDevices(List<DeviceIdentifier> deviceIdentifiers, List<Policy> policies)
+            throws PolicyManagementException {
+        Map<String, Map<String, Policy>> policiesOfType = new LinkedHashMap<>();
+        for (int i = 0; i < deviceIdentifiers.size(); i++) {
+            DeviceIdentifier deviceIdentifier = deviceIdentifiers.get(i);
+            Map<String, Policy> devicePolicies = policiesOfType.get(deviceIdentifier.getType());
+            if (devicePolicies == null) {
+                devicePolicies = new LinkedHashMap<>();
+                policiesOfType.put(deviceIdentifier.getType(), devicePolicies);
+            }
+            devicePolicies.put(deviceIdentifier.getId(), policies.get(i));
+        }
+
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        Map<Integer, Policy> effectivePolicies = new LinkedHashMap<>();
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            for (Map.Entry<String, Map<String, Policy>> entry : policiesOfType.entrySet()) {
+                List<String> identifiers = new ArrayList<>(entry.getValue().keySet());
+                for (int from = 0; from < identifiers.size(); from += PolicyManagementConstants.DEVICE_ID_CHUNK_SIZE) {
+                    List<String> chunk = identifiers.subList(from,
+                            Math.min(from + PolicyManagementConstants.DEVICE_ID_CHUNK_SIZE, identifiers.size()));
+                    Map<String, Integer> deviceIds = deviceDAO.getDeviceIds(entry.getKey(), chunk, tenantId);
+                    for (Map.Entry<String, Integer> deviceId : deviceIds.entrySet()) {
+                        effectivePolicies.put(deviceId.getValue(), entry.getValue().get(deviceId.getKey()));
+                    }
+                }
+            }
+        } catch (DeviceManagementDAOException | SQLException e) {
+            throw new PolicyManagementException("Error occurred while getting the ids of " +
+                    deviceIdentifiers.size() + " devices", e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+        if (effectivePolicies.size() < deviceIdentifiers.size()) {
+            log.warn((deviceIdentifiers.size() - effectivePolicies.size()) + " of " + deviceIdentifiers.size() +
+                    " devices were not found, hence their applied policies are not recorded");
+        }
+        if (effectivePolicies.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, Policy> addedPolicies = new HashMap<>();
+        Map<Integer, Policy> updatedPolicies = new HashMap<>();
+        try {
+            PolicyManagementDAOFactory.beginTransaction();
+            Map<Integer, Integer> appliedPolicyIds =
+                    policyDAO.getAppliedPolicyIds(new ArrayList<>(effectivePolicies.keySet()));
+            for (Map.Entry<Integer, Policy> entry : effectivePolicies.entrySet()) {
+                Integer appliedPolicyId = appliedPolicyIds.get(entry.getKey());
+                if (appliedPolicyId == null || appliedPolicyId == 0) {
+                    addedPolicies.put(entry.getKey(), entry.getValue());
+                } else if (appliedPolicyId != entry.getValue().getId()) {
+                    updatedPolicies.put(entry.getKey(), entry.getValue());
+                }
+            }
+            if (!addedPolicies.isEmpty()) {
+                policyDAO.addEffectivePolicyToDevices(addedPolicies);
+            }
+            if (!updatedPolicies.isEmpty()) {
+                policyDAO.updateEffectivePolicyToDevices(updatedPolicies);
+            }
+            PolicyManagementDAOFactory.commitTransaction();
+        } catch (PolicyManagerDAOException e) {
+            PolicyManagementDAOFactory.rollbackTransaction();
+            throw new PolicyManagementException("Error occurred while adding the evaluated policies of " +
+                    effectivePolicies.size() + " devices", e);
+        } finally {
+            PolicyManagementDAOFactory.closeConnection();
+        }
+    }
+
     @Override
     public boolean checkPolicyAvailable(DeviceIdentifier deviceIdentifier) throws PolicyManagementException {
 
@@ -769,7 +865,8 @@ public class PolicyManagerImpl implements PolicyManager {
             Device device = service.getDevice(deviceIdentifier);
             //int policyId = policyDAO.getAppliedPolicyId(device.getId());
             PolicyManagementDAOFactory.openConnection();
-            policy = policyDAO.getAppliedPolicy(device.getId());
+            // Applied policies are shared with other readers through the content cache, hence callers get a copy
+            policy = PolicyManagerUtil.copyPolicy(policyDAO.getAppliedPolicy(device.getId()));
         } catch (DeviceManagementException e) {
             throw new PolicyManagementException("Error occurred while getting device id.", e);
         } catch (PolicyManagerDAOException e) {
@@ -23,6 +23,7 @@ import org.wso2.carbon.device.mgt.common.Feature;
 import org.wso2.carbon.policy.mgt.common.*;
 import org.wso2.carbon.policy.mgt.common.monitor.ComplianceData;
 import org.wso2.carbon.policy.mgt.common.monitor.ComplianceFeature;
+import org.wso2.carbon.policy.mgt.common.monitor.DeviceComplianceResponse;
 import org.wso2.carbon.policy.mgt.common.monitor.PolicyComplianceException;
 import org.wso2.carbon.policy.mgt.core.PolicyManagerService;
 import org.wso2.carbon.policy.mgt.core.PolicyManagerServiceImpl;
@@ -133,6 +134,12 @@ public class PolicyManagementService implements PolicyManagerService {
         return policyManagerService.checkCompliance(deviceIdentifier, response);
     }
 
+    @Override
+    public List<ComplianceData> checkPolicyCompliance(List<DeviceComplianceResponse> deviceResponses)
+            throws PolicyComplianceException {
+        return policyManagerService.checkPolicyCompliance(deviceResponses);
+    }
+
     @Override
     public ComplianceData getDeviceCompliance(DeviceIdentifier deviceIdentifier) throws PolicyComplianceException {
         return policyManagerService.getDeviceCompliance(deviceIdentifier);
@@ -21,25 +21,53 @@ package org.wso2.carbon.policy.mgt.core.task;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceManagementException;
 import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
+import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.DeviceManagementConfig;
+import org.wso2.carbon.device.mgt.core.config.policy.PolicyConfiguration;
+import org.wso2.carbon.device.mgt.core.dao.DeviceDAO;
+import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOException;
 import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
 import org.wso2.carbon.device.mgt.core.dao.DeviceTypeDAO;
 import org.wso2.carbon.device.mgt.core.dto.DeviceType;
-import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.ntask.core.Task;
+import org.wso2.carbon.policy.mgt.common.monitor.PolicyComplianceException;
 import org.wso2.carbon.policy.mgt.common.spi.PolicyMonitoringService;
 import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
 import org.wso2.carbon.policy.mgt.core.mgt.MonitoringManager;
 import org.wso2.carbon.policy.mgt.core.mgt.impl.MonitoringManagerImpl;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagementConstants;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Task that periodically adds monitoring operations to the devices of a tenant and notifies them. Devices of each
+ * type are read in batches ordered by the device id and each batch is handed over to a bounded pool of workers, so
+ * that device types and device id ranges are monitored concurrently.
+ * <p/>
+ * Several nodes can share the monitoring load of a tenant by configuring the same shard count and a distinct shard
+ * index on each node, in which case a node only monitors the devices whose id modulo the shard count equals its
+ * shard index.
+ */
 public class MonitoringTask implements Task {
 
     private DeviceTypeDAO deviceTypeDAO;
+    private DeviceDAO deviceDAO;
     private static Log log = LogFactory.getLog(MonitoringTask.class);
 
     Map<String, String> properties;
@@ -53,6 +81,7 @@ public class MonitoringTask implements Task {
     @Override
     public void init() {
         deviceTypeDAO = DeviceManagementDAOFactory.getDeviceTypeDAO();
+        deviceDAO = DeviceManagementDAOFactory.getDeviceDAO();
     }
 
     @Override
@@ -62,49 +91,174 @@ public class MonitoringTask implements Task {
             log.debug("Monitoring task started to run.");
         }
 
+        int threadPoolSize = PolicyManagementConstants.DEFAULT_MONITORING_THREAD_POOL_SIZE;
+        int batchSize = PolicyManagementConstants.DEFAULT_MONITORING_BATCH_SIZE;
+        int shardCount = 1;
+        int shardIndex = 0;
+        PolicyConfiguration policyConfig = this.getPolicyConfiguration();
+        if (policyConfig != null) {
+            if (policyConfig.getMonitoringThreadPoolSize() > 0) {
+                threadPoolSize = policyConfig.getMonitoringThreadPoolSize();
+            }
+            if (policyConfig.getMonitoringBatchSize() > 0) {
+                batchSize = policyConfig.getMonitoringBatchSize();
+            }
+            if (policyConfig.getMonitoringShardCount() > 1) {
+                shardCount = policyConfig.getMonitoringShardCount();
+                shardIndex = policyConfig.getMonitoringShardIndex();
+            }
+        }
+        if (shardIndex < 0 || shardIndex >= shardCount) {
+            log.error("Monitoring shard index " + shardIndex + " is out of the range of the shard count " +
+                    shardCount + ", hence monitoring task is not run.");
+            return;
+        }
+
+        int tenantId = this.getTenantId();
+        ExecutorService executor = new ThreadPoolExecutor(threadPoolSize, threadPoolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(threadPoolSize * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+        List<Future<?>> results = new ArrayList<>();
         try {
-            List<DeviceType> deviceTypes = deviceTypeDAO.getDeviceTypes();
-            DeviceManagementProviderService deviceManagementProviderService =
-                    PolicyManagementDataHolder.getInstance().getDeviceManagementService();
-            MonitoringManager monitoringManager = new MonitoringManagerImpl();
+            List<DeviceType> deviceTypes;
+            try {
+                DeviceManagementDAOFactory.openConnection();
+                deviceTypes = deviceTypeDAO.getDeviceTypes();
+            } finally {
+                DeviceManagementDAOFactory.closeConnection();
+            }
 
             for (DeviceType deviceType : deviceTypes) {
                 PolicyMonitoringService monitoringService =
                         PolicyManagementDataHolder.getInstance().getPolicyMonitoringService(deviceType.getName());
-                List<Device> devices = deviceManagementProviderService.getAllDevices(deviceType.getName());
-                if (monitoringService != null && !devices.isEmpty()) {
-                    monitoringManager.addMonitoringOperation(devices);
-
-                    List<Device> notifiableDevices = new ArrayList<>();
-
-                    if (log.isDebugEnabled()) {
-                        log.debug("Removing inactive and blocked devices from the list for the device type : " +
-                                deviceType);
-                    }
+                if (monitoringService == null) {
+                    continue;
+                }
+                int lastDeviceId = 0;
+                boolean hasMore = true;
+                while (hasMore) {
+                    List<Device> devices = this.getDevices(deviceType.getName(), tenantId, lastDeviceId, batchSize);
+                    Set<Integer> deviceIds = new HashSet<>();
+                    List<Device> shardDevices = new ArrayList<>();
                     for (Device device : devices) {
-                        if (device.getEnrolmentInfo().getStatus().equals(EnrolmentInfo.Status.INACTIVE) ||
-                                device.getEnrolmentInfo().getStatus().equals(EnrolmentInfo.Status.BLOCKED)) {
-                            continue;
-                        } else {
-                            notifiableDevices.add(device);
+                        deviceIds.add(device.getId());
+                        lastDeviceId = Math.max(lastDeviceId, device.getId());
+                        if (device.getId() % shardCount == shardIndex) {
+                            shardDevices.add(device);
                         }
                     }
-                    if (log.isDebugEnabled()) {
-                        log.debug("Following devices selected to send the notification for " + deviceType);
-                        for (Device device : notifiableDevices) {
-                            log.debug(device.getDeviceIdentifier());
-                        }
+                    hasMore = (deviceIds.size() == batchSize);
+                    if (!shardDevices.isEmpty()) {
+                        results.add(executor.submit(new MonitoringWorker(tenantId, deviceType.getName(),
+                                monitoringService, shardDevices)));
                     }
-                    monitoringService.notifyDevices(notifiableDevices);
+                }
+            }
+            for (Future<?> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    log.error("Error occurred while monitoring a batch of devices.", e.getCause());
                 }
             }
             if (log.isDebugEnabled()) {
                 log.debug("Monitoring task running completed.");
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Monitoring task got interrupted while waiting for the monitoring workers.", e);
         } catch (Exception e) {
             String msg = "Error occurred while trying to run a task.";
             log.error(msg, e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+    }
+
+    private List<Device> getDevices(String deviceType, int tenantId, int lastDeviceId,
+                                    int batchSize) throws DeviceManagementDAOException, SQLException {
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            return deviceDAO.getDevices(deviceType, tenantId, lastDeviceId, batchSize);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
         }
+    }
 
+    private PolicyConfiguration getPolicyConfiguration() {
+        DeviceManagementConfig config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig();
+        if (config != null && config.getDeviceManagementConfigRepository() != null) {
+            return config.getDeviceManagementConfigRepository().getPolicyConfiguration();
+        }
+        return null;
+    }
+
+    private int getTenantId() {
+        if (properties != null && properties.get(PolicyManagementConstants.TENANT_ID) != null) {
+            return Integer.parseInt(properties.get(PolicyManagementConstants.TENANT_ID));
+        }
+        return PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+    }
+
+    /**
+     * Adds the monitoring operations to a batch of devices of a single type and notifies the active ones.
+     */
+    private static class MonitoringWorker implements Callable<Void> {
+
+        private int tenantId;
+        private String deviceType;
+        private PolicyMonitoringService monitoringService;
+        private List<Device> devices;
+
+        MonitoringWorker(int tenantId, String deviceType, PolicyMonitoringService monitoringService,
+                         List<Device> devices) {
+            this.tenantId = tenantId;
+            this.deviceType = deviceType;
+            this.monitoringService = monitoringService;
+            this.devices = devices;
+        }
+
+        @Override
+        public Void call() throws PolicyComplianceException {
+            PrivilegedCarbonContext.startTenantFlow();
+            try {
+                PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenantId, true);
+                MonitoringManager monitoringManager = new MonitoringManagerImpl();
+                monitoringManager.addMonitoringOperation(devices);
+
+                List<Device> notifiableDevices = new ArrayList<>();
+
+                if (log.isDebugEnabled()) {
+                    log.debug("Removing inactive and blocked devices from the list for the device type : " +
+                            deviceType);
+                }
+                for (Device device : devices) {
+                    if (device.getEnrolmentInfo().getStatus().equals(EnrolmentInfo.Status.INACTIVE) ||
+                            device.getEnrolmentInfo().getStatus().equals(EnrolmentInfo.Status.BLOCKED)) {
+                        continue;
+                    } else {
+                        notifiableDevices.add(device);
+                    }
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug("Following devices selected to send the notification for " + deviceType);
+                    for (Device device : notifiableDevices) {
+                        log.debug(device.getDeviceIdentifier());
+                    }
+                }
+                // Devices of the batch are loaded without the plugin specific information the notifiers rely on
+                try {
+                    PolicyManagementDataHolder.getInstance().getDeviceManagementService().
+                            populatePluginInfo(notifiableDevices);
+                } catch (DeviceManagementException e) {
+                    throw new PolicyComplianceException("Error occurred while retrieving the plugin information of " +
+                            notifiableDevices.size() + " " + deviceType + " device(s) to be notified", e);
+                }
+                monitoringService.notifyDevices(notifiableDevices);
+                return null;
+            } finally {
+                PrivilegedCarbonContext.endTenantFlow();
+            }
+        }
     }
 }
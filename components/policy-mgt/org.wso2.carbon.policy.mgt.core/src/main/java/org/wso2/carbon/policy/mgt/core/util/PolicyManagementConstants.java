@@ -36,6 +36,21 @@ public final class PolicyManagementConstants {
     public static final String TASK_NAME = "MONITORING";
     public static final String TASK_CLAZZ = "org.wso2.carbon.policy.mgt.core.task.MonitoringTask";
 
+    public static final int DEFAULT_MONITORING_THREAD_POOL_SIZE = 4;
+    public static final int DEFAULT_MONITORING_BATCH_SIZE = 500;
+    public static final int DEFAULT_PROPAGATION_THREAD_POOL_SIZE = 4;
+    public static final int DEFAULT_PROPAGATION_BATCH_SIZE = 500;
+    // Maximum number of policy changes and device batches waiting for a propagation thread
+    public static final int PROPAGATION_QUEUE_CAPACITY = 1000;
+    // Maximum number of device ids bound to a single IN clause
+    public static final int DEVICE_ID_CHUNK_SIZE = 500;
+    // Maximum number of distinct decoded policy contents kept in memory
+    public static final int POLICY_CONTENT_CACHE_SIZE = 1000;
+    // Number of times storing a policy content is attempted when concurrent batches store contents of the policy
+    public static final int POLICY_CONTENT_STORE_ATTEMPTS = 3;
+    // Time in milliseconds a compiled policy index is used for before it is compiled again
+    public static final long POLICY_INDEX_TTL = 60000;
+
 
     public static final String DM_CACHE_MANAGER = "DM_CACHE_MANAGER";
     public static final String DM_CACHE = "DM_CACHE";
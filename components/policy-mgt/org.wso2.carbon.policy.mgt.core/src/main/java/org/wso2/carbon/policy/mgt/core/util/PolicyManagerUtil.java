@@ -21,11 +21,18 @@ package org.wso2.carbon.policy.mgt.core.util;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.w3c.dom.Document;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.core.codec.PayloadCodecException;
+import org.wso2.carbon.device.mgt.core.codec.PayloadCodecUtil;
+import org.wso2.carbon.device.mgt.core.dto.DeviceType;
 import org.wso2.carbon.device.mgt.core.operation.mgt.PolicyOperation;
 import org.wso2.carbon.device.mgt.core.operation.mgt.ProfileOperation;
 import org.wso2.carbon.policy.mgt.common.Policy;
+import org.wso2.carbon.policy.mgt.common.PolicyCriterion;
 import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
+import org.wso2.carbon.policy.mgt.common.Profile;
 import org.wso2.carbon.policy.mgt.common.ProfileFeature;
 import org.wso2.carbon.policy.mgt.core.config.datasource.DataSourceConfig;
 import org.wso2.carbon.policy.mgt.core.config.datasource.JNDILookupDefinition;
@@ -37,12 +44,15 @@ import javax.cache.Caching;
 import javax.sql.DataSource;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.ObjectOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.Properties;
 
 public class PolicyManagerUtil {
 
@@ -94,16 +104,6 @@ public class PolicyManagerUtil {
         return dataSource;
     }
 
-    public static String makeString(List<Integer> values) {
-
-        StringBuilder buff = new StringBuilder();
-        for (int value : values) {
-            buff.append(value).append(",");
-        }
-        buff.deleteCharAt(buff.length() - 1);
-        return buff.toString();
-    }
-
     public static Operation transformPolicy(Policy policy) {
         List<ProfileFeature> effectiveFeatures = policy.getProfile().getProfileFeaturesList();
         List<ProfileOperation> profileOperationList = new ArrayList<ProfileOperation>();
@@ -129,18 +129,187 @@ public class PolicyManagerUtil {
     }
 
 
-    public static byte[] getBytes(Object obj) throws java.io.IOException {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        ObjectOutputStream oos = new ObjectOutputStream(bos);
-        oos.writeObject(obj);
-        oos.flush();
-        oos.close();
-        bos.close();
-        byte[] data = bos.toByteArray();
-        return data;
+    public static byte[] getBytes(Object obj) throws IOException {
+        try {
+            return PayloadCodecUtil.encode(obj);
+        } catch (PayloadCodecException e) {
+            throw new IOException("Error occurred while encoding the object", e);
+        }
+    }
+
+    /**
+     * Decodes an object persisted using {@link #getBytes(Object)}. Objects persisted by older versions using plain
+     * Java serialization are decoded as well.
+     */
+    public static Object getObject(byte[] data) throws IOException {
+        try {
+            return PayloadCodecUtil.decode(data, PolicyManagerUtil.class.getClassLoader());
+        } catch (PayloadCodecException e) {
+            throw new IOException("Error occurred while decoding the object", e);
+        }
+    }
+
+    /**
+     * Computes the SHA-256 hash of the given content as a hex string, used to deduplicate stored policy contents.
+     */
+    public static String getContentHash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hash = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hash.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the platform", e);
+        }
     }
 
 
+    /**
+     * Copies the given policy along with its profile, profile features, criteria and the devices, roles and users it
+     * is mapped to, so that the copy can be handed out of a cache shared between callers. Feature contents are
+     * shared, as they are decoded to immutable strings.
+     *
+     * @param policy Policy to copy, may be null
+     * @return Copy of the policy, or null if the policy is null
+     */
+    public static Policy copyPolicy(Policy policy) {
+        if (policy == null) {
+            return null;
+        }
+        Policy copy = new Policy();
+        copy.setId(policy.getId());
+        copy.setPriorityId(policy.getPriorityId());
+        copy.setProfileId(policy.getProfileId());
+        copy.setPolicyName(policy.getPolicyName());
+        copy.setGeneric(policy.isGeneric());
+        copy.setOwnershipType(policy.getOwnershipType());
+        copy.setCompliance(policy.getCompliance());
+        copy.setTenantId(policy.getTenantId());
+        copy.setProfile(copyProfile(policy.getProfile()));
+        if (policy.getRoles() != null) {
+            copy.setRoles(new ArrayList<>(policy.getRoles()));
+        }
+        if (policy.getUsers() != null) {
+            copy.setUsers(new ArrayList<>(policy.getUsers()));
+        }
+        if (policy.getDevices() != null) {
+            List<Device> devices = new ArrayList<>(policy.getDevices().size());
+            for (Device device : policy.getDevices()) {
+                devices.add(copyDevice(device));
+            }
+            copy.setDevices(devices);
+        }
+        if (policy.getPolicyCriterias() != null) {
+            List<PolicyCriterion> criteria = new ArrayList<>(policy.getPolicyCriterias().size());
+            for (PolicyCriterion criterion : policy.getPolicyCriterias()) {
+                criteria.add(copyPolicyCriterion(criterion));
+            }
+            copy.setPolicyCriterias(criteria);
+        }
+        if (policy.getAttributes() != null) {
+            copy.setAttributes(new HashMap<>(policy.getAttributes()));
+        }
+        return copy;
+    }
+
+    /**
+     * Copies each of the given policies using {@link #copyPolicy(Policy)}.
+     */
+    public static List<Policy> copyPolicies(List<Policy> policies) {
+        if (policies == null) {
+            return null;
+        }
+        List<Policy> copies = new ArrayList<>(policies.size());
+        for (Policy policy : policies) {
+            copies.add(copyPolicy(policy));
+        }
+        return copies;
+    }
+
+    private static Profile copyProfile(Profile profile) {
+        if (profile == null) {
+            return null;
+        }
+        Profile copy = new Profile();
+        copy.setProfileId(profile.getProfileId());
+        copy.setProfileName(profile.getProfileName());
+        copy.setTenantId(profile.getTenantId());
+        copy.setCreatedDate(profile.getCreatedDate());
+        copy.setUpdatedDate(profile.getUpdatedDate());
+        if (profile.getDeviceType() != null) {
+            DeviceType deviceType = new DeviceType();
+            deviceType.setId(profile.getDeviceType().getId());
+            deviceType.setName(profile.getDeviceType().getName());
+            copy.setDeviceType(deviceType);
+        }
+        if (profile.getProfileFeaturesList() != null) {
+            List<ProfileFeature> profileFeatures = new ArrayList<>(profile.getProfileFeaturesList().size());
+            for (ProfileFeature profileFeature : profile.getProfileFeaturesList()) {
+                ProfileFeature featureCopy = new ProfileFeature();
+                featureCopy.setId(profileFeature.getId());
+                featureCopy.setFeatureCode(profileFeature.getFeatureCode());
+                featureCopy.setProfileId(profileFeature.getProfileId());
+                featureCopy.setDeviceTypeId(profileFeature.getDeviceTypeId());
+                featureCopy.setContent(profileFeature.getContent());
+                profileFeatures.add(featureCopy);
+            }
+            copy.setProfileFeaturesList(profileFeatures);
+        }
+        return copy;
+    }
+
+    private static Device copyDevice(Device device) {
+        if (device == null) {
+            return null;
+        }
+        Device copy = new Device();
+        copy.setId(device.getId());
+        copy.setName(device.getName());
+        copy.setType(device.getType());
+        copy.setDescription(device.getDescription());
+        copy.setDeviceIdentifier(device.getDeviceIdentifier());
+        if (device.getEnrolmentInfo() != null) {
+            EnrolmentInfo enrolmentInfo = device.getEnrolmentInfo();
+            EnrolmentInfo enrolmentInfoCopy = new EnrolmentInfo(copy, enrolmentInfo.getOwner(),
+                    enrolmentInfo.getOwnership(), enrolmentInfo.getStatus());
+            enrolmentInfoCopy.setDateOfEnrolment(enrolmentInfo.getDateOfEnrolment());
+            enrolmentInfoCopy.setDateOfLastUpdate(enrolmentInfo.getDateOfLastUpdate());
+            copy.setEnrolmentInfo(enrolmentInfoCopy);
+        }
+        if (device.getFeatures() != null) {
+            copy.setFeatures(new ArrayList<>(device.getFeatures()));
+        }
+        if (device.getProperties() != null) {
+            List<Device.Property> properties = new ArrayList<>(device.getProperties().size());
+            for (Device.Property property : device.getProperties()) {
+                Device.Property propertyCopy = new Device.Property();
+                propertyCopy.setName(property.getName());
+                propertyCopy.setValue(property.getValue());
+                properties.add(propertyCopy);
+            }
+            copy.setProperties(properties);
+        }
+        return copy;
+    }
+
+    private static PolicyCriterion copyPolicyCriterion(PolicyCriterion criterion) {
+        PolicyCriterion copy = new PolicyCriterion();
+        copy.setId(criterion.getId());
+        copy.setCriteriaId(criterion.getCriteriaId());
+        copy.setName(criterion.getName());
+        if (criterion.getProperties() != null) {
+            Properties properties = new Properties();
+            properties.putAll(criterion.getProperties());
+            copy.setProperties(properties);
+        }
+        if (criterion.getObjectMap() != null) {
+            copy.setObjectMap(new HashMap<>(criterion.getObjectMap()));
+        }
+        return copy;
+    }
+
     public static Cache getCacheManagerImpl(){
         return Caching.getCacheManagerFactory()
                 .getCacheManager(PolicyManagementConstants.DM_CACHE_MANAGER).getCache(PolicyManagementConstants.DM_CACHE);
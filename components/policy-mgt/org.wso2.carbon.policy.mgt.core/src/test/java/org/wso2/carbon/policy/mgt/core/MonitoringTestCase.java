@@ -21,12 +21,18 @@ package org.wso2.carbon.policy.mgt.core;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManager;
+import org.wso2.carbon.device.mgt.core.dao.DeviceDAO;
+import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
+import org.wso2.carbon.device.mgt.core.dao.EnrolmentDAO;
+import org.wso2.carbon.device.mgt.core.dto.DeviceType;
 import org.wso2.carbon.device.mgt.core.internal.DeviceManagementDataHolder;
 import org.wso2.carbon.device.mgt.core.operation.mgt.OperationManagerImpl;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementAdminService;
@@ -34,24 +40,44 @@ import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderServiceImpl;
 import org.wso2.carbon.policy.mgt.common.Policy;
 import org.wso2.carbon.policy.mgt.common.PolicyAdministratorPoint;
+import org.wso2.carbon.policy.mgt.common.PolicyEvaluationException;
+import org.wso2.carbon.policy.mgt.common.PolicyEvaluationPoint;
 import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
+import org.wso2.carbon.policy.mgt.common.ProfileFeature;
+import org.wso2.carbon.policy.mgt.common.monitor.ComplianceData;
+import org.wso2.carbon.policy.mgt.common.monitor.ComplianceFeature;
+import org.wso2.carbon.policy.mgt.common.monitor.DeviceComplianceResponse;
 import org.wso2.carbon.policy.mgt.common.monitor.PolicyComplianceException;
+import org.wso2.carbon.policy.mgt.core.dao.PolicyManagementDAOFactory;
+import org.wso2.carbon.policy.mgt.core.enforcement.PolicyChangePropagator;
+import org.wso2.carbon.policy.mgt.core.enforcement.PolicyDelegationException;
+import org.wso2.carbon.policy.mgt.core.enforcement.PolicyEnforcementDelegator;
 import org.wso2.carbon.policy.mgt.core.impl.PolicyAdministratorPointImpl;
 import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
 import org.wso2.carbon.policy.mgt.core.mgt.MonitoringManager;
 import org.wso2.carbon.policy.mgt.core.mgt.PolicyManager;
+import org.wso2.carbon.policy.mgt.core.mgt.impl.ComplianceSnapshot;
 import org.wso2.carbon.policy.mgt.core.mgt.impl.MonitoringManagerImpl;
 import org.wso2.carbon.policy.mgt.core.mgt.impl.PolicyManagerImpl;
 import org.wso2.carbon.policy.mgt.core.services.PolicyMonitoringServiceTest;
 import org.wso2.carbon.policy.mgt.core.task.MonitoringTask;
-
+import org.wso2.carbon.policy.mgt.core.util.DeviceTypeCreator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class MonitoringTestCase extends BasePolicyManagementDAOTest {
 
     private static final Log log = LogFactory.getLog(MonitoringTestCase.class);
 
     private static final String ANDROID = "android";
+    private static final int SHARED_POLICY_DEVICE_COUNT = 6;
 
     DeviceIdentifier identifier = new DeviceIdentifier();
 
@@ -133,6 +159,35 @@ public class MonitoringTestCase extends BasePolicyManagementDAOTest {
 
 
     @Test(dependsOnMethods = ("addComplianceOperation"))
+    public void loadComplianceSnapshot() throws Exception {
+        DeviceManagementProviderService service = new DeviceManagementProviderServiceImpl();
+        List<Device> devices = service.getAllDevices(ANDROID);
+        List<Integer> deviceIds = new ArrayList<>();
+        for (Device device : devices) {
+            deviceIds.add(device.getId());
+        }
+        PolicyManager manager = new PolicyManagerImpl();
+        Policy policy = manager.getAppliedPolicyToDevice(identifier);
+
+        ComplianceSnapshot complianceSnapshot;
+        try {
+            PolicyManagementDAOFactory.openConnection();
+            complianceSnapshot = ComplianceSnapshot.load(PolicyManagementDAOFactory.getMonitoringDAO(),
+                    PolicyManagementDAOFactory.getPolicyDAO(), deviceIds);
+        } finally {
+            PolicyManagementDAOFactory.closeConnection();
+        }
+        for (Device device : devices) {
+            Assert.assertNotNull(complianceSnapshot.getComplianceData(device.getId()),
+                    "Compliance data is not loaded for device " + device.getDeviceIdentifier());
+            if (device.getDeviceIdentifier().equals(identifier.getId())) {
+                Assert.assertEquals(complianceSnapshot.getAppliedPolicyId(device.getId()),
+                        Integer.valueOf(policy.getId()), "Applied policy id is not loaded");
+            }
+        }
+    }
+
+    @Test(dependsOnMethods = ("loadComplianceSnapshot"))
     public void checkComplianceFromMonitoringService() throws PolicyManagementException, DeviceManagementException,
             PolicyComplianceException {
 
@@ -191,4 +246,164 @@ public class MonitoringTestCase extends BasePolicyManagementDAOTest {
         monitoringManager.checkPolicyCompliance(identifier, ob);
 
     }
+
+    @Test(dependsOnMethods = ("checkCompliance"))
+    public void checkBatchCompliance() throws DeviceManagementException, PolicyComplianceException {
+
+        PolicyMonitoringServiceTest monitoringServiceTest = new PolicyMonitoringServiceTest();
+        PolicyManagementDataHolder.getInstance().setPolicyMonitoringService(monitoringServiceTest.getType(),
+                monitoringServiceTest);
+        DeviceManagementProviderService adminService = new DeviceManagementProviderServiceImpl();
+
+        List<DeviceComplianceResponse> responses = new ArrayList<>();
+        for (Device device : adminService.getAllDevices(ANDROID)) {
+            responses.add(new DeviceComplianceResponse(device, new Object()));
+        }
+
+        MonitoringManager monitoringManager = new MonitoringManagerImpl();
+        List<ComplianceData> complianceData = monitoringManager.checkPolicyCompliance(responses);
+
+        Device device = adminService.getDevice(identifier);
+        ComplianceData deviceData = null;
+        for (ComplianceData data : complianceData) {
+            if (data.getDeviceId() == device.getId()) {
+                deviceData = data;
+            }
+        }
+        Assert.assertNotNull(deviceData, "Compliance of the device with an applied policy is not checked");
+        Assert.assertFalse(deviceData.isStatus(), "Device is not marked as none compliant");
+        for (ComplianceFeature complianceFeature : deviceData.getComplianceFeatures()) {
+            Assert.assertNotNull(complianceFeature.getFeature(), "Feature " + complianceFeature.getFeatureCode() +
+                    " is not linked to the profile feature of the applied policy");
+        }
+
+        ComplianceData storedData = monitoringManager.getDevicePolicyCompliance(identifier);
+        Assert.assertEquals(storedData.getId(), deviceData.getId(), "Compliance status id is not the stored one");
+        Assert.assertFalse(storedData.isStatus(), "None compliance is not stored");
+        Assert.assertEquals(storedData.getComplianceFeatures().size(), deviceData.getComplianceFeatures().size(),
+                "None compliance features of the last check are not stored");
+    }
+
+    @Test(dependsOnMethods = ("checkBatchCompliance"))
+    public void propagatePolicyChange() throws PolicyManagementException, DeviceManagementException {
+
+        PolicyManager manager = new PolicyManagerImpl();
+        final Policy changedPolicy = manager.getAppliedPolicyToDevice(identifier);
+        changedPolicy.setPolicyName(changedPolicy.getPolicyName() + "_changed");
+        changedPolicy.setRoles(null);
+        changedPolicy.setUsers(null);
+
+        PolicyEvaluationPoint evaluationPoint = new PolicyEvaluationPoint() {
+            @Override
+            public Policy getEffectivePolicy(DeviceIdentifier deviceIdentifier) throws PolicyEvaluationException {
+                return changedPolicy;
+            }
+
+            @Override
+            public List<ProfileFeature> getEffectiveFeatures(DeviceIdentifier deviceIdentifier)
+                    throws PolicyEvaluationException {
+                return changedPolicy.getProfile().getProfileFeaturesList();
+            }
+        };
+        final Set<Integer> delegatedDeviceIds = new HashSet<>();
+        PolicyEnforcementDelegator delegator = new PolicyEnforcementDelegator() {
+            @Override
+            public synchronized void delegate(Policy policy, List<Device> devices) throws PolicyDelegationException {
+                for (Device device : devices) {
+                    delegatedDeviceIds.add(device.getId());
+                }
+            }
+        };
+
+        PolicyChangePropagator propagator = new PolicyChangePropagator(evaluationPoint, delegator, 2, 1);
+        propagator.propagate(changedPolicy);
+
+        DeviceManagementProviderService service = new DeviceManagementProviderServiceImpl();
+        Device device = service.getDevice(identifier);
+        Assert.assertTrue(delegatedDeviceIds.contains(device.getId()),
+                "Changed policy is not delegated to the device it is applied to");
+        Assert.assertEquals(manager.getAppliedPolicyToDevice(identifier).getPolicyName(),
+                changedPolicy.getPolicyName(), "Applied policy of the device is not updated with the change");
+    }
+
+    @Test(dependsOnMethods = ("propagatePolicyChange"))
+    public void propagateSharedPolicyInParallel() throws Exception {
+
+        DeviceDAO deviceDAO = DeviceManagementDAOFactory.getDeviceDAO();
+        EnrolmentDAO enrolmentDAO = DeviceManagementDAOFactory.getEnrollmentDAO();
+        DeviceType type = DeviceTypeCreator.getDeviceType();
+        List<DeviceIdentifier> identifiers = new ArrayList<>();
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            for (int i = 0; i < SHARED_POLICY_DEVICE_COUNT; i++) {
+                Device device = new Device();
+                device.setType(ANDROID);
+                device.setName("Shared policy device " + i);
+                device.setDeviceIdentifier("shared-policy-device-" + i);
+                EnrolmentInfo enrolmentInfo = new EnrolmentInfo();
+                enrolmentInfo.setOwner("admin");
+                enrolmentInfo.setOwnership(EnrolmentInfo.OwnerShip.BYOD);
+                enrolmentInfo.setStatus(EnrolmentInfo.Status.ACTIVE);
+                device.setEnrolmentInfo(enrolmentInfo);
+                int id = deviceDAO.addDevice(type.getId(), device, -1234);
+                enrolmentDAO.addEnrollment(id, enrolmentInfo, -1234);
+                identifiers.add(new DeviceIdentifier(device.getDeviceIdentifier(), ANDROID));
+            }
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+
+        PolicyManager manager = new PolicyManagerImpl();
+        final Policy sharedPolicy = manager.getAppliedPolicyToDevice(identifier);
+        sharedPolicy.setPolicyName(sharedPolicy.getPolicyName() + "_shared");
+        int storedContentCount = this.getPolicyContentCount(sharedPolicy.getId());
+
+        PolicyEvaluationPoint evaluationPoint = new PolicyEvaluationPoint() {
+            @Override
+            public Policy getEffectivePolicy(DeviceIdentifier deviceIdentifier) throws PolicyEvaluationException {
+                return sharedPolicy;
+            }
+
+            @Override
+            public List<ProfileFeature> getEffectiveFeatures(DeviceIdentifier deviceIdentifier)
+                    throws PolicyEvaluationException {
+                return sharedPolicy.getProfile().getProfileFeaturesList();
+            }
+        };
+        PolicyEnforcementDelegator delegator = new PolicyEnforcementDelegator() {
+            @Override
+            public void delegate(Policy policy, List<Device> devices) throws PolicyDelegationException {
+            }
+        };
+
+        PolicyChangePropagator propagator = new PolicyChangePropagator(evaluationPoint, delegator, 4, 1);
+        try {
+            propagator.propagate(sharedPolicy);
+        } finally {
+            propagator.shutdown();
+        }
+
+        for (DeviceIdentifier deviceIdentifier : identifiers) {
+            Assert.assertEquals(manager.getAppliedPolicyToDevice(deviceIdentifier).getPolicyName(),
+                    sharedPolicy.getPolicyName(), "Shared policy is not applied to device " + deviceIdentifier.getId());
+        }
+        Assert.assertEquals(this.getPolicyContentCount(sharedPolicy.getId()), storedContentCount + 1,
+                "Content of the shared policy is not stored exactly once by the parallel batches");
+    }
+
+    private int getPolicyContentCount(int policyId) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        try {
+            conn = this.getDataSource().getConnection();
+            stmt = conn.prepareStatement("SELECT COUNT(*) FROM DM_POLICY_CONTENT WHERE POLICY_ID = ?");
+            stmt.setInt(1, policyId);
+            resultSet = stmt.executeQuery();
+            resultSet.next();
+            return resultSet.getInt(1);
+        } finally {
+            TestUtils.cleanupResources(conn, stmt, resultSet);
+        }
+    }
 }
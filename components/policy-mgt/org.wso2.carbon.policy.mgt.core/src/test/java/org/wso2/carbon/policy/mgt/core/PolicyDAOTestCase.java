@@ -19,6 +19,7 @@ package org.wso2.carbon.policy.mgt.core;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 import org.wso2.carbon.device.mgt.common.Device;
@@ -30,6 +31,7 @@ import org.wso2.carbon.device.mgt.core.dto.DeviceType;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderServiceImpl;
 import org.wso2.carbon.policy.mgt.common.*;
+import org.wso2.carbon.policy.mgt.core.cache.impl.PolicyCacheManagerImpl;
 import org.wso2.carbon.policy.mgt.core.impl.PolicyAdministratorPointImpl;
 import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
 import org.wso2.carbon.policy.mgt.core.mgt.FeatureManager;
@@ -344,6 +346,31 @@ public class PolicyDAOTestCase extends BasePolicyManagementDAOTest {
 
 
     @Test(dependsOnMethods = ("getRoleRelatedPolicyThirdTime"))
+    public void getRoleRelatedPolicyWithoutCache() throws PolicyManagementException {
+
+        PolicyManager policyManager = new PolicyManagerImpl();
+        List<Policy> expectedPolicies = new ArrayList<>();
+        for (Policy policy : policyManager.getPolicies()) {
+            if (policy.getRoles().contains("Role_01")) {
+                expectedPolicies.add(policy);
+            }
+        }
+        PolicyCacheManagerImpl.getInstance().removeAllPolicies();
+        List<Policy> policyList = policyManager.getPoliciesOfRole("Role_01");
+
+        Assert.assertEquals(policyList.size(), expectedPolicies.size(), "Policies of the role are not loaded");
+        for (int i = 0; i < policyList.size(); i++) {
+            Policy expected = expectedPolicies.get(i);
+            Policy loaded = policyList.get(i);
+            Assert.assertEquals(loaded.getId(), expected.getId(), "Policies of the role are not in priority order");
+            Assert.assertEquals(loaded.getRoles(), expected.getRoles(), "Roles of the policy are not loaded");
+            Assert.assertEquals(loaded.getUsers(), expected.getUsers(), "Users of the policy are not loaded");
+            Assert.assertEquals(loaded.getProfile().getProfileFeaturesList().size(),
+                    expected.getProfile().getProfileFeaturesList().size(), "Features of the policy are not loaded");
+        }
+    }
+
+    @Test(dependsOnMethods = ("getRoleRelatedPolicyWithoutCache"))
     public void deletPolicy() throws PolicyManagementException {
         PolicyAdministratorPoint policyAdministratorPoint = new PolicyAdministratorPointImpl();
         policyAdministratorPoint.deletePolicy(1);
@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tomcat.jdbc.pool.PoolProperties;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.base.MultitenantConstants;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
+import org.wso2.carbon.device.mgt.core.dao.DeviceDAO;
+import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
+import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationDAO;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
+import org.wso2.carbon.policy.mgt.core.dao.PolicyDAO;
+import org.wso2.carbon.policy.mgt.core.dao.PolicyManagementDAOFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the statements issued by the device, operation and policy DAOs through H2's EXPLAIN against the shipped
+ * schema and fails if any of them has to fall back to a full table scan. The statements are captured by handing
+ * a recording data source to the DAO factories, so the test follows the SQL as it evolves in the DAOs.
+ */
+public class QueryPlanTestCase extends BasePolicyManagementDAOTest {
+
+    private static final Log log = LogFactory.getLog(QueryPlanTestCase.class);
+
+    private static final String SCHEMA_SCRIPT = "../../../features/device-mgt/" +
+            "org.wso2.carbon.device.mgt.server.feature/src/main/resources/dbscripts/cdm/h2.sql";
+    private static final String PLAN_DB_URL = "jdbc:h2:mem:cdm-query-plan-db;DB_CLOSE_DELAY=-1";
+    private static final String TABLE_SCAN = ".tableScan";
+
+    private static final String ANDROID = "android";
+    private static final String OWNER = "admin";
+    private static final int UNKNOWN_ID = -1;
+    private static final int TENANT_ID = MultitenantConstants.SUPER_TENANT_ID;
+
+    private DataSource planDataSource;
+    private List<RecordedStatement> statements = new ArrayList<RecordedStatement>();
+
+    @BeforeClass
+    @Override
+    public void init() throws Exception {
+        this.initiatePrivilegedCaronContext();
+
+        PoolProperties properties = new PoolProperties();
+        properties.setUrl(PLAN_DB_URL);
+        properties.setDriverClassName("org.h2.Driver");
+        properties.setUsername("wso2carbon");
+        properties.setPassword("wso2carbon");
+        planDataSource = new org.apache.tomcat.jdbc.pool.DataSource(properties);
+
+        Connection conn = null;
+        Statement stmt = null;
+        try {
+            conn = planDataSource.getConnection();
+            stmt = conn.createStatement();
+            stmt.executeUpdate("RUNSCRIPT FROM '" + SCHEMA_SCRIPT + "'");
+        } finally {
+            TestUtils.cleanupResources(conn, stmt, null);
+        }
+
+        DataSource recordingDataSource = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class[]{DataSource.class}, new DataSourceRecorder(planDataSource));
+        DeviceManagementDAOFactory.init(recordingDataSource);
+        OperationManagementDAOFactory.init(recordingDataSource);
+        PolicyManagementDAOFactory.init(recordingDataSource);
+    }
+
+    @AfterClass
+    public void restoreDataSource() throws Exception {
+        this.initDatSource();
+    }
+
+    @Test
+    public void testDeviceQueryPlans() throws Exception {
+        statements.clear();
+        DeviceDAO deviceDAO = DeviceManagementDAOFactory.getDeviceDAO();
+        DeviceIdentifier deviceId = new DeviceIdentifier("query-plan-device", ANDROID);
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            deviceDAO.getDevice(deviceId, TENANT_ID);
+            deviceDAO.getDevices(TENANT_ID);
+            deviceDAO.getDevices(ANDROID, TENANT_ID);
+            deviceDAO.getDevicesOfUser(OWNER, TENANT_ID);
+            deviceDAO.getDevices(TENANT_ID, 0, 10);
+            deviceDAO.getDevices(ANDROID, TENANT_ID, 0, 10);
+            deviceDAO.getDevicesOfUser(OWNER, TENANT_ID, 0, 10);
+            deviceDAO.getDevicesByStatus(EnrolmentInfo.Status.ACTIVE, TENANT_ID);
+            deviceDAO.getDevicesByStatus(EnrolmentInfo.Status.ACTIVE, TENANT_ID, 0, 10);
+            deviceDAO.getEnrolment(deviceId, OWNER, TENANT_ID);
+            deviceDAO.getEnrolmentStatus(deviceId, OWNER, TENANT_ID);
+            deviceDAO.getEnrolmentByStatus(deviceId, EnrolmentInfo.Status.ACTIVE, TENANT_ID);
+            deviceDAO.getEnrolmentIdsByStatus(ANDROID, Arrays.asList("query-plan-device-1", "query-plan-device-2"),
+                    EnrolmentInfo.Status.ACTIVE, TENANT_ID);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+        this.assertNoTableScans();
+    }
+
+    @Test
+    public void testOperationQueryPlans() throws Exception {
+        statements.clear();
+        OperationDAO operationDAO = OperationManagementDAOFactory.getOperationDAO();
+        try {
+            OperationManagementDAOFactory.openConnection();
+            operationDAO.getOperationByDeviceAndId(UNKNOWN_ID, UNKNOWN_ID);
+            operationDAO.getNextOperation(UNKNOWN_ID);
+            operationDAO.getOperationsByDeviceAndStatus(UNKNOWN_ID, Operation.Status.PENDING);
+            operationDAO.getOperationsWithDetails(UNKNOWN_ID, Operation.Status.PENDING, 10);
+            OperationManagementDAOFactory.getCommandOperationDAO().getOperationsByDeviceAndStatus(UNKNOWN_ID,
+                    Operation.Status.PENDING);
+            OperationManagementDAOFactory.getConfigOperationDAO().getOperationsByDeviceAndStatus(UNKNOWN_ID,
+                    Operation.Status.PENDING);
+            OperationManagementDAOFactory.getProfileOperationDAO().getOperationsByDeviceAndStatus(UNKNOWN_ID,
+                    Operation.Status.PENDING);
+            OperationManagementDAOFactory.getPolicyOperationDAO().getOperationsByDeviceAndStatus(UNKNOWN_ID,
+                    Operation.Status.PENDING);
+            operationDAO.updateOperationStatus(UNKNOWN_ID, UNKNOWN_ID, Operation.Status.COMPLETED);
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+        this.assertNoTableScans();
+    }
+
+    @Test
+    public void testPolicyQueryPlans() throws Exception {
+        statements.clear();
+        PolicyDAO policyDAO = PolicyManagementDAOFactory.getPolicyDAO();
+        Device device = new Device();
+        device.setId(UNKNOWN_ID);
+        try {
+            PolicyManagementDAOFactory.openConnection();
+            policyDAO.getAllPolicies();
+            policyDAO.getPolicy(UNKNOWN_ID);
+            policyDAO.getPolicyCriteria(UNKNOWN_ID);
+            policyDAO.getPolicyAppliedRoles(UNKNOWN_ID);
+            policyDAO.getPolicyAppliedUsers(UNKNOWN_ID);
+            policyDAO.getPolicyAppliedDevicesIds(UNKNOWN_ID);
+            policyDAO.getPolicyOfRole(OWNER);
+            policyDAO.getPolicyOfUser(OWNER);
+            policyDAO.getPolicyIdsOfDevice(device);
+            policyDAO.checkPolicyAvailable(UNKNOWN_ID);
+            policyDAO.getAppliedPolicyId(UNKNOWN_ID);
+            policyDAO.getAppliedPolicy(UNKNOWN_ID);
+            policyDAO.getCriterion("query-plan-criterion");
+        } finally {
+            PolicyManagementDAOFactory.closeConnection();
+        }
+        this.assertNoTableScans();
+    }
+
+    private void assertNoTableScans() throws Exception {
+        Assert.assertFalse(statements.isEmpty(), "No statements were captured from the DAOs");
+        List<String> violations = new ArrayList<String>();
+        Connection conn = null;
+        try {
+            conn = planDataSource.getConnection();
+            for (RecordedStatement statement : statements) {
+                String plan = this.explain(conn, statement);
+                if (log.isDebugEnabled()) {
+                    log.debug("Query plan of '" + statement.sql + "' : " + plan);
+                }
+                if (plan.contains(TABLE_SCAN)) {
+                    violations.add(statement.sql + "\n" + plan);
+                }
+            }
+        } finally {
+            TestUtils.cleanupResources(conn, null, null);
+        }
+        Assert.assertTrue(violations.isEmpty(), "Full table scans found in the following query plans:\n" +
+                violations);
+    }
+
+    private String explain(Connection conn, RecordedStatement statement) throws Exception {
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = conn.prepareStatement("EXPLAIN " + statement.sql);
+            for (Object[] parameter : statement.parameters) {
+                ((Method) parameter[0]).invoke(stmt, (Object[]) parameter[1]);
+            }
+            rs = stmt.executeQuery();
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                plan.append(rs.getString(1));
+            }
+            return plan.toString();
+        } finally {
+            TestUtils.cleanupResources(null, stmt, rs);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static boolean isPlannable(String sql) {
+        String statement = sql.trim().toUpperCase();
+        return statement.startsWith("SELECT") || statement.startsWith("UPDATE") || statement.startsWith("DELETE");
+    }
+
+    private static class RecordedStatement {
+
+        private final String sql;
+        private final List<Object[]> parameters = new ArrayList<Object[]>();
+
+        private RecordedStatement(String sql) {
+            this.sql = sql;
+        }
+
+    }
+
+    private class DataSourceRecorder implements InvocationHandler {
+
+        private final DataSource dataSource;
+
+        private DataSourceRecorder(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = QueryPlanTestCase.invoke(dataSource, method, args);
+            if (result instanceof Connection) {
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[]{Connection.class},
+                        new ConnectionRecorder((Connection) result));
+            }
+            return result;
+        }
+
+    }
+
+    private class ConnectionRecorder implements InvocationHandler {
+
+        private final Connection connection;
+
+        private ConnectionRecorder(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = QueryPlanTestCase.invoke(connection, method, args);
+            if ("prepareStatement".equals(method.getName()) && isPlannable((String) args[0])) {
+                RecordedStatement statement = new RecordedStatement((String) args[0]);
+                statements.add(statement);
+                return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                        new Class[]{PreparedStatement.class},
+                        new StatementRecorder((PreparedStatement) result, statement));
+            }
+            return result;
+        }
+
+    }
+
+    private static class StatementRecorder implements InvocationHandler {
+
+        private final PreparedStatement preparedStatement;
+        private final RecordedStatement statement;
+
+        private StatementRecorder(PreparedStatement preparedStatement, RecordedStatement statement) {
+            this.preparedStatement = preparedStatement;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().startsWith("set") && args != null && args.length > 1 &&
+                    args[0] instanceof Integer) {
+                statement.parameters.add(new Object[]{method, args});
+            }
+            return QueryPlanTestCase.invoke(preparedStatement, method, args);
+        }
+
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core.cache;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.core.dto.DeviceType;
+import org.wso2.carbon.policy.mgt.common.Policy;
+import org.wso2.carbon.policy.mgt.common.Profile;
+import org.wso2.carbon.policy.mgt.common.ProfileFeature;
+import org.wso2.carbon.policy.mgt.core.cache.impl.PolicyCacheManagerImpl;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class PolicyCacheManagerTest {
+
+    @BeforeMethod
+    @AfterMethod
+    public void clearCache() {
+        PolicyCacheManagerImpl.getInstance().removeAllPolicies();
+    }
+
+    @Test
+    public void testCopyPolicy() {
+        Policy policy = this.createPolicy(1);
+        Policy copy = PolicyManagerUtil.copyPolicy(policy);
+
+        copy.setPolicyName("Changed");
+        copy.getRoles().add("Role_02");
+        copy.getProfile().getDeviceType().setName("ios");
+        copy.getProfile().getProfileFeaturesList().get(0).setFeatureCode("CHANGED");
+
+        Assert.assertEquals(policy.getPolicyName(), "Policy_1", "Name of the copied policy is changed");
+        Assert.assertEquals(policy.getRoles(), Arrays.asList("Role_01"), "Roles of the copied policy are changed");
+        Assert.assertEquals(policy.getProfile().getDeviceType().getName(), "android",
+                "Device type of the copied policy is changed");
+        Assert.assertEquals(policy.getProfile().getProfileFeaturesList().get(0).getFeatureCode(), "CAMERA",
+                "Features of the copied policy are changed");
+    }
+
+    @Test
+    public void testCachedPoliciesNotShared() {
+        PolicyCacheManager cacheManager = PolicyCacheManagerImpl.getInstance();
+        List<Policy> policies = new ArrayList<>();
+        policies.add(this.createPolicy(1));
+        policies.add(this.createPolicy(2));
+        cacheManager.addAllPolicies(policies);
+        this.assumeCacheAvailable(cacheManager);
+
+        policies.get(0).setPolicyName("Changed after caching");
+        cacheManager.getAllPolicies().get(0).setPolicyName("Changed by a reader");
+        cacheManager.getPolicy(2).getRoles().clear();
+
+        List<Policy> cachedPolicies = cacheManager.getAllPolicies();
+        Assert.assertEquals(cachedPolicies.get(0).getPolicyName(), "Policy_1",
+                "Cached policy is changed through a reference held by a caller");
+        Assert.assertEquals(cachedPolicies.get(1).getRoles(), Arrays.asList("Role_01"),
+                "Cached policy is changed through a policy returned to a caller");
+    }
+
+    @Test
+    public void testCachedPoliciesLookedUpById() {
+        PolicyCacheManager cacheManager = PolicyCacheManagerImpl.getInstance();
+        Assert.assertNull(cacheManager.getPolicies(Arrays.asList(1)), "Policies are returned from an empty cache");
+        cacheManager.addAllPolicies(Arrays.asList(this.createPolicy(1), this.createPolicy(2), this.createPolicy(3)));
+        this.assumeCacheAvailable(cacheManager);
+
+        List<Policy> policies = cacheManager.getPolicies(Arrays.asList(3, 1, 4));
+        Assert.assertEquals(policies.size(), 2, "Policies other than the cached ones with the given ids are returned");
+        Assert.assertEquals(policies.get(0).getId(), 1, "Policies are not returned in the order of the cache");
+        Assert.assertEquals(policies.get(1).getId(), 3, "Policies are not returned in the order of the cache");
+
+        policies.get(0).setPolicyName("Changed by a reader");
+        policies.get(1).getRoles().clear();
+        Assert.assertEquals(cacheManager.getPolicy(1).getPolicyName(), "Policy_1",
+                "Cached policy is changed through a policy looked up by id");
+        Assert.assertEquals(cacheManager.getPolicy(3).getRoles(), Arrays.asList("Role_01"),
+                "Cached policy is changed through a policy looked up by id");
+    }
+
+    @Test
+    public void testHitAndMissCounts() {
+        PolicyCacheManager cacheManager = PolicyCacheManagerImpl.getInstance();
+        long misses = cacheManager.getMissCount();
+        Assert.assertNull(cacheManager.getAllPolicies(), "Policies are returned from an empty cache");
+        Assert.assertEquals(cacheManager.getMissCount(), misses + 1, "Look up of an empty cache is not a miss");
+
+        cacheManager.addAllPolicies(Arrays.asList(this.createPolicy(1)));
+        this.assumeCacheAvailable(cacheManager);
+        long hits = cacheManager.getHitCount();
+        misses = cacheManager.getMissCount();
+        Assert.assertNotNull(cacheManager.getPolicy(1), "Cached policy is not returned");
+        Assert.assertNull(cacheManager.getPolicy(3), "Policy which is not cached is returned");
+        Assert.assertEquals(cacheManager.getHitCount(), hits + 1, "Look up of a cached policy is not a hit");
+        Assert.assertEquals(cacheManager.getMissCount(), misses + 1, "Look up of a missing policy is not a miss");
+    }
+
+    private void assumeCacheAvailable(PolicyCacheManager cacheManager) {
+        if (cacheManager.getAllPolicies() == null) {
+            throw new SkipException("Device management cache is not available in this environment");
+        }
+    }
+
+    private Policy createPolicy(int id) {
+        DeviceType deviceType = new DeviceType();
+        deviceType.setId(1);
+        deviceType.setName("android");
+
+        ProfileFeature profileFeature = new ProfileFeature();
+        profileFeature.setId(id);
+        profileFeature.setFeatureCode("CAMERA");
+        profileFeature.setContent("{\"enabled\":false}");
+
+        Profile profile = new Profile();
+        profile.setProfileId(id);
+        profile.setDeviceType(deviceType);
+        profile.setProfileFeaturesList(new ArrayList<>(Arrays.asList(profileFeature)));
+
+        Policy policy = new Policy();
+        policy.setId(id);
+        policy.setPolicyName("Policy_" + id);
+        policy.setPriorityId(id);
+        policy.setProfile(profile);
+        policy.setRoles(new ArrayList<>(Arrays.asList("Role_01")));
+        policy.setUsers(new ArrayList<String>());
+        return policy;
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core.cache;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.core.dto.DeviceType;
+import org.wso2.carbon.policy.mgt.common.PIPDevice;
+import org.wso2.carbon.policy.mgt.common.Policy;
+import org.wso2.carbon.policy.mgt.common.Profile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class PolicyIndexTest {
+
+    private PolicyIndex policyIndex;
+
+    @BeforeClass
+    public void init() {
+        List<Policy> policies = new ArrayList<>();
+        policies.add(this.createPolicy(1, "android", "COPE", Collections.<String>emptyList(),
+                Arrays.asList("Dilshan")));
+        policies.add(this.createPolicy(2, "android", "COPE", Arrays.asList("Role_01", "Role_02"),
+                Arrays.asList("Geeth", "Manoj")));
+        policies.add(this.createPolicy(3, "android", "BYOD", Arrays.asList("Role_01"),
+                Collections.<String>emptyList()));
+        policies.add(this.createPolicy(4, "ios", "ANY", Arrays.asList("ANY"), Arrays.asList("ANY")));
+        policies.add(this.createPolicy(5, "android", "ANY", Arrays.asList("ANY"), Arrays.asList("ANY")));
+        policyIndex = new PolicyIndex(policies);
+    }
+
+    @Test
+    public void testAllAttributesMatched() {
+        PIPDevice pipDevice = this.createPIPDevice("Android", "cope", new String[]{"role_01", "Role_09"}, "geeth");
+        Assert.assertEquals(this.getPolicyIds(policyIndex.getRelatedPolicies(pipDevice)), Arrays.asList(2, 5),
+                "Policies are not matched on device type, ownership, roles and user ignoring case");
+    }
+
+    @Test
+    public void testUnrestrictedPoliciesMatched() {
+        PIPDevice pipDevice = this.createPIPDevice("android", "BYOD", new String[]{"Role_03"}, "Dilshan");
+        Assert.assertEquals(this.getPolicyIds(policyIndex.getRelatedPolicies(pipDevice)), Arrays.asList(5),
+                "Only the policies not restricting the attributes of the device are expected to match");
+    }
+
+    @Test
+    public void testMissingAttributesNotFiltered() {
+        PIPDevice pipDevice = this.createPIPDevice("android", null, null, null);
+        Assert.assertEquals(this.getPolicyIds(policyIndex.getRelatedPolicies(pipDevice)), Arrays.asList(1, 2, 3, 5),
+                "Attributes the device does not carry are expected not to narrow down the policies");
+    }
+
+    @Test
+    public void testUnknownDeviceType() {
+        PIPDevice pipDevice = this.createPIPDevice("windows", "BYOD", new String[]{"Role_01"}, "Dilshan");
+        Assert.assertTrue(policyIndex.getRelatedPolicies(pipDevice).isEmpty(),
+                "Policies are matched for a device type no policy is defined for");
+    }
+
+    private Policy createPolicy(int id, String deviceTypeName, String ownershipType, List<String> roles,
+                                List<String> users) {
+        DeviceType deviceType = new DeviceType();
+        deviceType.setName(deviceTypeName);
+        Profile profile = new Profile();
+        profile.setDeviceType(deviceType);
+
+        Policy policy = new Policy();
+        policy.setId(id);
+        policy.setPriorityId(id);
+        policy.setProfile(profile);
+        policy.setOwnershipType(ownershipType);
+        policy.setRoles(roles);
+        policy.setUsers(users);
+        return policy;
+    }
+
+    private PIPDevice createPIPDevice(String deviceTypeName, String ownershipType, String[] roles, String userId) {
+        DeviceType deviceType = new DeviceType();
+        deviceType.setName(deviceTypeName);
+        PIPDevice pipDevice = new PIPDevice();
+        pipDevice.setDeviceType(deviceType);
+        pipDevice.setOwnershipType(ownershipType);
+        pipDevice.setRoles(roles);
+        pipDevice.setUserId(userId);
+        return pipDevice;
+    }
+
+    private List<Integer> getPolicyIds(List<Policy> policies) {
+        List<Integer> policyIds = new ArrayList<>();
+        for (Policy policy : policies) {
+            policyIds.add(policy.getId());
+        }
+        return policyIds;
+    }
+
+}
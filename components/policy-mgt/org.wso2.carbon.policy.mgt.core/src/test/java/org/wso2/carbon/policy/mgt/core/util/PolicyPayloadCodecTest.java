@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core.util;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.core.codec.PayloadCodec;
+import org.wso2.carbon.device.mgt.core.codec.PayloadCodecException;
+import org.wso2.carbon.device.mgt.core.codec.impl.DeflatePayloadCodec;
+import org.wso2.carbon.device.mgt.core.codec.impl.JavaSerializationPayloadCodec;
+import org.wso2.carbon.device.mgt.core.codec.impl.JsonPayloadCodec;
+import org.wso2.carbon.policy.mgt.common.Policy;
+import org.wso2.carbon.policy.mgt.common.PolicyCriterion;
+import org.wso2.carbon.policy.mgt.common.ProfileFeature;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+public class PolicyPayloadCodecTest {
+
+    @Test
+    public void testRoundTripPolicy() throws PayloadCodecException {
+        Policy policy = PolicyCreator.createPolicy2(ProfileCreator.getProfile(FeatureCreator.getFeatureList()));
+        policy.setId(4);
+        policy.setPriorityId(2);
+        policy.setTenantId(-1234);
+        policy.getProfile().setCreatedDate(new Timestamp(1420070400000L));
+        PolicyCriterion criterion = new PolicyCriterion();
+        criterion.setName("OS_VERSION");
+        Properties properties = new Properties();
+        properties.setProperty("min", "4.4");
+        criterion.setProperties(properties);
+        policy.setPolicyCriterias(new ArrayList<>(Arrays.asList(criterion)));
+
+        for (Object decoded : this.roundTrip(policy)) {
+            Policy decodedPolicy = (Policy) decoded;
+            Assert.assertEquals(decodedPolicy.getId(), policy.getId(), "Decoded policy id does not match");
+            Assert.assertEquals(decodedPolicy.getPolicyName(), policy.getPolicyName(),
+                    "Decoded policy name does not match");
+            Assert.assertEquals(decodedPolicy.getRoles(), policy.getRoles(), "Decoded policy roles do not match");
+            Assert.assertEquals(decodedPolicy.getProfile().getCreatedDate(), policy.getProfile().getCreatedDate(),
+                    "Created date of the decoded profile does not match");
+            Assert.assertEquals(decodedPolicy.getProfile().getDeviceType().getName(),
+                    policy.getProfile().getDeviceType().getName(), "Device type of the decoded profile does not match");
+            List<ProfileFeature> features = decodedPolicy.getProfile().getProfileFeaturesList();
+            Assert.assertEquals(features.size(), policy.getProfile().getProfileFeaturesList().size(),
+                    "Features of the decoded profile are lost");
+            for (int i = 0; i < features.size(); i++) {
+                ProfileFeature expected = policy.getProfile().getProfileFeaturesList().get(i);
+                Assert.assertEquals(features.get(i).getFeatureCode(), expected.getFeatureCode(),
+                        "Feature code does not match");
+                Assert.assertEquals(features.get(i).getContent(), expected.getContent(),
+                        "Feature content does not match");
+            }
+            Device device = decodedPolicy.getDevices().get(0);
+            Assert.assertEquals(device.getDeviceIdentifier(), policy.getDevices().get(0).getDeviceIdentifier(),
+                    "Device of the decoded policy does not match");
+            Assert.assertEquals(device.getEnrolmentInfo().getOwnership(),
+                    policy.getDevices().get(0).getEnrolmentInfo().getOwnership(),
+                    "Enrolment of the device of the decoded policy does not match");
+            Assert.assertEquals(decodedPolicy.getPolicyCriterias().get(0).getProperties(), properties,
+                    "Criteria of the decoded policy do not match");
+        }
+    }
+
+    @Test
+    public void testRoundTripCriterionObjectMap() throws PayloadCodecException {
+        Map<String, Object> objectMap = new HashMap<>();
+        objectMap.put("min", 4.4);
+        objectMap.put("vendors", Arrays.asList("Samsung", "LG"));
+
+        for (Object decoded : this.roundTrip(objectMap)) {
+            Assert.assertEquals(decoded, objectMap, "Decoded criterion object map does not match");
+        }
+    }
+
+    @Test
+    public void testRoundTripFeatureContent() throws PayloadCodecException {
+        String content = "{\"enabled\":false,\"ruleValue\":\"deny\"}";
+
+        for (Object decoded : this.roundTrip(content)) {
+            Assert.assertEquals(decoded, content, "Decoded feature content does not match");
+        }
+    }
+
+    /**
+     * Encodes the payload with every codec and decodes it back.
+     */
+    private List<Object> roundTrip(Object payload) throws PayloadCodecException {
+        List<Object> decoded = new ArrayList<>();
+        for (PayloadCodec codec : new PayloadCodec[]{new JavaSerializationPayloadCodec(), new DeflatePayloadCodec(),
+                new JsonPayloadCodec()}) {
+            decoded.add(codec.decode(codec.encode(payload), PolicyPayloadCodecTest.class.getClassLoader()));
+        }
+        return decoded;
+    }
+
+}
@@ -242,10 +242,31 @@ CREATE  TABLE IF NOT EXISTS DM_USER_POLICY (
 );
 
 
+ CREATE TABLE IF NOT EXISTS DM_POLICY_CONTENT (
+  ID INT NOT NULL AUTO_INCREMENT ,
+  POLICY_ID INT NOT NULL ,
+  VERSION INT NOT NULL ,
+  CONTENT_HASH VARCHAR(64) NOT NULL ,
+  CONTENT BLOB NOT NULL ,
+  TENANT_ID INT NOT NULL ,
+  CREATED_TIME TIMESTAMP NULL ,
+  PRIMARY KEY (ID) ,
+  CONSTRAINT UK_DM_POLICY_CONTENT_HASH UNIQUE (TENANT_ID, CONTENT_HASH) ,
+  CONSTRAINT UK_DM_POLICY_CONTENT_VERSION UNIQUE (TENANT_ID, POLICY_ID, VERSION) ,
+  CONSTRAINT FK_DM_POLICY_CONTENT_POLICY
+    FOREIGN KEY (POLICY_ID )
+    REFERENCES DM_POLICY (ID )
+    ON DELETE NO ACTION
+    ON UPDATE NO ACTION
+);
+
+
  CREATE  TABLE IF NOT EXISTS DM_DEVICE_POLICY_APPLIED (
   ID INT NOT NULL AUTO_INCREMENT ,
   DEVICE_ID INT NOT NULL ,
   POLICY_ID INT NOT NULL ,
+  POLICY_VERSION INT NULL ,
+  CONTENT_HASH VARCHAR(64) NULL ,
   POLICY_CONTENT BLOB NULL ,
   TENANT_ID INT NOT NULL,
   APPLIED TINYINT(1) NULL ,
@@ -347,6 +368,28 @@ CREATE TABLE IF NOT EXISTS DM_POLICY_COMPLIANCE_FEATURES (
 
 -- POLICY RELATED TABLES  FINISHED --
 
+-- -----------------------------------------------------
+-- Secondary indexes backing the device and operation lookups
+-- -----------------------------------------------------
+CREATE INDEX IF NOT EXISTS IDX_DM_DEVICE_TYPE_NAME ON DM_DEVICE_TYPE (NAME);
+CREATE INDEX IF NOT EXISTS IDX_DM_DEVICE_IDENTIFICATION ON DM_DEVICE (DEVICE_IDENTIFICATION, TENANT_ID);
+CREATE INDEX IF NOT EXISTS IDX_DM_DEVICE_TENANT_TYPE ON DM_DEVICE (TENANT_ID, DEVICE_TYPE_ID);
+CREATE INDEX IF NOT EXISTS IDX_DM_ENROLMENT_TENANT_DEVICE ON DM_ENROLMENT (TENANT_ID, DEVICE_ID, STATUS);
+CREATE INDEX IF NOT EXISTS IDX_DM_ENROLMENT_TENANT_OWNER ON DM_ENROLMENT (TENANT_ID, OWNER, DEVICE_ID);
+CREATE INDEX IF NOT EXISTS IDX_DM_ENROLMENT_TENANT_STATUS ON DM_ENROLMENT (TENANT_ID, STATUS, DEVICE_ID);
+CREATE INDEX IF NOT EXISTS IDX_DM_ENROLMENT_OP_MAPPING ON DM_ENROLMENT_OPERATION_MAPPING (ENROLMENT_ID, STATUS, OPERATION_ID);
+
+-- -----------------------------------------------------
+-- Secondary indexes backing the policy lookups
+-- -----------------------------------------------------
+CREATE INDEX IF NOT EXISTS IDX_DM_PROFILE_TENANT ON DM_PROFILE (TENANT_ID);
+CREATE INDEX IF NOT EXISTS IDX_DM_POLICY_TENANT ON DM_POLICY (TENANT_ID, PRIORITY);
+CREATE INDEX IF NOT EXISTS IDX_DM_ROLE_POLICY_ROLE ON DM_ROLE_POLICY (ROLE_NAME);
+CREATE INDEX IF NOT EXISTS IDX_DM_USER_POLICY_USER ON DM_USER_POLICY (USERNAME);
+CREATE INDEX IF NOT EXISTS IDX_DM_DEVICE_POLICY_APPLIED ON DM_DEVICE_POLICY_APPLIED (DEVICE_ID, TENANT_ID);
+CREATE INDEX IF NOT EXISTS IDX_DM_DEVICE_POLICY_APPLIED_POLICY ON DM_DEVICE_POLICY_APPLIED (POLICY_ID, TENANT_ID);
+CREATE INDEX IF NOT EXISTS IDX_DM_CRITERIA_TENANT_NAME ON DM_CRITERIA (TENANT_ID, NAME);
+
 
 -- TO:DO - Remove this INSERT sql statement.
 --Insert into DM_DEVICE_TYPE (ID,NAME) VALUES (1, 'android');
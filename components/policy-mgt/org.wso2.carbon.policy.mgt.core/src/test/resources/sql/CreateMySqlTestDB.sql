@@ -149,6 +149,33 @@ ENGINE = InnoDB
 DEFAULT CHARACTER SET = latin1;
 
 
+-- -----------------------------------------------------
+-- Table `WSO2CDM`.`DM_POLICY_CONTENT`
+-- -----------------------------------------------------
+DROP TABLE IF EXISTS `WSO2CDM`.`DM_POLICY_CONTENT` ;
+
+CREATE TABLE IF NOT EXISTS `WSO2CDM`.`DM_POLICY_CONTENT` (
+  `ID` INT(11) NOT NULL AUTO_INCREMENT,
+  `POLICY_ID` INT(11) NOT NULL,
+  `VERSION` INT(11) NOT NULL,
+  `CONTENT_HASH` VARCHAR(64) NOT NULL,
+  `CONTENT` BLOB NOT NULL,
+  `TENANT_ID` INT(11) NOT NULL,
+  `CREATED_TIME` TIMESTAMP NULL DEFAULT NULL,
+  PRIMARY KEY (`ID`),
+  UNIQUE INDEX `UK_DM_POLICY_CONTENT_HASH` (`TENANT_ID` ASC, `CONTENT_HASH` ASC),
+  UNIQUE INDEX `UK_DM_POLICY_CONTENT_VERSION` (`TENANT_ID` ASC, `POLICY_ID` ASC, `VERSION` ASC),
+  INDEX `FK_DM_POLICY_CONTENT_POLICY` (`POLICY_ID` ASC),
+  CONSTRAINT `FK_DM_POLICY_CONTENT_POLICY`
+    FOREIGN KEY (`POLICY_ID`)
+    REFERENCES `WSO2CDM`.`DM_POLICY` (`ID`)
+    ON DELETE NO ACTION
+    ON UPDATE NO ACTION)
+ENGINE = InnoDB
+DEFAULT CHARACTER SET = latin1;
+
+
+
 -- -----------------------------------------------------
 -- Table `WSO2CDM`.`DM_DEVICE_POLICY_APPLIED`
 -- -----------------------------------------------------
@@ -158,6 +185,8 @@ CREATE TABLE IF NOT EXISTS `WSO2CDM`.`DM_DEVICE_POLICY_APPLIED` (
   `ID` INT(11) NOT NULL AUTO_INCREMENT,
   `DEVICE_ID` INT(11) NOT NULL,
   `POLICY_ID` INT(11) NOT NULL,
+  `POLICY_VERSION` INT(11) NULL DEFAULT NULL,
+  `CONTENT_HASH` VARCHAR(64) NULL DEFAULT NULL,
   `POLICY_CONTENT` BLOB NULL DEFAULT NULL,
   `APPLIED` TINYINT(1) NULL DEFAULT NULL,
   `CREATED_TIME` TIMESTAMP NULL DEFAULT NULL,
@@ -303,6 +332,19 @@ CREATE TABLE IF NOT EXISTS `WSO2CDM`.`DM_POLICY_CRITERIA_PROPERTIES` (
 ENGINE = InnoDB;
 
 
+-- -----------------------------------------------------
+-- Secondary indexes backing the device and policy lookups
+-- -----------------------------------------------------
+CREATE INDEX `IDX_DM_DEVICE_TYPE_NAME` ON `WSO2CDM`.`DM_DEVICE_TYPE` (`NAME` ASC);
+CREATE INDEX `IDX_DM_DEVICE_IDENTIFICATION` ON `WSO2CDM`.`DM_DEVICE` (`DEVICE_IDENTIFICATION` ASC, `TENANT_ID` ASC);
+CREATE INDEX `IDX_DM_DEVICE_TENANT_TYPE` ON `WSO2CDM`.`DM_DEVICE` (`TENANT_ID` ASC, `DEVICE_TYPE_ID` ASC);
+CREATE INDEX `IDX_DM_PROFILE_TENANT` ON `WSO2CDM`.`DM_PROFILE` (`TENANT_ID` ASC);
+CREATE INDEX `IDX_DM_POLICY_TENANT` ON `WSO2CDM`.`DM_POLICY` (`TENANT_ID` ASC, `PRIORITY` ASC);
+CREATE INDEX `IDX_DM_ROLE_POLICY_ROLE` ON `WSO2CDM`.`DM_ROLE_POLICY` (`ROLE_NAME` ASC);
+CREATE INDEX `IDX_DM_USER_POLICY_USER` ON `WSO2CDM`.`DM_USER_POLICY` (`USERNAME` ASC);
+CREATE INDEX `IDX_DM_CRITERIA_TENANT_NAME` ON `WSO2CDM`.`DM_CRITERIA` (`TENANT_ID` ASC, `NAME` ASC);
+
+
 SET SQL_MODE=@OLD_SQL_MODE;
 SET FOREIGN_KEY_CHECKS=@OLD_FOREIGN_KEY_CHECKS;
 SET UNIQUE_CHECKS=@OLD_UNIQUE_CHECKS;
@@ -30,8 +30,8 @@ public class PolicyEvaluationServiceImpl implements PolicyEvaluationPoint {
 
     private SimpleEvaluationImpl evaluation;
 
-    public PolicyEvaluationServiceImpl() {
-        evaluation = new SimpleEvaluationImpl();
+    public PolicyEvaluationServiceImpl(PolicyUsageRecorder usageRecorder) {
+        evaluation = new SimpleEvaluationImpl(usageRecorder);
     }
 
     @Override
@@ -0,0 +1,253 @@
+/*
+*  Copyright (c) 2015 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+
+package org.wso2.carbon.simple.policy.decision.point;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.policy.mgt.common.Policy;
+import org.wso2.carbon.policy.mgt.common.PolicyAdministratorPoint;
+import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
+import org.wso2.carbon.policy.mgt.core.PolicyManagerService;
+import org.wso2.carbon.simple.policy.decision.point.internal.PolicyDecisionPointDataHolder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Records the policies evaluated for devices off the request thread. Usages are queued as they are evaluated and
+ * a single worker drains them in batches, keeping only the latest usage of a device within a batch, so that a burst
+ * of evaluations of the same device ends up in a single write.
+ * <p/>
+ * The queue is bounded, a request evaluating a policy while the queue is full waits for the worker to catch up
+ * rather than writing the usage itself, so that the usages of a device are always written in the evaluation order.
+ * For the same reason, queueing a usage and stopping the recorder exclude each other: stopping waits for the usages
+ * being queued, and the usages recorded on the calling thread once the recorder is stopped wait for the queue to be
+ * drained.
+ */
+public class PolicyUsageRecorder {
+
+    private static final Log log = LogFactory.getLog(PolicyUsageRecorder.class);
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 10000;
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    private static final long POLL_INTERVAL = 1000;
+
+    private final BlockingQueue<PolicyUsage> usages;
+    private final int batchSize;
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private ExecutorService worker;
+    private volatile boolean running;
+
+    public PolicyUsageRecorder() {
+        this(DEFAULT_QUEUE_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    public PolicyUsageRecorder(int queueCapacity, int batchSize) {
+        this.usages = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+    }
+
+    public void start() {
+        stateLock.writeLock().lock();
+        try {
+            if (running) {
+                return;
+            }
+            running = true;
+            worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "PolicyUsageRecorder");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            worker.execute(new Runnable() {
+                @Override
+                public void run() {
+                    drain();
+                }
+            });
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stops the worker after recording the usages that are already queued.
+     */
+    public void stop() {
+        stateLock.writeLock().lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+            // the worker completes the batch it is writing and notices the recorder stopped on its next poll
+            worker.shutdown();
+            try {
+                if (!worker.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("Policy usage recorder did not stop within 30 seconds");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+            List<PolicyUsage> batch = new ArrayList<>();
+            while (usages.drainTo(batch, batchSize) > 0) {
+                process(batch);
+                batch.clear();
+            }
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Queues the usage of a policy by a device, waiting for space if the queue is full. The usage is recorded on the
+     * calling thread if the recorder is not running.
+     *
+     * @param tenantId         Tenant the device belongs to
+     * @param deviceIdentifier Device the policy was evaluated for
+     * @param policy           Evaluated policy
+     */
+    public void record(int tenantId, DeviceIdentifier deviceIdentifier, Policy policy) {
+        PolicyUsage usage = new PolicyUsage(tenantId, deviceIdentifier, policy);
+        stateLock.readLock().lock();
+        try {
+            if (running) {
+                try {
+                    usages.put(usage);
+                    return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Recording the usage of policy " + policy.getId() + " by device " +
+                        deviceIdentifier.getId() + " on the calling thread");
+            }
+            List<PolicyUsage> batch = new ArrayList<>(1);
+            batch.add(usage);
+            process(batch);
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    private void drain() {
+        List<PolicyUsage> batch = new ArrayList<>(batchSize);
+        while (running) {
+            PolicyUsage usage;
+            try {
+                usage = usages.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (usage == null) {
+                continue;
+            }
+            batch.add(usage);
+            usages.drainTo(batch, batchSize - 1);
+            try {
+                process(batch);
+            } catch (RuntimeException e) {
+                log.error("Error occurred while recording a batch of " + batch.size() + " policy usages", e);
+            }
+            batch.clear();
+        }
+    }
+
+    private void process(List<PolicyUsage> batch) {
+        Map<Integer, Map<String, PolicyUsage>> tenantUsages = new HashMap<>();
+        for (PolicyUsage usage : batch) {
+            Map<String, PolicyUsage> deviceUsages = tenantUsages.get(usage.tenantId);
+            if (deviceUsages == null) {
+                deviceUsages = new LinkedHashMap<>();
+                tenantUsages.put(usage.tenantId, deviceUsages);
+            }
+            // DeviceIdentifier does not override equals, hence the usages are keyed on the type and id
+            deviceUsages.put(usage.deviceIdentifier.getType() + ":" + usage.deviceIdentifier.getId(), usage);
+        }
+        for (Map.Entry<Integer, Map<String, PolicyUsage>> entry : tenantUsages.entrySet()) {
+            List<DeviceIdentifier> deviceIdentifiers = new ArrayList<>(entry.getValue().size());
+            List<Policy> policies = new ArrayList<>(entry.getValue().size());
+            for (PolicyUsage usage : entry.getValue().values()) {
+                deviceIdentifiers.add(usage.deviceIdentifier);
+                policies.add(usage.policy);
+            }
+            recordUsages(entry.getKey(), deviceIdentifiers, policies);
+        }
+    }
+
+    /**
+     * Writes the latest policy used by each of the given devices of a tenant.
+     *
+     * @param tenantId          Tenant the devices belong to
+     * @param deviceIdentifiers Devices of the tenant, each appearing only once
+     * @param policies          Policy used by the device at the same position
+     */
+    protected void recordUsages(int tenantId, List<DeviceIdentifier> deviceIdentifiers, List<Policy> policies) {
+        PolicyManagerService policyManagerService =
+                PolicyDecisionPointDataHolder.getInstance().getPolicyManagerService();
+        if (policyManagerService == null) {
+            log.warn("Policy manager service is not available, discarding " + deviceIdentifiers.size() +
+                    " policy usage(s) of tenant " + tenantId);
+            return;
+        }
+        PrivilegedCarbonContext.startTenantFlow();
+        try {
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenantId, true);
+            PolicyAdministratorPoint policyAdministratorPoint = policyManagerService.getPAP();
+            policyAdministratorPoint.setPoliciesUsed(deviceIdentifiers, policies);
+        } catch (PolicyManagementException e) {
+            log.error("Error occurred while recording the usages of " + deviceIdentifiers.size() +
+                    " policies by devices of tenant " + tenantId, e);
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    private static class PolicyUsage {
+
+        private final int tenantId;
+        private final DeviceIdentifier deviceIdentifier;
+        private final Policy policy;
+
+        PolicyUsage(int tenantId, DeviceIdentifier deviceIdentifier, Policy policy) {
+            this.tenantId = tenantId;
+            this.deviceIdentifier = deviceIdentifier;
+            this.policy = policy;
+        }
+    }
+
+}
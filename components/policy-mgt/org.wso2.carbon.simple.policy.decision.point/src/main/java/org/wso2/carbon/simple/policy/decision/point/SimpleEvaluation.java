@@ -25,8 +25,6 @@ import org.wso2.carbon.policy.mgt.common.PolicyEvaluationException;
 
 public interface SimpleEvaluation  {
 
-    void sortPolicies() throws PolicyEvaluationException;
-
     Policy getEffectivePolicy(DeviceIdentifier deviceIdentifier)  throws PolicyEvaluationException;
 
 }
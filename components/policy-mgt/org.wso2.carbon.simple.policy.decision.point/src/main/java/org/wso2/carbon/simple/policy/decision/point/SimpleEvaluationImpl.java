@@ -20,64 +20,75 @@ package org.wso2.carbon.simple.policy.decision.point;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.policy.mgt.common.*;
 import org.wso2.carbon.policy.mgt.core.PolicyManagerService;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
 import org.wso2.carbon.simple.policy.decision.point.internal.PolicyDecisionPointDataHolder;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
+/**
+ * Picks the policy with the highest priority out of the policies related to a device. The evaluator keeps no state
+ * of its own between evaluations, so a single instance is shared by all the concurrent requests.
+ * <p/>
+ * The related policies are handed over by the policy information point already ordered by priority, hence the first
+ * one is normally the effective policy. The list is still scanned once without being modified, as it may be shared
+ * with the policy cache and a plugged in information point is not bound to order it.
+ * <p/>
+ * The related policies are the instances held by the policy index of the tenant, hence the selected policy is
+ * copied before it is returned or recorded, so that a caller changing it does not affect other evaluations.
+ */
 public class SimpleEvaluationImpl implements SimpleEvaluation {
 
     private static final Log log = LogFactory.getLog(SimpleEvaluationImpl.class);
-    //TODO : to revove the stale reference
-    private PolicyManagerService policyManagerService;
-    private List<Policy> policyList = new ArrayList<Policy>();
 
-//    public SimpleEvaluationImpl() {
-//        policyManagerService = PolicyDecisionPointDataHolder.getInstance().getPolicyManagerService();
-//    }
+    private final PolicyUsageRecorder usageRecorder;
+
+    public SimpleEvaluationImpl(PolicyUsageRecorder usageRecorder) {
+        this.usageRecorder = usageRecorder;
+    }
 
     @Override
     public Policy getEffectivePolicy(DeviceIdentifier deviceIdentifier) throws PolicyEvaluationException {
-        Policy policy = new Policy();
-        PolicyAdministratorPoint policyAdministratorPoint;
-        PolicyInformationPoint policyInformationPoint;
-        policyManagerService = getPolicyManagerService();
-
+        PolicyManagerService policyManagerService = getPolicyManagerService();
+        if (policyManagerService == null) {
+            return null;
+        }
         try {
-            if (policyManagerService != null) {
-
-                policyInformationPoint = policyManagerService.getPIP();
-                PIPDevice pipDevice = policyInformationPoint.getDeviceData(deviceIdentifier);
-                policyList = policyInformationPoint.getRelatedPolicies(pipDevice);
-
-                sortPolicies();
-                if(!policyList.isEmpty()) {
-                    policy = policyList.get(0);
-                } else {
-                    return null;
-                }
-                //TODO : UNCOMMENT THE FOLLOWING CASE
-                policyAdministratorPoint = policyManagerService.getPAP();
-                policyAdministratorPoint.setPolicyUsed(deviceIdentifier, policy);
-
+            Policy policy = getEffectivePolicy(policyManagerService.getPIP(), deviceIdentifier);
+            if (policy != null) {
+                int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+                usageRecorder.record(tenantId, deviceIdentifier, policy);
             }
-
+            return policy;
         } catch (PolicyManagementException e) {
             String msg = "Error occurred when retrieving the policy related data from policy management service.";
             log.error(msg, e);
             throw new PolicyEvaluationException(msg, e);
         }
-        return policy;
     }
 
+    Policy getEffectivePolicy(PolicyInformationPoint policyInformationPoint,
+                              DeviceIdentifier deviceIdentifier) throws PolicyManagementException {
+        PIPDevice pipDevice = policyInformationPoint.getDeviceData(deviceIdentifier);
+        Policy effectivePolicy = selectEffectivePolicy(policyInformationPoint.getRelatedPolicies(pipDevice));
+        return PolicyManagerUtil.copyPolicy(effectivePolicy);
+    }
 
-    @Override
-    public void sortPolicies() throws PolicyEvaluationException {
-        Collections.sort(policyList);
+    static Policy selectEffectivePolicy(List<Policy> policies) {
+        if (policies == null || policies.isEmpty()) {
+            return null;
+        }
+        Policy effectivePolicy = policies.get(0);
+        for (int i = 1; i < policies.size(); i++) {
+            Policy policy = policies.get(i);
+            if (policy.compareTo(effectivePolicy) < 0) {
+                effectivePolicy = policy;
+            }
+        }
+        return effectivePolicy;
     }
 
     private PolicyManagerService getPolicyManagerService() {
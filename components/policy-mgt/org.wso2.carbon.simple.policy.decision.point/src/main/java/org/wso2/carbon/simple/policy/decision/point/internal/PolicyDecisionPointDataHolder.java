@@ -19,12 +19,14 @@
 package org.wso2.carbon.simple.policy.decision.point.internal;
 
 import org.wso2.carbon.policy.mgt.core.PolicyManagerService;
+import org.wso2.carbon.simple.policy.decision.point.PolicyUsageRecorder;
 import org.wso2.carbon.user.core.service.RealmService;
 
 public class PolicyDecisionPointDataHolder {
 
     private RealmService realmService;
     private PolicyManagerService policyManagerService;
+    private PolicyUsageRecorder policyUsageRecorder;
 
     private static PolicyDecisionPointDataHolder dataHolder = new PolicyDecisionPointDataHolder();
 
@@ -50,4 +52,12 @@ public class PolicyDecisionPointDataHolder {
     public void setPolicyManagerService(PolicyManagerService policyManagerService) {
         this.policyManagerService = policyManagerService;
     }
+
+    public PolicyUsageRecorder getPolicyUsageRecorder() {
+        return policyUsageRecorder;
+    }
+
+    public void setPolicyUsageRecorder(PolicyUsageRecorder policyUsageRecorder) {
+        this.policyUsageRecorder = policyUsageRecorder;
+    }
 }
@@ -24,6 +24,7 @@ import org.osgi.service.component.ComponentContext;
 import org.wso2.carbon.policy.mgt.common.PolicyEvaluationPoint;
 import org.wso2.carbon.policy.mgt.core.PolicyManagerService;
 import org.wso2.carbon.simple.policy.decision.point.PolicyEvaluationServiceImpl;
+import org.wso2.carbon.simple.policy.decision.point.PolicyUsageRecorder;
 import org.wso2.carbon.user.core.service.RealmService;
 
 /**
@@ -52,8 +53,11 @@ public class PolicyEvaluationServiceComponent {
         }
 
         try {
+            PolicyUsageRecorder usageRecorder = new PolicyUsageRecorder();
+            usageRecorder.start();
+            PolicyDecisionPointDataHolder.getInstance().setPolicyUsageRecorder(usageRecorder);
             componentContext.getBundleContext().registerService(PolicyEvaluationPoint.class.getName(),
-                    new PolicyEvaluationServiceImpl(), null);
+                    new PolicyEvaluationServiceImpl(usageRecorder), null);
         } catch (Throwable t) {
             log.error("Error occurred while initializing the simple policy evaluation bundle");
         }
@@ -63,6 +67,11 @@ public class PolicyEvaluationServiceComponent {
         if (log.isDebugEnabled()) {
             log.debug("De-activating the simple policy evaluation bundle.");
         }
+        PolicyUsageRecorder usageRecorder = PolicyDecisionPointDataHolder.getInstance().getPolicyUsageRecorder();
+        if (usageRecorder != null) {
+            usageRecorder.stop();
+            PolicyDecisionPointDataHolder.getInstance().setPolicyUsageRecorder(null);
+        }
     }
 
     /**
@@ -0,0 +1,289 @@
+/*
+*  Copyright (c) 2015 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+
+package org.wso2.carbon.simple.policy.decision.point;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.Feature;
+import org.wso2.carbon.policy.mgt.common.FeatureManagementException;
+import org.wso2.carbon.policy.mgt.common.PIPDevice;
+import org.wso2.carbon.policy.mgt.common.Policy;
+import org.wso2.carbon.policy.mgt.common.PolicyInformationPoint;
+import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SimpleEvaluationImplTest {
+
+    private static final int THREAD_COUNT = 16;
+    private static final int DEVICES_PER_THREAD = 50;
+    private static final int EVALUATIONS_PER_DEVICE = 40;
+    private static final int POLICY_SET_COUNT = 7;
+
+    @Test
+    public void testSelectEffectivePolicy() {
+        Assert.assertNull(SimpleEvaluationImpl.selectEffectivePolicy(Collections.<Policy>emptyList()),
+                "A policy is selected when no policy is related to the device");
+
+        List<Policy> policies = new ArrayList<>();
+        policies.add(this.createPolicy(1, 3));
+        policies.add(this.createPolicy(2, 1));
+        policies.add(this.createPolicy(3, 1));
+        Assert.assertEquals(SimpleEvaluationImpl.selectEffectivePolicy(policies).getId(), 2,
+                "The first policy with the highest priority is not selected");
+        Assert.assertEquals(policies.get(0).getId(), 1, "Related policies are modified by the evaluation");
+    }
+
+    @Test
+    public void testEffectivePolicyNotShared() throws Exception {
+        List<Policy> policies = new ArrayList<>();
+        policies.add(this.createPolicy(1, 2));
+        policies.add(this.createPolicy(2, 1));
+        policies.get(1).setRoles(new ArrayList<>(Collections.singletonList("Role_01")));
+        SimpleEvaluationImpl evaluation = new SimpleEvaluationImpl(new PolicyUsageRecorder());
+        PolicyInformationPoint policyInformationPoint = new StaticPolicyInformationPoint(
+                Collections.nCopies(POLICY_SET_COUNT, Collections.unmodifiableList(policies)));
+        DeviceIdentifier deviceIdentifier = new DeviceIdentifier("1", "android");
+
+        Policy effectivePolicy = evaluation.getEffectivePolicy(policyInformationPoint, deviceIdentifier);
+        effectivePolicy.setPolicyName("Changed by a caller");
+        effectivePolicy.setPriorityId(10);
+        effectivePolicy.getRoles().clear();
+
+        Policy nextPolicy = evaluation.getEffectivePolicy(policyInformationPoint, deviceIdentifier);
+        Assert.assertEquals(nextPolicy.getId(), 2, "Change of a returned policy affects the next evaluation");
+        Assert.assertEquals(nextPolicy.getPolicyName(), "Policy_2", "Returned policy is shared between evaluations");
+        Assert.assertEquals(nextPolicy.getRoles(), Collections.singletonList("Role_01"),
+                "Returned policy is shared between evaluations");
+        Assert.assertEquals(policies.get(1).getPolicyName(), "Policy_2", "Related policy is changed through the " +
+                "policy returned by the evaluation");
+    }
+
+    @Test
+    public void testConcurrentEvaluations() throws Exception {
+        final List<List<Policy>> policySets = new ArrayList<>();
+        for (int i = 0; i < POLICY_SET_COUNT; i++) {
+            List<Policy> policies = new ArrayList<>();
+            // Priorities are added in the reverse order so that an evaluator relying on the list order fails
+            for (int priority = i + 3; priority > i; priority--) {
+                policies.add(this.createPolicy(i * 10 + priority, priority));
+            }
+            policySets.add(Collections.unmodifiableList(policies));
+        }
+        final SimpleEvaluationImpl evaluation = new SimpleEvaluationImpl(new PolicyUsageRecorder());
+        final PolicyInformationPoint policyInformationPoint = new StaticPolicyInformationPoint(policySets);
+        final CountDownLatch startSignal = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < THREAD_COUNT; t++) {
+            final int thread = t;
+            results.add(executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    startSignal.await();
+                    int mismatches = 0;
+                    for (int i = 0; i < DEVICES_PER_THREAD * EVALUATIONS_PER_DEVICE; i++) {
+                        int device = thread * DEVICES_PER_THREAD + i % DEVICES_PER_THREAD;
+                        Policy policy = evaluation.getEffectivePolicy(policyInformationPoint,
+                                new DeviceIdentifier(String.valueOf(device), "android"));
+                        int policySet = device % POLICY_SET_COUNT;
+                        if (policy == null || policy.getId() != policySet * 10 + policySet + 1) {
+                            mismatches++;
+                        }
+                    }
+                    return mismatches;
+                }
+            }));
+        }
+        startSignal.countDown();
+        int mismatches = 0;
+        for (Future<Integer> result : results) {
+            mismatches += result.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        Assert.assertEquals(mismatches, 0, "Concurrent evaluations returned policies of other devices");
+    }
+
+    @Test
+    public void testConcurrentUsageRecording() throws Exception {
+        CollectingPolicyUsageRecorder usageRecorder = new CollectingPolicyUsageRecorder();
+        usageRecorder.start();
+        final PolicyUsageRecorder recorder = usageRecorder;
+        final CountDownLatch startSignal = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        List<Future<Void>> results = new ArrayList<>();
+        for (int t = 0; t < THREAD_COUNT; t++) {
+            final int thread = t;
+            results.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    startSignal.await();
+                    for (int evaluation = 1; evaluation <= EVALUATIONS_PER_DEVICE; evaluation++) {
+                        for (int i = 0; i < DEVICES_PER_THREAD; i++) {
+                            int device = thread * DEVICES_PER_THREAD + i;
+                            recorder.record(device % 2, new DeviceIdentifier(String.valueOf(device), "android"),
+                                    createPolicy(evaluation, evaluation));
+                        }
+                    }
+                    return null;
+                }
+            }));
+        }
+        startSignal.countDown();
+        for (Future<Void> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        usageRecorder.stop();
+
+        Assert.assertEquals(usageRecorder.recordedPolicies.size(), THREAD_COUNT * DEVICES_PER_THREAD,
+                "Usages of some devices are not recorded");
+        for (Map.Entry<String, Integer> entry : usageRecorder.recordedPolicies.entrySet()) {
+            Assert.assertEquals(entry.getValue().intValue(), EVALUATIONS_PER_DEVICE,
+                    "Latest policy evaluated is not the one recorded for " + entry.getKey());
+        }
+        Assert.assertTrue(usageRecorder.writes.get() <= THREAD_COUNT * DEVICES_PER_THREAD * EVALUATIONS_PER_DEVICE,
+                "Usages are written more often than they are recorded");
+        Assert.assertEquals(usageRecorder.misplacedUsages.get(), 0, "Usages are recorded against another tenant");
+    }
+
+    @Test
+    public void testStopWhileRecording() throws Exception {
+        final CollectingPolicyUsageRecorder usageRecorder = new CollectingPolicyUsageRecorder();
+        usageRecorder.start();
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        final CountDownLatch halfwaySignal = new CountDownLatch(THREAD_COUNT);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        List<Future<Void>> results = new ArrayList<>();
+        for (int t = 0; t < THREAD_COUNT; t++) {
+            final int thread = t;
+            results.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    startSignal.await();
+                    for (int evaluation = 1; evaluation <= EVALUATIONS_PER_DEVICE; evaluation++) {
+                        if (evaluation == EVALUATIONS_PER_DEVICE / 2) {
+                            halfwaySignal.countDown();
+                        }
+                        for (int i = 0; i < DEVICES_PER_THREAD; i++) {
+                            int device = thread * DEVICES_PER_THREAD + i;
+                            usageRecorder.record(device % 2, new DeviceIdentifier(String.valueOf(device), "android"),
+                                    createPolicy(evaluation, evaluation));
+                        }
+                    }
+                    return null;
+                }
+            }));
+        }
+        startSignal.countDown();
+        halfwaySignal.await(60, TimeUnit.SECONDS);
+        usageRecorder.stop();
+        for (Future<Void> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Assert.assertEquals(usageRecorder.recordedPolicies.size(), THREAD_COUNT * DEVICES_PER_THREAD,
+                "Usages of some devices are lost while the recorder stops");
+        for (Map.Entry<String, Integer> entry : usageRecorder.recordedPolicies.entrySet()) {
+            Assert.assertEquals(entry.getValue().intValue(), EVALUATIONS_PER_DEVICE,
+                    "Usage queued before the recorder stopped overwrote a later one of " + entry.getKey());
+        }
+    }
+
+    private Policy createPolicy(int id, int priority) {
+        Policy policy = new Policy();
+        policy.setId(id);
+        policy.setPriorityId(priority);
+        policy.setPolicyName("Policy_" + id);
+        return policy;
+    }
+
+    /**
+     * Relates each device to one of the given policy sets, picked based on the device id.
+     */
+    private static class StaticPolicyInformationPoint implements PolicyInformationPoint {
+
+        private final List<List<Policy>> policySets;
+
+        StaticPolicyInformationPoint(List<List<Policy>> policySets) {
+            this.policySets = policySets;
+        }
+
+        @Override
+        public PIPDevice getDeviceData(DeviceIdentifier deviceIdentifier) throws PolicyManagementException {
+            PIPDevice pipDevice = new PIPDevice();
+            pipDevice.setDeviceIdentifier(deviceIdentifier);
+            return pipDevice;
+        }
+
+        @Override
+        public List<Policy> getRelatedPolicies(PIPDevice pipDevice) throws PolicyManagementException {
+            int device = Integer.parseInt(pipDevice.getDeviceIdentifier().getId());
+            return policySets.get(device % POLICY_SET_COUNT);
+        }
+
+        @Override
+        public List<Feature> getRelatedFeatures(String deviceType) throws FeatureManagementException {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Keeps the last policy written for each device instead of writing it to the database.
+     */
+    private static class CollectingPolicyUsageRecorder extends PolicyUsageRecorder {
+
+        private final Map<String, Integer> recordedPolicies = new ConcurrentHashMap<>();
+        private final AtomicInteger writes = new AtomicInteger();
+        private final AtomicInteger misplacedUsages = new AtomicInteger();
+
+        CollectingPolicyUsageRecorder() {
+            super(100, 50);
+        }
+
+        @Override
+        protected void recordUsages(int tenantId, List<DeviceIdentifier> deviceIdentifiers, List<Policy> policies) {
+            for (int i = 0; i < deviceIdentifiers.size(); i++) {
+                int device = Integer.parseInt(deviceIdentifiers.get(i).getId());
+                if (device % 2 != tenantId) {
+                    misplacedUsages.incrementAndGet();
+                }
+                recordedPolicies.put(deviceIdentifiers.get(i).getId(), policies.get(i).getId());
+                writes.incrementAndGet();
+            }
+        }
+    }
+
+}
@@ -29,6 +29,8 @@ import org.wso2.carbon.apimgt.impl.dto.APIKeyValidationInfoDTO;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.identity.base.IdentityException;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.webapp.authenticator.framework.cache.TokenValidationCache;
+import org.wso2.carbon.webapp.authenticator.framework.cache.TokenValidationCacheEntry;
 
 import javax.servlet.http.HttpServletResponse;
 import javax.xml.parsers.DocumentBuilder;
@@ -54,19 +56,46 @@ public class AuthenticationFrameworkUtil {
         if (APIConstants.AUTH_NO_AUTHENTICATION.equals(requiredAuthenticationLevel)) {
             return true;
         }
+        TokenValidationCache cache = TokenValidationCache.getInstance();
+        String cacheKey = null;
+        if (cache.isEnabled()) {
+            cacheKey = TokenValidationCache.getCacheKey(context, version, accessToken, requiredAuthenticationLevel,
+                    clientDomain);
+            TokenValidationCacheEntry entry = cache.get(cacheKey);
+            if (entry != null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Token validation result of API: " + context + ", version: " + version +
+                            " is served from the cache");
+                }
+                return handleValidationResult(context, version, accessToken, entry.getValidationInfo(),
+                        entry.getTenantId());
+            }
+        }
         APITokenValidator tokenValidator = new APITokenValidator();
         APIKeyValidationInfoDTO apiKeyValidationDTO = tokenValidator.validateKey(context, version, accessToken,
                 requiredAuthenticationLevel, clientDomain);
+        int tenantId = -1;
         if (apiKeyValidationDTO.isAuthorized()) {
             String username = apiKeyValidationDTO.getEndUserName();
-            PrivilegedCarbonContext.getThreadLocalCarbonContext().setUsername(username);
             try {
-                PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(
-                        IdentityUtil.getTenantIdOFUser(username));
+                tenantId = IdentityUtil.getTenantIdOFUser(username);
             } catch (IdentityException e) {
                 throw new AuthenticationException("Error occurred while retrieving the tenant ID of user '" +
                         username + "'", e);
             }
+        }
+        if (cacheKey != null) {
+            cache.put(cacheKey, apiKeyValidationDTO, tenantId);
+        }
+        return handleValidationResult(context, version, accessToken, apiKeyValidationDTO, tenantId);
+    }
+
+    private static boolean handleValidationResult(String context, String version, String accessToken,
+                                                  APIKeyValidationInfoDTO apiKeyValidationDTO,
+                                                  int tenantId) throws AuthenticationException {
+        if (apiKeyValidationDTO.isAuthorized()) {
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setUsername(apiKeyValidationDTO.getEndUserName());
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenantId);
             return true;
         } else {
             throw new AuthenticationException(apiKeyValidationDTO.getValidationStatus(),
@@ -40,4 +40,14 @@ public final class Constants {
         public static final String CONTENT_TYPE_APPLICATION_XML = "application/xml";
     }
 
+    public static final class TokenValidationCache {
+        private TokenValidationCache() {
+            throw new AssertionError();
+        }
+
+        public static final int DEFAULT_MAX_ENTRIES = 10000;
+        public static final long DEFAULT_EXPIRY_TIME_IN_SECONDS = 900;
+        public static final long DEFAULT_NEGATIVE_EXPIRY_TIME_IN_SECONDS = 30;
+    }
+
 }
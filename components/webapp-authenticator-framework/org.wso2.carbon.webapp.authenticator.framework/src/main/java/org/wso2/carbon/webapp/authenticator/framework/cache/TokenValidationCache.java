@@ -0,0 +1,195 @@
+/*
+ *   Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.wso2.carbon.webapp.authenticator.framework.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.impl.dto.APIKeyValidationInfoDTO;
+import org.wso2.carbon.webapp.authenticator.framework.Constants;
+import org.wso2.carbon.webapp.authenticator.framework.config.InvalidConfigurationStateException;
+import org.wso2.carbon.webapp.authenticator.framework.config.TokenValidationCacheConfig;
+import org.wso2.carbon.webapp.authenticator.framework.config.WebappAuthenticatorConfig;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, in-memory cache of OAuth token validation results. Successful validations are kept until the configured
+ * expiry time elapses or the token itself expires, whichever comes first, while failed validations are only kept
+ * for a short period so that repeated requests carrying an invalid token do not reach the key manager every time.
+ */
+public class TokenValidationCache {
+
+    private static final Log log = LogFactory.getLog(TokenValidationCache.class);
+    private static final String KEY_SEPARATOR = ":";
+
+    private static volatile TokenValidationCache instance;
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long expiryTime;
+    private final long negativeExpiryTime;
+    private final Map<String, TokenValidationCacheEntry> entries;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private TokenValidationCache(boolean enabled, int maxEntries, long expiryTimeInSeconds,
+                                 long negativeExpiryTimeInSeconds) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.expiryTime = expiryTimeInSeconds * 1000;
+        this.negativeExpiryTime = negativeExpiryTimeInSeconds * 1000;
+        this.entries = new LinkedHashMap<String, TokenValidationCacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TokenValidationCacheEntry> eldest) {
+                if (size() > TokenValidationCache.this.maxEntries) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static TokenValidationCache getInstance() {
+        if (instance == null) {
+            synchronized (TokenValidationCache.class) {
+                if (instance == null) {
+                    instance = createInstance();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private static TokenValidationCache createInstance() {
+        TokenValidationCacheConfig cacheConfig = null;
+        try {
+            cacheConfig = WebappAuthenticatorConfig.getInstance().getTokenValidationCacheConfig();
+        } catch (InvalidConfigurationStateException e) {
+            log.warn("Webapp authenticator configuration is not initialized, hence token validation cache is " +
+                    "initialized with default settings");
+        }
+        return createInstance(cacheConfig);
+    }
+
+    static TokenValidationCache createInstance(TokenValidationCacheConfig cacheConfig) {
+        boolean enabled = true;
+        int maxEntries = Constants.TokenValidationCache.DEFAULT_MAX_ENTRIES;
+        long expiryTime = Constants.TokenValidationCache.DEFAULT_EXPIRY_TIME_IN_SECONDS;
+        long negativeExpiryTime = Constants.TokenValidationCache.DEFAULT_NEGATIVE_EXPIRY_TIME_IN_SECONDS;
+        if (cacheConfig != null) {
+            enabled = cacheConfig.isEnabled();
+            if (cacheConfig.getMaxEntries() > 0) {
+                maxEntries = cacheConfig.getMaxEntries();
+            }
+            if (cacheConfig.getExpiryTime() > 0) {
+                expiryTime = cacheConfig.getExpiryTime();
+            }
+            if (cacheConfig.getNegativeExpiryTime() != null && cacheConfig.getNegativeExpiryTime() >= 0) {
+                negativeExpiryTime = cacheConfig.getNegativeExpiryTime();
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Token validation cache initialized [enabled: " + enabled + ", maxEntries: " + maxEntries +
+                    ", expiryTime: " + expiryTime + "s, negativeExpiryTime: " + negativeExpiryTime + "s]");
+        }
+        return new TokenValidationCache(enabled, maxEntries, expiryTime, negativeExpiryTime);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public static String getCacheKey(String context, String version, String accessToken,
+                                     String requiredAuthenticationLevel, String clientDomain) {
+        return accessToken + KEY_SEPARATOR + context + KEY_SEPARATOR + version + KEY_SEPARATOR +
+                requiredAuthenticationLevel + KEY_SEPARATOR + clientDomain;
+    }
+
+    /**
+     * Returns the cached validation result of the given key, or null if there is no live entry for it.
+     */
+    public TokenValidationCacheEntry get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        TokenValidationCacheEntry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.isExpired(System.currentTimeMillis())) {
+                entries.remove(key);
+                evictionCount.incrementAndGet();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            missCount.incrementAndGet();
+        } else {
+            hitCount.incrementAndGet();
+        }
+        return entry;
+    }
+
+    public void put(String key, APIKeyValidationInfoDTO validationInfo, int tenantId) {
+        if (!enabled || validationInfo == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiryTime;
+        if (validationInfo.isAuthorized()) {
+            expiryTime = now + this.expiryTime;
+            long validityPeriod = validationInfo.getValidityPeriod();
+            /* A token is never served from the cache beyond its own validity */
+            if (validityPeriod > 0 && validationInfo.getIssuedTime() > 0) {
+                expiryTime = Math.min(expiryTime, validationInfo.getIssuedTime() + validityPeriod);
+            }
+        } else {
+            expiryTime = now + negativeExpiryTime;
+        }
+        if (expiryTime <= now) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new TokenValidationCacheEntry(validationInfo, tenantId, expiryTime));
+        }
+    }
+
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ *   Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.wso2.carbon.webapp.authenticator.framework.cache;
+
+import org.wso2.carbon.apimgt.impl.dto.APIKeyValidationInfoDTO;
+
+public class TokenValidationCacheEntry {
+
+    private APIKeyValidationInfoDTO validationInfo;
+    private int tenantId;
+    private long expiryTime;
+
+    public TokenValidationCacheEntry(APIKeyValidationInfoDTO validationInfo, int tenantId, long expiryTime) {
+        this.validationInfo = validationInfo;
+        this.tenantId = tenantId;
+        this.expiryTime = expiryTime;
+    }
+
+    public APIKeyValidationInfoDTO getValidationInfo() {
+        return validationInfo;
+    }
+
+    public int getTenantId() {
+        return tenantId;
+    }
+
+    public long getExpiryTime() {
+        return expiryTime;
+    }
+
+    public boolean isExpired(long currentTime) {
+        return currentTime >= expiryTime;
+    }
+
+}
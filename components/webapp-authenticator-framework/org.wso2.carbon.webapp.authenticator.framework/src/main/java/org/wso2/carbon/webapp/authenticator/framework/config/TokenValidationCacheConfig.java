@@ -0,0 +1,72 @@
+/*
+ *   Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.wso2.carbon.webapp.authenticator.framework.config;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+@XmlRootElement(name = "TokenValidationCache")
+public class TokenValidationCacheConfig {
+
+    private boolean enabled = true;
+    private int maxEntries;
+    private long expiryTime;
+    private Long negativeExpiryTime;
+
+    @XmlElement(name = "Enabled", required = false)
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @XmlElement(name = "MaxEntries", required = false)
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    @XmlElement(name = "ExpiryTimeInSeconds", required = false)
+    public long getExpiryTime() {
+        return expiryTime;
+    }
+
+    public void setExpiryTime(long expiryTime) {
+        this.expiryTime = expiryTime;
+    }
+
+    /**
+     * @return Time failed validations are cached for, null if it is not configured in which case the default
+     * applies. Zero disables caching of failed validations.
+     */
+    @XmlElement(name = "NegativeExpiryTimeInSeconds", required = false)
+    public Long getNegativeExpiryTime() {
+        return negativeExpiryTime;
+    }
+
+    public void setNegativeExpiryTime(Long negativeExpiryTime) {
+        this.negativeExpiryTime = negativeExpiryTime;
+    }
+
+}
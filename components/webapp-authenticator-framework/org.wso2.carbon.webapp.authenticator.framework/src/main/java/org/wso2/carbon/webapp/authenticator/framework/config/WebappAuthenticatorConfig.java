@@ -42,6 +42,7 @@ import java.util.List;
 public class WebappAuthenticatorConfig {
 
     private List<AuthenticatorConfig> authenticators;
+    private TokenValidationCacheConfig tokenValidationCacheConfig;
     private static WebappAuthenticatorConfig config;
 
     private static final Log log = LogFactory.getLog(WebappAuthenticatorConfig.class);
@@ -72,6 +73,16 @@ public class WebappAuthenticatorConfig {
         this.authenticators = authenticators;
     }
 
+    @XmlElement(name = "TokenValidationCache", required = false)
+    public TokenValidationCacheConfig getTokenValidationCacheConfig() {
+        return tokenValidationCacheConfig;
+    }
+
+    @SuppressWarnings("unused")
+    public void setTokenValidationCacheConfig(TokenValidationCacheConfig tokenValidationCacheConfig) {
+        this.tokenValidationCacheConfig = tokenValidationCacheConfig;
+    }
+
     public static void init() throws AuthenticatorFrameworkException {
         try {
             File authConfig = new File(WebappAuthenticatorConfig.AUTHENTICATOR_CONFIG_PATH);
@@ -0,0 +1,146 @@
+/*
+ *   Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.wso2.carbon.webapp.authenticator.framework.cache;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.apimgt.impl.dto.APIKeyValidationInfoDTO;
+import org.wso2.carbon.webapp.authenticator.framework.config.TokenValidationCacheConfig;
+
+public class TokenValidationCacheTest {
+
+    private static final int TENANT_ID = -1234;
+
+    @Test
+    public void testHit() {
+        TokenValidationCache cache = TokenValidationCache.createInstance(new TokenValidationCacheConfig());
+        String key = this.getCacheKey("token-1");
+        cache.put(key, this.getValidationInfo(true), TENANT_ID);
+
+        TokenValidationCacheEntry entry = cache.get(key);
+        Assert.assertNotNull(entry, "Cached validation result is not returned");
+        Assert.assertTrue(entry.getValidationInfo().isAuthorized(), "Cached validation result is not authorized");
+        Assert.assertEquals(entry.getTenantId(), TENANT_ID, "Tenant of the cached validation result does not match");
+        Assert.assertEquals(cache.getHitCount(), 1, "Look up of a cached token is not a hit");
+        Assert.assertEquals(cache.getMissCount(), 0, "Look up of a cached token is a miss");
+    }
+
+    @Test
+    public void testMiss() {
+        TokenValidationCache cache = TokenValidationCache.createInstance(new TokenValidationCacheConfig());
+        cache.put(this.getCacheKey("token-1"), this.getValidationInfo(true), TENANT_ID);
+
+        Assert.assertNull(cache.get(this.getCacheKey("token-2")), "Validation result of another token is returned");
+        Assert.assertNull(cache.get(TokenValidationCache.getCacheKey("/other", "1.0.0", "token-1", "Any",
+                "localhost")), "Validation result of another context is returned");
+        Assert.assertEquals(cache.getMissCount(), 2, "Look up of a token which is not cached is not a miss");
+    }
+
+    @Test
+    public void testExpiryWithTokenValidity() throws InterruptedException {
+        TokenValidationCache cache = TokenValidationCache.createInstance(new TokenValidationCacheConfig());
+        String key = this.getCacheKey("token-1");
+        APIKeyValidationInfoDTO validationInfo = this.getValidationInfo(true);
+        validationInfo.setIssuedTime(System.currentTimeMillis());
+        validationInfo.setValidityPeriod(100);
+        cache.put(key, validationInfo, TENANT_ID);
+        Assert.assertNotNull(cache.get(key), "Validation result of a valid token is not cached");
+
+        Thread.sleep(200);
+        Assert.assertNull(cache.get(key), "Validation result is returned beyond the validity of the token");
+        Assert.assertEquals(cache.getSize(), 0, "Expired validation result is not removed");
+        Assert.assertEquals(cache.getEvictionCount(), 1, "Expired validation result is not counted as evicted");
+    }
+
+    @Test
+    public void testExpiredTokenNotCached() {
+        TokenValidationCache cache = TokenValidationCache.createInstance(new TokenValidationCacheConfig());
+        String key = this.getCacheKey("token-1");
+        APIKeyValidationInfoDTO validationInfo = this.getValidationInfo(true);
+        validationInfo.setIssuedTime(System.currentTimeMillis() - 2000);
+        validationInfo.setValidityPeriod(1000);
+        cache.put(key, validationInfo, TENANT_ID);
+
+        Assert.assertNull(cache.get(key), "Validation result of an expired token is cached");
+    }
+
+    @Test
+    public void testNegativeCachingWithDefaultExpiry() {
+        TokenValidationCache cache = TokenValidationCache.createInstance(new TokenValidationCacheConfig());
+        String key = this.getCacheKey("invalid-token");
+        cache.put(key, this.getValidationInfo(false), TENANT_ID);
+
+        TokenValidationCacheEntry entry = cache.get(key);
+        Assert.assertNotNull(entry, "Failed validation is not cached when the negative expiry time is not " +
+                "configured");
+        Assert.assertFalse(entry.getValidationInfo().isAuthorized(), "Cached failed validation is authorized");
+    }
+
+    @Test
+    public void testNegativeCachingDisabled() {
+        TokenValidationCacheConfig cacheConfig = new TokenValidationCacheConfig();
+        cacheConfig.setNegativeExpiryTime(0L);
+        TokenValidationCache cache = TokenValidationCache.createInstance(cacheConfig);
+        String key = this.getCacheKey("invalid-token");
+        cache.put(key, this.getValidationInfo(false), TENANT_ID);
+        cache.put(this.getCacheKey("token-1"), this.getValidationInfo(true), TENANT_ID);
+
+        Assert.assertNull(cache.get(key), "Failed validation is cached although negative caching is disabled");
+        Assert.assertNotNull(cache.get(this.getCacheKey("token-1")), "Successful validation is not cached");
+    }
+
+    @Test
+    public void testDisabledCache() {
+        TokenValidationCacheConfig cacheConfig = new TokenValidationCacheConfig();
+        cacheConfig.setEnabled(false);
+        TokenValidationCache cache = TokenValidationCache.createInstance(cacheConfig);
+        String key = this.getCacheKey("token-1");
+        cache.put(key, this.getValidationInfo(true), TENANT_ID);
+
+        Assert.assertNull(cache.get(key), "Validation result is returned by a disabled cache");
+        Assert.assertEquals(cache.getSize(), 0, "Validation result is stored in a disabled cache");
+    }
+
+    @Test
+    public void testEviction() {
+        TokenValidationCacheConfig cacheConfig = new TokenValidationCacheConfig();
+        cacheConfig.setMaxEntries(2);
+        TokenValidationCache cache = TokenValidationCache.createInstance(cacheConfig);
+        cache.put(this.getCacheKey("token-1"), this.getValidationInfo(true), TENANT_ID);
+        cache.put(this.getCacheKey("token-2"), this.getValidationInfo(true), TENANT_ID);
+        cache.get(this.getCacheKey("token-1"));
+        cache.put(this.getCacheKey("token-3"), this.getValidationInfo(true), TENANT_ID);
+
+        Assert.assertEquals(cache.getSize(), 2, "Cache grows beyond the configured number of entries");
+        Assert.assertNotNull(cache.get(this.getCacheKey("token-1")), "Recently used entry is evicted");
+        Assert.assertNull(cache.get(this.getCacheKey("token-2")), "Least recently used entry is not evicted");
+    }
+
+    private String getCacheKey(String accessToken) {
+        return TokenValidationCache.getCacheKey("/mdm-admin", "1.0.0", accessToken, "Any", "localhost");
+    }
+
+    private APIKeyValidationInfoDTO getValidationInfo(boolean authorized) {
+        APIKeyValidationInfoDTO validationInfo = new APIKeyValidationInfoDTO();
+        validationInfo.setAuthorized(authorized);
+        validationInfo.setEndUserName("admin");
+        return validationInfo;
+    }
+
+}
@@ -0,0 +1,27 @@
+-- Upgrades an existing H2 database to store the applied policies of devices as references to deduplicated policy
+-- content. New databases are created with these changes by h2.sql, hence the script is run once and only on
+-- databases created before them.
+-- Applied policies recorded before the upgrade keep their POLICY_CONTENT and are still read from it.
+
+ CREATE TABLE IF NOT EXISTS DM_POLICY_CONTENT (
+  ID INT NOT NULL AUTO_INCREMENT ,
+  POLICY_ID INT NOT NULL ,
+  VERSION INT NOT NULL ,
+  CONTENT_HASH VARCHAR(64) NOT NULL ,
+  CONTENT BLOB NOT NULL ,
+  TENANT_ID INT NOT NULL ,
+  CREATED_TIME TIMESTAMP NULL ,
+  PRIMARY KEY (ID) ,
+  CONSTRAINT UK_DM_POLICY_CONTENT_HASH UNIQUE (TENANT_ID, CONTENT_HASH) ,
+  CONSTRAINT UK_DM_POLICY_CONTENT_VERSION UNIQUE (TENANT_ID, POLICY_ID, VERSION) ,
+  CONSTRAINT FK_DM_POLICY_CONTENT_POLICY
+    FOREIGN KEY (POLICY_ID )
+    REFERENCES DM_POLICY (ID )
+    ON DELETE NO ACTION
+    ON UPDATE NO ACTION
+);
+
+ALTER TABLE DM_DEVICE_POLICY_APPLIED ADD COLUMN POLICY_VERSION INT NULL;
+ALTER TABLE DM_DEVICE_POLICY_APPLIED ADD COLUMN CONTENT_HASH VARCHAR(64) NULL;
+
+CREATE INDEX IF NOT EXISTS IDX_DM_DEVICE_POLICY_APPLIED_POLICY ON DM_DEVICE_POLICY_APPLIED (POLICY_ID, TENANT_ID);
@@ -33,3 +33,11 @@ CREATE  TABLE IF NOT EXISTS `DM_DEVICE` (
     ON UPDATE NO ACTION)
 ENGINE = InnoDB
 DEFAULT CHARACTER SET = latin1;
+
+
+-- -----------------------------------------------------
+-- Secondary indexes backing the device lookups
+-- -----------------------------------------------------
+CREATE INDEX `IDX_DM_DEVICE_TYPE_NAME` ON `DM_DEVICE_TYPE` (`NAME` ASC);
+CREATE INDEX `IDX_DM_DEVICE_IDENTIFICATION` ON `DM_DEVICE` (`DEVICE_IDENTIFICATION` ASC, `TENANT_ID` ASC);
+CREATE INDEX `IDX_DM_DEVICE_TENANT_TYPE` ON `DM_DEVICE` (`TENANT_ID` ASC, `DEVICE_TYPE_ID` ASC);